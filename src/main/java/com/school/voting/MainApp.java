@@ -4,9 +4,16 @@
 package com.school.voting;
 
 import com.school.voting.dao.DatabaseManager;
+import com.school.voting.dao.StorageProfile;
+import com.school.voting.util.AsyncDataAccess;
 import com.school.voting.util.DatabaseInitializer;
+import com.school.voting.util.MaintenanceJobs;
+import com.school.voting.util.SessionManager;
+import com.school.voting.util.TaskKind;
+import com.school.voting.util.TaskRuntime;
 import com.school.voting.view.ViewFactory;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.stage.Stage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,19 +26,39 @@ public class MainApp extends Application {
         logger.info("Starting School Voting System");
         
         try {
+            // Select storage profile, e.g. --storage-profile=balanced
+            String profileName = getParameters().getNamed().get("storage-profile");
+            if (profileName != null) {
+                DatabaseManager.configure(StorageProfile.fromName(profileName));
+            }
+            
             // Initialize database
             DatabaseManager.getInstance();
             
+            // Recount vote tallies from the ballots, e.g. --rebuild-tallies after manual edits
+            TaskRuntime tasks = TaskRuntime.getInstance();
+            if (getParameters().getUnnamed().contains("--rebuild-tallies")) {
+                tasks.submit(TaskKind.RECOUNT, "Recount all tallies", new MaintenanceJobs()::recountTallies);
+            }
+            // Independent recount before certifying results, e.g. --audit-votes; changes nothing
+            if (getParameters().getUnnamed().contains("--audit-votes")) {
+                tasks.submit(TaskKind.AUDIT, "Audit all votes", new MaintenanceJobs()::auditVotes);
+            }
+            
+            // Set up view factory; the admin view is shown once any sample data is in place
+            ViewFactory viewFactory = new ViewFactory(primaryStage);
+            
             // Initialize sample data if database is empty
             DatabaseInitializer initializer = new DatabaseInitializer();
             if (initializer.shouldInitialize()) {
-                initializer.initializeSampleData();
+                tasks.submit(TaskKind.IMPORT, "Import sample data", context -> {
+                    initializer.initializeSampleData(context);
+                    return null;
+                }).completion().whenComplete((ignored, failure) -> Platform.runLater(viewFactory::showAdminView));
+            } else {
+                viewFactory.showAdminView();
             }
             
-            // Set up view factory and show admin view
-            ViewFactory viewFactory = new ViewFactory(primaryStage);
-            viewFactory.showAdminView();
-            
             primaryStage.setMinWidth(800);
             primaryStage.setMinHeight(600);
             
@@ -44,6 +71,9 @@ public class MainApp extends Application {
     @Override
     public void stop() {
         logger.info("Shutting down School Voting System");
+        TaskRuntime.getInstance().shutdown();
+        SessionManager.getInstance().shutdown();
+        AsyncDataAccess.getInstance().shutdown();
         DatabaseManager.getInstance().closeConnection();
     }
     
@@ -1,14 +1,18 @@
 // ABOUTME: Controller for the admin interface handling parent management and session setup
-// ABOUTME: Manages parent addition, candidate selection, and voting session initialization
+// ABOUTME: Manages parent addition, candidate selection, and voting session initialization via roster events
 
 package com.school.voting.controller;
 
 import com.school.voting.dao.ParentDAO;
+import com.school.voting.event.CandidateToggled;
+import com.school.voting.event.ParentAdded;
+import com.school.voting.event.ParentRemoved;
+import com.school.voting.event.SessionEvent;
+import com.school.voting.event.SessionStatusChanged;
 import com.school.voting.model.Parent;
 import com.school.voting.model.VotingSession;
 import com.school.voting.util.SessionManager;
 import com.school.voting.view.ViewFactory;
-import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.geometry.Insets;
@@ -16,22 +20,24 @@ import javafx.scene.control.*;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
+import javafx.util.StringConverter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.URL;
-import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
 
-public class AdminController implements Initializable {
+public class AdminController extends BaseController implements Initializable {
     private static final Logger logger = LoggerFactory.getLogger(AdminController.class);
     
     @FXML private TextField classNameField;
+    @FXML private ComboBox<VotingSession.TallyMethod> tallyMethodSelector;
     @FXML private Button createSessionBtn;
     @FXML private Button resetSessionBtn;
+    @FXML private ComboBox<VotingSession> sessionSelector;
     @FXML private Label sessionInfoLabel;
     
     @FXML private TextField parentNameField;
@@ -46,17 +52,82 @@ public class AdminController implements Initializable {
     @FXML private Button continueVotingBtn;
     @FXML private Button viewResultsBtn;
     @FXML private Label statusLabel;
+    @FXML private ProgressIndicator loadingIndicator;
     
     private final SessionManager sessionManager = SessionManager.getInstance();
     private final ParentDAO parentDAO = new ParentDAO();
     private final Map<Integer, CheckBox> candidateCheckBoxes = new HashMap<>();
+    private final Map<Integer, HBox> parentRows = new HashMap<>();
     
     private ViewFactory viewFactory;
     
     @Override
     public void initialize(URL location, ResourceBundle resources) {
+        setLoadingIndicator(loadingIndicator);
+        setupSessionSelector();
+        setupTallyMethodSelector();
         updateUI();
         checkExistingSession();
+        
+        // Roster changes arrive as deltas, batched per UI pulse
+        track(sessionManager.getEventBus().subscribeOnFx(SessionEvent.class, this::applyRosterEvents));
+        // Sessions opened, started or finished elsewhere show up in the selector
+        track(sessionManager.getEventBus().subscribeOnFx(SessionStatusChanged.class,
+            events -> refreshSessionSelector()));
+    }
+    
+    private void setupTallyMethodSelector() {
+        tallyMethodSelector.getItems().setAll(VotingSession.TallyMethod.values());
+        tallyMethodSelector.setValue(VotingSession.TallyMethod.PLURALITY);
+        tallyMethodSelector.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(VotingSession.TallyMethod method) {
+                return method == null ? "" : method.getDisplayName();
+            }
+            
+            @Override
+            public VotingSession.TallyMethod fromString(String text) {
+                return null;
+            }
+        });
+    }
+    
+    private void setupSessionSelector() {
+        sessionSelector.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(VotingSession session) {
+                return session == null ? "" : session.getClassName() + " (" + session.getStatus().getDisplayName() + ")";
+            }
+            
+            @Override
+            public VotingSession fromString(String text) {
+                return null;
+            }
+        });
+        refreshSessionSelector();
+        
+        sessionSelector.setOnAction(e -> {
+            VotingSession selected = sessionSelector.getValue();
+            VotingSession current = sessionManager.getCurrentSession();
+            if (selected == null || (current != null && current.getId() == selected.getId())) {
+                return;
+            }
+            sessionManager.selectSession(selected.getId());
+            if (viewFactory != null) {
+                viewFactory.showAdminView();
+            }
+        });
+    }
+    
+    private void refreshSessionSelector() {
+        List<VotingSession> open = sessionManager.getActiveSessions();
+        VotingSession current = sessionManager.getCurrentSession();
+        sessionSelector.getItems().setAll(open);
+        sessionSelector.setValue(current == null ? null : open.stream()
+                .filter(session -> session.getId() == current.getId())
+                .findFirst()
+                .orElse(null));
+        sessionSelector.setDisable(open.isEmpty());
     }
     
     public void setViewFactory(ViewFactory viewFactory) {
@@ -66,30 +137,29 @@ public class AdminController implements Initializable {
     private void checkExistingSession() {
         if (sessionManager.hasActiveSession()) {
             VotingSession session = sessionManager.getCurrentSession();
-            classNameField.setText(session.getClassName());
-            classNameField.setDisable(true);
-            createSessionBtn.setDisable(true);
             resetSessionBtn.setVisible(true);
             
             switch (session.getStatus()) {
                 case SETUP:
-                    loadParents();
-                    statusLabel.setText("Session in setup phase - add parents and select candidates");
+                    loadParents(() ->
+                        statusLabel.setText("Session in setup phase - add parents and select candidates"));
                     break;
                     
                 case VOTING:
-                    loadParents();
-                    disableParentManagement();
-                    disableCandidateManagement();
+                    loadParents(() -> {
+                        disableParentManagement();
+                        disableCandidateManagement();
+                    });
                     startVotingBtn.setVisible(false);
                     continueVotingBtn.setVisible(true);
                     statusLabel.setText("Voting is in progress - continue voting or reset session");
                     break;
                     
                 case COMPLETED:
-                    loadParents();
-                    disableParentManagement();
-                    disableCandidateManagement();
+                    loadParents(() -> {
+                        disableParentManagement();
+                        disableCandidateManagement();
+                    });
                     startVotingBtn.setVisible(false);
                     viewResultsBtn.setVisible(true);
                     statusLabel.setText("Voting completed - view results or start new session");
@@ -106,16 +176,26 @@ public class AdminController implements Initializable {
             return;
         }
         
-        try {
-            sessionManager.createNewSession(className);
-            classNameField.setDisable(true);
-            createSessionBtn.setDisable(true);
-            updateUI();
+        VotingSession.TallyMethod tallyMethod = tallyMethodSelector.getValue();
+        createSessionBtn.setDisable(true);
+        statusLabel.setText("Creating session...");
+        supplyAsync(() -> sessionManager.createNewSession(className, tallyMethod), session -> {
+            createSessionBtn.setDisable(false);
+            classNameField.clear();
             showAlert(Alert.AlertType.INFORMATION, "Success", "Session created for class: " + className);
-        } catch (Exception e) {
-            logger.error("Failed to create session", e);
-            showAlert(Alert.AlertType.ERROR, "Error", "Failed to create session: " + e.getMessage());
-        }
+            
+            // The new session is now selected; other open sessions stay in the selector
+            if (viewFactory != null) {
+                viewFactory.showAdminView();
+            } else {
+                resetUI();
+                updateUI();
+                refreshSessionSelector();
+            }
+        }, failure -> {
+            createSessionBtn.setDisable(false);
+            showFailure("Failed to create session", failure);
+        });
     }
     
     @FXML
@@ -130,35 +210,29 @@ public class AdminController implements Initializable {
             return;
         }
         
-        try {
-            Parent parent = Parent.builder()
-                    .name(parentName)
-                    .sessionId(sessionManager.getCurrentSession().getId())
-                    .build();
-            
-            parent = parentDAO.insertParent(parent);
-            parentNameField.clear();
-            loadParents();
-            
-            Platform.runLater(() -> parentNameField.requestFocus());
-        } catch (Exception e) {
-            logger.error("Failed to add parent", e);
-            showAlert(Alert.AlertType.ERROR, "Error", "Failed to add parent: " + e.getMessage());
-        }
+        // The row itself arrives as a ParentAdded event
+        parentNameField.clear();
+        supplyAsync(() -> sessionManager.addParent(parentName),
+            parent -> parentNameField.requestFocus(),
+            failure -> {
+                parentNameField.setText(parentName);
+                showFailure("Failed to add parent", failure);
+            });
     }
     
-    private void loadParents() {
+    private void loadParents(Runnable afterLoad) {
         if (!sessionManager.hasActiveSession()) {
             return;
         }
         
-        try {
-            List<Parent> parents = parentDAO.getParentsBySession(sessionManager.getCurrentSession().getId());
-            
+        statusLabel.setText("Loading parents...");
+        int sessionId = sessionManager.getCurrentSession().getId();
+        supplyAsync(() -> parentDAO.getParentsBySession(sessionId), parents -> {
             // Update parents list
             parentsListContainer.getChildren().clear();
             candidatesListContainer.getChildren().clear();
             candidateCheckBoxes.clear();
+            parentRows.clear();
             
             for (Parent parent : parents) {
                 // Add to parents list
@@ -170,11 +244,43 @@ public class AdminController implements Initializable {
             
             updateCounts();
             updateStartButton();
-            
-        } catch (SQLException e) {
-            logger.error("Failed to load parents", e);
-            showAlert(Alert.AlertType.ERROR, "Error", "Failed to load parents: " + e.getMessage());
+            afterLoad.run();
+        }, failure -> {
+            statusLabel.setText("Parents could not be loaded");
+            showFailure("Failed to load parents", failure);
+        });
+    }
+    
+    private void applyRosterEvents(List<SessionEvent> events) {
+        VotingSession session = sessionManager.getCurrentSession();
+        if (session == null) {
+            return;
         }
+        
+        for (SessionEvent event : events) {
+            if (event.getSessionId() != session.getId()) {
+                continue;
+            }
+            if (event instanceof ParentAdded added) {
+                // A roster load that finished after the insert already shows this parent
+                if (parentRows.containsKey(added.getParent().getId())) {
+                    continue;
+                }
+                addParentToList(added.getParent());
+                addCandidateCheckbox(added.getParent());
+            } else if (event instanceof ParentRemoved removed) {
+                parentsListContainer.getChildren().remove(parentRows.remove(removed.getParentId()));
+                candidatesListContainer.getChildren().remove(candidateCheckBoxes.remove(removed.getParentId()));
+            } else if (event instanceof CandidateToggled toggled) {
+                CheckBox checkBox = candidateCheckBoxes.get(toggled.getParentId());
+                if (checkBox != null) {
+                    checkBox.setSelected(toggled.isCandidate());
+                }
+            }
+        }
+        
+        updateCounts();
+        updateStartButton();
     }
     
     private void addParentToList(Parent parent) {
@@ -192,6 +298,7 @@ public class AdminController implements Initializable {
         
         parentBox.getChildren().addAll(nameLabel, deleteBtn);
         parentsListContainer.getChildren().add(parentBox);
+        parentRows.put(parent.getId(), parentBox);
     }
     
     private void addCandidateCheckbox(Parent parent) {
@@ -217,40 +324,37 @@ public class AdminController implements Initializable {
         
         confirm.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                try {
-                    parentDAO.deleteParent(parent.getId());
-                    loadParents();
-                } catch (SQLException e) {
-                    logger.error("Failed to delete parent", e);
-                    showAlert(Alert.AlertType.ERROR, "Error", "Failed to delete parent");
-                }
+                runAsync(() -> sessionManager.removeParent(parent.getId()), () -> { },
+                    failure -> showFailure("Failed to delete parent", failure));
             }
         });
     }
     
     private void handleCandidateToggle(Parent parent, boolean isCandidate) {
-        try {
-            parentDAO.markAsCandidate(parent.getId(), isCandidate);
+        runAsync(() -> sessionManager.setCandidate(parent.getId(), isCandidate), () -> { }, failure -> {
+            // Put the box back the way the database still has it
+            CheckBox checkBox = candidateCheckBoxes.get(parent.getId());
+            if (checkBox != null) {
+                checkBox.setSelected(!isCandidate);
+            }
             updateCounts();
             updateStartButton();
-        } catch (SQLException e) {
-            logger.error("Failed to update candidate status", e);
-            showAlert(Alert.AlertType.ERROR, "Error", "Failed to update candidate status");
-        }
+            showFailure("Failed to update candidate status", failure);
+        });
     }
     
     @FXML
     private void handleStartVoting() {
-        try {
-            sessionManager.startVoting();
-            
+        startVotingBtn.setDisable(true);
+        statusLabel.setText("Starting voting...");
+        runAsync(sessionManager::startVoting, () -> {
             if (viewFactory != null) {
                 viewFactory.showVotingView();
             }
-        } catch (Exception e) {
-            logger.error("Failed to start voting", e);
-            showAlert(Alert.AlertType.ERROR, "Error", "Failed to start voting: " + e.getMessage());
-        }
+        }, failure -> {
+            updateStartButton();
+            showFailure("Failed to start voting", failure);
+        });
     }
     
     private void updateUI() {
@@ -260,7 +364,8 @@ public class AdminController implements Initializable {
         
         if (hasSession) {
             VotingSession session = sessionManager.getCurrentSession();
-            sessionInfoLabel.setText("Session: " + session.getClassName() + " - " + session.getStatus().getDisplayName());
+            sessionInfoLabel.setText("Session: " + session.getClassName() + " - " + session.getStatus().getDisplayName()
+                    + " - " + session.getTallyMethod().getDisplayName());
         } else {
             sessionInfoLabel.setText("No active session");
         }
@@ -303,14 +408,16 @@ public class AdminController implements Initializable {
         
         confirm.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                try {
-                    sessionManager.resetSession();
+                resetSessionBtn.setDisable(true);
+                runAsync(sessionManager::resetSession, () -> {
+                    resetSessionBtn.setDisable(false);
                     resetUI();
+                    refreshSessionSelector();
                     showAlert(Alert.AlertType.INFORMATION, "Success", "Session has been reset");
-                } catch (Exception e) {
-                    logger.error("Failed to reset session", e);
-                    showAlert(Alert.AlertType.ERROR, "Error", "Failed to reset session: " + e.getMessage());
-                }
+                }, failure -> {
+                    resetSessionBtn.setDisable(false);
+                    showFailure("Failed to reset session", failure);
+                });
             }
         });
     }
@@ -329,6 +436,27 @@ public class AdminController implements Initializable {
         }
     }
     
+    @FXML
+    private void handleShowHistory() {
+        if (viewFactory != null) {
+            viewFactory.showHistoryView();
+        }
+    }
+    
+    @FXML
+    private void handleShowAnalytics() {
+        if (viewFactory != null) {
+            viewFactory.showAnalyticsView();
+        }
+    }
+    
+    @FXML
+    private void handleShowTasks() {
+        if (viewFactory != null) {
+            viewFactory.showTaskMonitor();
+        }
+    }
+    
     private void disableParentManagement() {
         parentNameField.setDisable(true);
         addParentBtn.setDisable(true);
@@ -369,12 +497,18 @@ public class AdminController implements Initializable {
         parentsListContainer.getChildren().clear();
         candidatesListContainer.getChildren().clear();
         candidateCheckBoxes.clear();
+        parentRows.clear();
         
         // Reset labels
         sessionInfoLabel.setText("No active session");
         parentCountLabel.setText("Parents: 0");
         candidateCountLabel.setText("Selected Candidates: 0");
-        statusLabel.setText("Create a new session to start");
+        statusLabel.setText("Create a new session or select an open one");
+    }
+    
+    private void showFailure(String message, Throwable failure) {
+        logger.error(message, failure);
+        showAlert(Alert.AlertType.ERROR, "Error", message + ": " + failure.getMessage());
     }
     
     private void showAlert(Alert.AlertType type, String title, String content) {
@@ -0,0 +1,135 @@
+// ABOUTME: Controller for the analytics dashboard showing participation trends across school years
+// ABOUTME: Charts turnout and skips per year and lists each class's figures, all read from the rollup tables
+
+package com.school.voting.controller;
+
+import com.school.voting.dao.AnalyticsDAO;
+import com.school.voting.model.ParticipationTrend;
+import com.school.voting.view.ViewFactory;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URL;
+import java.text.DecimalFormat;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.ResourceBundle;
+
+public class AnalyticsController extends BaseController implements Initializable {
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsController.class);
+    private static final int YEARS_SHOWN = 10;
+
+    // Both lists come from the same rollups in one round trip
+    private static final class Trends {
+        private final List<ParticipationTrend> yearly;
+        private final List<ParticipationTrend> byClass;
+
+        private Trends(List<ParticipationTrend> yearly, List<ParticipationTrend> byClass) {
+            this.yearly = yearly;
+            this.byClass = byClass;
+        }
+    }
+
+    @FXML private LineChart<String, Number> trendChart;
+    @FXML private TableView<ParticipationTrend> classTable;
+    @FXML private TableColumn<ParticipationTrend, String> yearColumn;
+    @FXML private TableColumn<ParticipationTrend, String> classColumn;
+    @FXML private TableColumn<ParticipationTrend, String> parentsColumn;
+    @FXML private TableColumn<ParticipationTrend, String> candidatesColumn;
+    @FXML private TableColumn<ParticipationTrend, String> turnoutColumn;
+    @FXML private TableColumn<ParticipationTrend, String> skippedColumn;
+    @FXML private TableColumn<ParticipationTrend, String> durationColumn;
+    @FXML private Label summaryLabel;
+    @FXML private ProgressIndicator loadingIndicator;
+
+    private final AnalyticsDAO analyticsDAO = new AnalyticsDAO();
+
+    private ViewFactory viewFactory;
+    private DecimalFormat percentFormat = new DecimalFormat("#.#");
+
+    @Override
+    public void initialize(URL location, ResourceBundle resources) {
+        setLoadingIndicator(loadingIndicator);
+        setupTableColumns();
+        loadTrends();
+    }
+
+    public void setViewFactory(ViewFactory viewFactory) {
+        this.viewFactory = viewFactory;
+    }
+
+    private void setupTableColumns() {
+        yearColumn.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getSchoolYearLabel()));
+        classColumn.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getClassName()));
+        parentsColumn.setCellValueFactory(data -> new SimpleStringProperty(
+                String.valueOf(data.getValue().getTotalParents())));
+        candidatesColumn.setCellValueFactory(data -> new SimpleStringProperty(
+                percentFormat.format(data.getValue().getAverageCandidates())));
+        turnoutColumn.setCellValueFactory(data -> new SimpleStringProperty(
+                percentFormat.format(data.getValue().getTurnoutPercentage()) + "%"));
+        skippedColumn.setCellValueFactory(data -> new SimpleStringProperty(
+                data.getValue().getSkipped() + " (" + percentFormat.format(data.getValue().getSkipPercentage()) + "%)"));
+        durationColumn.setCellValueFactory(data -> new SimpleStringProperty(
+                formatDuration(data.getValue().getAverageDuration())));
+        classTable.setPlaceholder(new Label("No completed sessions yet"));
+    }
+
+    private void loadTrends() {
+        int fromSchoolYear = ParticipationTrend.schoolYearOf(LocalDate.now()) - (YEARS_SHOWN - 1);
+        supplyAsync(() -> new Trends(analyticsDAO.getYearlyTrends(fromSchoolYear),
+                        analyticsDAO.getClassTrends(fromSchoolYear)),
+            this::showTrends,
+            failure -> {
+                logger.error("Failed to load participation trends", failure);
+                summaryLabel.setText("Trends unavailable");
+                showAlert(Alert.AlertType.ERROR, "Database Error",
+                        "Failed to load participation trends: " + failure.getMessage());
+            });
+    }
+
+    private void showTrends(Trends trends) {
+        XYChart.Series<String, Number> turnout = new XYChart.Series<>();
+        turnout.setName("Turnout %");
+        XYChart.Series<String, Number> skips = new XYChart.Series<>();
+        skips.setName("Skipped %");
+        for (ParticipationTrend year : trends.yearly) {
+            turnout.getData().add(new XYChart.Data<>(year.getSchoolYearLabel(), year.getTurnoutPercentage()));
+            skips.getData().add(new XYChart.Data<>(year.getSchoolYearLabel(), year.getSkipPercentage()));
+        }
+        trendChart.getData().setAll(List.of(turnout, skips));
+        classTable.setItems(FXCollections.observableArrayList(trends.byClass));
+
+        int sessions = trends.yearly.stream().mapToInt(ParticipationTrend::getSessions).sum();
+        summaryLabel.setText(sessions + " completed sessions in the last " + YEARS_SHOWN + " school years");
+    }
+
+    private static String formatDuration(Duration duration) {
+        if (duration.toHours() > 0) {
+            return duration.toHours() + " h " + duration.toMinutesPart() + " min";
+        }
+        return duration.toMinutes() + " min";
+    }
+
+    @FXML
+    private void handleBack() {
+        if (viewFactory != null) {
+            viewFactory.showAdminView();
+        }
+    }
+
+    private void showAlert(Alert.AlertType type, String title, String content) {
+        Alert alert = new Alert(type);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(content);
+        alert.showAndWait();
+    }
+}
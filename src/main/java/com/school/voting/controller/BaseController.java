@@ -1,8 +1,105 @@
 // ABOUTME: Base controller class for common controller functionality
-// ABOUTME: Placeholder for future controller implementations
+// ABOUTME: Runs data access off the FX thread and releases subscriptions and pending work when a view is replaced
 
 package com.school.voting.controller;
 
+import com.school.voting.event.Subscription;
+import com.school.voting.util.AsyncDataAccess;
+import javafx.application.Platform;
+import javafx.scene.control.ProgressIndicator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
 public abstract class BaseController {
-    // Placeholder for common controller functionality
-}
\ No newline at end of file
+    private final List<Subscription> subscriptions = new ArrayList<>();
+    private final Set<CompletableFuture<?>> pendingWork = ConcurrentHashMap.newKeySet();
+    private final AsyncDataAccess dataAccess = AsyncDataAccess.getInstance();
+
+    private ProgressIndicator loadingIndicator;
+    private int runningWork;
+    private volatile boolean disposed;
+
+    protected void track(Subscription subscription) {
+        subscriptions.add(subscription);
+    }
+
+    // Shown while any work started through supplyAsync or runAsync is still running
+    protected void setLoadingIndicator(ProgressIndicator loadingIndicator) {
+        this.loadingIndicator = loadingIndicator;
+        loadingIndicator.setVisible(runningWork > 0);
+    }
+
+    /**
+     * Runs the work on a data-access thread and hands its result or failure to the callbacks
+     * on the JavaFX thread. Nothing is delivered once the view has been disposed.
+     */
+    protected <T> CompletableFuture<T> supplyAsync(AsyncDataAccess.DataWork<T> work,
+                                                   Consumer<? super T> onSuccess,
+                                                   Consumer<? super Throwable> onFailure) {
+        CompletableFuture<T> future = dataAccess.supply(work);
+        pendingWork.add(future);
+        deliver(future, onSuccess, onFailure);
+        return future;
+    }
+
+    /**
+     * Hands the outcome of work this view does not own, such as a background task, to the
+     * callbacks on the JavaFX thread. Disposing the view stops delivery but not the work.
+     */
+    protected <T> void observe(CompletableFuture<T> future,
+                               Consumer<? super T> onSuccess,
+                               Consumer<? super Throwable> onFailure) {
+        deliver(future, onSuccess, onFailure);
+    }
+
+    private <T> void deliver(CompletableFuture<T> future,
+                             Consumer<? super T> onSuccess,
+                             Consumer<? super Throwable> onFailure) {
+        updateLoading(1);
+        future.whenComplete((result, failure) -> {
+            pendingWork.remove(future);
+            Platform.runLater(() -> {
+                updateLoading(-1);
+                if (disposed || future.isCancelled()) {
+                    return;
+                }
+                if (failure == null) {
+                    onSuccess.accept(result);
+                } else {
+                    onFailure.accept(AsyncDataAccess.unwrap(failure));
+                }
+            });
+        });
+    }
+
+    protected CompletableFuture<Void> runAsync(AsyncDataAccess.DataAction action,
+                                               Runnable onSuccess,
+                                               Consumer<? super Throwable> onFailure) {
+        return supplyAsync(() -> {
+            action.run();
+            return null;
+        }, ignored -> onSuccess.run(), onFailure);
+    }
+
+    private void updateLoading(int delta) {
+        runningWork += delta;
+        if (loadingIndicator != null) {
+            loadingIndicator.setVisible(runningWork > 0);
+        }
+    }
+
+    // Called by ViewFactory when the view is replaced; stops all event delivery to this controller
+    public void dispose() {
+        disposed = true;
+        // Work that has not started yet is dropped; running work finishes but is not delivered
+        pendingWork.forEach(future -> future.cancel(false));
+        pendingWork.clear();
+        subscriptions.forEach(Subscription::close);
+        subscriptions.clear();
+    }
+}
@@ -0,0 +1,203 @@
+// ABOUTME: Controller for the history view listing completed sessions newest first
+// ABOUTME: Fetches sessions a page at a time as the table scrolls, loads summaries for rows shown and exports them all
+
+package com.school.voting.controller;
+
+import com.school.voting.dao.ParentDAO;
+import com.school.voting.dao.SessionResultsDAO;
+import com.school.voting.dao.VotingSessionDAO;
+import com.school.voting.model.CandidateResult;
+import com.school.voting.model.ResultsSnapshot;
+import com.school.voting.model.VotingSession;
+import com.school.voting.util.ArchiveExportService;
+import com.school.voting.util.BackgroundTask;
+import com.school.voting.util.SessionHistory;
+import com.school.voting.util.TaskKind;
+import com.school.voting.util.TaskRuntime;
+import com.school.voting.view.ViewFactory;
+import javafx.application.Platform;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URL;
+import java.nio.file.Path;
+import java.text.DecimalFormat;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.function.Function;
+
+public class HistoryController extends BaseController implements Initializable {
+    private static final Logger logger = LoggerFactory.getLogger(HistoryController.class);
+    private static final int PAGE_SIZE = 50;
+    private static final int SUMMARY_CACHE_SIZE = 200;
+    private static final DateTimeFormatter COMPLETED_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final String PENDING_TEXT = "...";
+
+    @FXML private TableView<VotingSession> historyTable;
+    @FXML private TableColumn<VotingSession, String> classColumn;
+    @FXML private TableColumn<VotingSession, String> completedColumn;
+    @FXML private TableColumn<VotingSession, String> winnerColumn;
+    @FXML private TableColumn<VotingSession, String> votesColumn;
+    @FXML private TableColumn<VotingSession, String> turnoutColumn;
+    @FXML private Label historyCountLabel;
+    @FXML private Button exportAllBtn;
+    @FXML private ProgressIndicator loadingIndicator;
+
+    private final SessionHistory history = new SessionHistory(new VotingSessionDAO(), new SessionResultsDAO(),
+            new ParentDAO(), PAGE_SIZE, SUMMARY_CACHE_SIZE);
+    private final ArchiveExportService archiveExportService = new ArchiveExportService();
+    private final ObservableList<VotingSession> sessions = FXCollections.observableArrayList();
+    // Summaries asked for by visible rows, loaded together once per UI pulse
+    private final Set<Integer> requestedSummaries = new LinkedHashSet<>();
+    private final Set<Integer> loadingSummaries = new HashSet<>();
+
+    private ViewFactory viewFactory;
+    private DecimalFormat percentFormat = new DecimalFormat("#.#");
+    private boolean loadingPage;
+
+    @Override
+    public void initialize(URL location, ResourceBundle resources) {
+        setLoadingIndicator(loadingIndicator);
+        setupTable();
+        loadNextPage();
+    }
+
+    public void setViewFactory(ViewFactory viewFactory) {
+        this.viewFactory = viewFactory;
+    }
+
+    private void setupTable() {
+        classColumn.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getClassName()));
+        completedColumn.setCellValueFactory(data -> new SimpleStringProperty(
+                data.getValue().getCompletedAt() != null
+                        ? data.getValue().getCompletedAt().format(COMPLETED_FORMAT) : ""));
+        winnerColumn.setCellValueFactory(data -> summaryValue(data.getValue(), results -> results.getWinner()
+                .map(CandidateResult::getName)
+                .map(name -> results.isWinnerTied() ? name + " (tie)" : name)
+                .orElse("No candidates")));
+        votesColumn.setCellValueFactory(data -> summaryValue(data.getValue(),
+                results -> String.valueOf(results.getTotalVotes())));
+        turnoutColumn.setCellValueFactory(data -> summaryValue(data.getValue(),
+                results -> percentFormat.format(results.getTurnoutPercentage()) + "%"));
+
+        votesColumn.setStyle("-fx-alignment: CENTER;");
+        turnoutColumn.setStyle("-fx-alignment: CENTER;");
+
+        // Rows are only created for what is on screen; reaching the last one fetches the next page
+        historyTable.setRowFactory(table -> new TableRow<>() {
+            @Override
+            protected void updateItem(VotingSession session, boolean empty) {
+                super.updateItem(session, empty);
+                if (!empty && getIndex() == sessions.size() - 1) {
+                    loadNextPage();
+                }
+            }
+        });
+        historyTable.setPlaceholder(new Label("No completed sessions yet"));
+        historyTable.setItems(sessions);
+    }
+
+    private void loadNextPage() {
+        if (loadingPage || !history.hasMore()) {
+            return;
+        }
+        loadingPage = true;
+        supplyAsync(history::nextPage,
+            page -> {
+                loadingPage = false;
+                sessions.addAll(page);
+                updateCountLabel();
+            },
+            failure -> {
+                loadingPage = false;
+                logger.error("Failed to load session history", failure);
+                showAlert(Alert.AlertType.ERROR, "Database Error",
+                        "Failed to load past sessions: " + failure.getMessage());
+            });
+    }
+
+    private ObservableValue<String> summaryValue(VotingSession session,
+                                                 Function<ResultsSnapshot, String> format) {
+        Optional<ResultsSnapshot> summary = history.getCachedSummary(session.getId());
+        if (summary.isPresent()) {
+            return new SimpleStringProperty(format.apply(summary.get()));
+        }
+        requestSummary(session.getId());
+        return new SimpleStringProperty(PENDING_TEXT);
+    }
+
+    private void requestSummary(int sessionId) {
+        if (!loadingSummaries.add(sessionId)) {
+            return;
+        }
+        if (requestedSummaries.isEmpty()) {
+            Platform.runLater(this::loadRequestedSummaries);
+        }
+        requestedSummaries.add(sessionId);
+    }
+
+    private void loadRequestedSummaries() {
+        List<Integer> sessionIds = new ArrayList<>(requestedSummaries);
+        requestedSummaries.clear();
+        supplyAsync(() -> history.getSummaries(sessionIds),
+            loaded -> {
+                sessionIds.forEach(loadingSummaries::remove);
+                // Visible cells ask again and now find the summaries cached
+                historyTable.refresh();
+            },
+            failure -> {
+                sessionIds.forEach(loadingSummaries::remove);
+                logger.error("Failed to load session summaries", failure);
+            });
+    }
+
+    private void updateCountLabel() {
+        historyCountLabel.setText(sessions.size() + (history.hasMore() ? "+" : "") + " completed sessions");
+    }
+
+    @FXML
+    private void handleExportAll() {
+        exportAllBtn.setDisable(true);
+        
+        // Saved next to single exports; runs on as a background task if this view is left
+        BackgroundTask<Path> export = TaskRuntime.getInstance().submit(TaskKind.EXPORT,
+                "Export all completed sessions",
+                context -> archiveExportService.exportCompletedSessions(Path.of("").toAbsolutePath(), context));
+        observe(export.completion(), archive -> {
+            exportAllBtn.setDisable(false);
+            showAlert(Alert.AlertType.INFORMATION, "Export Successful",
+                    "All completed sessions were saved to:\n" + archive);
+        }, failure -> {
+            exportAllBtn.setDisable(false);
+            if (failure instanceof CancellationException) {
+                return;
+            }
+            logger.error("Failed to export completed sessions", failure);
+            showAlert(Alert.AlertType.ERROR, "Export Error",
+                    "Failed to export completed sessions: " + failure.getMessage());
+        });
+    }
+
+    @FXML
+    private void handleBack() {
+        if (viewFactory != null) {
+            viewFactory.showAdminView();
+        }
+    }
+
+    private void showAlert(Alert.AlertType type, String title, String content) {
+        Alert alert = new Alert(type);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(content);
+        alert.showAndWait();
+    }
+}
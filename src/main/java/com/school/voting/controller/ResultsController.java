@@ -1,31 +1,35 @@
 // ABOUTME: Controller for the results view displaying voting outcomes and statistics
-// ABOUTME: Shows winner, deputy, complete results table, and voting statistics
+// ABOUTME: Shows winner, deputy, complete results table, and voting statistics; exports them as PDF or data files
 
 package com.school.voting.controller;
 
-import com.school.voting.dao.ParentDAO;
-import com.school.voting.dao.VoteDAO;
-import com.school.voting.model.Parent;
+import com.school.voting.model.CandidateResult;
+import com.school.voting.model.ResultsSnapshot;
 import com.school.voting.model.VotingSession;
+import com.school.voting.util.BackgroundTask;
+import com.school.voting.util.DataExportService;
+import com.school.voting.util.ExportFormat;
 import com.school.voting.util.PdfExportService;
 import com.school.voting.util.SessionManager;
+import com.school.voting.util.TaskKind;
+import com.school.voting.util.TaskRuntime;
 import com.school.voting.view.ViewFactory;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.net.URL;
-import java.sql.SQLException;
+import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CancellationException;
 
-public class ResultsController implements Initializable {
+public class ResultsController extends BaseController implements Initializable {
     private static final Logger logger = LoggerFactory.getLogger(ResultsController.class);
     
     @FXML private Label sessionInfoLabel;
@@ -33,26 +37,30 @@ public class ResultsController implements Initializable {
     @FXML private Label winnerVotesLabel;
     @FXML private Label deputyNameLabel;
     @FXML private Label deputyVotesLabel;
-    @FXML private TableView<ResultRow> resultsTable;
-    @FXML private TableColumn<ResultRow, String> candidateColumn;
-    @FXML private TableColumn<ResultRow, String> votesColumn;
-    @FXML private TableColumn<ResultRow, String> percentageColumn;
+    @FXML private TableView<CandidateResult> resultsTable;
+    @FXML private TableColumn<CandidateResult, String> candidateColumn;
+    @FXML private TableColumn<CandidateResult, String> votesColumn;
+    @FXML private TableColumn<CandidateResult, String> percentageColumn;
     @FXML private Label totalVotesLabel;
     @FXML private Label totalParentsLabel;
     @FXML private Label turnoutLabel;
     @FXML private Button newSessionBtn;
     @FXML private Button exportResultsBtn;
+    @FXML private Button exportDataBtn;
+    @FXML private ProgressIndicator loadingIndicator;
     
     private final SessionManager sessionManager = SessionManager.getInstance();
-    private final ParentDAO parentDAO = new ParentDAO();
-    private final VoteDAO voteDAO = new VoteDAO();
     private final PdfExportService pdfExportService = new PdfExportService();
+    private final DataExportService dataExportService = new DataExportService();
     
     private ViewFactory viewFactory;
     private DecimalFormat percentFormat = new DecimalFormat("#.#");
+    // Ranked counts order candidates by transfers; their vote figures are first choices
+    private boolean rankedCount;
     
     @Override
     public void initialize(URL location, ResourceBundle resources) {
+        setLoadingIndicator(loadingIndicator);
         setupTableColumns();
         loadResults();
     }
@@ -62,9 +70,10 @@ public class ResultsController implements Initializable {
     }
     
     private void setupTableColumns() {
-        candidateColumn.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().candidateName));
-        votesColumn.setCellValueFactory(data -> new SimpleStringProperty(String.valueOf(data.getValue().votes)));
-        percentageColumn.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().percentage + "%"));
+        candidateColumn.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getName()));
+        votesColumn.setCellValueFactory(data -> new SimpleStringProperty(String.valueOf(data.getValue().getVotes())));
+        percentageColumn.setCellValueFactory(data -> new SimpleStringProperty(
+                percentFormat.format(data.getValue().getPercentage()) + "%"));
         
         // Center align the votes and percentage columns
         votesColumn.setStyle("-fx-alignment: CENTER;");
@@ -72,100 +81,78 @@ public class ResultsController implements Initializable {
     }
     
     private void loadResults() {
-        try {
-            VotingSession session = sessionManager.getCurrentSession();
-            if (session == null) {
-                showAlert(Alert.AlertType.ERROR, "Error", "No voting session found");
-                return;
-            }
-            
-            sessionInfoLabel.setText("Session: " + session.getClassName() + " - " + session.getStatus().getDisplayName());
-            
-            // Get candidates and their vote counts
-            List<Parent> candidates = parentDAO.getCandidatesBySession(session.getId());
-            Map<Integer, Integer> voteCounts = voteDAO.getVoteCountsBySession(session.getId());
-            
-            // Create sorted results
-            List<ResultRow> results = candidates.stream()
-                    .map(candidate -> {
-                        int votes = voteCounts.getOrDefault(candidate.getId(), 0);
-                        return new ResultRow(candidate.getName(), votes);
-                    })
-                    .sorted((a, b) -> Integer.compare(b.votes, a.votes)) // Sort by votes descending
-                    .collect(Collectors.toList());
-            
-            // Calculate percentages
-            int totalVotes = voteCounts.values().stream().mapToInt(Integer::intValue).sum();
-            for (ResultRow result : results) {
-                if (totalVotes > 0) {
-                    double percentage = (double) result.votes / totalVotes * 100;
-                    result.percentage = percentFormat.format(percentage);
-                } else {
-                    result.percentage = "0";
-                }
-            }
-            
-            // Display winner and deputy
-            if (!results.isEmpty()) {
-                ResultRow winner = results.get(0);
-                winnerNameLabel.setText(winner.candidateName);
-                winnerVotesLabel.setText(winner.votes + " votes (" + winner.percentage + "%)");
-                
-                // Check for ties in first place
-                boolean hasWinnerTie = results.size() > 1 && results.get(1).votes == winner.votes;
-                if (hasWinnerTie) {
-                    winnerVotesLabel.setText(winner.votes + " votes (" + winner.percentage + "%) - TIE");
-                }
-                
-                if (results.size() > 1) {
-                    ResultRow deputy = results.get(1);
-                    deputyNameLabel.setText(deputy.candidateName);
-                    deputyVotesLabel.setText(deputy.votes + " votes (" + deputy.percentage + "%)");
-                    
-                    // Check for ties in second place
-                    boolean hasDeputyTie = results.size() > 2 && results.get(2).votes == deputy.votes;
-                    if (hasDeputyTie) {
-                        deputyVotesLabel.setText(deputy.votes + " votes (" + deputy.percentage + "%) - TIE");
-                    }
-                } else {
-                    deputyNameLabel.setText("No deputy");
-                    deputyVotesLabel.setText("");
-                }
-                
-                logger.info("Results: Winner: {} ({} votes), Deputy: {} ({} votes)", 
-                           winner.candidateName, winner.votes,
-                           results.size() > 1 ? results.get(1).candidateName : "None",
-                           results.size() > 1 ? results.get(1).votes : 0);
-            } else {
-                winnerNameLabel.setText("No candidates");
+        VotingSession session = sessionManager.getCurrentSession();
+        if (session == null) {
+            showAlert(Alert.AlertType.ERROR, "Error", "No voting session found");
+            return;
+        }
+        
+        sessionInfoLabel.setText("Session: " + session.getClassName() + " - " + session.getStatus().getDisplayName()
+                + " - " + session.getTallyMethod().getDisplayName());
+        rankedCount = session.getTallyMethod().isRanked();
+        newSessionBtn.setDisable(true);
+        exportResultsBtn.setDisable(true);
+        
+        // Ranked results come from the shared engine, computed off the FX thread
+        supplyAsync(() -> sessionManager.getResultsEngine().getResults(session.getId()),
+            results -> {
+                newSessionBtn.setDisable(false);
+                exportResultsBtn.setDisable(false);
+                showResults(results);
+            },
+            failure -> {
+                logger.error("Failed to load results", failure);
+                newSessionBtn.setDisable(false);
+                winnerNameLabel.setText("Results unavailable");
                 winnerVotesLabel.setText("");
-                deputyNameLabel.setText("No deputy");
+                deputyNameLabel.setText("");
                 deputyVotesLabel.setText("");
-            }
-            
-            // Populate results table
-            ObservableList<ResultRow> tableData = FXCollections.observableArrayList(results);
-            resultsTable.setItems(tableData);
-            
-            // Display voting statistics
-            int totalParents = sessionManager.getTotalParentCount();
-            totalVotesLabel.setText(String.valueOf(totalVotes));
-            totalParentsLabel.setText(String.valueOf(totalParents));
+                showAlert(Alert.AlertType.ERROR, "Database Error", "Failed to load results: " + failure.getMessage());
+            });
+    }
+    
+    private void showResults(ResultsSnapshot results) {
+        // Display winner and deputy
+        Optional<CandidateResult> winner = results.getWinner();
+        if (winner.isPresent()) {
+            winnerNameLabel.setText(winner.get().getName());
+            winnerVotesLabel.setText(describeVotes(winner.get()) + (results.isWinnerTied() ? " - TIE" : ""));
             
-            if (totalParents > 0) {
-                double turnoutPercentage = (double) totalVotes / totalParents * 100;
-                turnoutLabel.setText(percentFormat.format(turnoutPercentage) + "%");
+            Optional<CandidateResult> deputy = results.getDeputy();
+            if (deputy.isPresent()) {
+                deputyNameLabel.setText(deputy.get().getName());
+                deputyVotesLabel.setText(describeVotes(deputy.get()) + (results.isDeputyTied() ? " - TIE" : ""));
             } else {
-                turnoutLabel.setText("0%");
+                deputyNameLabel.setText("No deputy");
+                deputyVotesLabel.setText("");
             }
             
-            logger.info("Results loaded: {} candidates, {} total votes, {} parents", 
-                       candidates.size(), totalVotes, totalParents);
-            
-        } catch (SQLException e) {
-            logger.error("Failed to load results", e);
-            showAlert(Alert.AlertType.ERROR, "Database Error", "Failed to load results: " + e.getMessage());
+            logger.info("Results: Winner: {} ({} votes), Deputy: {} ({} votes)", 
+                       winner.get().getName(), winner.get().getVotes(),
+                       deputy.map(CandidateResult::getName).orElse("None"),
+                       deputy.map(CandidateResult::getVotes).orElse(0));
+        } else {
+            winnerNameLabel.setText("No candidates");
+            winnerVotesLabel.setText("");
+            deputyNameLabel.setText("No deputy");
+            deputyVotesLabel.setText("");
         }
+        
+        // Populate results table
+        resultsTable.setItems(FXCollections.observableArrayList(results.getRanking()));
+        
+        // Display voting statistics
+        totalVotesLabel.setText(String.valueOf(results.getTotalVotes()));
+        totalParentsLabel.setText(String.valueOf(results.getTotalParents()));
+        turnoutLabel.setText(percentFormat.format(results.getTurnoutPercentage()) + "%");
+        
+        logger.info("Results loaded: {} candidates, {} total votes, {} parents", 
+                   results.getRanking().size(), results.getTotalVotes(), results.getTotalParents());
+    }
+    
+    private String describeVotes(CandidateResult result) {
+        return result.getVotes() + (rankedCount ? " first choices (" : " votes (")
+                + percentFormat.format(result.getPercentage()) + "%)";
     }
     
     @FXML
@@ -198,13 +185,17 @@ public class ResultsController implements Initializable {
             return;
         }
         
-        try {
-            // Show progress
-            exportResultsBtn.setDisable(true);
-            exportResultsBtn.setText("Exporting...");
-            
-            // Export to PDF
-            java.io.File pdfFile = pdfExportService.exportResults(session);
+        // Show progress
+        exportResultsBtn.setDisable(true);
+        exportResultsBtn.setText("Exporting...");
+        
+        // Export to PDF as a background task, so it keeps running if this view is left
+        String className = session.getClassName() != null ? session.getClassName() : "Unknown";
+        BackgroundTask<File> export = TaskRuntime.getInstance().submit(TaskKind.EXPORT,
+                "Export results for class " + className,
+                context -> pdfExportService.exportResults(session, context));
+        observe(export.completion(), pdfFile -> {
+            restoreExportButton();
             
             // Show success message with option to open PDF
             Alert successAlert = new Alert(Alert.AlertType.CONFIRMATION);
@@ -244,15 +235,56 @@ public class ResultsController implements Initializable {
                 }
             }
             
-        } catch (Exception e) {
-            logger.error("Failed to export results to PDF", e);
+        }, failure -> {
+            restoreExportButton();
+            if (failure instanceof CancellationException) {
+                return;
+            }
+            logger.error("Failed to export results to PDF", failure);
             showAlert(Alert.AlertType.ERROR, "Export Error", 
-                     "Failed to export results: " + e.getMessage());
-        } finally {
-            // Restore button
-            exportResultsBtn.setDisable(false);
-            exportResultsBtn.setText("Export Results");
+                     "Failed to export results: " + failure.getMessage());
+        });
+    }
+    
+    @FXML
+    private void handleExportData() {
+        VotingSession session = sessionManager.getCurrentSession();
+        if (session == null) {
+            showAlert(Alert.AlertType.ERROR, "Export Error", "No voting session found to export.");
+            return;
+        }
+        
+        ChoiceDialog<ExportFormat> formatDialog = new ChoiceDialog<>(ExportFormat.CSV, ExportFormat.values());
+        formatDialog.setTitle("Export Data");
+        formatDialog.setHeaderText("Export results, anonymous ballots and participation");
+        formatDialog.setContentText("Format:");
+        Optional<ExportFormat> format = formatDialog.showAndWait();
+        if (format.isEmpty()) {
+            return;
         }
+        
+        exportDataBtn.setDisable(true);
+        String className = session.getClassName() != null ? session.getClassName() : "Unknown";
+        BackgroundTask<Path> export = TaskRuntime.getInstance().submit(TaskKind.EXPORT,
+                "Export data for class " + className,
+                context -> dataExportService.exportSessionData(session, format.get(),
+                        Path.of("").toAbsolutePath(), context));
+        observe(export.completion(), archive -> {
+            exportDataBtn.setDisable(false);
+            showAlert(Alert.AlertType.INFORMATION, "Export Successful", "Data saved to:\n" + archive);
+        }, failure -> {
+            exportDataBtn.setDisable(false);
+            if (failure instanceof CancellationException) {
+                return;
+            }
+            logger.error("Failed to export session data", failure);
+            showAlert(Alert.AlertType.ERROR, "Export Error", "Failed to export data: " + failure.getMessage());
+        });
+    }
+    
+    private void restoreExportButton() {
+        exportResultsBtn.setDisable(false);
+        exportResultsBtn.setText("Export Results");
     }
     
     private void showAlert(Alert.AlertType type, String title, String content) {
@@ -262,17 +294,4 @@ public class ResultsController implements Initializable {
         alert.setContentText(content);
         alert.showAndWait();
     }
-    
-    // Inner class for table data
-    public static class ResultRow {
-        public final String candidateName;
-        public final int votes;
-        public String percentage;
-        
-        public ResultRow(String candidateName, int votes) {
-            this.candidateName = candidateName;
-            this.votes = votes;
-            this.percentage = "0";
-        }
-    }
 }
\ No newline at end of file
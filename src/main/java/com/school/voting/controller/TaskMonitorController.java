@@ -0,0 +1,140 @@
+// ABOUTME: Controller for the task monitor window listing running and recent background tasks
+// ABOUTME: Shows each task's progress and status, lets tasks be cancelled and starts backups, recounts and audits
+
+package com.school.voting.controller;
+
+import com.school.voting.util.BackgroundTask;
+import com.school.voting.util.MaintenanceJobs;
+import com.school.voting.util.TaskKind;
+import com.school.voting.util.TaskRuntime;
+import javafx.beans.value.ChangeListener;
+import javafx.concurrent.Worker;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.ResourceBundle;
+
+public class TaskMonitorController extends BaseController implements Initializable {
+    private static final Path BACKUP_DIRECTORY = Path.of(System.getProperty("voting.backup.dir", "backups"));
+
+    @FXML private ListView<BackgroundTask<?>> taskList;
+
+    private final TaskRuntime taskRuntime = TaskRuntime.getInstance();
+    private final MaintenanceJobs maintenanceJobs = new MaintenanceJobs();
+
+    @Override
+    public void initialize(URL location, ResourceBundle resources) {
+        taskList.setItems(taskRuntime.getTasks());
+        taskList.setCellFactory(list -> new TaskCell());
+        taskList.setPlaceholder(new Label("No background tasks yet"));
+    }
+
+    @FXML
+    private void handleBackup() {
+        taskRuntime.submit(TaskKind.BACKUP, "Back up database",
+                context -> maintenanceJobs.backup(BACKUP_DIRECTORY, context));
+    }
+
+    @FXML
+    private void handleRecount() {
+        taskRuntime.submit(TaskKind.RECOUNT, "Recount all tallies", maintenanceJobs::recountTallies);
+    }
+
+    @FXML
+    private void handleAudit() {
+        taskRuntime.submit(TaskKind.AUDIT, "Audit all votes", maintenanceJobs::auditVotes);
+    }
+
+    @FXML
+    private void handleClearFinished() {
+        taskRuntime.clearFinished();
+    }
+
+    @Override
+    public void dispose() {
+        // Cells stay bound to tasks that outlive this window; dropping the items unbinds them
+        taskList.setItems(null);
+        super.dispose();
+    }
+
+    private static String describe(BackgroundTask<?> task, Worker.State state) {
+        String kind = task.getKind().getDisplayName();
+        return switch (state) {
+            case READY, SCHEDULED -> kind + " - waiting";
+            case RUNNING -> kind + " - running";
+            case SUCCEEDED -> kind + " - done";
+            case CANCELLED -> kind + " - cancelled";
+            case FAILED -> kind + " - failed: " + (task.getException() != null
+                    ? task.getException().getMessage() : "unknown error");
+        };
+    }
+
+    // Binds to one task at a time; ListView reuses cells as the list scrolls and changes
+    private static final class TaskCell extends ListCell<BackgroundTask<?>> {
+        private final Label titleLabel = new Label();
+        private final Label statusLabel = new Label();
+        private final Label messageLabel = new Label();
+        private final ProgressBar progressBar = new ProgressBar();
+        private final Button cancelButton = new Button("Cancel");
+        private final HBox content;
+        private final ChangeListener<Worker.State> stateListener = (obs, oldState, state) -> showState(state);
+        private BackgroundTask<?> boundTask;
+
+        TaskCell() {
+            titleLabel.getStyleClass().add("section-label");
+            progressBar.setMaxWidth(Double.MAX_VALUE);
+            VBox details = new VBox(4, titleLabel, statusLabel, progressBar, messageLabel);
+            HBox.setHgrow(details, Priority.ALWAYS);
+            cancelButton.setMinWidth(Region.USE_PREF_SIZE);
+            content = new HBox(10, details, cancelButton);
+            content.setAlignment(Pos.CENTER_LEFT);
+        }
+
+        @Override
+        protected void updateItem(BackgroundTask<?> task, boolean empty) {
+            super.updateItem(task, empty);
+            unbind();
+
+            if (empty || task == null) {
+                setGraphic(null);
+                return;
+            }
+
+            boundTask = task;
+            titleLabel.setText(task.getTitle());
+            progressBar.progressProperty().bind(task.progressProperty());
+            messageLabel.textProperty().bind(task.messageProperty());
+            task.stateProperty().addListener(stateListener);
+            cancelButton.setOnAction(event -> task.cancel());
+            showState(task.getState());
+            setGraphic(content);
+        }
+
+        private void showState(Worker.State state) {
+            statusLabel.setText(describe(boundTask, state));
+            cancelButton.setDisable(boundTask.isDone());
+        }
+
+        private void unbind() {
+            if (boundTask != null) {
+                boundTask.stateProperty().removeListener(stateListener);
+                progressBar.progressProperty().unbind();
+                messageLabel.textProperty().unbind();
+                cancelButton.setOnAction(null);
+                boundTask = null;
+            }
+        }
+    }
+}
@@ -4,49 +4,90 @@
 package com.school.voting.controller;
 
 import com.school.voting.dao.ParentDAO;
-import com.school.voting.dao.VoteDAO;
+import com.school.voting.event.SessionEvent;
+import com.school.voting.event.VoteCast;
+import com.school.voting.event.VoterClaimLapsed;
+import com.school.voting.event.VoterSkipped;
 import com.school.voting.model.Parent;
-import com.school.voting.model.Vote;
+import com.school.voting.model.SessionProgress;
 import com.school.voting.model.VotingSession;
+import com.school.voting.util.AsyncDataAccess;
 import com.school.voting.util.SessionManager;
 import com.school.voting.view.ViewFactory;
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
 import javafx.scene.text.Font;
+import javafx.util.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.URL;
-import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.ResourceBundle;
 
-public class VotingController implements Initializable {
+public class VotingController extends BaseController implements Initializable {
     private static final Logger logger = LoggerFactory.getLogger(VotingController.class);
     
     @FXML private Label currentVoterLabel;
     @FXML private Label progressLabel;
     @FXML private ProgressBar votingProgressBar;
     @FXML private GridPane candidatesGrid;
+    @FXML private HBox rankingBox;
+    @FXML private Label rankingLabel;
+    @FXML private Button clearRankingBtn;
+    @FXML private Button castBallotBtn;
     @FXML private Button skipVoterBtn;
     @FXML private Button endVotingBtn;
     @FXML private Label sessionInfoLabel;
     @FXML private Label statusLabel;
+    @FXML private ProgressIndicator loadingIndicator;
     
     private final SessionManager sessionManager = SessionManager.getInstance();
     private final ParentDAO parentDAO = new ParentDAO();
-    private final VoteDAO voteDAO = new VoteDAO();
     
     private ViewFactory viewFactory;
     private List<Parent> candidates;
+    // Ranked sessions collect the current voter's order of preference here before casting it
+    private boolean rankedBallots;
+    private final List<Parent> ranking = new ArrayList<>();
+    private final PauseTransition claimRetry = new PauseTransition(Duration.seconds(2));
     
     @Override
     public void initialize(URL location, ResourceBundle resources) {
+        setLoadingIndicator(loadingIndicator);
         Platform.runLater(this::loadVotingData);
+        
+        claimRetry.setOnFinished(e -> showNextVoter());
+        track(claimRetry::stop);
+        
+        // Progress labels follow vote and skip events of this session; a burst only redraws once
+        track(sessionManager.getEventBus().subscribeOnFx(VoteCast.class,
+            events -> events.stream().filter(this::isCurrentSession).reduce((first, last) -> last)
+                .ifPresent(event -> updateProgress(event.getProgress()))));
+        track(sessionManager.getEventBus().subscribeOnFx(VoterSkipped.class,
+            events -> events.stream().filter(this::isCurrentSession).reduce((first, last) -> last)
+                .ifPresent(event -> updateProgress(event.getProgress()))));
+        
+        // The voter shown may have been called to another station; show whoever is next instead
+        track(sessionManager.getEventBus().subscribeOnFx(VoterClaimLapsed.class,
+            events -> events.stream().filter(this::isCurrentSession).reduce((first, last) -> last)
+                .ifPresent(event -> {
+                    currentVoterLabel.setText("Calling the next voter...");
+                    showNextVoter();
+                })));
+    }
+    
+    // Other classes may be voting at the same time on the same bus
+    private boolean isCurrentSession(SessionEvent event) {
+        VotingSession session = sessionManager.getCurrentSession();
+        return session != null && event.getSessionId() == session.getId();
     }
     
     public void setViewFactory(ViewFactory viewFactory) {
@@ -54,70 +95,96 @@ public class VotingController implements Initializable {
     }
     
     private void loadVotingData() {
-        try {
-            // Initialize progress bar to 0
-            votingProgressBar.setProgress(0.0);
-            
-            VotingSession session = sessionManager.getCurrentSession();
-            if (session == null) {
-                showAlert(Alert.AlertType.ERROR, "Error", "No active voting session");
-                return;
-            }
-            
-            sessionInfoLabel.setText("Session: " + session.getClassName() + " - " + session.getStatus().getDisplayName());
-            
-            // Load candidates
-            candidates = parentDAO.getCandidatesBySession(session.getId());
-            if (candidates.isEmpty()) {
-                showAlert(Alert.AlertType.ERROR, "Error", "No candidates found for voting");
-                return;
-            }
-            
-            // Setup initial voter
-            setupCurrentVoter();
-            
-        } catch (SQLException e) {
-            logger.error("Failed to load voting data", e);
-            showAlert(Alert.AlertType.ERROR, "Database Error", "Failed to load voting data: " + e.getMessage());
+        // Progress bar follows the session's cached progress counters
+        votingProgressBar.progressProperty().bind(sessionManager.completionRatioProperty());
+        
+        VotingSession session = sessionManager.getCurrentSession();
+        if (session == null) {
+            showAlert(Alert.AlertType.ERROR, "Error", "No active voting session");
+            return;
         }
+        
+        sessionInfoLabel.setText("Session: " + session.getClassName() + " - " + session.getStatus().getDisplayName()
+                + " - " + session.getTallyMethod().getDisplayName());
+        rankedBallots = session.getTallyMethod().isRanked();
+        rankingBox.setVisible(rankedBallots);
+        rankingBox.setManaged(rankedBallots);
+        setVotingEnabled(false);
+        statusLabel.setText("Loading candidates...");
+        
+        supplyAsync(() -> new VotingData(parentDAO.getCandidatesBySession(session.getId()), sessionManager.getProgress()),
+            data -> {
+                candidates = data.candidates;
+                if (candidates.isEmpty()) {
+                    statusLabel.setText("No candidates found for voting");
+                    showAlert(Alert.AlertType.ERROR, "Error", "No candidates found for voting");
+                    return;
+                }
+                
+                // Candidates do not change during voting, so the grid is built once
+                setupCandidatesGrid();
+                updateProgress(data.progress);
+                setVotingEnabled(true);
+                
+                // Setup initial voter
+                setupCurrentVoter();
+            },
+            failure -> {
+                statusLabel.setText("Voting data could not be loaded");
+                showFailure("Database Error", "Failed to load voting data", failure);
+            });
+    }
+    
+    // Candidate buttons and skip are disabled while a vote or skip is being saved
+    private void setVotingEnabled(boolean enabled) {
+        candidatesGrid.setDisable(!enabled);
+        rankingBox.setDisable(!enabled);
+        skipVoterBtn.setDisable(!enabled);
     }
     
-    private void setupCurrentVoter() throws SQLException {
+    private void setupCurrentVoter() {
         Parent currentVoter = sessionManager.getCurrentVoter();
         if (currentVoter == null) {
-            // No more voters - voting is complete
-            completeVoting();
+            supplyAsync(sessionManager::hasVotersAtOtherStations, waiting -> {
+                if (waiting) {
+                    // The rest of the roster is in other booths; one may come back on a skip or lapsed claim
+                    currentVoterLabel.setText("Waiting for other stations to finish");
+                    claimRetry.playFromStart();
+                } else {
+                    // No more voters - voting is complete
+                    completeVoting();
+                }
+            }, failure -> showFailure("Error", "Failed to check the other stations", failure));
             return;
         }
         
         currentVoterLabel.setText("Current Voter: " + currentVoter.getName());
+        clearRanking();
+        logger.info("Current voter: {}", currentVoter.getName());
+    }
+    
+    private void showNextVoter() {
+        supplyAsync(sessionManager::getNextVoter, voter -> setupCurrentVoter(),
+            failure -> showFailure("Error", "Failed to load the next voter", failure));
+    }
+    
+    // Progress comes from the in-memory snapshot or a vote/skip event; no queries per voter
+    private void updateProgress(SessionProgress progress) {
+        if (progress == null) {
+            return;
+        }
         
-        // Update progress
-        int totalParents = sessionManager.getTotalParentCount();
-        int votedCount = sessionManager.getVotedCount();
-        int currentVoterNumber = votedCount + 1;
-        
-        progressLabel.setText("Voter " + currentVoterNumber + " of " + totalParents);
-        
-        // Update progress bar
-        double progress = (double) votedCount / totalParents;
-        votingProgressBar.setProgress(progress);
+        int currentVoterNumber = Math.min(progress.getProcessedCount() + 1, progress.getTotalParents());
+        progressLabel.setText("Voter " + currentVoterNumber + " of " + progress.getTotalParents());
         
         // Update status with more detailed info
-        int remainingVoters = totalParents - votedCount;
-        statusLabel.setText("Select a candidate to continue (" + remainingVoters + " voters remaining)");
-        
-        logger.info("Current voter: {} (#{} of {})", currentVoter.getName(), currentVoterNumber, totalParents);
-        
-        // Refresh candidates grid to exclude current voter
-        setupCandidatesGrid();
+        statusLabel.setText((rankedBallots ? "Rank the candidates to continue (" : "Select a candidate to continue (")
+                + progress.getRemainingCount() + " voters remaining)");
     }
     
     private void setupCandidatesGrid() {
         candidatesGrid.getChildren().clear();
         
-        Parent currentVoter = sessionManager.getCurrentVoter();
-        
         int columns = 2;
         int row = 0;
         int col = 0;
@@ -143,11 +210,77 @@ public class VotingController implements Initializable {
         button.setFont(Font.font(20));
         button.setAlignment(Pos.CENTER);
         
-        button.setOnAction(e -> handleVoteForCandidate(candidate));
+        button.setUserData(candidate);
+        button.setOnAction(e -> {
+            if (rankedBallots) {
+                addToRanking(candidate, button);
+            } else {
+                handleVoteForCandidate(candidate);
+            }
+        });
         
         return button;
     }
     
+    // Each candidate can be ranked once; their button is disabled until the ranking is cleared
+    private void addToRanking(Parent candidate, Button button) {
+        ranking.add(candidate);
+        button.setDisable(true);
+        showRanking();
+    }
+    
+    private void clearRanking() {
+        ranking.clear();
+        candidatesGrid.getChildren().forEach(node -> node.setDisable(false));
+        showRanking();
+    }
+    
+    private void showRanking() {
+        castBallotBtn.setDisable(ranking.isEmpty());
+        clearRankingBtn.setDisable(ranking.isEmpty());
+        rankingLabel.setText(ranking.isEmpty()
+                ? "Click the candidates in order of preference"
+                : "Order of preference: " + describeRanking());
+    }
+    
+    private String describeRanking() {
+        List<String> places = new ArrayList<>(ranking.size());
+        for (int i = 0; i < ranking.size(); i++) {
+            places.add((i + 1) + ". " + ranking.get(i).getName());
+        }
+        return String.join(", ", places);
+    }
+    
+    @FXML
+    private void handleClearRanking() {
+        clearRanking();
+    }
+    
+    @FXML
+    private void handleCastRankedBallot() {
+        Parent currentVoter = sessionManager.getCurrentVoter();
+        if (currentVoter == null) {
+            showAlert(Alert.AlertType.ERROR, "Error", "No current voter");
+            return;
+        }
+        if (ranking.isEmpty()) {
+            return;
+        }
+        
+        Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
+        confirm.setTitle("Confirm Vote");
+        confirm.setHeaderText(currentVoter.getName() + " ranking:");
+        confirm.setContentText(describeRanking().replace(", ", "\n"));
+        
+        confirm.showAndWait().ifPresent(response -> {
+            if (response == ButtonType.OK) {
+                int[] candidateIds = ranking.stream().mapToInt(Parent::getId).toArray();
+                recordBallotAndContinue(currentVoter, describeRanking(),
+                        () -> sessionManager.recordRankedVote(currentVoter.getId(), candidateIds));
+            }
+        });
+    }
+    
     private void handleVoteForCandidate(Parent candidate) {
         Parent currentVoter = sessionManager.getCurrentVoter();
         if (currentVoter == null) {
@@ -163,28 +296,34 @@ public class VotingController implements Initializable {
         
         confirm.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                try {
-                    recordVoteAndContinue(currentVoter, candidate);
-                } catch (SQLException e) {
-                    logger.error("Failed to record vote", e);
-                    showAlert(Alert.AlertType.ERROR, "Error", "Failed to record vote: " + e.getMessage());
-                }
+                recordBallotAndContinue(currentVoter, candidate.getName(),
+                        () -> sessionManager.recordVote(currentVoter.getId(), candidate.getId()));
             }
         });
     }
     
-    private void recordVoteAndContinue(Parent voter, Parent candidate) throws SQLException {
-        // Record the vote
-        Vote vote = new Vote(voter.getId(), candidate.getId(), sessionManager.getCurrentSession().getId());
-        voteDAO.recordVote(vote);
-        
-        // Update voter status and move to next
-        sessionManager.recordVote(candidate.getId());
-        
-        logger.info("{} voted for {}", voter.getName(), candidate.getName());
+    private void recordBallotAndContinue(Parent voter, String choice, AsyncDataAccess.DataWork<SessionProgress> vote) {
+        setVotingEnabled(false);
+        statusLabel.setText("Saving vote...");
         
-        // Update UI for next voter or complete voting
-        setupCurrentVoter();
+        // Record the vote, mark the voter and move to next in one step
+        supplyAsync(vote, progress -> {
+            logger.info("{} voted for {}", voter.getName(), choice);
+            setVotingEnabled(true);
+            updateProgress(progress);
+            
+            // Update UI for next voter or complete voting
+            setupCurrentVoter();
+        }, failure -> {
+            setVotingEnabled(true);
+            if (failure instanceof IllegalStateException) {
+                logger.warn("Vote not recorded: {}", failure.getMessage());
+                showAlert(Alert.AlertType.WARNING, "Vote Not Recorded", failure.getMessage());
+                showNextVoter();
+            } else {
+                showFailure("Error", "Failed to record vote", failure);
+            }
+        });
     }
     
     @FXML
@@ -201,14 +340,21 @@ public class VotingController implements Initializable {
         
         confirm.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                try {
-                    sessionManager.skipCurrentVoter();
+                setVotingEnabled(false);
+                runAsync(() -> sessionManager.skipVoter(currentVoter.getId()), () -> {
                     logger.info("Skipped voter: {}", currentVoter.getName());
+                    setVotingEnabled(true);
                     setupCurrentVoter();
-                } catch (SQLException e) {
-                    logger.error("Failed to skip voter", e);
-                    showAlert(Alert.AlertType.ERROR, "Error", "Failed to skip voter: " + e.getMessage());
-                }
+                }, failure -> {
+                    setVotingEnabled(true);
+                    if (failure instanceof IllegalStateException) {
+                        logger.warn("Voter not skipped: {}", failure.getMessage());
+                        showAlert(Alert.AlertType.WARNING, "Voter Not Skipped", failure.getMessage());
+                        showNextVoter();
+                    } else {
+                        showFailure("Error", "Failed to skip voter", failure);
+                    }
+                });
             }
         });
     }
@@ -222,23 +368,30 @@ public class VotingController implements Initializable {
         
         confirm.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                try {
-                    completeVoting();
-                } catch (SQLException e) {
-                    logger.error("Failed to complete voting", e);
-                    showAlert(Alert.AlertType.ERROR, "Error", "Failed to complete voting: " + e.getMessage());
-                }
+                completeVoting();
             }
         });
     }
     
-    private void completeVoting() throws SQLException {
-        sessionManager.completeSession();
-        logger.info("Voting session completed");
-        
-        if (viewFactory != null) {
-            viewFactory.showResultsView();
-        }
+    private void completeVoting() {
+        setVotingEnabled(false);
+        endVotingBtn.setDisable(true);
+        runAsync(sessionManager::completeSession, () -> {
+            logger.info("Voting session completed");
+            
+            if (viewFactory != null) {
+                viewFactory.showResultsView();
+            }
+        }, failure -> {
+            setVotingEnabled(true);
+            endVotingBtn.setDisable(false);
+            showFailure("Error", "Failed to complete voting", failure);
+        });
+    }
+    
+    private void showFailure(String title, String message, Throwable failure) {
+        logger.error(message, failure);
+        showAlert(Alert.AlertType.ERROR, title, message + ": " + failure.getMessage());
     }
     
     private void showAlert(Alert.AlertType type, String title, String content) {
@@ -248,4 +401,15 @@ public class VotingController implements Initializable {
         alert.setContentText(content);
         alert.showAndWait();
     }
+    
+    // What the view needs before the first voter can be shown, loaded in one round trip
+    private static final class VotingData {
+        private final List<Parent> candidates;
+        private final SessionProgress progress;
+        
+        private VotingData(List<Parent> candidates, SessionProgress progress) {
+            this.candidates = candidates;
+            this.progress = progress;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,185 @@
+// ABOUTME: Data Access Object for the participation rollups behind cross-session trend reports
+// ABOUTME: Folds each completed session into its school year once, so trend queries never scan votes or parents
+
+package com.school.voting.dao;
+
+import com.school.voting.model.ParticipationTrend;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class AnalyticsDAO {
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsDAO.class);
+
+    // Same derivation as migration V7: school years start on 1 August, skips are processed parents without a ballot
+    private static final String INSERT_SESSION_ROLLUPS_SQL =
+            "INSERT INTO session_rollups (session_id, class_name, school_year, total_parents, candidates, " +
+            "votes_cast, skipped, duration_seconds) " +
+            "SELECT id, class_name, " +
+            "CAST(strftime('%Y', completed_epoch, 'unixepoch', 'localtime') AS INTEGER) " +
+            "- (CAST(strftime('%m', completed_epoch, 'unixepoch', 'localtime') AS INTEGER) < 8), " +
+            "total_parents, candidates, votes_cast, processed - votes_cast, " +
+            "MAX(0, COALESCE(completed_epoch - created_epoch, 0)) " +
+            "FROM (SELECT s.id, s.class_name, " +
+            "CASE typeof(s.completed_at) WHEN 'integer' THEN s.completed_at / 1000 " +
+            "ELSE CAST(strftime('%s', s.completed_at) AS INTEGER) END AS completed_epoch, " +
+            "CASE typeof(s.created_at) WHEN 'integer' THEN s.created_at / 1000 " +
+            "ELSE CAST(strftime('%s', s.created_at) AS INTEGER) END AS created_epoch, " +
+            "(SELECT COUNT(*) FROM parents p WHERE p.session_id = s.id) AS total_parents, " +
+            "(SELECT COUNT(*) FROM parents p WHERE p.session_id = s.id AND p.is_candidate = 1) AS candidates, " +
+            "(SELECT COUNT(*) FROM parents p WHERE p.session_id = s.id AND p.has_voted = 1) AS processed, " +
+            "(SELECT COUNT(*) FROM votes v WHERE v.session_id = s.id) AS votes_cast " +
+            "FROM voting_sessions s WHERE s.status = 'COMPLETED' AND s.completed_at IS NOT NULL";
+    private static final String INSERT_SESSION_ROLLUP_SQL =
+            INSERT_SESSION_ROLLUPS_SQL + " AND s.id = ?)";
+    private static final String REBUILD_SESSION_ROLLUPS_SQL =
+            INSERT_SESSION_ROLLUPS_SQL + ")";
+    private static final String ADD_TO_YEAR_ROLLUP_SQL =
+            "INSERT INTO year_rollups (school_year, class_name, sessions, total_parents, candidates, votes_cast, " +
+            "skipped, duration_seconds) " +
+            "SELECT school_year, class_name, 1, total_parents, candidates, votes_cast, skipped, duration_seconds " +
+            "FROM session_rollups WHERE session_id = ? " +
+            "ON CONFLICT (school_year, class_name) DO UPDATE SET " +
+            "sessions = sessions + 1, " +
+            "total_parents = total_parents + excluded.total_parents, " +
+            "candidates = candidates + excluded.candidates, " +
+            "votes_cast = votes_cast + excluded.votes_cast, " +
+            "skipped = skipped + excluded.skipped, " +
+            "duration_seconds = duration_seconds + excluded.duration_seconds";
+    private static final String SUBTRACT_FROM_YEAR_ROLLUP_SQL =
+            "UPDATE year_rollups SET " +
+            "sessions = year_rollups.sessions - 1, " +
+            "total_parents = year_rollups.total_parents - r.total_parents, " +
+            "candidates = year_rollups.candidates - r.candidates, " +
+            "votes_cast = year_rollups.votes_cast - r.votes_cast, " +
+            "skipped = year_rollups.skipped - r.skipped, " +
+            "duration_seconds = year_rollups.duration_seconds - r.duration_seconds " +
+            "FROM (SELECT * FROM session_rollups WHERE session_id = ?) AS r " +
+            "WHERE year_rollups.school_year = r.school_year AND year_rollups.class_name = r.class_name";
+    private static final String DELETE_EMPTY_YEAR_ROLLUPS_SQL =
+            "DELETE FROM year_rollups WHERE sessions <= 0";
+    private static final String DELETE_SESSION_ROLLUP_SQL =
+            "DELETE FROM session_rollups WHERE session_id = ?";
+    private static final String REBUILD_YEAR_ROLLUPS_SQL =
+            "INSERT INTO year_rollups (school_year, class_name, sessions, total_parents, candidates, votes_cast, " +
+            "skipped, duration_seconds) " +
+            "SELECT school_year, class_name, COUNT(*), SUM(total_parents), SUM(candidates), SUM(votes_cast), " +
+            "SUM(skipped), SUM(duration_seconds) FROM session_rollups GROUP BY school_year, class_name";
+    private static final String SELECT_YEARLY_TRENDS_SQL =
+            "SELECT school_year, NULL AS class_name, SUM(sessions) AS sessions, " +
+            "SUM(total_parents) AS total_parents, SUM(candidates) AS candidates, SUM(votes_cast) AS votes_cast, " +
+            "SUM(skipped) AS skipped, SUM(duration_seconds) AS duration_seconds " +
+            "FROM year_rollups WHERE school_year >= ? GROUP BY school_year ORDER BY school_year";
+    private static final String SELECT_CLASS_TRENDS_SQL =
+            "SELECT * FROM year_rollups WHERE school_year >= ? ORDER BY school_year DESC, class_name";
+
+    private final DatabaseManager dbManager;
+
+    public AnalyticsDAO() {
+        this(DatabaseManager.getInstance());
+    }
+
+    public AnalyticsDAO(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+    }
+
+    /**
+     * Adds a just-completed session to the rollups. Joins the caller's transaction, so the
+     * session is counted exactly once, together with its completion.
+     */
+    public void recordCompletedSession(int sessionId) throws SQLException {
+        dbManager.inTransaction(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_SESSION_ROLLUP_SQL)) {
+                stmt.setInt(1, sessionId);
+                if (stmt.executeUpdate() == 0) {
+                    throw new SQLException("Session " + sessionId + " is not completed");
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(ADD_TO_YEAR_ROLLUP_SQL)) {
+                stmt.setInt(1, sessionId);
+                stmt.executeUpdate();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Takes a completed session back out of the rollups before it is deleted. Joins the
+     * caller's transaction; does nothing for a session that was never completed.
+     */
+    public void removeCompletedSession(int sessionId) throws SQLException {
+        dbManager.inTransaction(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(SUBTRACT_FROM_YEAR_ROLLUP_SQL)) {
+                stmt.setInt(1, sessionId);
+                if (stmt.executeUpdate() == 0) {
+                    return null;
+                }
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate(DELETE_EMPTY_YEAR_ROLLUPS_SQL);
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(DELETE_SESSION_ROLLUP_SQL)) {
+                stmt.setInt(1, sessionId);
+                stmt.executeUpdate();
+            }
+            return null;
+        });
+    }
+
+    // Recomputes every rollup from the sessions, parents and votes tables
+    public void rebuildRollups() throws SQLException {
+        dbManager.inTransaction(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM year_rollups");
+                stmt.executeUpdate("DELETE FROM session_rollups");
+                int sessions = stmt.executeUpdate(REBUILD_SESSION_ROLLUPS_SQL);
+                stmt.executeUpdate(REBUILD_YEAR_ROLLUPS_SQL);
+                logger.info("Rebuilt participation rollups for {} completed sessions", sessions);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * One entry per school year from the given one on, across all classes, oldest first.
+     * Reads a range of year_rollups, so the cost depends on the years asked for, not on
+     * how much history is stored.
+     */
+    public List<ParticipationTrend> getYearlyTrends(int fromSchoolYear) throws SQLException {
+        return queryTrends(SELECT_YEARLY_TRENDS_SQL, fromSchoolYear);
+    }
+
+    // One entry per school year and class from the given year on, newest year first
+    public List<ParticipationTrend> getClassTrends(int fromSchoolYear) throws SQLException {
+        return queryTrends(SELECT_CLASS_TRENDS_SQL, fromSchoolYear);
+    }
+
+    private List<ParticipationTrend> queryTrends(String sql, int fromSchoolYear) throws SQLException {
+        List<ParticipationTrend> trends = new ArrayList<>();
+
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, fromSchoolYear);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    trends.add(new ParticipationTrend(
+                            rs.getInt("school_year"),
+                            rs.getString("class_name"),
+                            rs.getInt("sessions"),
+                            rs.getInt("total_parents"),
+                            rs.getInt("candidates"),
+                            rs.getInt("votes_cast"),
+                            rs.getInt("skipped"),
+                            rs.getLong("duration_seconds")));
+                }
+            }
+        }
+
+        return trends;
+    }
+}
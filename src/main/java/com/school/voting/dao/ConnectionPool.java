@@ -0,0 +1,417 @@
+// ABOUTME: Bounded JDBC connection pool with lease/return semantics for the SQLite database
+// ABOUTME: Runs per-connection init hooks, caches statements, evicts stale connections and tracks metrics
+
+package com.school.voting.dao;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ConnectionPool implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+
+    @FunctionalInterface
+    public interface ConnectionInitializer {
+        void initialize(Connection connection) throws SQLException;
+    }
+
+    private final String url;
+    private final int maxSize;
+    private final int minIdle;
+    private final Duration leaseTimeout;
+    private final Duration idleTimeout;
+    private final Duration validationInterval;
+    private final List<ConnectionInitializer> initializers;
+    private final int statementCacheSize;
+    private final StatementCache.Counters statementCounters = new StatementCache.Counters();
+
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final ScheduledExecutorService evictor;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder leaseCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder evictedCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private volatile boolean closed;
+
+    private ConnectionPool(Builder builder) {
+        this.url = builder.url;
+        this.maxSize = builder.maxSize;
+        this.minIdle = Math.min(builder.minIdle, builder.maxSize);
+        this.leaseTimeout = builder.leaseTimeout;
+        this.idleTimeout = builder.idleTimeout;
+        this.validationInterval = builder.validationInterval;
+        this.initializers = List.copyOf(builder.initializers);
+        this.statementCacheSize = builder.statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "db-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, idleTimeout.toMillis() / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public static Builder builder(String url) {
+        return new Builder(url);
+    }
+
+    public Connection lease() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+        waiting.incrementAndGet();
+        try {
+            if (!permits.tryAcquire(leaseTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + leaseTimeout.toMillis()
+                        + " ms waiting for a database connection (" + metrics() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        } finally {
+            waiting.decrementAndGet();
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            PooledConnection pooled = takeIdle();
+            if (pooled == null) {
+                pooled = open();
+            }
+            active.incrementAndGet();
+            leaseCount.increment();
+            return pooled.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public void release(Connection connection) throws SQLException {
+        if (!Proxy.isProxyClass(connection.getClass())
+                || !(Proxy.getInvocationHandler(connection) instanceof PooledConnection.Lease lease)) {
+            throw new IllegalArgumentException("Connection was not leased from this pool");
+        }
+        lease.release();
+    }
+
+    public PoolMetrics metrics() {
+        int idleCount;
+        synchronized (idle) {
+            idleCount = idle.size();
+        }
+        long leases = leaseCount.sum();
+        return new PoolMetrics(
+                active.get(),
+                idleCount,
+                maxSize,
+                waiting.get(),
+                leases,
+                createdCount.sum(),
+                evictedCount.sum(),
+                totalWaitNanos.sum(),
+                maxWaitNanos.get(),
+                statementCounters.hits.sum(),
+                statementCounters.misses.sum(),
+                statementCounters.evictions.sum()
+        );
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+
+        List<PooledConnection> toClose;
+        synchronized (idle) {
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+        }
+        toClose.forEach(PooledConnection::closeQuietly);
+        logger.info("Connection pool closed ({})", metrics());
+    }
+
+    private PooledConnection takeIdle() {
+        while (true) {
+            PooledConnection candidate;
+            synchronized (idle) {
+                candidate = idle.pollFirst();
+            }
+            if (candidate == null) {
+                return null;
+            }
+            if (candidate.isUsable()) {
+                return candidate;
+            }
+            evictedCount.increment();
+            candidate.closeQuietly();
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        Connection raw = DriverManager.getConnection(url);
+        try {
+            raw.setAutoCommit(true);
+            for (ConnectionInitializer initializer : initializers) {
+                initializer.initialize(raw);
+            }
+        } catch (SQLException e) {
+            try {
+                raw.close();
+            } catch (SQLException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        createdCount.increment();
+        logger.debug("Opened new pooled connection to {}", url);
+        return new PooledConnection(raw);
+    }
+
+    private void giveBack(PooledConnection pooled, boolean broken) {
+        active.decrementAndGet();
+        try {
+            if (broken || closed) {
+                pooled.closeQuietly();
+            } else {
+                synchronized (idle) {
+                    idle.offerFirst(pooled);
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        List<PooledConnection> expired = new ArrayList<>();
+        synchronized (idle) {
+            // Oldest connections sit at the tail because returns are pushed to the head
+            while (idle.size() > minIdle) {
+                PooledConnection oldest = idle.peekLast();
+                if (now - oldest.lastUsedNanos < idleTimeout.toNanos()) {
+                    break;
+                }
+                expired.add(idle.pollLast());
+            }
+        }
+        if (!expired.isEmpty()) {
+            expired.forEach(PooledConnection::closeQuietly);
+            evictedCount.add(expired.size());
+            logger.debug("Evicted {} idle connections", expired.size());
+        }
+    }
+
+    private void recordWait(long nanos) {
+        totalWaitNanos.add(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private final class PooledConnection {
+        private final Connection raw;
+        private final StatementCache statementCache;
+        private volatile long lastUsedNanos = System.nanoTime();
+        private volatile long lastValidatedNanos = System.nanoTime();
+
+        private PooledConnection(Connection raw) {
+            this.raw = raw;
+            this.statementCache = new StatementCache(raw, statementCacheSize, statementCounters);
+        }
+
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Lease());
+        }
+
+        boolean isUsable() {
+            try {
+                if (raw.isClosed()) {
+                    return false;
+                }
+                if (System.nanoTime() - lastValidatedNanos >= validationInterval.toNanos()) {
+                    boolean valid = raw.isValid(2);
+                    lastValidatedNanos = System.nanoTime();
+                    return valid;
+                }
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        void closeQuietly() {
+            statementCache.closeAll();
+            try {
+                raw.close();
+            } catch (SQLException e) {
+                logger.warn("Error closing pooled connection", e);
+            }
+        }
+
+        private final class Lease implements InvocationHandler {
+            private boolean released;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        release();
+                        return null;
+                    case "isClosed":
+                        return released || raw.isClosed();
+                    case "unwrap":
+                        if (((Class<?>) args[0]).isInstance(proxy)) {
+                            return proxy;
+                        }
+                        break;
+                    case "isWrapperFor":
+                        if (((Class<?>) args[0]).isInstance(proxy)) {
+                            return true;
+                        }
+                        break;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "PooledConnection[" + raw + (released ? ", released]" : "]");
+                    default:
+                        break;
+                }
+
+                synchronized (this) {
+                    if (released) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                }
+
+                // Plain prepareStatement(sql[, autoGeneratedKeys]) calls are served from the cache
+                if (method.getName().equals("prepareStatement")) {
+                    if (args.length == 1) {
+                        return statementCache.borrow((String) args[0], Statement.NO_GENERATED_KEYS);
+                    }
+                    if (args.length == 2 && args[1] instanceof Integer keys) {
+                        return statementCache.borrow((String) args[0], keys);
+                    }
+                }
+
+                try {
+                    return method.invoke(raw, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+
+            synchronized void release() {
+                if (released) {
+                    return;
+                }
+                released = true;
+
+                boolean broken = false;
+                try {
+                    // Never hand a connection with an open transaction to the next caller
+                    if (!raw.isClosed() && !raw.getAutoCommit()) {
+                        raw.rollback();
+                        raw.setAutoCommit(true);
+                    }
+                    broken = raw.isClosed();
+                } catch (SQLException e) {
+                    logger.warn("Discarding pooled connection that failed to reset", e);
+                    broken = true;
+                }
+
+                lastUsedNanos = System.nanoTime();
+                giveBack(PooledConnection.this, broken);
+            }
+        }
+    }
+
+    public static class Builder {
+        private final String url;
+        private int maxSize = 4;
+        private int minIdle = 1;
+        private Duration leaseTimeout = Duration.ofSeconds(10);
+        private Duration idleTimeout = Duration.ofMinutes(5);
+        private Duration validationInterval = Duration.ofSeconds(30);
+        private int statementCacheSize = 32;
+        private final List<ConnectionInitializer> initializers = new ArrayList<>();
+
+        private Builder(String url) {
+            this.url = url;
+        }
+
+        public Builder maxSize(int maxSize) {
+            if (maxSize < 1) {
+                throw new IllegalArgumentException("Pool size must be at least 1");
+            }
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        public Builder minIdle(int minIdle) {
+            this.minIdle = Math.max(0, minIdle);
+            return this;
+        }
+
+        public Builder leaseTimeout(Duration leaseTimeout) {
+            this.leaseTimeout = leaseTimeout;
+            return this;
+        }
+
+        public Builder idleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+            return this;
+        }
+
+        public Builder validationInterval(Duration validationInterval) {
+            this.validationInterval = validationInterval;
+            return this;
+        }
+
+        public Builder statementCacheSize(int statementCacheSize) {
+            this.statementCacheSize = Math.max(0, statementCacheSize);
+            return this;
+        }
+
+        public Builder initializer(ConnectionInitializer initializer) {
+            this.initializers.add(initializer);
+            return this;
+        }
+
+        public ConnectionPool build() {
+            return new ConnectionPool(this);
+        }
+    }
+}
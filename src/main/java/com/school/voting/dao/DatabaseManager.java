@@ -6,20 +6,53 @@ package com.school.voting.dao;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.nio.file.Path;
 import java.sql.*;
+import java.time.Duration;
 
 public class DatabaseManager {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseManager.class);
-    private static final String DB_NAME = "school_voting.db";
+    private static final String DB_NAME = System.getProperty("voting.db.path", "school_voting.db");
     private static final String DB_URL = "jdbc:sqlite:" + DB_NAME;
+    // ArchiveExportService runs two fewer render workers than this, so bulk exports never take every connection
+    private static final int POOL_SIZE = Integer.getInteger("voting.db.pool.size", 4);
+    private static final int BUSY_TIMEOUT_MS = 5000;
+    private static final int VOTE_BATCH_SIZE = Integer.getInteger("voting.db.batch.maxVotes", 64);
+    private static final long VOTE_BATCH_DELAY_MS = Long.getLong("voting.db.batch.maxDelayMs", 5);
+    private static final int VOTE_QUEUE_CAPACITY = Integer.getInteger("voting.db.batch.queueCapacity", 1024);
+    private static StorageProfile configuredProfile = StorageProfile.fromName(
+            System.getProperty("voting.db.profile", StorageProfile.DEFAULT.getProfileName()));
     private static DatabaseManager instance;
-    private Connection connection;
+
+    @FunctionalInterface
+    public interface TransactionWork<T> {
+        T execute(Connection connection) throws SQLException;
+    }
+
+    private final String url;
+    private final ConnectionPool pool;
+    private final StorageProfile storageProfile;
+    private final ThreadLocal<Connection> transactionConnection = new ThreadLocal<>();
+    private VoteWriter voteWriter;
 
     private DatabaseManager() {
+        this(DB_URL, POOL_SIZE, configuredProfile);
+    }
+
+    DatabaseManager(String url, int poolSize, StorageProfile storageProfile) {
+        this.url = url;
+        this.storageProfile = storageProfile;
+        this.pool = ConnectionPool.builder(url)
+                .maxSize(poolSize)
+                .minIdle(1)
+                .leaseTimeout(Duration.ofSeconds(10))
+                .idleTimeout(Duration.ofMinutes(5))
+                .validationInterval(Duration.ofSeconds(30))
+                .initializer(DatabaseManager::applyConnectionSettings)
+                .initializer(storageProfile::applyConnectionSettings)
+                .build();
         initializeDatabase();
     }
 
@@ -30,109 +63,206 @@ public class DatabaseManager {
         return instance;
     }
 
-    private void initializeDatabase() {
-        try {
-            connection = DriverManager.getConnection(DB_URL);
-            connection.setAutoCommit(true);
-            
-            // Enable foreign keys
-            try (Statement stmt = connection.createStatement()) {
-                stmt.execute("PRAGMA foreign_keys = ON");
-            }
-            
-            // Check if tables exist
-            if (!tablesExist()) {
-                createTables();
-            }
-            
-            logger.info("Database initialized successfully");
-        } catch (SQLException e) {
-            logger.error("Failed to initialize database", e);
-            throw new RuntimeException("Database initialization failed", e);
+    // Must be called before the first getInstance() call, typically from MainApp
+    public static synchronized void configure(StorageProfile profile) {
+        if (instance != null) {
+            throw new IllegalStateException("Storage profile must be chosen before the database is opened");
         }
+        configuredProfile = profile;
     }
 
-    private boolean tablesExist() throws SQLException {
-        DatabaseMetaData meta = connection.getMetaData();
-        try (ResultSet rs = meta.getTables(null, null, "voting_sessions", null)) {
-            return rs.next();
+    private static void applyConnectionSettings(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            // Enable foreign keys
+            stmt.execute("PRAGMA foreign_keys = ON");
+            // Wait for competing writers instead of failing with SQLITE_BUSY
+            stmt.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MS);
         }
     }
 
-    private void createTables() throws SQLException {
-        try {
-            String schema = Files.readString(
-                Path.of(getClass().getResource("/db/schema.sql").toURI()),
-                StandardCharsets.UTF_8
-            );
+    private void initializeDatabase() {
+        try (Connection conn = pool.lease()) {
+            storageProfile.applyDatabaseSettings(conn);
             
-            try (Statement stmt = connection.createStatement()) {
-                for (String sql : schema.split(";")) {
-                    if (!sql.trim().isEmpty()) {
-                        stmt.execute(sql.trim());
-                    }
-                }
-            }
+            // Apply any schema migrations this database has not seen yet
+            int applied = SchemaMigrator.migrate(conn);
             
-            logger.info("Database tables created successfully");
-        } catch (Exception e) {
-            logger.error("Failed to create database tables", e);
-            throw new SQLException("Failed to create database tables", e);
+            logger.info("Database initialized successfully at schema version {} ({} migrations applied) " +
+                "with storage profile '{}' ({})",
+                SchemaMigrator.latestVersion(), applied, storageProfile, pool.metrics());
+        } catch (SQLException e) {
+            logger.error("Failed to initialize database", e);
+            throw new RuntimeException("Database initialization failed", e);
         }
     }
 
-    public synchronized Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection(DB_URL);
-            connection.setAutoCommit(true);
-            
-            try (Statement stmt = connection.createStatement()) {
-                stmt.execute("PRAGMA foreign_keys = ON");
-            }
+    /**
+     * Leases a connection from the pool. Closing the returned connection hands it back.
+     * Inside a transaction the thread's transaction connection is returned instead and
+     * closing it is a no-op until the transaction is committed or rolled back.
+     */
+    public Connection getConnection() throws SQLException {
+        Connection bound = transactionConnection.get();
+        if (bound != null) {
+            return nonClosing(bound);
         }
-        return connection;
+        return pool.lease();
     }
 
     public void beginTransaction() throws SQLException {
-        getConnection().setAutoCommit(false);
+        if (transactionConnection.get() != null) {
+            throw new SQLException("A transaction is already active on this thread");
+        }
+        
+        Connection conn = pool.lease();
+        try {
+            conn.setAutoCommit(false);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        transactionConnection.set(conn);
     }
 
     public void commitTransaction() throws SQLException {
+        Connection conn = requireTransaction();
         try {
-            getConnection().commit();
+            conn.commit();
         } finally {
-            getConnection().setAutoCommit(true);
+            endTransaction(conn);
         }
     }
 
     public void rollbackTransaction() throws SQLException {
+        Connection conn = requireTransaction();
         try {
-            getConnection().rollback();
+            conn.rollback();
         } finally {
-            getConnection().setAutoCommit(true);
+            endTransaction(conn);
         }
     }
 
-    public void closeConnection() {
-        if (connection != null) {
+    public boolean isInTransaction() {
+        return transactionConnection.get() != null;
+    }
+
+    /**
+     * Runs the work in a single transaction, joining the caller's transaction if one is
+     * already active on this thread.
+     */
+    public <T> T inTransaction(TransactionWork<T> work) throws SQLException {
+        if (isInTransaction()) {
+            return work.execute(getConnection());
+        }
+        
+        beginTransaction();
+        try {
+            T result = work.execute(getConnection());
+            commitTransaction();
+            return result;
+        } catch (SQLException | RuntimeException e) {
             try {
-                connection.close();
-                logger.info("Database connection closed");
-            } catch (SQLException e) {
-                logger.error("Error closing database connection", e);
+                rollbackTransaction();
+            } catch (SQLException rollbackFailure) {
+                e.addSuppressed(rollbackFailure);
             }
+            throw e;
         }
     }
 
+    // The single writer that group-commits votes for every DAO sharing this database
+    public synchronized VoteWriter getVoteWriter() {
+        if (voteWriter == null) {
+            voteWriter = new VoteWriter(this, VOTE_BATCH_SIZE, Duration.ofMillis(VOTE_BATCH_DELAY_MS),
+                    VOTE_QUEUE_CAPACITY, Duration.ofSeconds(2));
+        }
+        return voteWriter;
+    }
+
+    public StorageProfile getStorageProfile() {
+        return storageProfile;
+    }
+
+    public PoolMetrics getPoolMetrics() {
+        return pool.metrics();
+    }
+
+    public void closeConnection() {
+        synchronized (this) {
+            if (voteWriter != null) {
+                voteWriter.close();
+                voteWriter = null;
+            }
+        }
+        pool.close();
+        logger.info("Database connection pool closed");
+    }
+
+    // Writes a consistent copy of the live database to a new file while voting continues
+    public void backupTo(Path target) throws SQLException {
+        if (isInTransaction()) {
+            throw new SQLException("Cannot back up the database inside a transaction");
+        }
+        // A pooled connection keeps cached statements open, which VACUUM refuses to run beside
+        try (Connection conn = DriverManager.getConnection(url);
+             PreparedStatement stmt = conn.prepareStatement("VACUUM INTO ?")) {
+            applyConnectionSettings(conn);
+            stmt.setString(1, target.toAbsolutePath().toString());
+            stmt.execute();
+        }
+        logger.info("Database backed up to {}", target.toAbsolutePath());
+    }
+
     public void resetDatabase() throws SQLException {
         logger.warn("Resetting database - all data will be lost!");
         
-        try (Statement stmt = getConnection().createStatement()) {
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS year_rollups");
+            stmt.execute("DROP TABLE IF EXISTS session_rollups");
+            stmt.execute("DROP TABLE IF EXISTS session_result_rows");
+            stmt.execute("DROP TABLE IF EXISTS session_results");
+            stmt.execute("DROP TABLE IF EXISTS voter_claims");
+            stmt.execute("DROP TABLE IF EXISTS vote_tallies");
             stmt.execute("DROP TABLE IF EXISTS votes");
             stmt.execute("DROP TABLE IF EXISTS parents");
             stmt.execute("DROP TABLE IF EXISTS voting_sessions");
+            stmt.execute("PRAGMA user_version = 0");
+            
+            SchemaMigrator.migrate(conn);
         }
-        
-        createTables();
     }
-}
\ No newline at end of file
+
+    private Connection requireTransaction() throws SQLException {
+        Connection conn = transactionConnection.get();
+        if (conn == null) {
+            throw new SQLException("No transaction is active on this thread");
+        }
+        return conn;
+    }
+
+    private void endTransaction(Connection conn) throws SQLException {
+        transactionConnection.remove();
+        try {
+            conn.setAutoCommit(true);
+        } finally {
+            conn.close();
+        }
+    }
+
+    private static Connection nonClosing(Connection conn) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        return null;
+                    }
+                    try {
+                        return method.invoke(conn, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -4,6 +4,7 @@
 package com.school.voting.dao;
 
 import com.school.voting.model.Parent;
+import com.school.voting.model.SessionProgress;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -15,17 +16,60 @@ import java.util.Optional;
 
 public class ParentDAO {
     private static final Logger logger = LoggerFactory.getLogger(ParentDAO.class);
+
+    private static final String INSERT_PARENT_SQL =
+            "INSERT INTO parents (name, is_candidate, has_voted, session_id) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE_PARENT_SQL =
+            "UPDATE parents SET name = ?, is_candidate = ?, has_voted = ? WHERE id = ?";
+    private static final String SELECT_BY_ID_SQL =
+            "SELECT * FROM parents WHERE id = ?";
+    private static final String SELECT_BY_SESSION_SQL =
+            "SELECT * FROM parents WHERE session_id = ? ORDER BY name";
+    private static final String SELECT_CANDIDATES_SQL =
+            "SELECT * FROM parents WHERE session_id = ? AND is_candidate = 1 ORDER BY name";
+    private static final String SELECT_PENDING_VOTERS_SQL =
+            "SELECT * FROM parents WHERE session_id = ? AND has_voted = 0 ORDER BY name";
+    // Walks idx_parents_session_name, so the roster comes back in name order without a sort
+    private static final String SELECT_PARTICIPATION_SQL =
+            "SELECT p.name, p.is_candidate, p.has_voted, v.id IS NOT NULL AS cast_ballot FROM parents p " +
+            "LEFT JOIN votes v ON v.session_id = p.session_id AND v.voter_id = p.id " +
+            "WHERE p.session_id = ? ORDER BY p.name, p.id";
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final String MARK_CANDIDATE_SQL =
+            "UPDATE parents SET is_candidate = ? WHERE id = ?";
+    private static final String MARK_VOTED_SQL =
+            "UPDATE parents SET has_voted = 1 WHERE id = ?";
+    private static final String DELETE_PARENT_SQL =
+            "DELETE FROM parents WHERE id = ?";
+    private static final String DELETE_BY_SESSION_SQL =
+            "DELETE FROM parents WHERE session_id = ?";
+    private static final String COUNT_PARENTS_SQL =
+            "SELECT COUNT(*) FROM parents WHERE session_id = ?";
+    private static final String COUNT_VOTED_SQL =
+            "SELECT COUNT(*) FROM parents WHERE session_id = ? AND has_voted = 1";
+    private static final String PROGRESS_SQL =
+            "SELECT COUNT(*), COALESCE(SUM(has_voted), 0), " +
+            "(SELECT COUNT(*) FROM votes WHERE session_id = ?) " +
+            "FROM parents WHERE session_id = ?";
+
+    // Receives one parent of a streamed roster at a time
+    public interface ParticipationConsumer {
+        void accept(String name, boolean isCandidate, Parent.Participation participation);
+    }
+
     private final DatabaseManager dbManager;
 
     public ParentDAO() {
-        this.dbManager = DatabaseManager.getInstance();
+        this(DatabaseManager.getInstance());
+    }
+
+    public ParentDAO(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
     }
 
     public Parent insertParent(Parent parent) throws SQLException {
-        String sql = "INSERT INTO parents (name, is_candidate, has_voted, session_id) VALUES (?, ?, ?, ?)";
-        
         try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = conn.prepareStatement(INSERT_PARENT_SQL, Statement.RETURN_GENERATED_KEYS)) {
             
             stmt.setString(1, parent.getName());
             stmt.setBoolean(2, parent.isCandidate());
@@ -50,11 +94,34 @@ public class ParentDAO {
         }
     }
 
+    // Inserts a whole roster through one prepared statement in a single transaction
+    public List<Parent> insertParents(List<Parent> parents) throws SQLException {
+        return dbManager.inTransaction(conn -> {
+            List<Parent> inserted = new ArrayList<>(parents.size());
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_PARENT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (Parent parent : parents) {
+                    stmt.setString(1, parent.getName());
+                    stmt.setBoolean(2, parent.isCandidate());
+                    stmt.setBoolean(3, parent.hasVoted());
+                    stmt.setInt(4, parent.getSessionId());
+                    stmt.executeUpdate();
+
+                    try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                        if (!generatedKeys.next()) {
+                            throw new SQLException("Creating parent failed, no ID obtained.");
+                        }
+                        inserted.add(parent.toBuilder().id(generatedKeys.getInt(1)).build());
+                    }
+                }
+            }
+            logger.debug("Inserted {} parents", inserted.size());
+            return inserted;
+        });
+    }
+
     public void updateParent(Parent parent) throws SQLException {
-        String sql = "UPDATE parents SET name = ?, is_candidate = ?, has_voted = ? WHERE id = ?";
-        
         try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_PARENT_SQL)) {
             
             stmt.setString(1, parent.getName());
             stmt.setBoolean(2, parent.isCandidate());
@@ -70,10 +137,8 @@ public class ParentDAO {
     }
 
     public Optional<Parent> getParentById(int id) throws SQLException {
-        String sql = "SELECT * FROM parents WHERE id = ?";
-        
         try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ID_SQL)) {
             
             stmt.setInt(1, id);
             
@@ -88,11 +153,10 @@ public class ParentDAO {
     }
 
     public List<Parent> getParentsBySession(int sessionId) throws SQLException {
-        String sql = "SELECT * FROM parents WHERE session_id = ? ORDER BY name";
         List<Parent> parents = new ArrayList<>();
         
         try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_SESSION_SQL)) {
             
             stmt.setInt(1, sessionId);
             
@@ -107,11 +171,10 @@ public class ParentDAO {
     }
 
     public List<Parent> getCandidatesBySession(int sessionId) throws SQLException {
-        String sql = "SELECT * FROM parents WHERE session_id = ? AND is_candidate = 1 ORDER BY name";
         List<Parent> candidates = new ArrayList<>();
         
         try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(SELECT_CANDIDATES_SQL)) {
             
             stmt.setInt(1, sessionId);
             
@@ -126,11 +189,10 @@ public class ParentDAO {
     }
 
     public List<Parent> getVotersBySession(int sessionId) throws SQLException {
-        String sql = "SELECT * FROM parents WHERE session_id = ? AND has_voted = 0 ORDER BY name";
         List<Parent> voters = new ArrayList<>();
         
         try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(SELECT_PENDING_VOTERS_SQL)) {
             
             stmt.setInt(1, sessionId);
             
@@ -144,11 +206,36 @@ public class ParentDAO {
         return voters;
     }
 
-    public void markAsCandidate(int parentId, boolean isCandidate) throws SQLException {
-        String sql = "UPDATE parents SET is_candidate = ? WHERE id = ?";
+    /**
+     * Passes every parent of the session to the consumer in name order, straight from a
+     * forward-only cursor, so the roster is never held in memory. Returns how many there were.
+     */
+    public int streamParticipation(int sessionId, ParticipationConsumer consumer) throws SQLException {
+        int parents = 0;
+        
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_PARTICIPATION_SQL,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            
+            stmt.setInt(1, sessionId);
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Parent.Participation participation = rs.getBoolean("cast_ballot") ? Parent.Participation.VOTED
+                            : rs.getBoolean("has_voted") ? Parent.Participation.SKIPPED
+                            : Parent.Participation.NOT_VOTED;
+                    consumer.accept(rs.getString("name"), rs.getBoolean("is_candidate"), participation);
+                    parents++;
+                }
+            }
+        }
         
+        return parents;
+    }
+
+    public void markAsCandidate(int parentId, boolean isCandidate) throws SQLException {
         try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(MARK_CANDIDATE_SQL)) {
             
             stmt.setBoolean(1, isCandidate);
             stmt.setInt(2, parentId);
@@ -162,10 +249,8 @@ public class ParentDAO {
     }
 
     public void markAsVoted(int parentId) throws SQLException {
-        String sql = "UPDATE parents SET has_voted = 1 WHERE id = ?";
-        
         try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(MARK_VOTED_SQL)) {
             
             stmt.setInt(1, parentId);
             
@@ -178,10 +263,8 @@ public class ParentDAO {
     }
 
     public void deleteParent(int parentId) throws SQLException {
-        String sql = "DELETE FROM parents WHERE id = ?";
-        
         try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(DELETE_PARENT_SQL)) {
             
             stmt.setInt(1, parentId);
             stmt.executeUpdate();
@@ -189,10 +272,8 @@ public class ParentDAO {
     }
     
     public void deleteParentsBySession(int sessionId) throws SQLException {
-        String sql = "DELETE FROM parents WHERE session_id = ?";
-        
         try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(DELETE_BY_SESSION_SQL)) {
             
             stmt.setInt(1, sessionId);
             int deleted = stmt.executeUpdate();
@@ -201,10 +282,8 @@ public class ParentDAO {
     }
 
     public int getParentCount(int sessionId) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM parents WHERE session_id = ?";
-        
         try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(COUNT_PARENTS_SQL)) {
             
             stmt.setInt(1, sessionId);
             
@@ -219,10 +298,8 @@ public class ParentDAO {
     }
 
     public int getVotedCount(int sessionId) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM parents WHERE session_id = ? AND has_voted = 1";
-        
         try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(COUNT_VOTED_SQL)) {
             
             stmt.setInt(1, sessionId);
             
@@ -236,7 +313,21 @@ public class ParentDAO {
         return 0;
     }
 
-    private Parent mapResultSetToParent(ResultSet rs) throws SQLException {
+    public SessionProgress getSessionProgress(int sessionId) throws SQLException {
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(PROGRESS_SQL)) {
+            
+            stmt.setInt(1, sessionId);
+            stmt.setInt(2, sessionId);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return new SessionProgress(sessionId, rs.getInt(1), rs.getInt(2), rs.getInt(3));
+            }
+        }
+    }
+
+    static Parent mapResultSetToParent(ResultSet rs) throws SQLException {
         return Parent.builder()
                 .id(rs.getInt("id"))
                 .name(rs.getString("name"))
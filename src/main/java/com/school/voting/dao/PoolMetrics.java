@@ -0,0 +1,111 @@
+// ABOUTME: Immutable snapshot of connection pool statistics
+// ABOUTME: Reports active/idle connections, lease counts, wait times and statement cache hits
+
+package com.school.voting.dao;
+
+public final class PoolMetrics {
+    private final int active;
+    private final int idle;
+    private final int maxSize;
+    private final int waiting;
+    private final long leaseCount;
+    private final long createdCount;
+    private final long evictedCount;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+    private final long statementCacheEvictions;
+
+    public PoolMetrics(int active, int idle, int maxSize, int waiting, long leaseCount,
+                       long createdCount, long evictedCount, long totalWaitNanos, long maxWaitNanos,
+                       long statementCacheHits, long statementCacheMisses, long statementCacheEvictions) {
+        this.active = active;
+        this.idle = idle;
+        this.maxSize = maxSize;
+        this.waiting = waiting;
+        this.leaseCount = leaseCount;
+        this.createdCount = createdCount;
+        this.evictedCount = evictedCount;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.statementCacheHits = statementCacheHits;
+        this.statementCacheMisses = statementCacheMisses;
+        this.statementCacheEvictions = statementCacheEvictions;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getWaiting() {
+        return waiting;
+    }
+
+    public long getLeaseCount() {
+        return leaseCount;
+    }
+
+    public long getCreatedCount() {
+        return createdCount;
+    }
+
+    public long getEvictedCount() {
+        return evictedCount;
+    }
+
+    public long getTotalWaitNanos() {
+        return totalWaitNanos;
+    }
+
+    public long getMaxWaitNanos() {
+        return maxWaitNanos;
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits;
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses;
+    }
+
+    public long getStatementCacheEvictions() {
+        return statementCacheEvictions;
+    }
+
+    public double getStatementCacheHitRatio() {
+        long lookups = statementCacheHits + statementCacheMisses;
+        return lookups == 0 ? 0 : (double) statementCacheHits / lookups;
+    }
+
+    public double getAverageWaitMillis() {
+        return leaseCount == 0 ? 0 : totalWaitNanos / 1_000_000.0 / leaseCount;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolMetrics{" +
+                "active=" + active +
+                ", idle=" + idle +
+                ", maxSize=" + maxSize +
+                ", waiting=" + waiting +
+                ", leases=" + leaseCount +
+                ", created=" + createdCount +
+                ", evicted=" + evictedCount +
+                ", avgWaitMs=" + String.format("%.3f", getAverageWaitMillis()) +
+                ", maxWaitMs=" + String.format("%.3f", maxWaitNanos / 1_000_000.0) +
+                ", stmtHits=" + statementCacheHits +
+                ", stmtMisses=" + statementCacheMisses +
+                ", stmtEvictions=" + statementCacheEvictions +
+                '}';
+    }
+}
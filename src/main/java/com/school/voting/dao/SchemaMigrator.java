@@ -0,0 +1,182 @@
+// ABOUTME: Brings the SQLite schema up to date by applying ordered migration scripts once each
+// ABOUTME: Tracks the applied version in PRAGMA user_version and runs every script in its own transaction
+
+package com.school.voting.dao;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+final class SchemaMigrator {
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrator.class);
+    private static final String MIGRATION_PATH = "/db/migration/";
+
+    // Applied in order; the number after V is the schema version the script produces
+    static final List<String> MIGRATIONS = List.of(
+            "V1__baseline.sql",
+            "V2__vote_tallies.sql",
+            "V3__pending_voter_index.sql",
+            "V4__voter_claims.sql",
+            "V5__session_results.sql",
+            "V6__session_history_index.sql",
+            "V7__participation_rollups.sql",
+            "V8__ranked_ballots.sql",
+            "V9__votes_session_voter_index.sql",
+            "V10__parents_session_name_index.sql"
+    );
+
+    private SchemaMigrator() {
+    }
+
+    static int latestVersion() {
+        return versionOf(MIGRATIONS.get(MIGRATIONS.size() - 1));
+    }
+
+    /**
+     * Applies every migration newer than the database's user_version. Returns the number
+     * of scripts applied; a current database costs a single PRAGMA read.
+     */
+    static int migrate(Connection conn) throws SQLException {
+        int current = readVersion(conn);
+        if (current == latestVersion()) {
+            return 0;
+        }
+        if (current > latestVersion()) {
+            throw new SQLException("Database schema version " + current
+                    + " is newer than this application supports (" + latestVersion() + ")");
+        }
+
+        if (current == 0) {
+            current = detectLegacyVersion(conn);
+            if (current > 0) {
+                logger.info("Adopting existing database as schema version {}", current);
+                writeVersion(conn, current);
+            }
+        }
+
+        int applied = 0;
+        for (String migration : MIGRATIONS) {
+            int version = versionOf(migration);
+            if (version > current) {
+                apply(conn, migration, version);
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    static int readVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void apply(Connection conn, String migration, int version) throws SQLException {
+        List<String> statements = splitStatements(load(migration));
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+            // user_version is part of the database header, so it commits or rolls back with the script
+            stmt.execute("PRAGMA user_version = " + version);
+            conn.commit();
+            logger.info("Applied migration {} ({} statements)", migration, statements.size());
+        } catch (SQLException e) {
+            conn.rollback();
+            throw new SQLException("Migration " + migration + " failed", e);
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    // Databases created before user_version was tracked are recognised by their tables
+    private static int detectLegacyVersion(Connection conn) throws SQLException {
+        if (!tableExists(conn, "voting_sessions")) {
+            return 0;
+        }
+        return tableExists(conn, "vote_tallies") ? 2 : 1;
+    }
+
+    private static boolean tableExists(Connection conn, String table) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet rs = meta.getTables(null, null, table, null)) {
+            return rs.next();
+        }
+    }
+
+    private static void writeVersion(Connection conn, int version) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA user_version = " + version);
+        }
+    }
+
+    private static int versionOf(String migration) {
+        return Integer.parseInt(migration.substring(1, migration.indexOf("__")));
+    }
+
+    private static String load(String migration) throws SQLException {
+        try (InputStream in = SchemaMigrator.class.getResourceAsStream(MIGRATION_PATH + migration)) {
+            if (in == null) {
+                throw new SQLException("Migration script not found: " + migration);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SQLException("Failed to read migration " + migration, e);
+        }
+    }
+
+    // Splits on semicolons outside of string literals and -- comments
+    static List<String> splitStatements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inString = false;
+        boolean inComment = false;
+
+        for (int i = 0; i < script.length(); i++) {
+            char c = script.charAt(i);
+            if (inComment) {
+                if (c == '\n') {
+                    inComment = false;
+                    current.append(c);
+                }
+            } else if (inString) {
+                current.append(c);
+                if (c == '\'') {
+                    inString = false;
+                }
+            } else if (c == '-' && i + 1 < script.length() && script.charAt(i + 1) == '-') {
+                inComment = true;
+            } else if (c == '\'') {
+                inString = true;
+                current.append(c);
+            } else if (c == ';') {
+                addStatement(statements, current);
+            } else {
+                current.append(c);
+            }
+        }
+        addStatement(statements, current);
+        return statements;
+    }
+
+    private static void addStatement(List<String> statements, StringBuilder current) {
+        String sql = current.toString().trim();
+        if (!sql.isEmpty()) {
+            statements.add(sql);
+        }
+        current.setLength(0);
+    }
+}
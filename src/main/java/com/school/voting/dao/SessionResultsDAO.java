@@ -0,0 +1,197 @@
+// ABOUTME: Data Access Object for the frozen results record of completed sessions
+// ABOUTME: Writes the ranking and a checksum of the ballots at completion and reads them back without touching votes
+
+package com.school.voting.dao;
+
+import com.school.voting.model.CandidateResult;
+import com.school.voting.model.Parent;
+import com.school.voting.model.ResultsSnapshot;
+import com.school.voting.model.VotingSession;
+import com.school.voting.tally.BallotBox;
+import com.school.voting.tally.TallyStrategies;
+import com.school.voting.tally.TallyStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+public class SessionResultsDAO {
+    private static final Logger logger = LoggerFactory.getLogger(SessionResultsDAO.class);
+
+    private static final String INSERT_RESULTS_SQL =
+            "INSERT INTO session_results (session_id, total_votes, total_parents, votes_checksum) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_ROW_SQL =
+            "INSERT INTO session_result_rows (session_id, position, candidate_id, candidate_name, votes, " +
+            "percentage, rank, tied) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_RESULTS_SQL =
+            "SELECT total_votes, total_parents, votes_checksum FROM session_results WHERE session_id = ?";
+    private static final String SELECT_ROWS_SQL =
+            "SELECT * FROM session_result_rows WHERE session_id = ? ORDER BY position";
+    private static final String SELECT_BALLOTS_SQL =
+            "SELECT voter_id, candidate_id, ranking FROM votes WHERE session_id = ? ORDER BY voter_id";
+    private static final String SELECT_TALLY_METHOD_SQL =
+            "SELECT tally_method FROM voting_sessions WHERE id = ?";
+
+    private final DatabaseManager dbManager;
+    private final ParentDAO parentDAO;
+    private final VoteDAO voteDAO;
+
+    public SessionResultsDAO() {
+        this(DatabaseManager.getInstance());
+    }
+
+    public SessionResultsDAO(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+        this.parentDAO = new ParentDAO(dbManager);
+        this.voteDAO = new VoteDAO(dbManager);
+    }
+
+    /**
+     * Computes the session's final results and stores them. Joins the caller's transaction,
+     * so completing a session and freezing its results commit together.
+     */
+    public ResultsSnapshot freezeResults(int sessionId) throws SQLException {
+        return dbManager.inTransaction(conn -> {
+            ResultsSnapshot results = countResults(sessionId, parentDAO.getParentCount(sessionId))
+                    .frozen(computeVotesChecksum(conn, sessionId));
+
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_RESULTS_SQL)) {
+                stmt.setInt(1, sessionId);
+                stmt.setInt(2, results.getTotalVotes());
+                stmt.setInt(3, results.getTotalParents());
+                stmt.setString(4, results.getVotesChecksum());
+                stmt.executeUpdate();
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_ROW_SQL)) {
+                List<CandidateResult> ranking = results.getRanking();
+                for (int position = 0; position < ranking.size(); position++) {
+                    CandidateResult row = ranking.get(position);
+                    stmt.setInt(1, sessionId);
+                    stmt.setInt(2, position);
+                    stmt.setInt(3, row.getCandidateId());
+                    stmt.setString(4, row.getName());
+                    stmt.setInt(5, row.getVotes());
+                    stmt.setDouble(6, row.getPercentage());
+                    stmt.setInt(7, row.getRank());
+                    stmt.setBoolean(8, row.isTied());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+
+            logger.info("Froze results for session {}: {} votes, checksum {}",
+                    sessionId, results.getTotalVotes(), results.getVotesChecksum());
+            return results;
+        });
+    }
+
+    /**
+     * Counts the session's ballots with the strategy for its tally method. Plurality only
+     * needs the stored tallies; ranked methods read each distinct ballot once.
+     */
+    public ResultsSnapshot countResults(int sessionId, int totalParents) throws SQLException {
+        TallyStrategy strategy = TallyStrategies.forMethod(getTallyMethod(sessionId));
+        List<Parent> candidates = parentDAO.getCandidatesBySession(sessionId);
+        BallotBox ballots = strategy.usesRankings()
+                ? voteDAO.getBallots(sessionId, candidates)
+                : BallotBox.ofFirstChoices(candidates, voteDAO.getVoteCountsBySession(sessionId));
+        return new ResultsSnapshot(sessionId, strategy.count(ballots), ballots.getTotalBallots(), totalParents);
+    }
+
+    private VotingSession.TallyMethod getTallyMethod(int sessionId) throws SQLException {
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_TALLY_METHOD_SQL)) {
+            stmt.setInt(1, sessionId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("Session " + sessionId + " does not exist");
+                }
+                return VotingSession.TallyMethod.valueOf(rs.getString("tally_method"));
+            }
+        }
+    }
+
+    // Empty until the session has been completed
+    public Optional<ResultsSnapshot> findResults(int sessionId) throws SQLException {
+        try (Connection conn = dbManager.getConnection()) {
+            int totalVotes;
+            int totalParents;
+            String checksum;
+            try (PreparedStatement stmt = conn.prepareStatement(SELECT_RESULTS_SQL)) {
+                stmt.setInt(1, sessionId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return Optional.empty();
+                    }
+                    totalVotes = rs.getInt("total_votes");
+                    totalParents = rs.getInt("total_parents");
+                    checksum = rs.getString("votes_checksum");
+                }
+            }
+
+            List<CandidateResult> ranking = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(SELECT_ROWS_SQL)) {
+                stmt.setInt(1, sessionId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        ranking.add(new CandidateResult(
+                                rs.getInt("candidate_id"),
+                                rs.getString("candidate_name"),
+                                rs.getInt("votes"),
+                                rs.getDouble("percentage"),
+                                rs.getInt("rank"),
+                                rs.getBoolean("tied")));
+                    }
+                }
+            }
+            return Optional.of(new ResultsSnapshot(sessionId, ranking, totalVotes, totalParents, checksum));
+        }
+    }
+
+    // False when ballots were changed after the session's results were frozen
+    public boolean verifyResults(int sessionId) throws SQLException {
+        Optional<ResultsSnapshot> frozen = findResults(sessionId);
+        if (frozen.isEmpty()) {
+            return true;
+        }
+        try (Connection conn = dbManager.getConnection()) {
+            return frozen.get().getVotesChecksum().equals(computeVotesChecksum(conn, sessionId));
+        }
+    }
+
+    private static String computeVotesChecksum(Connection conn, int sessionId) throws SQLException {
+        MessageDigest digest = newChecksumDigest();
+
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_BALLOTS_SQL)) {
+            stmt.setInt(1, sessionId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    addToChecksum(digest, rs.getInt(1), rs.getInt(2), rs.getBytes(3));
+                }
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    static MessageDigest newChecksumDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Ballots must be added in voter id order; single-choice ballots hash as they did before rankings were stored
+    static void addToChecksum(MessageDigest digest, int voterId, int candidateId, byte[] ranking) {
+        String line = voterId + ":" + candidateId + (ranking != null ? ":" + HexFormat.of().formatHex(ranking) : "");
+        digest.update((line + "\n").getBytes(StandardCharsets.US_ASCII));
+    }
+}
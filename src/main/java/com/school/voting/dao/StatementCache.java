@@ -0,0 +1,166 @@
+// ABOUTME: Per-connection LRU cache of PreparedStatements keyed by SQL text
+// ABOUTME: Hands out borrowed statements whose close() resets and returns them instead of closing
+
+package com.school.voting.dao;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+final class StatementCache {
+    private static final Logger logger = LoggerFactory.getLogger(StatementCache.class);
+
+    // Counters are shared by all caches of one pool so metrics cover every connection
+    static final class Counters {
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder evictions = new LongAdder();
+    }
+
+    private final Connection connection;
+    private final int maxSize;
+    private final Counters counters;
+    private final LinkedHashMap<String, CachedStatement> statements;
+
+    StatementCache(Connection connection, int maxSize, Counters counters) {
+        this.connection = connection;
+        this.maxSize = maxSize;
+        this.counters = counters;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    synchronized PreparedStatement borrow(String sql, int autoGeneratedKeys) throws SQLException {
+        String key = autoGeneratedKeys + ":" + sql;
+        CachedStatement cached = statements.get(key);
+
+        if (cached != null && !cached.borrowed) {
+            counters.hits.increment();
+            cached.borrowed = true;
+            return cached.view();
+        }
+
+        counters.misses.increment();
+        PreparedStatement raw = connection.prepareStatement(sql, autoGeneratedKeys);
+        if (cached != null || maxSize == 0) {
+            // Same SQL is already in use on this connection (e.g. nested query); don't cache
+            return raw;
+        }
+
+        cached = new CachedStatement(raw);
+        cached.borrowed = true;
+        statements.put(key, cached);
+        evictOverflow();
+        return cached.view();
+    }
+
+    synchronized void closeAll() {
+        for (CachedStatement cached : statements.values()) {
+            cached.closeQuietly();
+        }
+        statements.clear();
+    }
+
+    private void evictOverflow() {
+        if (statements.size() <= maxSize) {
+            return;
+        }
+        List<String> victims = new ArrayList<>();
+        int excess = statements.size() - maxSize;
+        for (Map.Entry<String, CachedStatement> entry : statements.entrySet()) {
+            if (excess == 0) {
+                break;
+            }
+            // Least recently used first; never evict a statement somebody is holding
+            if (!entry.getValue().borrowed) {
+                victims.add(entry.getKey());
+                excess--;
+            }
+        }
+        for (String victim : victims) {
+            statements.remove(victim).closeQuietly();
+            counters.evictions.increment();
+        }
+    }
+
+    private synchronized void giveBack(CachedStatement cached, boolean reusable) {
+        cached.borrowed = false;
+        if (!reusable) {
+            statements.values().remove(cached);
+            cached.closeQuietly();
+        } else if (!statements.containsValue(cached)) {
+            // Evicted or cache closed while borrowed
+            cached.closeQuietly();
+        }
+    }
+
+    private final class CachedStatement {
+        private final PreparedStatement raw;
+        private boolean borrowed;
+
+        private CachedStatement(PreparedStatement raw) {
+            this.raw = raw;
+        }
+
+        PreparedStatement view() {
+            boolean[] returned = {false};
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "close":
+                                if (!returned[0]) {
+                                    returned[0] = true;
+                                    giveBack(this, reset());
+                                }
+                                return null;
+                            case "isClosed":
+                                return returned[0] || raw.isClosed();
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            default:
+                                break;
+                        }
+                        if (returned[0]) {
+                            throw new SQLException("Statement has already been returned to the cache");
+                        }
+                        try {
+                            return method.invoke(raw, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+
+        private boolean reset() {
+            try {
+                raw.clearParameters();
+                raw.clearBatch();
+                return !raw.isClosed();
+            } catch (SQLException e) {
+                logger.debug("Failed to reset cached statement, discarding it", e);
+                return false;
+            }
+        }
+
+        void closeQuietly() {
+            try {
+                raw.close();
+            } catch (SQLException e) {
+                logger.warn("Error closing cached statement", e);
+            }
+        }
+    }
+}
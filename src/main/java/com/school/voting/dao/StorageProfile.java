@@ -0,0 +1,94 @@
+// ABOUTME: Named SQLite durability/throughput profiles selectable at application startup
+// ABOUTME: Each profile sets journal mode, synchronous level, mmap size, page cache and temp store
+
+package com.school.voting.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Locale;
+
+public enum StorageProfile {
+    // WAL with a full fsync on every commit: an acknowledged vote survives power loss
+    KIOSK_SAFE("kiosk-safe", "WAL", "FULL", 0, -8_000, "MEMORY"),
+    // WAL with fsync only at checkpoints: survives application crashes, may lose the
+    // last few commits on power loss but never corrupts the database
+    BALANCED("balanced", "WAL", "NORMAL", 64L * 1024 * 1024, -16_000, "MEMORY"),
+    // No fsync at all: for loading rosters or test data, never for live voting
+    BULK_IMPORT("bulk-import", "WAL", "OFF", 256L * 1024 * 1024, -64_000, "MEMORY");
+
+    public static final StorageProfile DEFAULT = KIOSK_SAFE;
+
+    private final String profileName;
+    private final String journalMode;
+    private final String synchronous;
+    private final long mmapSize;
+    private final int cacheSize;
+    private final String tempStore;
+
+    StorageProfile(String profileName, String journalMode, String synchronous,
+                   long mmapSize, int cacheSize, String tempStore) {
+        this.profileName = profileName;
+        this.journalMode = journalMode;
+        this.synchronous = synchronous;
+        this.mmapSize = mmapSize;
+        this.cacheSize = cacheSize;
+        this.tempStore = tempStore;
+    }
+
+    public static StorageProfile fromName(String name) {
+        String normalized = name.trim().toLowerCase(Locale.ROOT).replace('_', '-');
+        return Arrays.stream(values())
+                .filter(profile -> profile.profileName.equals(normalized))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown storage profile: " + name
+                        + " (expected one of kiosk-safe, balanced, bulk-import)"));
+    }
+
+    public String getProfileName() {
+        return profileName;
+    }
+
+    public String getJournalMode() {
+        return journalMode;
+    }
+
+    public String getSynchronous() {
+        return synchronous;
+    }
+
+    public long getMmapSize() {
+        return mmapSize;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public String getTempStore() {
+        return tempStore;
+    }
+
+    // journal_mode is persistent in the database file, so it only needs to be set once
+    void applyDatabaseSettings(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA journal_mode = " + journalMode);
+        }
+    }
+
+    // The remaining settings are per connection and are applied by the pool's init hook
+    void applyConnectionSettings(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA synchronous = " + synchronous);
+            stmt.execute("PRAGMA mmap_size = " + mmapSize);
+            stmt.execute("PRAGMA cache_size = " + cacheSize);
+            stmt.execute("PRAGMA temp_store = " + tempStore);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return profileName;
+    }
+}
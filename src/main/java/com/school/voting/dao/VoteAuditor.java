@@ -0,0 +1,246 @@
+// ABOUTME: Independent recount of every ballot, checked against tallies, results and parents' voted flags
+// ABOUTME: Streams votes and parents once with forward-only cursors inside one read transaction, in fixed memory
+
+package com.school.voting.dao;
+
+import com.school.voting.model.AuditReport;
+import com.school.voting.model.CandidateResult;
+import com.school.voting.model.ResultsSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.MessageDigest;
+import java.sql.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Votes and parents are both read in (session, id) order and merged, so a ballot and its
+ * voter meet without either table being held in memory. Only the current session's
+ * recount and candidate ids are kept. The read transaction pins one snapshot: votes cast
+ * while the audit runs are neither counted nor reported, and writers are not blocked.
+ */
+public class VoteAuditor {
+    private static final Logger logger = LoggerFactory.getLogger(VoteAuditor.class);
+
+    // Findings beyond this are counted but not kept
+    public static final int MAX_LISTED_FINDINGS = 200;
+    private static final int PROGRESS_INTERVAL = 1_000;
+
+    private static final String COUNT_VOTES_SQL =
+            "SELECT COUNT(*) FROM votes";
+    private static final String SELECT_SESSIONS_SQL =
+            "SELECT id FROM voting_sessions ORDER BY id";
+    private static final String SELECT_VOTES_SQL =
+            "SELECT session_id, voter_id, candidate_id, ranking FROM votes ORDER BY session_id, voter_id";
+    private static final String SELECT_PARENTS_SQL =
+            "SELECT session_id, id, is_candidate, has_voted FROM parents ORDER BY session_id, id";
+    private static final String SELECT_TALLIES_SQL =
+            "SELECT candidate_id, count FROM vote_tallies WHERE session_id = ?";
+
+    // Called every thousand ballots; an unchecked exception thrown here ends the audit
+    public interface Progress {
+        void update(long votesScanned, long totalVotes);
+    }
+
+    private final DatabaseManager dbManager;
+    private final SessionResultsDAO resultsDAO;
+
+    public VoteAuditor() {
+        this(DatabaseManager.getInstance());
+    }
+
+    public VoteAuditor(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+        this.resultsDAO = new SessionResultsDAO(dbManager);
+    }
+
+    public AuditReport audit(Progress progress) throws SQLException {
+        long started = System.nanoTime();
+        // Read-only, so it only pins a snapshot; the write-ahead log lets voting carry on
+        Audit audit = dbManager.inTransaction(conn -> {
+            Audit run = new Audit(progress);
+            run.scan(conn);
+            return run;
+        });
+        AuditReport report = new AuditReport(audit.sessions, audit.votesScanned, audit.parentsScanned,
+                Duration.ofNanos(System.nanoTime() - started), audit.findings, audit.findingCount);
+        logger.info("Audited {} ballots in {} sessions at {} ballots/s: {} findings", report.getVotesScanned(),
+                report.getSessions(), Math.round(report.getVotesPerSecond()), report.getFindingCount());
+        return report;
+    }
+
+    // State of one audit run; the per-session collections are cleared and reused for every session
+    private final class Audit {
+        private final Progress progress;
+        private final Map<Integer, Integer> recount = new HashMap<>();
+        private final Set<Integer> candidates = new HashSet<>();
+        private final List<AuditReport.Finding> findings = new ArrayList<>();
+        private long findingCount;
+        private int sessions;
+        private long votesScanned;
+        private long parentsScanned;
+        private long totalVotes;
+
+        private Audit(Progress progress) {
+            this.progress = progress;
+        }
+
+        private void scan(Connection conn) throws SQLException {
+            try (Statement count = conn.createStatement();
+                 ResultSet rs = count.executeQuery(COUNT_VOTES_SQL)) {
+                totalVotes = rs.next() ? rs.getLong(1) : 0;
+            }
+
+            try (Statement sessionScan = forwardOnly(conn);
+                 Statement voteScan = forwardOnly(conn);
+                 Statement parentScan = forwardOnly(conn);
+                 ResultSet sessionRows = sessionScan.executeQuery(SELECT_SESSIONS_SQL);
+                 ResultSet votes = voteScan.executeQuery(SELECT_VOTES_SQL);
+                 ResultSet parents = parentScan.executeQuery(SELECT_PARENTS_SQL)) {
+
+                boolean hasVote = votes.next();
+                boolean hasParent = parents.next();
+                while (sessionRows.next()) {
+                    int sessionId = sessionRows.getInt(1);
+                    recount.clear();
+                    candidates.clear();
+                    MessageDigest checksum = SessionResultsDAO.newChecksumDigest();
+                    int sessionVotes = 0;
+
+                    // Rows of a session that no longer exists; foreign keys should make these impossible
+                    while (hasVote && votes.getInt(1) < sessionId) {
+                        report(AuditReport.Kind.UNKNOWN_VOTER, votes.getInt(1), votes.getInt(2), "no such session");
+                        countVote();
+                        hasVote = votes.next();
+                    }
+                    while (hasParent && parents.getInt(1) < sessionId) {
+                        parentsScanned++;
+                        hasParent = parents.next();
+                    }
+
+                    // Merge the session's ballots with its roster by parent id
+                    while (true) {
+                        boolean voteHere = hasVote && votes.getInt(1) == sessionId;
+                        boolean parentHere = hasParent && parents.getInt(1) == sessionId;
+                        if (!voteHere && !parentHere) {
+                            break;
+                        }
+                        int voterId = voteHere ? votes.getInt(2) : Integer.MAX_VALUE;
+                        int parentId = parentHere ? parents.getInt(2) : Integer.MAX_VALUE;
+
+                        if (parentHere && parentId <= voterId) {
+                            if (parents.getBoolean(3)) {
+                                candidates.add(parentId);
+                            }
+                            if (parentId == voterId && !parents.getBoolean(4)) {
+                                report(AuditReport.Kind.UNFLAGGED_VOTER, sessionId, voterId, null);
+                            }
+                            parentsScanned++;
+                        }
+                        if (voteHere && voterId <= parentId) {
+                            if (voterId != parentId) {
+                                report(AuditReport.Kind.UNKNOWN_VOTER, sessionId, voterId, null);
+                            }
+                            int candidateId = votes.getInt(3);
+                            recount.merge(candidateId, 1, Integer::sum);
+                            SessionResultsDAO.addToChecksum(checksum, voterId, candidateId, votes.getBytes(4));
+                            sessionVotes++;
+                            countVote();
+                        }
+
+                        if (parentHere && parentId <= voterId) {
+                            hasParent = parents.next();
+                        }
+                        if (voteHere && voterId <= parentId) {
+                            hasVote = votes.next();
+                        }
+                    }
+
+                    checkSession(conn, sessionId, sessionVotes, HexFormat.of().formatHex(checksum.digest()));
+                    sessions++;
+                }
+            }
+            progress.update(votesScanned, totalVotes);
+        }
+
+        // Rows are stepped through one at a time and never buffered
+        private Statement forwardOnly(Connection conn) throws SQLException {
+            Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(PROGRESS_INTERVAL);
+            return stmt;
+        }
+
+        private void countVote() {
+            votesScanned++;
+            if (votesScanned % PROGRESS_INTERVAL == 0) {
+                progress.update(votesScanned, totalVotes);
+            }
+        }
+
+        // Compares the session's recount with its stored tallies and with the results it reports
+        private void checkSession(Connection conn, int sessionId, int sessionVotes, String checksum)
+                throws SQLException {
+            for (int candidateId : recount.keySet()) {
+                if (!candidates.contains(candidateId)) {
+                    report(AuditReport.Kind.NOT_A_CANDIDATE, sessionId, candidateId,
+                            recount.get(candidateId) + " ballots");
+                }
+            }
+
+            Map<Integer, Integer> stored = new HashMap<>();
+            try (PreparedStatement stmt = conn.prepareStatement(SELECT_TALLIES_SQL)) {
+                stmt.setInt(1, sessionId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        stored.put(rs.getInt("candidate_id"), rs.getInt("count"));
+                    }
+                }
+            }
+            Set<Integer> tallied = new HashSet<>(stored.keySet());
+            tallied.addAll(recount.keySet());
+            for (int candidateId : tallied) {
+                int storedCount = stored.getOrDefault(candidateId, 0);
+                int actual = recount.getOrDefault(candidateId, 0);
+                if (storedCount != actual) {
+                    report(AuditReport.Kind.TALLY_DRIFT, sessionId, candidateId,
+                            "stored " + storedCount + ", recounted " + actual);
+                }
+            }
+
+            // Completed sessions report their frozen record, open ones a fresh count
+            Optional<ResultsSnapshot> frozen = resultsDAO.findResults(sessionId);
+            ResultsSnapshot reported = frozen.isPresent() ? frozen.get() : resultsDAO.countResults(sessionId, 0);
+            if (reported.getTotalVotes() != sessionVotes) {
+                report(AuditReport.Kind.RESULTS_MISMATCH, sessionId, null,
+                        "reports " + reported.getTotalVotes() + " votes, recounted " + sessionVotes);
+            }
+            for (CandidateResult result : reported.getRanking()) {
+                int actual = recount.getOrDefault(result.getCandidateId(), 0);
+                if (result.getVotes() != actual) {
+                    report(AuditReport.Kind.RESULTS_MISMATCH, sessionId, result.getCandidateId(),
+                            "reports " + result.getVotes() + ", recounted " + actual);
+                }
+            }
+            if (frozen.isPresent() && !frozen.get().getVotesChecksum().equals(checksum)) {
+                report(AuditReport.Kind.CHECKSUM_MISMATCH, sessionId, null, null);
+            }
+        }
+
+        private void report(AuditReport.Kind kind, int sessionId, Integer subjectId, String detail) {
+            findingCount++;
+            if (findings.size() < MAX_LISTED_FINDINGS) {
+                AuditReport.Finding finding = new AuditReport.Finding(kind, sessionId, subjectId, detail);
+                findings.add(finding);
+                logger.warn("Audit: {}", finding);
+            }
+        }
+    }
+}
@@ -1,36 +1,212 @@
 // ABOUTME: Data Access Object for Vote entities, handles vote recording and retrieval
-// ABOUTME: Ensures vote integrity and provides result calculations
+// ABOUTME: Ensures vote integrity and keeps per-candidate tallies in step with every ballot
 
 package com.school.voting.dao;
 
+import com.school.voting.model.Parent;
+import com.school.voting.model.SessionProgress;
 import com.school.voting.model.Vote;
+import com.school.voting.tally.BallotBox;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class VoteDAO {
     private static final Logger logger = LoggerFactory.getLogger(VoteDAO.class);
+
+    private static final String INSERT_VOTE_SQL =
+            "INSERT INTO votes (voter_id, candidate_id, session_id, ranking) VALUES (?, ?, ?, ?)";
+    // Identical ballots come back as one row with their count
+    private static final String SELECT_BALLOTS_SQL =
+            "SELECT candidate_id, ranking, COUNT(*) AS ballots FROM votes WHERE session_id = ? " +
+            "GROUP BY candidate_id, ranking";
+    // No voter, time or id, and sorted by choice, so the order of the rows says nothing about who cast them
+    private static final String SELECT_ANONYMOUS_BALLOTS_SQL =
+            "SELECT v.candidate_id, p.name, v.ranking FROM votes v JOIN parents p ON p.id = v.candidate_id " +
+            "WHERE v.session_id = ? ORDER BY v.candidate_id, v.ranking";
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final String SELECT_BY_SESSION_SQL =
+            "SELECT * FROM votes WHERE session_id = ? ORDER BY voted_at";
+    private static final String COUNT_FOR_CANDIDATE_SQL =
+            "SELECT COUNT(*) FROM votes WHERE candidate_id = ? AND session_id = ?";
+    private static final String COUNT_BY_CANDIDATE_SQL =
+            "SELECT candidate_id, count FROM vote_tallies WHERE session_id = ? AND count > 0 ORDER BY count DESC";
+    private static final String INCREMENT_TALLY_SQL =
+            "INSERT INTO vote_tallies (session_id, candidate_id, count) VALUES (?, ?, 1) " +
+            "ON CONFLICT (session_id, candidate_id) DO UPDATE SET count = count + 1";
+    private static final String DELETE_TALLIES_SQL =
+            "DELETE FROM vote_tallies WHERE session_id = ?";
+    private static final String REBUILD_TALLIES_SQL =
+            "INSERT INTO vote_tallies (session_id, candidate_id, count) " +
+            "SELECT session_id, candidate_id, COUNT(*) FROM votes WHERE session_id = ? GROUP BY candidate_id";
+    // Candidates whose stored tally disagrees with the ballots, in either direction
+    private static final String TALLY_DRIFT_SQL =
+            "SELECT candidate_id, SUM(stored) AS stored, SUM(actual) AS actual FROM (" +
+            "SELECT candidate_id, count AS stored, 0 AS actual FROM vote_tallies WHERE session_id = ? " +
+            "UNION ALL " +
+            "SELECT candidate_id, 0, COUNT(*) FROM votes WHERE session_id = ? GROUP BY candidate_id" +
+            ") GROUP BY candidate_id HAVING SUM(stored) <> SUM(actual)";
+    private static final String HAS_VOTED_SQL =
+            "SELECT COUNT(*) FROM votes WHERE voter_id = ? AND session_id = ?";
+    private static final String SELECT_BY_CANDIDATE_SQL =
+            "SELECT * FROM votes WHERE candidate_id = ? AND session_id = ? ORDER BY voted_at";
+    private static final String COUNT_VOTES_SQL =
+            "SELECT COUNT(*) FROM votes WHERE session_id = ?";
+    private static final String DELETE_BY_SESSION_SQL =
+            "DELETE FROM votes WHERE session_id = ?";
+    // Only while the session is voting, so no ballot can land after its results were frozen
+    private static final String MARK_VOTER_SQL =
+            "UPDATE parents SET has_voted = 1 WHERE id = ? AND session_id = ? AND has_voted = 0 " +
+            "AND EXISTS (SELECT 1 FROM voting_sessions WHERE id = ? AND status = 'VOTING')";
+    private static final String DELETE_CLAIM_SQL =
+            "DELETE FROM voter_claims WHERE voter_id = ?";
+    // A ballot may only name candidates standing in the session it is cast in
+    private static final String IS_CANDIDATE_SQL =
+            "SELECT 1 FROM parents WHERE id = ? AND session_id = ? AND is_candidate = 1";
+
+    // Receives one streamed ballot at a time; the ranking is null for a single-choice ballot
+    public interface BallotConsumer {
+        void accept(int candidateId, String candidateName, int[] ranking);
+    }
+
     private final DatabaseManager dbManager;
+    private final ParentDAO parentDAO;
 
     public VoteDAO() {
-        this.dbManager = DatabaseManager.getInstance();
+        this(DatabaseManager.getInstance());
     }
 
-    public Vote recordVote(Vote vote) throws SQLException {
-        String sql = "INSERT INTO votes (voter_id, candidate_id, session_id) VALUES (?, ?, ?)";
+    public VoteDAO(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+        this.parentDAO = new ParentDAO(dbManager);
+    }
+
+    /**
+     * Records the ballot and flags the voter as done in one transaction, so a crash can never
+     * leave a vote whose parent still shows as unvoted (or the reverse).
+     */
+    public SessionProgress castVote(int sessionId, int voterId, int candidateId) throws SQLException {
+        return dbManager.inTransaction(conn -> {
+            applyVote(sessionId, voterId, candidateId);
+            return parentDAO.getSessionProgress(sessionId);
+        });
+    }
+
+    // A ranked ballot: candidate ids in order of preference, the first of them counted as the voter's choice
+    public SessionProgress castRankedVote(int sessionId, int voterId, int[] ranking) throws SQLException {
+        checkRanking(ranking);
+        return dbManager.inTransaction(conn -> {
+            applyVote(sessionId, voterId, ranking[0], ranking);
+            return parentDAO.getSessionProgress(sessionId);
+        });
+    }
+
+    /**
+     * Queues the vote on the shared group-commit writer. The future completes with the
+     * session's progress once the batch containing the vote has been committed.
+     */
+    public CompletableFuture<SessionProgress> submitVote(int sessionId, int voterId, int candidateId) {
+        return dbManager.getVoteWriter().submit(sessionId, voterId, candidateId);
+    }
+
+    public CompletableFuture<SessionProgress> submitRankedVote(int sessionId, int voterId, int[] ranking) {
+        checkRanking(ranking);
+        return dbManager.getVoteWriter().submitRanked(sessionId, voterId, ranking);
+    }
+
+    private static void checkRanking(int[] ranking) {
+        if (ranking.length == 0) {
+            throw new IllegalArgumentException("A ranked ballot needs at least one preference");
+        }
+        if (Arrays.stream(ranking).distinct().count() != ranking.length) {
+            throw new IllegalArgumentException("A ranked ballot cannot name a candidate twice: "
+                    + Arrays.toString(ranking));
+        }
+    }
+
+    void applyVote(int sessionId, int voterId, int candidateId) throws SQLException {
+        applyVote(sessionId, voterId, candidateId, null);
+    }
+
+    // All writes of a vote; callers must already hold a transaction. The ranking is null for a single choice
+    void applyVote(int sessionId, int voterId, int candidateId, int[] ranking) throws SQLException {
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(MARK_VOTER_SQL)) {
+            stmt.setInt(1, voterId);
+            stmt.setInt(2, sessionId);
+            stmt.setInt(3, sessionId);
+            
+            if (stmt.executeUpdate() == 0) {
+                throw new SQLException("Casting vote failed, voter " + voterId
+                        + " is not pending in session " + sessionId + " or the session is not voting");
+            }
+        }
+        
+        // Checked after the first write so the transaction already holds the write lock;
+        // a rejected ballot rolls back with it and leaves the voter pending
+        checkCandidates(sessionId, ranking != null ? ranking : new int[]{candidateId});
+
+        // The voter has left the booth, so whichever station held them is free again
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(DELETE_CLAIM_SQL)) {
+            stmt.setInt(1, voterId);
+            stmt.executeUpdate();
+        }
         
+        recordVote(new Vote(voterId, candidateId, sessionId), ranking);
+    }
+
+    private void checkCandidates(int sessionId, int[] candidateIds) throws SQLException {
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(IS_CANDIDATE_SQL)) {
+            for (int candidateId : candidateIds) {
+                stmt.setInt(1, candidateId);
+                stmt.setInt(2, sessionId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new SQLException("Casting vote failed, parent " + candidateId
+                                + " is not a candidate in session " + sessionId);
+                    }
+                }
+            }
+        }
+    }
+
+    // Inserts the ballot and bumps the candidate's tally, joining the caller's transaction if any
+    public Vote recordVote(Vote vote) throws SQLException {
+        return recordVote(vote, null);
+    }
+
+    private Vote recordVote(Vote vote, int[] ranking) throws SQLException {
+        return dbManager.inTransaction(conn -> {
+            Vote recorded = insertVote(vote, ranking);
+            
+            try (PreparedStatement stmt = conn.prepareStatement(INCREMENT_TALLY_SQL)) {
+                stmt.setInt(1, vote.getSessionId());
+                stmt.setInt(2, vote.getCandidateId());
+                stmt.executeUpdate();
+            }
+            
+            return recorded;
+        });
+    }
+
+    private Vote insertVote(Vote vote, int[] ranking) throws SQLException {
         try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = conn.prepareStatement(INSERT_VOTE_SQL, Statement.RETURN_GENERATED_KEYS)) {
             
             stmt.setInt(1, vote.getVoterId());
             stmt.setInt(2, vote.getCandidateId());
             stmt.setInt(3, vote.getSessionId());
+            stmt.setBytes(4, ranking != null ? BallotBox.encodeRanking(ranking) : null);
             
             int affectedRows = stmt.executeUpdate();
             
@@ -55,11 +231,10 @@ public class VoteDAO {
     }
 
     public List<Vote> getVotesBySession(int sessionId) throws SQLException {
-        String sql = "SELECT * FROM votes WHERE session_id = ? ORDER BY voted_at";
         List<Vote> votes = new ArrayList<>();
         
         try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_SESSION_SQL)) {
             
             stmt.setInt(1, sessionId);
             
@@ -73,11 +248,61 @@ public class VoteDAO {
         return votes;
     }
 
-    public int getVoteCount(int candidateId, int sessionId) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM votes WHERE candidate_id = ? AND session_id = ?";
+    /**
+     * The session's ballots for a ranked count. Identical ballots are read as one row and
+     * stored once with their count; a single-choice ballot is a ranking of one.
+     */
+    public BallotBox getBallots(int sessionId, List<Parent> candidates) throws SQLException {
+        BallotBox.Builder ballots = BallotBox.builder(candidates);
+        
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BALLOTS_SQL)) {
+            
+            stmt.setInt(1, sessionId);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    byte[] ranking = rs.getBytes("ranking");
+                    int[] candidateIds = ranking != null
+                            ? BallotBox.decodeRanking(ranking)
+                            : new int[]{rs.getInt("candidate_id")};
+                    ballots.add(candidateIds, rs.getInt("ballots"));
+                }
+            }
+        }
+        
+        return ballots.build();
+    }
+
+    /**
+     * Passes every ballot of the session to the consumer without saying who cast it, straight
+     * from a forward-only cursor. Returns how many ballots there were.
+     */
+    public int streamAnonymousBallots(int sessionId, BallotConsumer consumer) throws SQLException {
+        int ballots = 0;
+        
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_ANONYMOUS_BALLOTS_SQL,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            
+            stmt.setInt(1, sessionId);
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    byte[] ranking = rs.getBytes(3);
+                    consumer.accept(rs.getInt(1), rs.getString(2),
+                            ranking != null ? BallotBox.decodeRanking(ranking) : null);
+                    ballots++;
+                }
+            }
+        }
         
+        return ballots;
+    }
+
+    public int getVoteCount(int candidateId, int sessionId) throws SQLException {
         try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(COUNT_FOR_CANDIDATE_SQL)) {
             
             stmt.setInt(1, candidateId);
             stmt.setInt(2, sessionId);
@@ -93,18 +318,16 @@ public class VoteDAO {
     }
 
     public Map<Integer, Integer> getVoteCountsBySession(int sessionId) throws SQLException {
-        String sql = "SELECT candidate_id, COUNT(*) as vote_count FROM votes " +
-                    "WHERE session_id = ? GROUP BY candidate_id ORDER BY vote_count DESC";
         Map<Integer, Integer> voteCounts = new HashMap<>();
         
         try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(COUNT_BY_CANDIDATE_SQL)) {
             
             stmt.setInt(1, sessionId);
             
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    voteCounts.put(rs.getInt("candidate_id"), rs.getInt("vote_count"));
+                    voteCounts.put(rs.getInt("candidate_id"), rs.getInt("count"));
                 }
             }
         }
@@ -113,10 +336,8 @@ public class VoteDAO {
     }
 
     public boolean hasVoted(int voterId, int sessionId) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM votes WHERE voter_id = ? AND session_id = ?";
-        
         try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(HAS_VOTED_SQL)) {
             
             stmt.setInt(1, voterId);
             stmt.setInt(2, sessionId);
@@ -132,11 +353,10 @@ public class VoteDAO {
     }
 
     public List<Vote> getVotesByCandidateAndSession(int candidateId, int sessionId) throws SQLException {
-        String sql = "SELECT * FROM votes WHERE candidate_id = ? AND session_id = ? ORDER BY voted_at";
         List<Vote> votes = new ArrayList<>();
         
         try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_CANDIDATE_SQL)) {
             
             stmt.setInt(1, candidateId);
             stmt.setInt(2, sessionId);
@@ -152,10 +372,8 @@ public class VoteDAO {
     }
 
     public int getTotalVotes(int sessionId) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM votes WHERE session_id = ?";
-        
         try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(COUNT_VOTES_SQL)) {
             
             stmt.setInt(1, sessionId);
             
@@ -170,14 +388,57 @@ public class VoteDAO {
     }
 
     public void deleteVotesBySession(int sessionId) throws SQLException {
-        String sql = "DELETE FROM votes WHERE session_id = ?";
+        dbManager.inTransaction(conn -> {
+            try (PreparedStatement deleteVotes = conn.prepareStatement(DELETE_BY_SESSION_SQL);
+                 PreparedStatement deleteTallies = conn.prepareStatement(DELETE_TALLIES_SQL)) {
+                deleteVotes.setInt(1, sessionId);
+                deleteVotes.executeUpdate();
+                deleteTallies.setInt(1, sessionId);
+                deleteTallies.executeUpdate();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Compares the stored tallies with a full count of the session's ballots.
+     * Returns candidate id to {stored, actual} for every candidate that disagrees.
+     */
+    public Map<Integer, int[]> verifyTallies(int sessionId) throws SQLException {
+        Map<Integer, int[]> drift = new HashMap<>();
         
         try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(TALLY_DRIFT_SQL)) {
             
             stmt.setInt(1, sessionId);
-            stmt.executeUpdate();
+            stmt.setInt(2, sessionId);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    drift.put(rs.getInt("candidate_id"), new int[]{rs.getInt("stored"), rs.getInt("actual")});
+                }
+            }
         }
+        
+        if (!drift.isEmpty()) {
+            logger.warn("Vote tallies for session {} disagree with ballots for {} candidates", sessionId, drift.size());
+        }
+        return drift;
+    }
+
+    // Recounts the session's ballots into vote_tallies, e.g. after verifyTallies reported drift
+    public void rebuildTallies(int sessionId) throws SQLException {
+        dbManager.inTransaction(conn -> {
+            try (PreparedStatement delete = conn.prepareStatement(DELETE_TALLIES_SQL);
+                 PreparedStatement rebuild = conn.prepareStatement(REBUILD_TALLIES_SQL)) {
+                delete.setInt(1, sessionId);
+                delete.executeUpdate();
+                rebuild.setInt(1, sessionId);
+                int candidates = rebuild.executeUpdate();
+                logger.info("Rebuilt vote tallies for session {} ({} candidates)", sessionId, candidates);
+            }
+            return null;
+        });
     }
 
     private Vote mapResultSetToVote(ResultSet rs) throws SQLException {
@@ -0,0 +1,246 @@
+// ABOUTME: Single-writer group-commit subsystem that batches queued votes into shared transactions
+// ABOUTME: Applies a bounded queue with backpressure and completes each caller's future once durable
+
+package com.school.voting.dao;
+
+import com.school.voting.model.SessionProgress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class VoteWriter implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(VoteWriter.class);
+
+    private static final class PendingVote {
+        final int sessionId;
+        final int voterId;
+        final int candidateId;
+        // Null for a single-choice ballot
+        final int[] ranking;
+        final CompletableFuture<SessionProgress> result = new CompletableFuture<>();
+
+        PendingVote(int sessionId, int voterId, int candidateId, int[] ranking) {
+            this.sessionId = sessionId;
+            this.voterId = voterId;
+            this.candidateId = candidateId;
+            this.ranking = ranking;
+        }
+    }
+
+    private final DatabaseManager dbManager;
+    private final VoteDAO voteDAO;
+    private final ParentDAO parentDAO;
+    private final int maxBatchSize;
+    private final Duration maxBatchDelay;
+    private final Duration enqueueTimeout;
+    private final int queueCapacity;
+    private final BlockingQueue<PendingVote> queue;
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    private final LongAdder batchCount = new LongAdder();
+    private final LongAdder committedVotes = new LongAdder();
+    private final LongAdder failedVotes = new LongAdder();
+    private final LongAdder rejectedVotes = new LongAdder();
+    private final LongAdder totalCommitNanos = new LongAdder();
+    private final AtomicLong maxCommitNanos = new AtomicLong();
+    private final AtomicLong largestBatch = new AtomicLong();
+
+    public VoteWriter(DatabaseManager dbManager, int maxBatchSize, Duration maxBatchDelay,
+                      int queueCapacity, Duration enqueueTimeout) {
+        if (maxBatchSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Batch size and queue capacity must be positive");
+        }
+        this.dbManager = dbManager;
+        this.voteDAO = new VoteDAO(dbManager);
+        this.parentDAO = new ParentDAO(dbManager);
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelay = maxBatchDelay;
+        this.enqueueTimeout = enqueueTimeout;
+        this.queueCapacity = queueCapacity;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        this.writerThread = new Thread(this::runLoop, "vote-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Enqueues a vote. Blocks for up to the enqueue timeout while the queue is full and
+     * returns a failed future with RejectedExecutionException if it stays full.
+     */
+    public CompletableFuture<SessionProgress> submit(int sessionId, int voterId, int candidateId) {
+        return enqueue(new PendingVote(sessionId, voterId, candidateId, null));
+    }
+
+    // A ranked ballot; its first preference is the candidate the vote counts for in the tallies
+    public CompletableFuture<SessionProgress> submitRanked(int sessionId, int voterId, int[] ranking) {
+        return enqueue(new PendingVote(sessionId, voterId, ranking[0], ranking.clone()));
+    }
+
+    private CompletableFuture<SessionProgress> enqueue(PendingVote vote) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Vote writer is shut down"));
+        }
+
+        try {
+            if (!queue.offer(vote, enqueueTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                rejectedVotes.increment();
+                return CompletableFuture.failedFuture(new RejectedExecutionException(
+                        "Vote queue is full (" + queueCapacity + " votes pending)"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        // close() may have run since the check above; if the writer has already drained the
+        // queue for the last time, nobody else would complete this vote
+        if (!running && queue.remove(vote)) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Vote writer is shut down"));
+        }
+        return vote.result;
+    }
+
+    public VoteWriterMetrics metrics() {
+        return new VoteWriterMetrics(
+                batchCount.sum(),
+                committedVotes.sum(),
+                failedVotes.sum(),
+                rejectedVotes.sum(),
+                largestBatch.get(),
+                totalCommitNanos.sum(),
+                maxCommitNanos.get(),
+                queue.size(),
+                queueCapacity
+        );
+    }
+
+    // Stops accepting votes, commits whatever is still queued and waits for the writer
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Vote writer stopped ({})", metrics());
+    }
+
+    private void runLoop() {
+        List<PendingVote> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingVote first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Keep collecting until the batch is full or the oldest vote has waited long enough
+                long deadline = System.nanoTime() + maxBatchDelay.toNanos();
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingVote next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                commitBatch(batch);
+            } catch (InterruptedException e) {
+                logger.warn("Vote writer interrupted; {} votes still queued", queue.size());
+                Thread.currentThread().interrupt();
+                failPending(batch, e);
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Unexpected failure in vote writer", e);
+                batch.forEach(vote -> vote.result.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+
+        // Votes offered while the loop was exiting; their callers must not wait forever
+        failPending(batch, new RejectedExecutionException("Vote writer is shut down"));
+    }
+
+    private void commitBatch(List<PendingVote> batch) {
+        long start = System.nanoTime();
+        Map<PendingVote, SQLException> rejected = new HashMap<>();
+        Map<Integer, SessionProgress> progress = new HashMap<>();
+
+        try {
+            dbManager.inTransaction(conn -> {
+                for (PendingVote vote : batch) {
+                    // A bad vote (double vote, unknown candidate) must not sink the whole batch
+                    Savepoint savepoint = conn.setSavepoint();
+                    try {
+                        voteDAO.applyVote(vote.sessionId, vote.voterId, vote.candidateId, vote.ranking);
+                        conn.releaseSavepoint(savepoint);
+                    } catch (SQLException e) {
+                        conn.rollback(savepoint);
+                        rejected.put(vote, e);
+                    }
+                }
+                for (PendingVote vote : batch) {
+                    if (!rejected.containsKey(vote) && !progress.containsKey(vote.sessionId)) {
+                        progress.put(vote.sessionId, parentDAO.getSessionProgress(vote.sessionId));
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException | RuntimeException e) {
+            logger.error("Committing batch of {} votes failed", batch.size(), e);
+            failedVotes.add(batch.size());
+            batch.forEach(vote -> vote.result.completeExceptionally(e));
+            return;
+        }
+
+        long elapsed = System.nanoTime() - start;
+        batchCount.increment();
+        totalCommitNanos.add(elapsed);
+        maxCommitNanos.accumulateAndGet(elapsed, Math::max);
+        largestBatch.accumulateAndGet(batch.size(), Math::max);
+        committedVotes.add(batch.size() - rejected.size());
+        failedVotes.add(rejected.size());
+
+        for (PendingVote vote : batch) {
+            SQLException failure = rejected.get(vote);
+            if (failure != null) {
+                vote.result.completeExceptionally(failure);
+            } else {
+                vote.result.complete(progress.get(vote.sessionId));
+            }
+        }
+        logger.debug("Committed batch of {} votes in {} ms", batch.size(), elapsed / 1_000_000.0);
+    }
+
+    private void failPending(List<PendingVote> batch, Exception cause) {
+        batch.forEach(vote -> vote.result.completeExceptionally(cause));
+        List<PendingVote> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.forEach(vote -> vote.result.completeExceptionally(cause));
+        failedVotes.add(batch.size() + remaining.size());
+    }
+}
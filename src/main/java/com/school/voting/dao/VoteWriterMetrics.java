@@ -0,0 +1,85 @@
+// ABOUTME: Immutable snapshot of group-commit vote writer statistics
+// ABOUTME: Reports batch sizes, commit latency, queue depth and rejected or failed votes
+
+package com.school.voting.dao;
+
+public final class VoteWriterMetrics {
+    private final long batchCount;
+    private final long committedVotes;
+    private final long failedVotes;
+    private final long rejectedVotes;
+    private final long largestBatch;
+    private final long totalCommitNanos;
+    private final long maxCommitNanos;
+    private final int queueDepth;
+    private final int queueCapacity;
+
+    public VoteWriterMetrics(long batchCount, long committedVotes, long failedVotes, long rejectedVotes,
+                             long largestBatch, long totalCommitNanos, long maxCommitNanos,
+                             int queueDepth, int queueCapacity) {
+        this.batchCount = batchCount;
+        this.committedVotes = committedVotes;
+        this.failedVotes = failedVotes;
+        this.rejectedVotes = rejectedVotes;
+        this.largestBatch = largestBatch;
+        this.totalCommitNanos = totalCommitNanos;
+        this.maxCommitNanos = maxCommitNanos;
+        this.queueDepth = queueDepth;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    public long getCommittedVotes() {
+        return committedVotes;
+    }
+
+    public long getFailedVotes() {
+        return failedVotes;
+    }
+
+    public long getRejectedVotes() {
+        return rejectedVotes;
+    }
+
+    public long getLargestBatch() {
+        return largestBatch;
+    }
+
+    public double getAverageBatchSize() {
+        return batchCount == 0 ? 0 : (double) (committedVotes + failedVotes) / batchCount;
+    }
+
+    public double getAverageCommitMillis() {
+        return batchCount == 0 ? 0 : totalCommitNanos / 1_000_000.0 / batchCount;
+    }
+
+    public double getMaxCommitMillis() {
+        return maxCommitNanos / 1_000_000.0;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    @Override
+    public String toString() {
+        return "VoteWriterMetrics{" +
+                "batches=" + batchCount +
+                ", committed=" + committedVotes +
+                ", failed=" + failedVotes +
+                ", rejected=" + rejectedVotes +
+                ", avgBatch=" + String.format("%.1f", getAverageBatchSize()) +
+                ", largestBatch=" + largestBatch +
+                ", avgCommitMs=" + String.format("%.3f", getAverageCommitMillis()) +
+                ", maxCommitMs=" + String.format("%.3f", getMaxCommitMillis()) +
+                ", queue=" + queueDepth + "/" + queueCapacity +
+                '}';
+    }
+}
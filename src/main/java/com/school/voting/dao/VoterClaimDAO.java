@@ -0,0 +1,189 @@
+// ABOUTME: Data Access Object for voter claims, the leases stations take on pending voters
+// ABOUTME: Lets several stations share one roster without handing the same parent to two booths
+
+package com.school.voting.dao;
+
+import com.school.voting.model.Parent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * A claim is a row in voter_claims naming the station that has the voter in its booth and
+ * when the lease runs out. Claims are taken inside a write transaction, so two stations on
+ * the same database file can never claim the same voter; an expired claim is free to take.
+ */
+public class VoterClaimDAO {
+    private static final Logger logger = LoggerFactory.getLogger(VoterClaimDAO.class);
+
+    private static final String DELETE_EXPIRED_SQL =
+            "DELETE FROM voter_claims WHERE session_id = ? AND expires_at <= ?";
+    private static final String SELECT_HELD_SQL =
+            "SELECT p.* FROM voter_claims c JOIN parents p ON p.id = c.voter_id " +
+            "WHERE c.session_id = ? AND c.station_id = ?";
+    // First pending voter in roster order that nobody holds, read through idx_parents_pending
+    private static final String CLAIM_NEXT_SQL =
+            "INSERT INTO voter_claims (voter_id, session_id, station_id, expires_at) " +
+            "SELECT p.id, p.session_id, ?, ? FROM parents p " +
+            "WHERE p.session_id = ? AND p.has_voted = 0 " +
+            "AND NOT EXISTS (SELECT 1 FROM voter_claims c WHERE c.voter_id = p.id) " +
+            "ORDER BY p.name, p.id LIMIT 1";
+    private static final String RENEW_SQL =
+            "UPDATE voter_claims SET expires_at = ? WHERE voter_id = ? AND station_id = ? AND expires_at > ?";
+    private static final String RELEASE_SQL =
+            "DELETE FROM voter_claims WHERE voter_id = ? AND station_id = ?";
+    // Done without a ballot, but only while the station's claim on the voter is live
+    private static final String SKIP_CLAIMED_SQL =
+            "UPDATE parents SET has_voted = 1 WHERE id = ? AND has_voted = 0 AND EXISTS (" +
+            "SELECT 1 FROM voter_claims c WHERE c.voter_id = parents.id AND c.station_id = ? AND c.expires_at > ?)";
+    private static final String RELEASE_STATION_SQL =
+            "DELETE FROM voter_claims WHERE station_id = ?";
+    private static final String COUNT_OTHER_CLAIMS_SQL =
+            "SELECT COUNT(*) FROM voter_claims WHERE session_id = ? AND station_id != ? AND expires_at > ?";
+
+    private final DatabaseManager dbManager;
+    private final Clock clock;
+
+    public VoterClaimDAO() {
+        this(DatabaseManager.getInstance());
+    }
+
+    public VoterClaimDAO(DatabaseManager dbManager) {
+        this(dbManager, Clock.systemUTC());
+    }
+
+    VoterClaimDAO(DatabaseManager dbManager, Clock clock) {
+        this.dbManager = dbManager;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the voter this station already holds in the session, or claims the next free
+     * pending voter for the lease. Empty when every pending voter is held by another station.
+     */
+    public Optional<Parent> claimNextVoter(int sessionId, String stationId, Duration lease) throws SQLException {
+        return dbManager.inTransaction(conn -> {
+            long now = clock.millis();
+            long expiresAt = now + lease.toMillis();
+
+            // Writing first takes the database write lock before anything is read
+            try (PreparedStatement stmt = conn.prepareStatement(DELETE_EXPIRED_SQL)) {
+                stmt.setInt(1, sessionId);
+                stmt.setLong(2, now);
+                stmt.executeUpdate();
+            }
+
+            Optional<Parent> held = findHeld(conn, sessionId, stationId);
+            if (held.isPresent() && !held.get().hasVoted()) {
+                renew(conn, held.get().getId(), stationId, expiresAt, now);
+                return held;
+            }
+            if (held.isPresent()) {
+                release(conn, held.get().getId(), stationId);
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(CLAIM_NEXT_SQL)) {
+                stmt.setString(1, stationId);
+                stmt.setLong(2, expiresAt);
+                stmt.setInt(3, sessionId);
+                if (stmt.executeUpdate() == 0) {
+                    return Optional.empty();
+                }
+            }
+
+            Optional<Parent> claimed = findHeld(conn, sessionId, stationId);
+            claimed.ifPresent(voter -> logger.debug("Station {} claimed voter {} in session {}",
+                stationId, voter.getId(), sessionId));
+            return claimed;
+        });
+    }
+
+    // Extends a claim the station still holds; false if it expired or was never held
+    public boolean renewClaim(int voterId, String stationId, Duration lease) throws SQLException {
+        try (Connection conn = dbManager.getConnection()) {
+            long now = clock.millis();
+            return renew(conn, voterId, stationId, now + lease.toMillis(), now);
+        }
+    }
+
+    public boolean releaseClaim(int voterId, String stationId) throws SQLException {
+        try (Connection conn = dbManager.getConnection()) {
+            return release(conn, voterId, stationId);
+        }
+    }
+
+    /**
+     * Marks a voter the station holds as done without a ballot and drops the claim. False if
+     * the claim had lapsed, in which case another station may have called the voter.
+     */
+    public boolean skipClaimedVoter(int voterId, String stationId) throws SQLException {
+        return dbManager.inTransaction(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(SKIP_CLAIMED_SQL)) {
+                stmt.setInt(1, voterId);
+                stmt.setString(2, stationId);
+                stmt.setLong(3, clock.millis());
+                if (stmt.executeUpdate() == 0) {
+                    return false;
+                }
+            }
+            return release(conn, voterId, stationId);
+        });
+    }
+
+    // Drops every claim of the station, e.g. when it shuts down
+    public int releaseStation(String stationId) throws SQLException {
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(RELEASE_STATION_SQL)) {
+            stmt.setString(1, stationId);
+            return stmt.executeUpdate();
+        }
+    }
+
+    // Voters of the session currently in another station's booth
+    public int countClaimsByOtherStations(int sessionId, String stationId) throws SQLException {
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(COUNT_OTHER_CLAIMS_SQL)) {
+            stmt.setInt(1, sessionId);
+            stmt.setString(2, stationId);
+            stmt.setLong(3, clock.millis());
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    private Optional<Parent> findHeld(Connection conn, int sessionId, String stationId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_HELD_SQL)) {
+            stmt.setInt(1, sessionId);
+            stmt.setString(2, stationId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? Optional.of(ParentDAO.mapResultSetToParent(rs)) : Optional.empty();
+            }
+        }
+    }
+
+    private static boolean renew(Connection conn, int voterId, String stationId, long expiresAt, long now)
+            throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(RENEW_SQL)) {
+            stmt.setLong(1, expiresAt);
+            stmt.setInt(2, voterId);
+            stmt.setString(3, stationId);
+            stmt.setLong(4, now);
+            return stmt.executeUpdate() == 1;
+        }
+    }
+
+    private static boolean release(Connection conn, int voterId, String stationId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(RELEASE_SQL)) {
+            stmt.setInt(1, voterId);
+            stmt.setString(2, stationId);
+            return stmt.executeUpdate() == 1;
+        }
+    }
+}
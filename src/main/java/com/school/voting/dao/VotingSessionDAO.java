@@ -3,6 +3,7 @@
 
 package com.school.voting.dao;
 
+import com.school.voting.model.ResultsSnapshot;
 import com.school.voting.model.VotingSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,20 +16,60 @@ import java.util.Optional;
 
 public class VotingSessionDAO {
     private static final Logger logger = LoggerFactory.getLogger(VotingSessionDAO.class);
+
+    private static final String INSERT_SESSION_SQL =
+            "INSERT INTO voting_sessions (class_name, status, tally_method) VALUES (?, ?, ?)";
+    private static final String DELETE_CLAIMS_SQL =
+            "DELETE FROM voter_claims WHERE session_id = ?";
+    private static final String UPDATE_STATUS_SQL =
+            "UPDATE voting_sessions SET status = ?, completed_at = ? WHERE id = ?";
+    private static final String SELECT_CURRENT_SQL =
+            "SELECT * FROM voting_sessions WHERE status != 'COMPLETED' ORDER BY created_at DESC LIMIT 1";
+    private static final String SELECT_BY_ID_SQL =
+            "SELECT * FROM voting_sessions WHERE id = ?";
+    private static final String SELECT_ACTIVE_SQL =
+            "SELECT * FROM voting_sessions WHERE status != 'COMPLETED' ORDER BY created_at DESC, id DESC";
+    private static final String SELECT_ALL_SQL =
+            "SELECT * FROM voting_sessions ORDER BY created_at DESC";
+    private static final String SELECT_COMPLETED_SQL =
+            "SELECT * FROM voting_sessions WHERE status = 'COMPLETED' ORDER BY completed_at DESC";
+    // Keyset pages over idx_sessions_history: newest first, resuming before (completed_at, id)
+    private static final String SELECT_HISTORY_FIRST_PAGE_SQL =
+            "SELECT * FROM voting_sessions WHERE status = 'COMPLETED' " +
+            "ORDER BY completed_at DESC, id DESC LIMIT ?";
+    private static final String SELECT_HISTORY_PAGE_SQL =
+            "SELECT * FROM voting_sessions WHERE status = 'COMPLETED' AND (completed_at, id) < (?, ?) " +
+            "ORDER BY completed_at DESC, id DESC LIMIT ?";
+    private static final String DELETE_SESSION_SQL =
+            "DELETE FROM voting_sessions WHERE id = ?";
+    private static final String COUNT_ACTIVE_SQL =
+            "SELECT COUNT(*) FROM voting_sessions WHERE status != 'COMPLETED'";
+    private static final String COUNT_COMPLETED_SQL =
+            "SELECT COUNT(*) FROM voting_sessions WHERE status = 'COMPLETED'";
+    private static final String EXISTS_ANY_SQL =
+            "SELECT EXISTS (SELECT 1 FROM voting_sessions)";
+
     private final DatabaseManager dbManager;
+    private final SessionResultsDAO resultsDAO;
+    private final AnalyticsDAO analyticsDAO;
 
     public VotingSessionDAO() {
-        this.dbManager = DatabaseManager.getInstance();
+        this(DatabaseManager.getInstance());
+    }
+
+    public VotingSessionDAO(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+        this.resultsDAO = new SessionResultsDAO(dbManager);
+        this.analyticsDAO = new AnalyticsDAO(dbManager);
     }
 
     public VotingSession createSession(VotingSession session) throws SQLException {
-        String sql = "INSERT INTO voting_sessions (class_name, status) VALUES (?, ?)";
-        
         try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SESSION_SQL, Statement.RETURN_GENERATED_KEYS)) {
             
             stmt.setString(1, session.getClassName());
             stmt.setString(2, session.getStatus().name());
+            stmt.setString(3, session.getTallyMethod().name());
             
             int affectedRows = stmt.executeUpdate();
             
@@ -49,10 +90,8 @@ public class VotingSessionDAO {
     }
 
     public void updateSessionStatus(int sessionId, VotingSession.Status status) throws SQLException {
-        String sql = "UPDATE voting_sessions SET status = ?, completed_at = ? WHERE id = ?";
-        
         try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_STATUS_SQL)) {
             
             stmt.setString(1, status.name());
             
@@ -73,11 +112,9 @@ public class VotingSessionDAO {
     }
 
     public Optional<VotingSession> getCurrentSession() throws SQLException {
-        String sql = "SELECT * FROM voting_sessions WHERE status != 'COMPLETED' ORDER BY created_at DESC LIMIT 1";
-        
         try (Connection conn = dbManager.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(SELECT_CURRENT_SQL);
+             ResultSet rs = stmt.executeQuery()) {
             
             if (rs.next()) {
                 return Optional.of(mapResultSetToSession(rs));
@@ -88,10 +125,8 @@ public class VotingSessionDAO {
     }
 
     public Optional<VotingSession> getSessionById(int id) throws SQLException {
-        String sql = "SELECT * FROM voting_sessions WHERE id = ?";
-        
         try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ID_SQL)) {
             
             stmt.setInt(1, id);
             
@@ -106,12 +141,27 @@ public class VotingSessionDAO {
     }
 
     public List<VotingSession> getAllSessions() throws SQLException {
-        String sql = "SELECT * FROM voting_sessions ORDER BY created_at DESC";
         List<VotingSession> sessions = new ArrayList<>();
         
         try (Connection conn = dbManager.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            while (rs.next()) {
+                sessions.add(mapResultSetToSession(rs));
+            }
+        }
+        
+        return sessions;
+    }
+
+    // Every session still in setup or voting, newest first
+    public List<VotingSession> getActiveSessions() throws SQLException {
+        List<VotingSession> sessions = new ArrayList<>();
+        
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_ACTIVE_SQL);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 sessions.add(mapResultSetToSession(rs));
@@ -122,12 +172,11 @@ public class VotingSessionDAO {
     }
 
     public List<VotingSession> getCompletedSessions() throws SQLException {
-        String sql = "SELECT * FROM voting_sessions WHERE status = 'COMPLETED' ORDER BY completed_at DESC";
         List<VotingSession> sessions = new ArrayList<>();
         
         try (Connection conn = dbManager.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(SELECT_COMPLETED_SQL);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 sessions.add(mapResultSetToSession(rs));
@@ -137,23 +186,64 @@ public class VotingSessionDAO {
         return sessions;
     }
 
-    public void deleteSession(int sessionId) throws SQLException {
-        String sql = "DELETE FROM voting_sessions WHERE id = ?";
+    /**
+     * Returns up to {@code limit} completed sessions, most recently completed first, that
+     * come after the given session in that order. Pass null for the first page.
+     */
+    public List<VotingSession> getCompletedSessionsPage(VotingSession after, int limit) throws SQLException {
+        List<VotingSession> sessions = new ArrayList<>(limit);
+        
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     after == null ? SELECT_HISTORY_FIRST_PAGE_SQL : SELECT_HISTORY_PAGE_SQL)) {
+            
+            if (after == null) {
+                stmt.setInt(1, limit);
+            } else {
+                stmt.setTimestamp(1, Timestamp.valueOf(after.getCompletedAt()));
+                stmt.setInt(2, after.getId());
+                stmt.setInt(3, limit);
+            }
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    sessions.add(mapResultSetToSession(rs));
+                }
+            }
+        }
         
+        return sessions;
+    }
+
+    public int countCompletedSessions() throws SQLException {
         try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(COUNT_COMPLETED_SQL);
+             ResultSet rs = stmt.executeQuery()) {
             
-            stmt.setInt(1, sessionId);
-            stmt.executeUpdate();
+            return rs.next() ? rs.getInt(1) : 0;
         }
     }
 
+    /**
+     * Deletes the session and, through ON DELETE CASCADE, its parents, votes, tallies, claims
+     * and frozen results. A completed session also leaves the year rollups in the same
+     * transaction, so the trends never count a session that no longer exists.
+     */
+    public void deleteSession(int sessionId) throws SQLException {
+        dbManager.inTransaction(conn -> {
+            analyticsDAO.removeCompletedSession(sessionId);
+            try (PreparedStatement stmt = conn.prepareStatement(DELETE_SESSION_SQL)) {
+                stmt.setInt(1, sessionId);
+                stmt.executeUpdate();
+            }
+            return null;
+        });
+    }
+
     public boolean hasActiveSession() throws SQLException {
-        String sql = "SELECT COUNT(*) FROM voting_sessions WHERE status != 'COMPLETED'";
-        
         try (Connection conn = dbManager.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(COUNT_ACTIVE_SQL);
+             ResultSet rs = stmt.executeQuery()) {
             
             if (rs.next()) {
                 return rs.getInt(1) > 0;
@@ -163,8 +253,30 @@ public class VotingSessionDAO {
         return false;
     }
 
-    public void completeSession(int sessionId) throws SQLException {
-        updateSessionStatus(sessionId, VotingSession.Status.COMPLETED);
+    // Cheaper than loading every session to see whether there are any
+    public boolean hasSessions() throws SQLException {
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(EXISTS_ANY_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+
+    // Marks the session completed, drops all its voter claims, freezes its results and adds it to the rollups in one transaction
+    public ResultsSnapshot completeSession(int sessionId) throws SQLException {
+        return dbManager.inTransaction(conn -> {
+            updateSessionStatus(sessionId, VotingSession.Status.COMPLETED);
+
+            // Every station's voter leaves the booth; their ballots would be refused from now on
+            try (PreparedStatement stmt = conn.prepareStatement(DELETE_CLAIMS_SQL)) {
+                stmt.setInt(1, sessionId);
+                stmt.executeUpdate();
+            }
+            ResultsSnapshot results = resultsDAO.freezeResults(sessionId);
+            analyticsDAO.recordCompletedSession(sessionId);
+            return results;
+        });
     }
 
     private VotingSession mapResultSetToSession(ResultSet rs) throws SQLException {
@@ -172,6 +284,7 @@ public class VotingSessionDAO {
                 .id(rs.getInt("id"))
                 .className(rs.getString("class_name"))
                 .status(rs.getString("status"))
+                .tallyMethod(rs.getString("tally_method"))
                 .createdAt(rs.getTimestamp("created_at") != null 
                     ? rs.getTimestamp("created_at").toLocalDateTime() 
                     : LocalDateTime.now())
@@ -0,0 +1,34 @@
+// ABOUTME: Event published when a parent is made a candidate or stops being one
+// ABOUTME: Carries the parent id and the new candidate flag
+
+package com.school.voting.event;
+
+public final class CandidateToggled implements SessionEvent {
+    private final int sessionId;
+    private final int parentId;
+    private final boolean candidate;
+
+    public CandidateToggled(int sessionId, int parentId, boolean candidate) {
+        this.sessionId = sessionId;
+        this.parentId = parentId;
+        this.candidate = candidate;
+    }
+
+    @Override
+    public int getSessionId() {
+        return sessionId;
+    }
+
+    public int getParentId() {
+        return parentId;
+    }
+
+    public boolean isCandidate() {
+        return candidate;
+    }
+
+    @Override
+    public String toString() {
+        return "CandidateToggled{sessionId=" + sessionId + ", parentId=" + parentId + ", candidate=" + candidate + '}';
+    }
+}
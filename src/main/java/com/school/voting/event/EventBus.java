@@ -0,0 +1,109 @@
+// ABOUTME: In-process publish/subscribe bus for typed session events
+// ABOUTME: Delivers to synchronous subscribers directly and to UI subscribers in coalesced batches
+
+package com.school.voting.event;
+
+import javafx.application.Platform;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+public class EventBus {
+    private static final Logger logger = LoggerFactory.getLogger(EventBus.class);
+
+    private interface Subscriber {
+        void deliver(SessionEvent event);
+    }
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Executor uiExecutor;
+
+    public EventBus() {
+        this(Platform::runLater);
+    }
+
+    // The executor decides where batched subscribers run; the JavaFX thread by default
+    public EventBus(Executor uiExecutor) {
+        this.uiExecutor = uiExecutor;
+    }
+
+    /**
+     * Runs the handler on the publishing thread for every event of the given type.
+     * Handler failures are logged and do not reach the publisher.
+     */
+    public <E extends SessionEvent> Subscription subscribe(Class<E> type, Consumer<? super E> handler) {
+        Subscriber subscriber = event -> {
+            if (type.isInstance(event)) {
+                try {
+                    handler.accept(type.cast(event));
+                } catch (RuntimeException e) {
+                    logger.error("Event handler failed for {}", event, e);
+                }
+            }
+        };
+        return register(subscriber);
+    }
+
+    /**
+     * Collects events of the given type and hands them to the handler on the UI executor.
+     * A burst of events published before the handler runs arrives as one list, in order.
+     */
+    public <E extends SessionEvent> Subscription subscribeOnFx(Class<E> type, Consumer<? super List<E>> handler) {
+        Queue<E> pending = new ConcurrentLinkedQueue<>();
+        AtomicBoolean scheduled = new AtomicBoolean();
+        AtomicBoolean active = new AtomicBoolean(true);
+
+        Runnable drain = () -> {
+            scheduled.set(false);
+            List<E> batch = new ArrayList<>();
+            for (E event; (event = pending.poll()) != null; ) {
+                batch.add(event);
+            }
+            if (!batch.isEmpty() && active.get()) {
+                try {
+                    handler.accept(batch);
+                } catch (RuntimeException e) {
+                    logger.error("Event handler failed for batch of {} events", batch.size(), e);
+                }
+            }
+        };
+
+        Subscriber subscriber = event -> {
+            if (type.isInstance(event)) {
+                pending.add(type.cast(event));
+                if (scheduled.compareAndSet(false, true)) {
+                    uiExecutor.execute(drain);
+                }
+            }
+        };
+        Subscription registration = register(subscriber);
+        return () -> {
+            active.set(false);
+            registration.close();
+        };
+    }
+
+    public void publish(SessionEvent event) {
+        logger.debug("Publishing {}", event);
+        for (Subscriber subscriber : subscribers) {
+            subscriber.deliver(event);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private Subscription register(Subscriber subscriber) {
+        subscribers.add(subscriber);
+        return () -> subscribers.remove(subscriber);
+    }
+}
@@ -0,0 +1,30 @@
+// ABOUTME: Event published when a parent is added to a session's roster
+// ABOUTME: Carries the stored parent including its generated id
+
+package com.school.voting.event;
+
+import com.school.voting.model.Parent;
+
+public final class ParentAdded implements SessionEvent {
+    private final int sessionId;
+    private final Parent parent;
+
+    public ParentAdded(int sessionId, Parent parent) {
+        this.sessionId = sessionId;
+        this.parent = parent;
+    }
+
+    @Override
+    public int getSessionId() {
+        return sessionId;
+    }
+
+    public Parent getParent() {
+        return parent;
+    }
+
+    @Override
+    public String toString() {
+        return "ParentAdded{sessionId=" + sessionId + ", parentId=" + parent.getId() + '}';
+    }
+}
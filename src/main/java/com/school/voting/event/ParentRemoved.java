@@ -0,0 +1,28 @@
+// ABOUTME: Event published when a parent is deleted from a session's roster
+// ABOUTME: Carries only the id since the parent no longer exists
+
+package com.school.voting.event;
+
+public final class ParentRemoved implements SessionEvent {
+    private final int sessionId;
+    private final int parentId;
+
+    public ParentRemoved(int sessionId, int parentId) {
+        this.sessionId = sessionId;
+        this.parentId = parentId;
+    }
+
+    @Override
+    public int getSessionId() {
+        return sessionId;
+    }
+
+    public int getParentId() {
+        return parentId;
+    }
+
+    @Override
+    public String toString() {
+        return "ParentRemoved{sessionId=" + sessionId + ", parentId=" + parentId + '}';
+    }
+}
@@ -0,0 +1,11 @@
+// ABOUTME: Common type for domain events published by SessionManager on the event bus
+// ABOUTME: Every event names the session it belongs to so subscribers can ignore other sessions
+
+package com.school.voting.event;
+
+public sealed interface SessionEvent
+        permits ParentAdded, ParentRemoved, CandidateToggled, VoteCast, VoterSkipped, VoterClaimLapsed,
+                SessionStatusChanged {
+
+    int getSessionId();
+}
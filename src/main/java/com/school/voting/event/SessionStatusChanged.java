@@ -0,0 +1,40 @@
+// ABOUTME: Event published when a session is created, changes status or is deleted
+// ABOUTME: Previous status is null for a new session, new status is null for a deleted one
+
+package com.school.voting.event;
+
+import com.school.voting.model.VotingSession;
+
+public final class SessionStatusChanged implements SessionEvent {
+    private final int sessionId;
+    private final VotingSession.Status previousStatus;
+    private final VotingSession.Status newStatus;
+
+    public SessionStatusChanged(int sessionId, VotingSession.Status previousStatus, VotingSession.Status newStatus) {
+        this.sessionId = sessionId;
+        this.previousStatus = previousStatus;
+        this.newStatus = newStatus;
+    }
+
+    @Override
+    public int getSessionId() {
+        return sessionId;
+    }
+
+    public VotingSession.Status getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public VotingSession.Status getNewStatus() {
+        return newStatus;
+    }
+
+    public boolean isDeleted() {
+        return newStatus == null;
+    }
+
+    @Override
+    public String toString() {
+        return "SessionStatusChanged{sessionId=" + sessionId + ", " + previousStatus + " -> " + newStatus + '}';
+    }
+}
@@ -0,0 +1,11 @@
+// ABOUTME: Handle returned by the event bus for removing a subscriber again
+// ABOUTME: Closing it is idempotent and never throws, so it fits try-with-resources and dispose hooks
+
+package com.school.voting.event;
+
+@FunctionalInterface
+public interface Subscription extends AutoCloseable {
+
+    @Override
+    void close();
+}
@@ -0,0 +1,42 @@
+// ABOUTME: Event published after a vote has been committed to the database
+// ABOUTME: Carries the voter, the chosen candidate and the session progress including the vote
+
+package com.school.voting.event;
+
+import com.school.voting.model.SessionProgress;
+
+public final class VoteCast implements SessionEvent {
+    private final int sessionId;
+    private final int voterId;
+    private final int candidateId;
+    private final SessionProgress progress;
+
+    public VoteCast(int sessionId, int voterId, int candidateId, SessionProgress progress) {
+        this.sessionId = sessionId;
+        this.voterId = voterId;
+        this.candidateId = candidateId;
+        this.progress = progress;
+    }
+
+    @Override
+    public int getSessionId() {
+        return sessionId;
+    }
+
+    public int getVoterId() {
+        return voterId;
+    }
+
+    public int getCandidateId() {
+        return candidateId;
+    }
+
+    public SessionProgress getProgress() {
+        return progress;
+    }
+
+    @Override
+    public String toString() {
+        return "VoteCast{sessionId=" + sessionId + ", voterId=" + voterId + ", candidateId=" + candidateId + '}';
+    }
+}
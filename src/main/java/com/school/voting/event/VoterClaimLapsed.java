@@ -0,0 +1,28 @@
+// ABOUTME: Event published when this station lost its claim on the voter in its booth
+// ABOUTME: Tells the voting view to drop the voter it shows and call the next one
+
+package com.school.voting.event;
+
+public final class VoterClaimLapsed implements SessionEvent {
+    private final int sessionId;
+    private final int voterId;
+
+    public VoterClaimLapsed(int sessionId, int voterId) {
+        this.sessionId = sessionId;
+        this.voterId = voterId;
+    }
+
+    @Override
+    public int getSessionId() {
+        return sessionId;
+    }
+
+    public int getVoterId() {
+        return voterId;
+    }
+
+    @Override
+    public String toString() {
+        return "VoterClaimLapsed{sessionId=" + sessionId + ", voterId=" + voterId + '}';
+    }
+}
@@ -0,0 +1,37 @@
+// ABOUTME: Event published after a voter has been skipped and marked as done
+// ABOUTME: Carries the voter and the session progress including the skip
+
+package com.school.voting.event;
+
+import com.school.voting.model.SessionProgress;
+
+public final class VoterSkipped implements SessionEvent {
+    private final int sessionId;
+    private final int voterId;
+    private final SessionProgress progress;
+
+    public VoterSkipped(int sessionId, int voterId, SessionProgress progress) {
+        this.sessionId = sessionId;
+        this.voterId = voterId;
+        this.progress = progress;
+    }
+
+    @Override
+    public int getSessionId() {
+        return sessionId;
+    }
+
+    public int getVoterId() {
+        return voterId;
+    }
+
+    // Null if the progress snapshot had not been loaded yet
+    public SessionProgress getProgress() {
+        return progress;
+    }
+
+    @Override
+    public String toString() {
+        return "VoterSkipped{sessionId=" + sessionId + ", voterId=" + voterId + '}';
+    }
+}
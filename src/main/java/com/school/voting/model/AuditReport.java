@@ -0,0 +1,134 @@
+// ABOUTME: Immutable outcome of an independent vote audit: what was scanned, how fast, and every disagreement
+// ABOUTME: Keeps at most a fixed number of findings in detail and counts the rest
+
+package com.school.voting.model;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+public final class AuditReport {
+
+    public enum Kind {
+        TALLY_DRIFT("Stored tally differs from the recount"),
+        RESULTS_MISMATCH("Reported results differ from the recount"),
+        CHECKSUM_MISMATCH("Ballots changed after the results were frozen"),
+        UNFLAGGED_VOTER("Ballot from a parent not marked as voted"),
+        UNKNOWN_VOTER("Ballot from a parent not on the session's roster"),
+        NOT_A_CANDIDATE("Ballot for a parent who is not a candidate");
+
+        private final String description;
+
+        Kind(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    // One disagreement; the subject is the candidate or voter it concerns, or null for the whole session
+    public static final class Finding {
+        private final Kind kind;
+        private final int sessionId;
+        private final Integer subjectId;
+        private final String detail;
+
+        public Finding(Kind kind, int sessionId, Integer subjectId, String detail) {
+            this.kind = Objects.requireNonNull(kind, "Kind cannot be null");
+            this.sessionId = sessionId;
+            this.subjectId = subjectId;
+            this.detail = detail;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public int getSessionId() {
+            return sessionId;
+        }
+
+        public Integer getSubjectId() {
+            return subjectId;
+        }
+
+        public String getDetail() {
+            return detail;
+        }
+
+        @Override
+        public String toString() {
+            return kind.getDescription() + " (session " + sessionId
+                    + (subjectId != null ? ", parent " + subjectId : "") + ")"
+                    + (detail != null ? ": " + detail : "");
+        }
+    }
+
+    private final int sessions;
+    private final long votesScanned;
+    private final long parentsScanned;
+    private final Duration elapsed;
+    private final List<Finding> findings;
+    private final long findingCount;
+
+    public AuditReport(int sessions, long votesScanned, long parentsScanned, Duration elapsed,
+                       List<Finding> findings, long findingCount) {
+        if (findingCount < findings.size()) {
+            throw new IllegalArgumentException("Finding count " + findingCount + " is below the "
+                    + findings.size() + " findings listed");
+        }
+        this.sessions = sessions;
+        this.votesScanned = votesScanned;
+        this.parentsScanned = parentsScanned;
+        this.elapsed = Objects.requireNonNull(elapsed, "Elapsed time cannot be null");
+        this.findings = List.copyOf(findings);
+        this.findingCount = findingCount;
+    }
+
+    public int getSessions() {
+        return sessions;
+    }
+
+    public long getVotesScanned() {
+        return votesScanned;
+    }
+
+    public long getParentsScanned() {
+        return parentsScanned;
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    public double getVotesPerSecond() {
+        double seconds = elapsed.toNanos() / 1e9;
+        return seconds > 0 ? votesScanned / seconds : 0;
+    }
+
+    // The first findings in scan order; getFindingCount() tells how many there were in all
+    public List<Finding> getFindings() {
+        return findings;
+    }
+
+    public long getFindingCount() {
+        return findingCount;
+    }
+
+    public boolean isClean() {
+        return findingCount == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "AuditReport{" +
+                "sessions=" + sessions +
+                ", votesScanned=" + votesScanned +
+                ", parentsScanned=" + parentsScanned +
+                ", elapsed=" + elapsed.toMillis() + "ms" +
+                ", findings=" + findingCount +
+                '}';
+    }
+}
@@ -0,0 +1,83 @@
+// ABOUTME: Immutable result line for one candidate: votes, share of all votes and rank
+// ABOUTME: Candidates with equal votes share a rank and are marked as tied
+
+package com.school.voting.model;
+
+import java.util.Objects;
+
+public final class CandidateResult {
+    private final int candidateId;
+    private final String name;
+    private final int votes;
+    private final double percentage;
+    private final int rank;
+    private final boolean tied;
+
+    public CandidateResult(int candidateId, String name, int votes, double percentage, int rank, boolean tied) {
+        if (votes < 0 || rank < 1) {
+            throw new IllegalArgumentException("Invalid result for candidate " + candidateId
+                    + ": votes=" + votes + ", rank=" + rank);
+        }
+        this.candidateId = candidateId;
+        this.name = name;
+        this.votes = votes;
+        this.percentage = percentage;
+        this.rank = rank;
+        this.tied = tied;
+    }
+
+    public int getCandidateId() {
+        return candidateId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getVotes() {
+        return votes;
+    }
+
+    // Share of all votes cast in the session, from 0 to 100
+    public double getPercentage() {
+        return percentage;
+    }
+
+    // 1 for the leader; candidates with equal votes share a rank, the next rank is skipped
+    public int getRank() {
+        return rank;
+    }
+
+    public boolean isTied() {
+        return tied;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CandidateResult that = (CandidateResult) o;
+        return candidateId == that.candidateId &&
+               votes == that.votes &&
+               Double.compare(percentage, that.percentage) == 0 &&
+               rank == that.rank &&
+               tied == that.tied &&
+               Objects.equals(name, that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(candidateId, name, votes, percentage, rank, tied);
+    }
+
+    @Override
+    public String toString() {
+        return "CandidateResult{" +
+                "candidateId=" + candidateId +
+                ", name='" + name + '\'' +
+                ", votes=" + votes +
+                ", rank=" + rank +
+                (tied ? ", tied" : "") +
+                '}';
+    }
+}
@@ -7,6 +7,24 @@ import java.time.LocalDateTime;
 import java.util.Objects;
 
 public class Parent {
+
+    // How a parent took part in a session; a skipped parent is marked as voted but cast no ballot
+    public enum Participation {
+        VOTED("Voted"),
+        SKIPPED("Skipped"),
+        NOT_VOTED("Did not vote");
+
+        private final String displayName;
+
+        Participation(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
     private final Integer id;
     private final String name;
     private final boolean isCandidate;
@@ -0,0 +1,126 @@
+// ABOUTME: Immutable participation figures summed over the completed sessions of one school year
+// ABOUTME: Covers one class, or every class when the class name is null, and derives turnout, skip rate and averages
+
+package com.school.voting.model;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Objects;
+
+public final class ParticipationTrend {
+    private final int schoolYear;
+    private final String className;
+    private final int sessions;
+    private final int totalParents;
+    private final int candidates;
+    private final int votesCast;
+    private final int skipped;
+    private final long durationSeconds;
+
+    public ParticipationTrend(int schoolYear, String className, int sessions, int totalParents, int candidates,
+                              int votesCast, int skipped, long durationSeconds) {
+        if (sessions < 0 || totalParents < 0 || candidates < 0 || votesCast < 0 || skipped < 0
+                || durationSeconds < 0) {
+            throw new IllegalArgumentException("Participation figures cannot be negative");
+        }
+        this.schoolYear = schoolYear;
+        this.className = className;
+        this.sessions = sessions;
+        this.totalParents = totalParents;
+        this.candidates = candidates;
+        this.votesCast = votesCast;
+        this.skipped = skipped;
+        this.durationSeconds = durationSeconds;
+    }
+
+    // School years start on 1 August, as in the rollups
+    public static int schoolYearOf(LocalDate date) {
+        return date.getMonthValue() >= 8 ? date.getYear() : date.getYear() - 1;
+    }
+
+    // The calendar year the school year starts in; it runs from August to July
+    public int getSchoolYear() {
+        return schoolYear;
+    }
+
+    // e.g. "2024/25"
+    public String getSchoolYearLabel() {
+        return schoolYear + "/" + String.format("%02d", (schoolYear + 1) % 100);
+    }
+
+    // Null when the figures cover every class
+    public String getClassName() {
+        return className;
+    }
+
+    public int getSessions() {
+        return sessions;
+    }
+
+    public int getTotalParents() {
+        return totalParents;
+    }
+
+    public int getCandidates() {
+        return candidates;
+    }
+
+    public int getVotesCast() {
+        return votesCast;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public double getTurnoutPercentage() {
+        return totalParents > 0 ? (double) votesCast / totalParents * 100 : 0;
+    }
+
+    // Share of parents called up who were skipped instead of voting
+    public double getSkipPercentage() {
+        return totalParents > 0 ? (double) skipped / totalParents * 100 : 0;
+    }
+
+    public double getAverageCandidates() {
+        return sessions > 0 ? (double) candidates / sessions : 0;
+    }
+
+    // From a session's creation until it was completed
+    public Duration getAverageDuration() {
+        return sessions > 0 ? Duration.ofSeconds(durationSeconds / sessions) : Duration.ZERO;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ParticipationTrend that = (ParticipationTrend) o;
+        return schoolYear == that.schoolYear &&
+               sessions == that.sessions &&
+               totalParents == that.totalParents &&
+               candidates == that.candidates &&
+               votesCast == that.votesCast &&
+               skipped == that.skipped &&
+               durationSeconds == that.durationSeconds &&
+               Objects.equals(className, that.className);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(schoolYear, className, sessions, totalParents, candidates, votesCast, skipped,
+                durationSeconds);
+    }
+
+    @Override
+    public String toString() {
+        return "ParticipationTrend{" +
+                "schoolYear=" + getSchoolYearLabel() +
+                ", className=" + (className != null ? "'" + className + "'" : "all") +
+                ", sessions=" + sessions +
+                ", totalParents=" + totalParents +
+                ", votesCast=" + votesCast +
+                ", skipped=" + skipped +
+                '}';
+    }
+}
@@ -0,0 +1,135 @@
+// ABOUTME: Immutable view of a session's results: ranked candidates, winner, deputy, ties and turnout
+// ABOUTME: Built once from candidates and vote counts and shared by the results view and every exporter
+
+package com.school.voting.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.ToIntFunction;
+
+public final class ResultsSnapshot {
+    private static final Comparator<Parent> BY_NAME = Comparator
+            .comparing(Parent::getName, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+            .thenComparing(Parent::getId);
+
+    private final int sessionId;
+    private final List<CandidateResult> ranking;
+    private final int totalVotes;
+    private final int totalParents;
+    private final String votesChecksum;
+
+    public ResultsSnapshot(int sessionId, List<CandidateResult> ranking, int totalVotes, int totalParents) {
+        this(sessionId, ranking, totalVotes, totalParents, null);
+    }
+
+    // A checksum marks the results frozen at completion; live results have none
+    public ResultsSnapshot(int sessionId, List<CandidateResult> ranking, int totalVotes, int totalParents,
+                           String votesChecksum) {
+        this.sessionId = sessionId;
+        this.ranking = List.copyOf(ranking);
+        this.totalVotes = totalVotes;
+        this.totalParents = totalParents;
+        this.votesChecksum = votesChecksum;
+    }
+
+    /**
+     * Ranks the candidates by votes, most first, breaking equal counts by name. Percentages
+     * are shares of every vote in the counts, including votes for former candidates.
+     */
+    public static ResultsSnapshot of(int sessionId, List<Parent> candidates, Map<Integer, Integer> voteCounts,
+                                     int totalParents) {
+        int totalVotes = voteCounts.values().stream().mapToInt(Integer::intValue).sum();
+        List<CandidateResult> ranking = rankByVotes(candidates,
+                candidate -> voteCounts.getOrDefault(candidate.getId(), 0), totalVotes);
+        return new ResultsSnapshot(sessionId, ranking, totalVotes, totalParents);
+    }
+
+    // Most votes first, equal counts share a rank, are marked as tied and are ordered by name
+    public static List<CandidateResult> rankByVotes(List<Parent> candidates, ToIntFunction<Parent> votesOf,
+                                                    int totalVotes) {
+        List<Parent> ordered = candidates.stream()
+                .sorted(Comparator.comparingInt(votesOf).reversed().thenComparing(BY_NAME))
+                .toList();
+
+        List<CandidateResult> ranking = new ArrayList<>(ordered.size());
+        int rank = 0;
+        for (int i = 0; i < ordered.size(); i++) {
+            Parent candidate = ordered.get(i);
+            int votes = votesOf.applyAsInt(candidate);
+            if (i == 0 || votes != votesOf.applyAsInt(ordered.get(i - 1))) {
+                rank = i + 1;
+            }
+            boolean tied = (i > 0 && votes == votesOf.applyAsInt(ordered.get(i - 1)))
+                    || (i + 1 < ordered.size() && votes == votesOf.applyAsInt(ordered.get(i + 1)));
+            double percentage = totalVotes > 0 ? (double) votes / totalVotes * 100 : 0;
+            ranking.add(new CandidateResult(candidate.getId(), candidate.getName(), votes, percentage, rank, tied));
+        }
+        return ranking;
+    }
+
+    public int getSessionId() {
+        return sessionId;
+    }
+
+    // Every candidate, best first
+    public List<CandidateResult> getRanking() {
+        return ranking;
+    }
+
+    public int getTotalVotes() {
+        return totalVotes;
+    }
+
+    public int getTotalParents() {
+        return totalParents;
+    }
+
+    // Results written at completion never change again
+    public boolean isFrozen() {
+        return votesChecksum != null;
+    }
+
+    public String getVotesChecksum() {
+        return votesChecksum;
+    }
+
+    public ResultsSnapshot frozen(String checksum) {
+        return new ResultsSnapshot(sessionId, ranking, totalVotes, totalParents, checksum);
+    }
+
+    public double getTurnoutPercentage() {
+        return totalParents > 0 ? (double) totalVotes / totalParents * 100 : 0;
+    }
+
+    public Optional<CandidateResult> getWinner() {
+        return ranking.isEmpty() ? Optional.empty() : Optional.of(ranking.get(0));
+    }
+
+    public Optional<CandidateResult> getDeputy() {
+        return ranking.size() < 2 ? Optional.empty() : Optional.of(ranking.get(1));
+    }
+
+    // The runner-up shares first place; ranked counts always break ties, so only plurality can tie
+    public boolean isWinnerTied() {
+        return ranking.size() > 1 && ranking.get(1).getRank() == ranking.get(0).getRank();
+    }
+
+    // The candidate ranked after the deputy shares their place
+    public boolean isDeputyTied() {
+        return ranking.size() > 2 && ranking.get(2).getRank() == ranking.get(1).getRank();
+    }
+
+    @Override
+    public String toString() {
+        return "ResultsSnapshot{" +
+                "sessionId=" + sessionId +
+                ", candidates=" + ranking.size() +
+                ", totalVotes=" + totalVotes +
+                ", totalParents=" + totalParents +
+                (isFrozen() ? ", frozen" : "") +
+                '}';
+    }
+}
@@ -0,0 +1,94 @@
+// ABOUTME: Immutable snapshot of voting progress counters for a session
+// ABOUTME: Derives skipped and remaining voters from total parents, processed voters and votes cast
+
+package com.school.voting.model;
+
+import java.util.Objects;
+
+public final class SessionProgress {
+    private final int sessionId;
+    private final int totalParents;
+    private final int processedCount;
+    private final int votesCast;
+
+    public SessionProgress(int sessionId, int totalParents, int processedCount, int votesCast) {
+        if (totalParents < 0 || processedCount < 0 || votesCast < 0) {
+            throw new IllegalArgumentException("Progress counters cannot be negative");
+        }
+        if (processedCount > totalParents || votesCast > processedCount) {
+            throw new IllegalArgumentException("Inconsistent progress counters: total=" + totalParents
+                    + ", processed=" + processedCount + ", votes=" + votesCast);
+        }
+        this.sessionId = sessionId;
+        this.totalParents = totalParents;
+        this.processedCount = processedCount;
+        this.votesCast = votesCast;
+    }
+
+    public int getSessionId() {
+        return sessionId;
+    }
+
+    public int getTotalParents() {
+        return totalParents;
+    }
+
+    // Parents whose has_voted flag is set, whether they voted or were skipped
+    public int getProcessedCount() {
+        return processedCount;
+    }
+
+    public int getVotesCast() {
+        return votesCast;
+    }
+
+    public int getSkippedCount() {
+        return processedCount - votesCast;
+    }
+
+    public int getRemainingCount() {
+        return totalParents - processedCount;
+    }
+
+    public double getCompletionRatio() {
+        return totalParents == 0 ? 0 : (double) processedCount / totalParents;
+    }
+
+    // Progress after one more parent voted
+    public SessionProgress withVote() {
+        return new SessionProgress(sessionId, totalParents, processedCount + 1, votesCast + 1);
+    }
+
+    // Progress after one more parent was skipped
+    public SessionProgress withSkip() {
+        return new SessionProgress(sessionId, totalParents, processedCount + 1, votesCast);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SessionProgress that = (SessionProgress) o;
+        return sessionId == that.sessionId &&
+               totalParents == that.totalParents &&
+               processedCount == that.processedCount &&
+               votesCast == that.votesCast;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sessionId, totalParents, processedCount, votesCast);
+    }
+
+    @Override
+    public String toString() {
+        return "SessionProgress{" +
+                "sessionId=" + sessionId +
+                ", totalParents=" + totalParents +
+                ", processed=" + processedCount +
+                ", votesCast=" + votesCast +
+                ", skipped=" + getSkippedCount() +
+                ", remaining=" + getRemainingCount() +
+                '}';
+    }
+}
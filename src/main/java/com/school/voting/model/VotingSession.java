@@ -23,9 +23,33 @@ public class VotingSession {
         }
     }
 
+    // How the session's ballots are counted; the ranked methods ask voters for an order of preference
+    public enum TallyMethod {
+        PLURALITY("Plurality", false),
+        INSTANT_RUNOFF("Instant runoff", true),
+        SINGLE_TRANSFERABLE_VOTE("Single transferable vote", true);
+
+        private final String displayName;
+        private final boolean ranked;
+
+        TallyMethod(String displayName, boolean ranked) {
+            this.displayName = displayName;
+            this.ranked = ranked;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public boolean isRanked() {
+            return ranked;
+        }
+    }
+
     private final Integer id;
     private final String className;
     private final Status status;
+    private final TallyMethod tallyMethod;
     private final LocalDateTime createdAt;
     private final LocalDateTime completedAt;
 
@@ -33,6 +57,7 @@ public class VotingSession {
         this.id = builder.id;
         this.className = builder.className;
         this.status = builder.status;
+        this.tallyMethod = builder.tallyMethod;
         this.createdAt = builder.createdAt;
         this.completedAt = builder.completedAt;
         
@@ -46,6 +71,9 @@ public class VotingSession {
         if (status == null) {
             throw new IllegalStateException("Status cannot be null");
         }
+        if (tallyMethod == null) {
+            throw new IllegalStateException("Tally method cannot be null");
+        }
         if (status == Status.COMPLETED && completedAt == null) {
             throw new IllegalStateException("Completed session must have completion time");
         }
@@ -63,6 +91,10 @@ public class VotingSession {
         return status;
     }
 
+    public TallyMethod getTallyMethod() {
+        return tallyMethod;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -102,6 +134,7 @@ public class VotingSession {
                 "id=" + id +
                 ", className='" + className + '\'' +
                 ", status=" + status +
+                ", tallyMethod=" + tallyMethod +
                 ", createdAt=" + createdAt +
                 ", completedAt=" + completedAt +
                 '}';
@@ -116,6 +149,7 @@ public class VotingSession {
                 .id(this.id)
                 .className(this.className)
                 .status(this.status)
+                .tallyMethod(this.tallyMethod)
                 .createdAt(this.createdAt)
                 .completedAt(this.completedAt);
     }
@@ -124,6 +158,7 @@ public class VotingSession {
         private Integer id;
         private String className;
         private Status status = Status.SETUP;
+        private TallyMethod tallyMethod = TallyMethod.PLURALITY;
         private LocalDateTime createdAt = LocalDateTime.now();
         private LocalDateTime completedAt;
 
@@ -147,6 +182,16 @@ public class VotingSession {
             return this;
         }
 
+        public Builder tallyMethod(TallyMethod tallyMethod) {
+            this.tallyMethod = tallyMethod;
+            return this;
+        }
+
+        public Builder tallyMethod(String tallyMethodStr) {
+            this.tallyMethod = TallyMethod.valueOf(tallyMethodStr);
+            return this;
+        }
+
         public Builder createdAt(LocalDateTime createdAt) {
             this.createdAt = createdAt;
             return this;
@@ -0,0 +1,179 @@
+// ABOUTME: Compact, read-only store of a session's ballots for the tally strategies
+// ABOUTME: Keeps every preference in one int array and stores identical ballots once with their count
+
+package com.school.voting.tally;
+
+import com.school.voting.model.Parent;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Candidates are numbered 0..n-1 in name order. Ballot b lists its preferences as candidate
+ * numbers in preferences[offsets[b]] .. preferences[offsets[b + 1] - 1] and stands for
+ * weights[b] identical ballots. A single-choice ballot is a ranking of length one.
+ */
+public final class BallotBox {
+    private static final Comparator<Parent> BY_NAME = Comparator
+            .comparing(Parent::getName, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+            .thenComparing(Parent::getId);
+
+    private final List<Parent> candidates;
+    private final Map<Integer, Integer> numbers;
+    private final int[] preferences;
+    private final int[] offsets;
+    private final int[] weights;
+    private final int ballotCount;
+    private final int totalBallots;
+
+    private BallotBox(Builder builder) {
+        this.candidates = builder.candidates;
+        this.numbers = Map.copyOf(builder.numbers);
+        this.ballotCount = builder.ballotCount;
+        this.preferences = Arrays.copyOf(builder.preferences, builder.offsets[ballotCount]);
+        this.offsets = Arrays.copyOf(builder.offsets, ballotCount + 1);
+        this.weights = Arrays.copyOf(builder.weights, ballotCount);
+        this.totalBallots = builder.totalBallots;
+    }
+
+    public static Builder builder(List<Parent> candidates) {
+        return new Builder(candidates);
+    }
+
+    // Single-choice ballots from per-candidate counts, as kept in vote_tallies
+    public static BallotBox ofFirstChoices(List<Parent> candidates, Map<Integer, Integer> voteCounts) {
+        Builder builder = builder(candidates);
+        voteCounts.forEach((candidateId, count) -> builder.add(new int[]{candidateId}, count));
+        return builder.build();
+    }
+
+    // The stored form of a ranking: candidate ids as 4-byte big-endian ints, first preference first
+    public static byte[] encodeRanking(int[] candidateIds) {
+        ByteBuffer buffer = ByteBuffer.allocate(candidateIds.length * Integer.BYTES);
+        buffer.asIntBuffer().put(candidateIds);
+        return buffer.array();
+    }
+
+    public static int[] decodeRanking(byte[] packed) {
+        if (packed.length % Integer.BYTES != 0) {
+            throw new IllegalArgumentException("Packed ranking has " + packed.length + " bytes");
+        }
+        int[] candidateIds = new int[packed.length / Integer.BYTES];
+        ByteBuffer.wrap(packed).asIntBuffer().get(candidateIds);
+        return candidateIds;
+    }
+
+    // In name order; candidate number i is candidates.get(i)
+    public List<Parent> getCandidates() {
+        return candidates;
+    }
+
+    // The candidate's number, or -1 if the id is not a candidate
+    public int numberOf(int candidateId) {
+        return numbers.getOrDefault(candidateId, -1);
+    }
+
+    public int getCandidateCount() {
+        return candidates.size();
+    }
+
+    // Distinct ballots stored, each with its weight
+    public int getBallotCount() {
+        return ballotCount;
+    }
+
+    // Every ballot cast, counting identical ones and ballots naming no current candidate
+    public int getTotalBallots() {
+        return totalBallots;
+    }
+
+    public int getWeight(int ballot) {
+        return weights[ballot];
+    }
+
+    public int getStart(int ballot) {
+        return offsets[ballot];
+    }
+
+    public int getEnd(int ballot) {
+        return offsets[ballot + 1];
+    }
+
+    public int getPreference(int position) {
+        return preferences[position];
+    }
+
+    // Weighted first preferences per candidate number
+    public int[] countFirstPreferences() {
+        int[] counts = new int[candidates.size()];
+        for (int b = 0; b < ballotCount; b++) {
+            if (offsets[b] < offsets[b + 1]) {
+                counts[preferences[offsets[b]]] += weights[b];
+            }
+        }
+        return counts;
+    }
+
+    public static final class Builder {
+        private final List<Parent> candidates;
+        private final Map<Integer, Integer> numbers = new HashMap<>();
+        private final boolean[] seen;
+        private int[] preferences = new int[64];
+        private int[] offsets = new int[17];
+        private int[] weights = new int[16];
+        private int ballotCount;
+        private int totalBallots;
+
+        private Builder(List<Parent> candidates) {
+            this.candidates = candidates.stream().sorted(BY_NAME).toList();
+            for (int i = 0; i < this.candidates.size(); i++) {
+                numbers.put(this.candidates.get(i).getId(), i);
+            }
+            this.seen = new boolean[this.candidates.size()];
+        }
+
+        /**
+         * Adds count identical ballots. Ids that are not candidates (any more) and repeated
+         * ids are dropped; a ballot left with no preference still counts towards the total.
+         */
+        public Builder add(int[] candidateIds, int count) {
+            if (count < 1) {
+                throw new IllegalArgumentException("Ballot count must be positive: " + count);
+            }
+            totalBallots += count;
+
+            if (ballotCount == weights.length) {
+                weights = Arrays.copyOf(weights, ballotCount * 2);
+                offsets = Arrays.copyOf(offsets, ballotCount * 2 + 1);
+            }
+            int start = offsets[ballotCount];
+            if (start + candidateIds.length > preferences.length) {
+                preferences = Arrays.copyOf(preferences, Math.max(preferences.length * 2, start + candidateIds.length));
+            }
+
+            int end = start;
+            for (int candidateId : candidateIds) {
+                Integer number = numbers.get(candidateId);
+                if (number != null && !seen[number]) {
+                    seen[number] = true;
+                    preferences[end++] = number;
+                }
+            }
+            for (int i = start; i < end; i++) {
+                seen[preferences[i]] = false;
+            }
+
+            weights[ballotCount] = count;
+            offsets[++ballotCount] = end;
+            return this;
+        }
+
+        public BallotBox build() {
+            return new BallotBox(this);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+// ABOUTME: Tally strategy electing one candidate by instant runoff over ranked ballots
+// ABOUTME: Excludes the weakest candidate round by round until one holds a majority of the ballots in play
+
+package com.school.voting.tally;
+
+import com.school.voting.model.CandidateResult;
+import com.school.voting.model.VotingSession;
+
+import java.util.List;
+
+/**
+ * The winner comes first; the others follow by their standing when the count ended, then
+ * by how late they were excluded. The second place is therefore the runner-up of the final
+ * round, not a second seat; use SingleTransferableVote to elect a deputy proportionally.
+ */
+public final class InstantRunoff implements TallyStrategy {
+
+    @Override
+    public VotingSession.TallyMethod getMethod() {
+        return VotingSession.TallyMethod.INSTANT_RUNOFF;
+    }
+
+    @Override
+    public boolean usesRankings() {
+        return true;
+    }
+
+    @Override
+    public List<CandidateResult> count(BallotBox ballots) {
+        return new RankedCount(ballots).runoff();
+    }
+}
@@ -0,0 +1,31 @@
+// ABOUTME: Tally strategy electing by most first choices, the app's original counting rule
+// ABOUTME: Equal counts share a rank and are reported as tied rather than broken
+
+package com.school.voting.tally;
+
+import com.school.voting.model.CandidateResult;
+import com.school.voting.model.ResultsSnapshot;
+import com.school.voting.model.VotingSession;
+
+import java.util.List;
+
+public final class Plurality implements TallyStrategy {
+
+    @Override
+    public VotingSession.TallyMethod getMethod() {
+        return VotingSession.TallyMethod.PLURALITY;
+    }
+
+    @Override
+    public boolean usesRankings() {
+        return false;
+    }
+
+    @Override
+    public List<CandidateResult> count(BallotBox ballots) {
+        int[] firstPreferences = ballots.countFirstPreferences();
+        return ResultsSnapshot.rankByVotes(ballots.getCandidates(),
+                candidate -> firstPreferences[ballots.numberOf(candidate.getId())],
+                ballots.getTotalBallots());
+    }
+}
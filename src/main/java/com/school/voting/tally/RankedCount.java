@@ -0,0 +1,186 @@
+// ABOUTME: Round-by-round transfer engine shared by the ranked tally strategies
+// ABOUTME: Keeps one cursor and one transfer value per stored ballot in flat arrays; no objects per ballot or round
+
+package com.school.voting.tally;
+
+import com.school.voting.model.CandidateResult;
+import com.school.voting.model.Parent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Every ballot sits with its highest-ranked continuing candidate. A round either elects a
+ * candidate at the quota, passing the surplus on at a reduced value (Gregory method), or
+ * excludes the weakest candidate, passing their ballots on at full value. Each transfer
+ * walks the ballots once, so a count costs O(ballots x rounds). Ties are broken by first
+ * preferences, then by name, so a count is always reproducible.
+ */
+// Counts once; create a new one per count
+final class RankedCount {
+    private static final double EPSILON = 1e-9;
+
+    private final BallotBox box;
+    private final int[] cursor;
+    private final double[] value;
+    private final double[] tally;
+    private final int[] firstPreferences;
+    private final boolean[] continuing;
+    private final int[] order;
+    private int elected;
+    private int excluded;
+
+    RankedCount(BallotBox box) {
+        this.box = box;
+        int ballots = box.getBallotCount();
+        int candidates = box.getCandidateCount();
+        this.cursor = new int[ballots];
+        this.value = new double[ballots];
+        this.tally = new double[candidates];
+        this.firstPreferences = box.countFirstPreferences();
+        this.continuing = new boolean[candidates];
+        // Elected candidates fill it from the front, excluded ones from the back
+        this.order = new int[candidates];
+
+        Arrays.fill(continuing, true);
+        for (int b = 0; b < ballots; b++) {
+            cursor[b] = box.getStart(b);
+            value[b] = 1.0;
+            if (cursor[b] < box.getEnd(b)) {
+                tally[box.getPreference(cursor[b])] += box.getWeight(b);
+            }
+        }
+    }
+
+    // Single winner: excludes the weakest until someone holds a majority of the ballots still in play
+    List<CandidateResult> runoff() {
+        while (continuingCount() > 1) {
+            int leader = strongest();
+            if (tally[leader] * 2 > activeValue() + EPSILON) {
+                break;
+            }
+            exclude(weakest());
+        }
+        if (continuingCount() > 0) {
+            elect(strongest());
+        }
+        return results();
+    }
+
+    // Fills the seats with the Droop quota over the ballots that name at least one candidate
+    List<CandidateResult> electSeats(int seats) {
+        double quota = Math.floor(activeValue() / (seats + 1)) + 1;
+        while (elected < seats && continuingCount() > 0) {
+            if (continuingCount() <= seats - elected) {
+                // Only as many candidates left as seats: they are all elected, strongest first
+                elect(strongest());
+                continue;
+            }
+            int leader = strongest();
+            if (tally[leader] + EPSILON >= quota) {
+                double surplus = tally[leader] - quota;
+                elect(leader);
+                transfer(leader, surplus > EPSILON ? surplus / tally[leader] : 0);
+            } else {
+                exclude(weakest());
+            }
+        }
+        return results();
+    }
+
+    private void elect(int candidate) {
+        continuing[candidate] = false;
+        order[elected++] = candidate;
+    }
+
+    private void exclude(int candidate) {
+        continuing[candidate] = false;
+        order[order.length - 1 - excluded++] = candidate;
+        transfer(candidate, 1.0);
+    }
+
+    // Moves the ballots sitting with the candidate to their next continuing preference, scaled by factor
+    private void transfer(int candidate, double factor) {
+        for (int b = 0; b < cursor.length; b++) {
+            int end = box.getEnd(b);
+            if (cursor[b] >= end || box.getPreference(cursor[b]) != candidate) {
+                continue;
+            }
+            value[b] *= factor;
+            int next = cursor[b] + 1;
+            while (next < end && !continuing[box.getPreference(next)]) {
+                next++;
+            }
+            cursor[b] = next;
+            if (next < end && value[b] > 0) {
+                tally[box.getPreference(next)] += box.getWeight(b) * value[b];
+            }
+        }
+        tally[candidate] = 0;
+    }
+
+    // Value of the ballots still sitting with a continuing candidate
+    private double activeValue() {
+        double total = 0;
+        for (int c = 0; c < tally.length; c++) {
+            if (continuing[c]) {
+                total += tally[c];
+            }
+        }
+        return total;
+    }
+
+    private int continuingCount() {
+        return tally.length - elected - excluded;
+    }
+
+    private int strongest() {
+        int best = -1;
+        for (int c = 0; c < tally.length; c++) {
+            if (continuing[c] && (best < 0 || stronger(c, best))) {
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    private int weakest() {
+        int worst = -1;
+        for (int c = 0; c < tally.length; c++) {
+            if (continuing[c] && (worst < 0 || stronger(worst, c))) {
+                worst = c;
+            }
+        }
+        return worst;
+    }
+
+    // Candidate numbers follow name order, so the lower number wins the last tie-break
+    private boolean stronger(int a, int b) {
+        if (Math.abs(tally[a] - tally[b]) > EPSILON) {
+            return tally[a] > tally[b];
+        }
+        if (firstPreferences[a] != firstPreferences[b]) {
+            return firstPreferences[a] > firstPreferences[b];
+        }
+        return a < b;
+    }
+
+    // Elected in order of election, then anyone still continuing, then the excluded, last excluded first
+    private List<CandidateResult> results() {
+        while (continuingCount() > 0) {
+            elect(strongest());
+        }
+        int totalBallots = box.getTotalBallots();
+        List<Parent> candidates = box.getCandidates();
+        List<CandidateResult> ranking = new ArrayList<>(order.length);
+        for (int place = 0; place < order.length; place++) {
+            Parent candidate = candidates.get(order[place]);
+            int votes = firstPreferences[order[place]];
+            double percentage = totalBallots > 0 ? (double) votes / totalBallots * 100 : 0;
+            ranking.add(new CandidateResult(candidate.getId(), candidate.getName(), votes, percentage,
+                    place + 1, false));
+        }
+        return ranking;
+    }
+}
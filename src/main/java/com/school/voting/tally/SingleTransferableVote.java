@@ -0,0 +1,50 @@
+// ABOUTME: Tally strategy filling several seats at once by single transferable vote over ranked ballots
+// ABOUTME: Uses the Droop quota and passes surpluses on at a fractional value (Gregory method)
+
+package com.school.voting.tally;
+
+import com.school.voting.model.CandidateResult;
+import com.school.voting.model.VotingSession;
+
+import java.util.List;
+
+/**
+ * Elected candidates come first, in the order they reached the quota, so with two seats the
+ * first is the spokesperson and the second the deputy.
+ */
+public final class SingleTransferableVote implements TallyStrategy {
+    // Spokesperson and deputy
+    public static final int DEFAULT_SEATS = 2;
+
+    private final int seats;
+
+    public SingleTransferableVote() {
+        this(DEFAULT_SEATS);
+    }
+
+    public SingleTransferableVote(int seats) {
+        if (seats < 1) {
+            throw new IllegalArgumentException("At least one seat is required: " + seats);
+        }
+        this.seats = seats;
+    }
+
+    public int getSeats() {
+        return seats;
+    }
+
+    @Override
+    public VotingSession.TallyMethod getMethod() {
+        return VotingSession.TallyMethod.SINGLE_TRANSFERABLE_VOTE;
+    }
+
+    @Override
+    public boolean usesRankings() {
+        return true;
+    }
+
+    @Override
+    public List<CandidateResult> count(BallotBox ballots) {
+        return new RankedCount(ballots).electSeats(seats);
+    }
+}
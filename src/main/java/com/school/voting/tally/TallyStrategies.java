@@ -0,0 +1,36 @@
+// ABOUTME: Registry of the tally strategy used for each counting method
+// ABOUTME: Holds the built-in strategies; another implementation can be registered in place of one
+
+package com.school.voting.tally;
+
+import com.school.voting.model.VotingSession;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+public final class TallyStrategies {
+    private static final Map<VotingSession.TallyMethod, TallyStrategy> STRATEGIES =
+            new EnumMap<>(VotingSession.TallyMethod.class);
+
+    static {
+        register(new Plurality());
+        register(new InstantRunoff());
+        register(new SingleTransferableVote());
+    }
+
+    private TallyStrategies() {
+    }
+
+    public static synchronized TallyStrategy forMethod(VotingSession.TallyMethod method) {
+        TallyStrategy strategy = STRATEGIES.get(method);
+        if (strategy == null) {
+            throw new IllegalArgumentException("No tally strategy for " + method);
+        }
+        return strategy;
+    }
+
+    // Replaces the strategy for its method
+    public static synchronized void register(TallyStrategy strategy) {
+        STRATEGIES.put(strategy.getMethod(), strategy);
+    }
+}
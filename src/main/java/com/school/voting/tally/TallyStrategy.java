@@ -0,0 +1,23 @@
+// ABOUTME: Counting rule that turns a session's ballots into a ranking of its candidates
+// ABOUTME: One implementation per VotingSession.TallyMethod, looked up through TallyStrategies
+
+package com.school.voting.tally;
+
+import com.school.voting.model.CandidateResult;
+import com.school.voting.model.VotingSession;
+
+import java.util.List;
+
+public interface TallyStrategy {
+
+    VotingSession.TallyMethod getMethod();
+
+    // False when first choices are all the strategy reads, so the stored tallies are enough
+    boolean usesRankings();
+
+    /**
+     * Every candidate in the box, best first. Votes and percentages are first preferences;
+     * the rank is the candidate's place under this strategy's rules.
+     */
+    List<CandidateResult> count(BallotBox ballots);
+}
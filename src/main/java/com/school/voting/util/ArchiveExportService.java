@@ -0,0 +1,171 @@
+// ABOUTME: Bulk export of every completed session's PDF report into one ZIP archive
+// ABOUTME: Renders reports in parallel on a fixed worker pool and streams them into the archive in order
+
+package com.school.voting.util;
+
+import com.school.voting.dao.DatabaseManager;
+import com.school.voting.dao.ParentDAO;
+import com.school.voting.dao.SessionResultsDAO;
+import com.school.voting.dao.VotingSessionDAO;
+import com.school.voting.model.ResultsSnapshot;
+import com.school.voting.model.VotingSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Sessions are read a page at a time and each report is rendered into memory by a worker.
+ * The archive is written from the oldest report still in flight, so entries keep the
+ * history order, and no more than two reports per worker are submitted ahead of it.
+ * Memory therefore depends on the pool size, not on how many sessions there are.
+ */
+public class ArchiveExportService {
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveExportService.class);
+
+    private static final int PAGE_SIZE = 50;
+    private static final int REPORTS_PER_WORKER = 2;
+    // Pooled connections a bulk export leaves alone: one for the vote writer, one for the stations
+    private static final int RESERVED_CONNECTIONS = 2;
+
+    private final PdfExportService pdfExportService;
+    private final VotingSessionDAO sessionDAO;
+    private final SessionResultsDAO resultsDAO;
+    private final ParentDAO parentDAO;
+    private final int workers;
+
+    public ArchiveExportService() {
+        this(new PdfExportService(), new VotingSessionDAO(), new SessionResultsDAO(), new ParentDAO(),
+                defaultWorkers(DatabaseManager.getInstance().getPoolMetrics().getMaxSize()));
+    }
+
+    public ArchiveExportService(PdfExportService pdfExportService, VotingSessionDAO sessionDAO,
+                                SessionResultsDAO resultsDAO, ParentDAO parentDAO, int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Need at least one worker: " + workers);
+        }
+        this.pdfExportService = pdfExportService;
+        this.sessionDAO = sessionDAO;
+        this.resultsDAO = resultsDAO;
+        this.parentDAO = parentDAO;
+        this.workers = workers;
+    }
+
+    /**
+     * Each render holds a pooled connection while it lays out the participation appendix, so
+     * the workers stay below the pool size or voting would wait out the lease timeout behind
+     * a bulk export. Also leaves a core for the UI on machines that have more than one.
+     */
+    static int defaultWorkers(int poolSize) {
+        int cores = Runtime.getRuntime().availableProcessors() - 1;
+        return Math.max(1, Math.min(cores, poolSize - RESERVED_CONNECTIONS));
+    }
+
+    private static final class RenderedReport {
+        private final String entryName;
+        private final byte[] pdf;
+
+        private RenderedReport(String entryName, byte[] pdf) {
+            this.entryName = entryName;
+            this.pdf = pdf;
+        }
+    }
+
+    // Writes one PDF per completed session, most recently completed first, to a new ZIP in the directory
+    public Path exportCompletedSessions(Path directory, TaskContext context) throws Exception {
+        Files.createDirectories(directory);
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+        Path archive = directory.resolve("VotingResults_All_" + timestamp + ".zip");
+        logger.info("Exporting all completed sessions to {}", archive.toAbsolutePath());
+
+        int total = sessionDAO.countCompletedSessions();
+        context.updateMessage("Exporting " + total + " sessions");
+        context.updateProgress(0, total);
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers,
+                Thread.ofPlatform().name("archive-export-", 1).daemon().factory());
+        Deque<Future<RenderedReport>> inFlight = new ArrayDeque<>();
+        int written = 0;
+        try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(archive)))) {
+            VotingSession after = null;
+            List<VotingSession> page;
+            do {
+                page = sessionDAO.getCompletedSessionsPage(after, PAGE_SIZE);
+                for (VotingSession session : page) {
+                    if (inFlight.size() == workers * REPORTS_PER_WORKER) {
+                        writeNext(zip, inFlight, context);
+                        context.updateProgress(++written, Math.max(total, written));
+                    }
+                    inFlight.add(pool.submit(() -> render(session)));
+                }
+                after = page.isEmpty() ? after : page.get(page.size() - 1);
+            } while (page.size() == PAGE_SIZE);
+
+            while (!inFlight.isEmpty()) {
+                writeNext(zip, inFlight, context);
+                context.updateProgress(++written, Math.max(total, written));
+            }
+        } catch (Exception e) {
+            // Includes cancellation; a partial archive would pass for a complete one
+            inFlight.forEach(report -> report.cancel(true));
+            Files.deleteIfExists(archive);
+            throw e;
+        } finally {
+            pool.shutdownNow();
+        }
+
+        context.updateMessage("Exported " + written + " sessions");
+        logger.info("Exported {} sessions to {}", written, archive.toAbsolutePath());
+        return archive;
+    }
+
+    private void writeNext(ZipOutputStream zip, Deque<Future<RenderedReport>> inFlight, TaskContext context)
+            throws Exception {
+        context.checkCancelled();
+        RenderedReport report;
+        try {
+            report = inFlight.peek().get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        inFlight.remove();
+        zip.putNextEntry(new ZipEntry(report.entryName));
+        zip.write(report.pdf);
+        zip.closeEntry();
+    }
+
+    // Reads frozen results directly, so a year of sessions does not pile up in the results engine's cache
+    private RenderedReport render(VotingSession session) throws SQLException, IOException {
+        ResultsSnapshot results = resultsDAO.findResults(session.getId()).orElse(null);
+        if (results == null) {
+            // Completed before results were frozen
+            results = resultsDAO.countResults(session.getId(), parentDAO.getParentCount(session.getId()));
+        }
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream(16 * 1024);
+        pdfExportService.writeReport(session, results, pdf, TaskContext.NONE);
+
+        String className = session.getClassName() != null ? session.getClassName() : "Unknown";
+        String entryName = String.format("VotingResults_%s_%d.pdf",
+                className.replaceAll("[^a-zA-Z0-9]", ""), session.getId());
+        return new RenderedReport(entryName, pdf.toByteArray());
+    }
+}
@@ -0,0 +1,95 @@
+// ABOUTME: Runs blocking database work on a dedicated executor and returns CompletableFutures
+// ABOUTME: Keeps SQL and file I/O off the JavaFX Application Thread so a disk stall never freezes the UI
+
+package com.school.voting.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class AsyncDataAccess {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncDataAccess.class);
+    // One worker per pooled connection; more threads would only queue on the pool
+    private static final int WORKERS = Integer.getInteger("voting.db.pool.size", 4);
+    private static AsyncDataAccess instance;
+
+    @FunctionalInterface
+    public interface DataWork<T> {
+        T call() throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface DataAction {
+        void run() throws Exception;
+    }
+
+    private final ExecutorService executor;
+
+    AsyncDataAccess(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public static synchronized AsyncDataAccess getInstance() {
+        if (instance == null) {
+            AtomicInteger counter = new AtomicInteger();
+            instance = new AsyncDataAccess(Executors.newFixedThreadPool(WORKERS, runnable -> {
+                Thread thread = new Thread(runnable, "data-access-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }));
+        }
+        return instance;
+    }
+
+    /**
+     * Runs the work on a data-access thread. The future completes with its result or with the
+     * exception it threw; work whose future is cancelled before it starts is never run.
+     */
+    public <T> CompletableFuture<T> supply(DataWork<T> work) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    future.complete(work.call());
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    public CompletableFuture<Void> run(DataAction action) {
+        return supply(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    // The exception the work threw, without the wrappers added by CompletableFuture
+    public static Throwable unwrap(Throwable failure) {
+        Throwable cause = failure;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        logger.info("Data access executor stopped");
+    }
+}
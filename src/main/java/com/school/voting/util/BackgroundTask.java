@@ -0,0 +1,291 @@
+// ABOUTME: One job run by TaskRuntime, observable from JavaFX through the Worker interface
+// ABOUTME: Takes progress and messages from the job's thread and applies them to properties on the UI executor
+
+package com.school.voting.util;
+
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.concurrent.Worker;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The job itself runs on a virtual thread and reports through {@link TaskContext}; bursts of
+ * progress and message updates are coalesced so the UI thread applies only the latest.
+ * Properties must be read on the UI thread, {@link #completion()} from anywhere.
+ */
+public final class BackgroundTask<T> implements Worker<T>, TaskContext {
+    private static final AtomicLong ids = new AtomicLong();
+
+    private final long id = ids.incrementAndGet();
+    private final TaskKind kind;
+    private final Executor uiExecutor;
+    private final CompletableFuture<T> completion = new CompletableFuture<>();
+    private final AtomicReference<long[]> pendingProgress = new AtomicReference<>();
+    private final AtomicReference<String> pendingMessage = new AtomicReference<>();
+    private final AtomicBoolean finished = new AtomicBoolean();
+    private volatile Thread runner;
+    private volatile boolean cancelled;
+
+    private final ReadOnlyObjectWrapper<State> state = new ReadOnlyObjectWrapper<>(this, "state", State.READY);
+    private final ReadOnlyObjectWrapper<T> value = new ReadOnlyObjectWrapper<>(this, "value");
+    private final ReadOnlyObjectWrapper<Throwable> exception = new ReadOnlyObjectWrapper<>(this, "exception");
+    private final ReadOnlyDoubleWrapper workDone = new ReadOnlyDoubleWrapper(this, "workDone", -1);
+    private final ReadOnlyDoubleWrapper totalWork = new ReadOnlyDoubleWrapper(this, "totalWork", -1);
+    private final ReadOnlyDoubleWrapper progress = new ReadOnlyDoubleWrapper(this, "progress", -1);
+    private final ReadOnlyBooleanWrapper running = new ReadOnlyBooleanWrapper(this, "running");
+    private final ReadOnlyStringWrapper message = new ReadOnlyStringWrapper(this, "message", "");
+    private final ReadOnlyStringWrapper title;
+
+    BackgroundTask(TaskKind kind, String title, Executor uiExecutor) {
+        this.kind = kind;
+        this.uiExecutor = uiExecutor;
+        this.title = new ReadOnlyStringWrapper(this, "title", title);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public TaskKind getKind() {
+        return kind;
+    }
+
+    // Completes with the job's result; cancelling the returned future does not cancel the job
+    public CompletableFuture<T> completion() {
+        return completion.copy();
+    }
+
+    public boolean isDone() {
+        return finished.get();
+    }
+
+    void markScheduled() {
+        setState(State.SCHEDULED);
+    }
+
+    // Runs on the task's own thread; waits for a slot of the task's kind first
+    void execute(TaskRuntime.TaskBody<T> body, Semaphore slots) {
+        runner = Thread.currentThread();
+        try {
+            if (cancelled) {
+                finishCancelled();
+                return;
+            }
+            if (!slots.tryAcquire()) {
+                updateMessage("Waiting for another " + kind.getDisplayName().toLowerCase() + " to finish");
+                slots.acquire();
+            }
+            try {
+                checkCancelled();
+                setState(State.RUNNING);
+                finishSucceeded(body.run(this));
+            } finally {
+                slots.release();
+            }
+        } catch (Exception e) {
+            // An interrupt or CancellationException after cancel() is a cancellation, not a failure
+            if (cancelled) {
+                finishCancelled();
+            } else {
+                fail(e);
+            }
+        } finally {
+            runner = null;
+        }
+    }
+
+    @Override
+    public boolean cancel() {
+        if (finished.get()) {
+            return false;
+        }
+        cancelled = true;
+        Thread thread = runner;
+        if (thread != null) {
+            // Blocking I/O and slot waits stop on interrupt; loops check isCancelled()
+            thread.interrupt();
+        } else {
+            finishCancelled();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public void updateProgress(long done, long total) {
+        if (pendingProgress.getAndSet(new long[]{done, total}) == null) {
+            uiExecutor.execute(() -> {
+                long[] latest = pendingProgress.getAndSet(null);
+                workDone.set(latest[0]);
+                totalWork.set(latest[1]);
+                progress.set(latest[1] <= 0 ? -1 : Math.min(1.0, (double) latest[0] / latest[1]));
+            });
+        }
+    }
+
+    @Override
+    public void updateMessage(String text) {
+        if (pendingMessage.getAndSet(text) == null) {
+            uiExecutor.execute(() -> message.set(pendingMessage.getAndSet(null)));
+        }
+    }
+
+    void fail(Throwable failure) {
+        if (finished.compareAndSet(false, true)) {
+            uiExecutor.execute(() -> {
+                exception.set(failure);
+                state.set(State.FAILED);
+                running.set(false);
+            });
+            completion.completeExceptionally(failure);
+        }
+    }
+
+    // Final property updates are queued before the future completes, so they are never missed
+    private void finishSucceeded(T result) {
+        if (finished.compareAndSet(false, true)) {
+            uiExecutor.execute(() -> {
+                value.set(result);
+                if (totalWork.get() > 0) {
+                    workDone.set(totalWork.get());
+                }
+                progress.set(1);
+                state.set(State.SUCCEEDED);
+                running.set(false);
+            });
+            completion.complete(result);
+        }
+    }
+
+    private void finishCancelled() {
+        if (finished.compareAndSet(false, true)) {
+            uiExecutor.execute(() -> {
+                state.set(State.CANCELLED);
+                running.set(false);
+            });
+            completion.cancel(false);
+        }
+    }
+
+    private void setState(State next) {
+        uiExecutor.execute(() -> {
+            // Updates posted from different threads may arrive after the final state
+            State current = state.get();
+            if (current != State.SUCCEEDED && current != State.FAILED && current != State.CANCELLED) {
+                state.set(next);
+                running.set(true);
+            }
+        });
+    }
+
+    @Override
+    public State getState() {
+        return state.get();
+    }
+
+    @Override
+    public ReadOnlyObjectProperty<State> stateProperty() {
+        return state.getReadOnlyProperty();
+    }
+
+    @Override
+    public T getValue() {
+        return value.get();
+    }
+
+    @Override
+    public ReadOnlyObjectProperty<T> valueProperty() {
+        return value.getReadOnlyProperty();
+    }
+
+    @Override
+    public Throwable getException() {
+        return exception.get();
+    }
+
+    @Override
+    public ReadOnlyObjectProperty<Throwable> exceptionProperty() {
+        return exception.getReadOnlyProperty();
+    }
+
+    @Override
+    public double getWorkDone() {
+        return workDone.get();
+    }
+
+    @Override
+    public ReadOnlyDoubleProperty workDoneProperty() {
+        return workDone.getReadOnlyProperty();
+    }
+
+    @Override
+    public double getTotalWork() {
+        return totalWork.get();
+    }
+
+    @Override
+    public ReadOnlyDoubleProperty totalWorkProperty() {
+        return totalWork.getReadOnlyProperty();
+    }
+
+    @Override
+    public double getProgress() {
+        return progress.get();
+    }
+
+    @Override
+    public ReadOnlyDoubleProperty progressProperty() {
+        return progress.getReadOnlyProperty();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    @Override
+    public ReadOnlyBooleanProperty runningProperty() {
+        return running.getReadOnlyProperty();
+    }
+
+    @Override
+    public String getMessage() {
+        return message.get();
+    }
+
+    @Override
+    public ReadOnlyStringProperty messageProperty() {
+        return message.getReadOnlyProperty();
+    }
+
+    @Override
+    public String getTitle() {
+        return title.get();
+    }
+
+    @Override
+    public ReadOnlyStringProperty titleProperty() {
+        return title.getReadOnlyProperty();
+    }
+
+    @Override
+    public String toString() {
+        return "BackgroundTask{id=" + id + ", kind=" + kind + ", title=" + title.get() + "}";
+    }
+}
@@ -0,0 +1,150 @@
+// ABOUTME: Streams a session's results, anonymous ballots and participation list as CSV or JSON Lines
+// ABOUTME: Writes to any OutputStream straight from database cursors, or bundles all three into one ZIP
+
+package com.school.voting.util;
+
+import com.school.voting.dao.ParentDAO;
+import com.school.voting.dao.VoteDAO;
+import com.school.voting.model.CandidateResult;
+import com.school.voting.model.ResultsSnapshot;
+import com.school.voting.model.VotingSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Rows go from the cursor to the buffered writer one at a time; nothing is collected in
+ * between, so an export takes the same memory for ten ballots as for a million. Each
+ * write method flushes when done but leaves the stream open, and returns the rows written.
+ */
+public class DataExportService {
+    private static final Logger logger = LoggerFactory.getLogger(DataExportService.class);
+
+    // Data files in the bundle, used as progress steps
+    private static final int EXPORT_STEPS = 3;
+
+    private final ResultsEngine resultsEngine;
+    private final ParentDAO parentDAO;
+    private final VoteDAO voteDAO;
+
+    public DataExportService() {
+        this(SessionManager.getInstance().getResultsEngine(), new ParentDAO(), new VoteDAO());
+    }
+
+    public DataExportService(ResultsEngine resultsEngine, ParentDAO parentDAO, VoteDAO voteDAO) {
+        this.resultsEngine = resultsEngine;
+        this.parentDAO = parentDAO;
+        this.voteDAO = voteDAO;
+    }
+
+    // One record per candidate in ranking order
+    public int writeResults(int sessionId, ExportFormat format, OutputStream out) throws SQLException, IOException {
+        ResultsSnapshot results = resultsEngine.getResults(sessionId);
+        RecordWriter writer = RecordWriter.open(format, out,
+                "rank", "candidate_id", "candidate", "votes", "percentage", "tied");
+        try {
+            for (CandidateResult result : results.getRanking()) {
+                writer.number(result.getRank())
+                        .number(result.getCandidateId())
+                        .text(result.getName())
+                        .number(result.getVotes())
+                        .decimal(result.getPercentage())
+                        .bool(result.isTied())
+                        .endRecord();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+        return results.getRanking().size();
+    }
+
+    // One record per ballot, numbered in choice order; single-choice ballots have no ranking
+    public int writeBallots(int sessionId, ExportFormat format, OutputStream out) throws SQLException, IOException {
+        RecordWriter writer = RecordWriter.open(format, out, "ballot", "candidate_id", "candidate", "ranking");
+        int ballots;
+        try {
+            AtomicInteger number = new AtomicInteger();
+            ballots = voteDAO.streamAnonymousBallots(sessionId, (candidateId, candidateName, ranking) ->
+                    writer.number(number.incrementAndGet())
+                            .number(candidateId)
+                            .text(candidateName)
+                            .ids(ranking)
+                            .endRecord());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+        return ballots;
+    }
+
+    // One record per parent in name order
+    public int writeParticipation(int sessionId, ExportFormat format, OutputStream out)
+            throws SQLException, IOException {
+        RecordWriter writer = RecordWriter.open(format, out, "parent", "candidate", "participation");
+        int parents;
+        try {
+            parents = parentDAO.streamParticipation(sessionId, (name, isCandidate, participation) ->
+                    writer.text(name)
+                            .bool(isCandidate)
+                            .text(participation.name())
+                            .endRecord());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+        return parents;
+    }
+
+    // Writes results, ballots and participation of the session into a new ZIP in the directory
+    public Path exportSessionData(VotingSession session, ExportFormat format, Path directory, TaskContext context)
+            throws SQLException, IOException {
+        Files.createDirectories(directory);
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+        String className = session.getClassName() != null ? session.getClassName() : "Unknown";
+        Path archive = directory.resolve(String.format("VotingData_%s_%s.zip",
+                className.replaceAll("[^a-zA-Z0-9]", ""), timestamp));
+        logger.info("Exporting session data as {} to {}", format.getDisplayName(), archive.toAbsolutePath());
+
+        try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(archive)))) {
+            context.updateMessage("Writing results");
+            context.updateProgress(0, EXPORT_STEPS);
+            zip.putNextEntry(new ZipEntry("results." + format.getExtension()));
+            writeResults(session.getId(), format, zip);
+            zip.closeEntry();
+            context.checkCancelled();
+            context.updateProgress(1, EXPORT_STEPS);
+
+            context.updateMessage("Writing ballots");
+            zip.putNextEntry(new ZipEntry("ballots." + format.getExtension()));
+            int ballots = writeBallots(session.getId(), format, zip);
+            zip.closeEntry();
+            context.checkCancelled();
+            context.updateProgress(2, EXPORT_STEPS);
+
+            context.updateMessage("Writing participation");
+            zip.putNextEntry(new ZipEntry("participation." + format.getExtension()));
+            int parents = writeParticipation(session.getId(), format, zip);
+            zip.closeEntry();
+            context.updateProgress(EXPORT_STEPS, EXPORT_STEPS);
+            logger.info("Exported {} ballots and {} parents to {}", ballots, parents, archive.toAbsolutePath());
+        } catch (Exception e) {
+            // Includes cancellation and runtime errors; a partial bundle would pass for a complete one
+            Files.deleteIfExists(archive);
+            throw e;
+        }
+        return archive;
+    }
+}
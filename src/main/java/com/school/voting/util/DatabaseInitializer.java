@@ -11,17 +11,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
 
 public class DatabaseInitializer {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseInitializer.class);
     
+    private static final int CANDIDATE_COUNT = 5;
+    
     private final VotingSessionDAO sessionDAO = new VotingSessionDAO();
     private final ParentDAO parentDAO = new ParentDAO();
     
     public void initializeSampleData() throws SQLException {
+        initializeSampleData(TaskContext.NONE);
+    }
+    
+    public void initializeSampleData(TaskContext context) throws SQLException {
         logger.info("Initializing database with sample data");
         
         // Create session for class 6c
@@ -52,34 +58,29 @@ public class DatabaseInitializer {
             "Marie Hartmann"
         );
         
-        // Add all parents to the session
-        for (String name : parentNames) {
-            Parent parent = Parent.builder()
-                    .name(name)
+        // Mark the first 5 parents by name as candidates for simplicity
+        List<String> sortedNames = parentNames.stream().sorted().toList();
+        List<Parent> roster = new ArrayList<>(sortedNames.size());
+        for (int i = 0; i < sortedNames.size(); i++) {
+            roster.add(Parent.builder()
+                    .name(sortedNames.get(i))
                     .sessionId(session.getId())
-                    .build();
-            
-            parent = parentDAO.insertParent(parent);
-            logger.debug("Added parent: {}", name);
+                    .isCandidate(i < CANDIDATE_COUNT)
+                    .build());
         }
         
-        // Randomly select 5 parents to be candidates
-        List<Parent> allParents = parentDAO.getParentsBySession(session.getId());
-        Random random = new Random();
-        
-        // Mark first 5 parents as candidates for simplicity
-        for (int i = 0; i < 5 && i < allParents.size(); i++) {
-            Parent candidate = allParents.get(i);
-            parentDAO.markAsCandidate(candidate.getId(), true);
-            logger.info("Marked {} as candidate", candidate.getName());
-        }
+        context.checkCancelled();
+        context.updateMessage("Adding " + roster.size() + " parents to class 6c");
+        context.updateProgress(1, 2);
+        parentDAO.insertParents(roster);
+        context.updateProgress(2, 2);
         
-        logger.info("Sample data initialization completed - {} parents, 5 candidates", 
-                   parentNames.size());
+        logger.info("Sample data initialization completed - {} parents, {} candidates", 
+                   roster.size(), Math.min(CANDIDATE_COUNT, roster.size()));
     }
     
     public boolean shouldInitialize() throws SQLException {
         // Check if there's already data in the database
-        return sessionDAO.getAllSessions().isEmpty();
+        return !sessionDAO.hasSessions();
     }
 }
\ No newline at end of file
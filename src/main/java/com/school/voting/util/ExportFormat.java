@@ -0,0 +1,30 @@
+// ABOUTME: Text formats the data exports can be written in
+// ABOUTME: CSV with a header row, or JSON Lines with one object per record
+
+package com.school.voting.util;
+
+public enum ExportFormat {
+    CSV("CSV", "csv"),
+    JSON_LINES("JSON Lines", "jsonl");
+
+    private final String displayName;
+    private final String extension;
+
+    ExportFormat(String displayName, String extension) {
+        this.displayName = displayName;
+        this.extension = extension;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,85 @@
+// ABOUTME: In-memory running vote count for one session, indexed by candidate slot
+// ABOUTME: Counts with striped LongAdders so concurrent stations never contend on a lock
+
+package com.school.voting.util;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class LiveTally {
+    private final int sessionId;
+    // Built once and never modified, so lookups need no synchronization
+    private final Map<Integer, Integer> slots;
+    private final int[] candidateIds;
+    private final LongAdder[] counts;
+
+    public LiveTally(int sessionId, Collection<Integer> candidateIds) {
+        this.sessionId = sessionId;
+        this.candidateIds = candidateIds.stream().mapToInt(Integer::intValue).distinct().toArray();
+        this.counts = new LongAdder[this.candidateIds.length];
+
+        Map<Integer, Integer> slotMap = new HashMap<>();
+        for (int slot = 0; slot < this.candidateIds.length; slot++) {
+            slotMap.put(this.candidateIds[slot], slot);
+            counts[slot] = new LongAdder();
+        }
+        this.slots = Map.copyOf(slotMap);
+    }
+
+    public int getSessionId() {
+        return sessionId;
+    }
+
+    public void record(int candidateId) {
+        counts[slotOf(candidateId)].increment();
+    }
+
+    public long getCount(int candidateId) {
+        return counts[slotOf(candidateId)].sum();
+    }
+
+    public long getTotal() {
+        long total = 0;
+        for (LongAdder count : counts) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    // Candidate id to votes, in candidate order; a consistent view only while no votes arrive
+    public Map<Integer, Integer> snapshot() {
+        Map<Integer, Integer> snapshot = new LinkedHashMap<>();
+        for (int slot = 0; slot < candidateIds.length; slot++) {
+            snapshot.put(candidateIds[slot], (int) counts[slot].sum());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Replaces the in-memory counts with the stored ones. Returns true if they already
+     * agreed. Votes recorded while this runs may be lost, so call it between votes.
+     */
+    public boolean reconcile(Map<Integer, Integer> storedCounts) {
+        boolean consistent = true;
+        for (int slot = 0; slot < candidateIds.length; slot++) {
+            long stored = storedCounts.getOrDefault(candidateIds[slot], 0);
+            if (counts[slot].sum() != stored) {
+                consistent = false;
+                counts[slot].reset();
+                counts[slot].add(stored);
+            }
+        }
+        return consistent;
+    }
+
+    private int slotOf(int candidateId) {
+        Integer slot = slots.get(candidateId);
+        if (slot == null) {
+            throw new IllegalArgumentException("Parent " + candidateId + " is not a candidate in session " + sessionId);
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,107 @@
+// ABOUTME: Database maintenance jobs meant to run as background tasks: tally recounts, vote audits and backups
+// ABOUTME: Reports progress through TaskContext and stops between sessions when cancelled
+
+package com.school.voting.util;
+
+import com.school.voting.dao.AnalyticsDAO;
+import com.school.voting.dao.DatabaseManager;
+import com.school.voting.dao.SessionResultsDAO;
+import com.school.voting.dao.VoteAuditor;
+import com.school.voting.dao.VoteDAO;
+import com.school.voting.dao.VotingSessionDAO;
+import com.school.voting.model.AuditReport;
+import com.school.voting.model.VotingSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+public final class MaintenanceJobs {
+    private static final Logger logger = LoggerFactory.getLogger(MaintenanceJobs.class);
+    private static final DateTimeFormatter BACKUP_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+
+    private final DatabaseManager dbManager;
+    private final VotingSessionDAO sessionDAO;
+    private final VoteDAO voteDAO;
+    private final SessionResultsDAO resultsDAO;
+    private final AnalyticsDAO analyticsDAO;
+    private final VoteAuditor voteAuditor;
+
+    public MaintenanceJobs() {
+        this(DatabaseManager.getInstance());
+    }
+
+    public MaintenanceJobs(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+        this.sessionDAO = new VotingSessionDAO(dbManager);
+        this.voteDAO = new VoteDAO(dbManager);
+        this.resultsDAO = new SessionResultsDAO(dbManager);
+        this.analyticsDAO = new AnalyticsDAO(dbManager);
+        this.voteAuditor = new VoteAuditor(dbManager);
+    }
+
+    // Recounts every session's tallies from its ballots; returns how many sessions had drifted
+    public int recountTallies(TaskContext context) throws SQLException {
+        List<VotingSession> sessions = sessionDAO.getAllSessions();
+        int rebuilt = 0;
+        for (int i = 0; i < sessions.size(); i++) {
+            context.checkCancelled();
+            VotingSession session = sessions.get(i);
+            context.updateMessage("Checking class " + session.getClassName());
+            context.updateProgress(i, sessions.size());
+
+            if (!voteDAO.verifyTallies(session.getId()).isEmpty()) {
+                voteDAO.rebuildTallies(session.getId());
+                rebuilt++;
+                logger.warn("Rebuilt drifted tallies for session {}", session.getId());
+            }
+            // Frozen results are never rewritten; a mismatch means ballots were edited afterwards
+            if (!session.isActive() && !resultsDAO.verifyResults(session.getId())) {
+                logger.warn("Ballots of completed session {} no longer match its frozen results", session.getId());
+            }
+        }
+        // The rollups are derived from the same ballots, so they are recounted along with the tallies
+        analyticsDAO.rebuildRollups();
+        context.updateProgress(sessions.size(), sessions.size());
+        context.updateMessage(rebuilt == 0 ? "All tallies match the ballots" : "Rebuilt " + rebuilt + " tallies");
+        return rebuilt;
+    }
+
+    /**
+     * Recounts every ballot independently and reports where tallies, results or voted flags
+     * disagree. Changes nothing, so it can run while voting goes on.
+     */
+    public AuditReport auditVotes(TaskContext context) throws SQLException {
+        long started = System.nanoTime();
+        context.updateMessage("Auditing ballots...");
+        AuditReport report = voteAuditor.audit((scanned, total) -> {
+            context.checkCancelled();
+            context.updateProgress(scanned, total);
+            double seconds = (System.nanoTime() - started) / 1e9;
+            context.updateMessage(String.format("Audited %,d of %,d ballots (%,.0f/s)",
+                    scanned, total, seconds > 0 ? scanned / seconds : 0));
+        });
+        context.updateMessage(String.format("%s - %,d ballots at %,.0f/s",
+                report.isClean() ? "No disagreements" : report.getFindingCount() + " disagreements, see the log",
+                report.getVotesScanned(), report.getVotesPerSecond()));
+        return report;
+    }
+
+    // Copies the live database into a new timestamped file in the directory
+    public Path backup(Path directory, TaskContext context) throws SQLException, IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve("school_voting_" + LocalDateTime.now().format(BACKUP_TIMESTAMP) + ".db");
+
+        context.checkCancelled();
+        context.updateMessage("Writing " + target.getFileName());
+        dbManager.backupTo(target);
+        context.updateMessage("Saved " + target.toAbsolutePath());
+        return target;
+    }
+}
@@ -1,330 +1,289 @@
 // ABOUTME: Service for exporting voting results to PDF format
-// ABOUTME: Creates professionally formatted PDF reports with winner, results table, and statistics
+// ABOUTME: Fills the shared ReportTemplate with a session's winner, results, statistics and participation appendix
 
 package com.school.voting.util;
 
-import com.itextpdf.kernel.colors.ColorConstants;
-import com.itextpdf.kernel.colors.DeviceRgb;
-import com.itextpdf.kernel.font.PdfFont;
-import com.itextpdf.kernel.font.PdfFontFactory;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
-import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.AreaBreak;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
-import com.school.voting.controller.ResultsController;
 import com.school.voting.dao.ParentDAO;
-import com.school.voting.dao.VoteDAO;
-import com.school.voting.dao.VotingSessionDAO;
+import com.school.voting.model.CandidateResult;
 import com.school.voting.model.Parent;
+import com.school.voting.model.ResultsSnapshot;
 import com.school.voting.model.VotingSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.SQLException;
-import java.text.DecimalFormat;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class PdfExportService {
     private static final Logger logger = LoggerFactory.getLogger(PdfExportService.class);
     
-    private final ParentDAO parentDAO = new ParentDAO();
-    private final VoteDAO voteDAO = new VoteDAO();
-    private final VotingSessionDAO sessionDAO = new VotingSessionDAO();
-    private final DecimalFormat percentFormat = new DecimalFormat("#.#");
+    // Report sections, used as progress steps
+    private static final int EXPORT_STEPS = 6;
+    // Rows a large table holds before they are laid out and written to the page
+    private static final int TABLE_FLUSH_ROWS = 50;
     
-    // Colors
-    private final DeviceRgb PRIMARY_COLOR = new DeviceRgb(52, 73, 94); // #34495e
-    private final DeviceRgb SUCCESS_COLOR = new DeviceRgb(39, 174, 96); // #27ae60
-    private final DeviceRgb INFO_COLOR = new DeviceRgb(52, 152, 219); // #3498db
-    private final DeviceRgb LIGHT_GRAY = new DeviceRgb(236, 240, 241); // #ecf0f1
+    private final ResultsEngine resultsEngine;
+    private final ParentDAO parentDAO;
+    
+    public PdfExportService() {
+        this(SessionManager.getInstance().getResultsEngine(), new ParentDAO());
+    }
+    
+    public PdfExportService(ResultsEngine resultsEngine, ParentDAO parentDAO) {
+        this.resultsEngine = resultsEngine;
+        this.parentDAO = parentDAO;
+    }
     
     public File exportResults(VotingSession session) throws Exception {
+        return exportResults(session, TaskContext.NONE);
+    }
+    
+    public File exportResults(VotingSession session, TaskContext context) throws Exception {
+        return exportResults(session, Path.of(""), context);
+    }
+    
+    // Writes the report into the directory; the working directory when called from the UI
+    File exportResults(VotingSession session, Path directory, TaskContext context) throws Exception {
         // Create filename with timestamp
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
         String className = session.getClassName() != null ? session.getClassName() : "Unknown";
         String filename = String.format("VotingResults_%s_%s.pdf", 
                                        className.replaceAll("[^a-zA-Z0-9]", ""), 
                                        timestamp);
-        File outputFile = new File(filename);
+        File outputFile = directory.resolve(filename).toFile();
         
         logger.info("Exporting results to PDF: {}", outputFile.getAbsolutePath());
         
-        try (PdfWriter writer = new PdfWriter(outputFile);
+        // Every section reads the same snapshot, so the export queries the results once
+        ResultsSnapshot results = session.getId() != null ? resultsEngine.getResults(session.getId()) : null;
+        
+        try (OutputStream out = new FileOutputStream(outputFile)) {
+            writeReport(session, results, out, context);
+        } catch (Exception e) {
+            // Includes cancellation; a half-written report is worse than none
+            Files.deleteIfExists(outputFile.toPath());
+            throw e;
+        }
+        
+        logger.info("PDF export completed successfully: {}", outputFile.getAbsolutePath());
+        return outputFile;
+    }
+    
+    // Writes the report for the given results to the stream and closes it
+    public void writeReport(VotingSession session, ResultsSnapshot results, OutputStream out,
+                            TaskContext context) throws IOException, SQLException {
+        String className = session.getClassName() != null ? session.getClassName() : "Unknown";
+        
+        try (PdfWriter writer = new PdfWriter(out);
              PdfDocument pdf = new PdfDocument(writer);
-             Document document = new Document(pdf)) {
-            
-            // Set up fonts
-            PdfFont titleFont = PdfFontFactory.createFont();
-            PdfFont headerFont = PdfFontFactory.createFont();
-            PdfFont normalFont = PdfFontFactory.createFont();
-            
-            // Add title
-            addTitle(document, session, titleFont);
+             // Font, styles and title come from the template; the rest is this session's data
+             Document document = ReportTemplate.open(pdf, className)) {
             
             // Add session info
-            addSessionInfo(document, session, headerFont, normalFont);
+            context.updateMessage("Writing report header");
+            context.updateProgress(0, EXPORT_STEPS);
+            addSessionInfo(document, session);
+            context.checkCancelled();
+            context.updateProgress(1, EXPORT_STEPS);
             
             // Add winner and deputy
-            addWinnerSection(document, session, headerFont, normalFont);
+            context.updateMessage("Writing winner and deputy");
+            addWinnerSection(document, results);
+            context.checkCancelled();
+            context.updateProgress(2, EXPORT_STEPS);
             
             // Add complete results table
-            addResultsTable(document, session, headerFont, normalFont);
+            context.updateMessage("Writing results table");
+            addResultsTable(document, results);
+            context.checkCancelled();
+            context.updateProgress(3, EXPORT_STEPS);
             
             // Add voting statistics
-            addVotingStatistics(document, session, headerFont, normalFont);
+            context.updateMessage("Writing voting statistics");
+            addVotingStatistics(document, results);
+            context.checkCancelled();
+            context.updateProgress(4, EXPORT_STEPS);
             
-            // Add footer
-            addFooter(document, normalFont);
+            // Add every parent's participation, streamed from the database
+            context.updateMessage("Writing participation appendix");
+            addParticipationAppendix(document, session, context);
+            context.updateProgress(5, EXPORT_STEPS);
+            
+            // Add footer at the very end, after the appendix
+            ReportTemplate.addFooter(document, LocalDateTime.now());
+            context.updateProgress(EXPORT_STEPS, EXPORT_STEPS);
         }
-        
-        logger.info("PDF export completed successfully: {}", outputFile.getAbsolutePath());
-        return outputFile;
-    }
-    
-    private void addTitle(Document document, VotingSession session, PdfFont font) {
-        Paragraph title = new Paragraph("Voting Results Report")
-                .setFont(font)
-                .setFontSize(24)
-                .setFontColor(PRIMARY_COLOR)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginBottom(10);
-        document.add(title);
-        
-        String className = session.getClassName() != null ? session.getClassName() : "Unknown";
-        Paragraph subtitle = new Paragraph("Class " + className + " - Spokesperson Election")
-                .setFont(font)
-                .setFontSize(16)
-                .setFontColor(PRIMARY_COLOR)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginBottom(20);
-        document.add(subtitle);
     }
     
-    private void addSessionInfo(Document document, VotingSession session, PdfFont headerFont, PdfFont normalFont) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMMM d, yyyy 'at' h:mm a");
-        
+    private void addSessionInfo(Document document, VotingSession session) {
         Table infoTable = new Table(UnitValue.createPercentArray(new float[]{1, 2}));
         infoTable.setWidth(UnitValue.createPercentValue(100));
         
-        infoTable.addCell(createInfoCell("Session ID:", headerFont));
-        infoTable.addCell(createInfoCell(session.getId() != null ? session.getId().toString() : "Not assigned", normalFont));
+        infoTable.addCell(ReportTemplate.infoCell("Session ID:"));
+        infoTable.addCell(ReportTemplate.infoCell(session.getId() != null ? session.getId().toString() : "Not assigned"));
         
-        infoTable.addCell(createInfoCell("Class:", headerFont));
-        infoTable.addCell(createInfoCell(session.getClassName() != null ? session.getClassName() : "Unknown", normalFont));
+        infoTable.addCell(ReportTemplate.infoCell("Class:"));
+        infoTable.addCell(ReportTemplate.infoCell(session.getClassName() != null ? session.getClassName() : "Unknown"));
         
-        infoTable.addCell(createInfoCell("Created:", headerFont));
-        infoTable.addCell(createInfoCell(session.getCreatedAt() != null ? session.getCreatedAt().format(formatter) : "Unknown", normalFont));
+        infoTable.addCell(ReportTemplate.infoCell("Created:"));
+        infoTable.addCell(ReportTemplate.infoCell(session.getCreatedAt() != null
+                ? session.getCreatedAt().format(ReportTemplate.DATE_TIME_FORMAT) : "Unknown"));
         
         if (session.getCompletedAt() != null) {
-            infoTable.addCell(createInfoCell("Completed:", headerFont));
-            infoTable.addCell(createInfoCell(session.getCompletedAt().format(formatter), normalFont));
+            infoTable.addCell(ReportTemplate.infoCell("Completed:"));
+            infoTable.addCell(ReportTemplate.infoCell(session.getCompletedAt().format(ReportTemplate.DATE_TIME_FORMAT)));
         }
         
         document.add(infoTable);
         document.add(new Paragraph("\n"));
     }
     
-    private void addWinnerSection(Document document, VotingSession session, PdfFont headerFont, PdfFont normalFont) throws SQLException {
-        if (session.getId() == null) {
+    private void addWinnerSection(Document document, ResultsSnapshot results) {
+        if (results == null) {
             logger.warn("Session ID is null, skipping winner section");
             return;
         }
         
-        List<Parent> candidates = parentDAO.getCandidatesBySession(session.getId());
-        Map<Integer, Integer> voteCounts = voteDAO.getVoteCountsBySession(session.getId());
-        
-        List<ResultsController.ResultRow> results = candidates.stream()
-                .map(candidate -> {
-                    int votes = voteCounts.getOrDefault(candidate.getId(), 0);
-                    return new ResultsController.ResultRow(candidate.getName(), votes);
-                })
-                .sorted((a, b) -> Integer.compare(b.votes, a.votes))
-                .collect(Collectors.toList());
-        
-        if (!results.isEmpty()) {
+        Optional<CandidateResult> winner = results.getWinner();
+        if (winner.isPresent()) {
             // Winner section
-            Paragraph winnerHeader = new Paragraph("🏆 CLASS SPOKESPERSON")
-                    .setFont(headerFont)
-                    .setFontSize(18)
-                    .setFontColor(SUCCESS_COLOR)
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setMarginTop(10);
-            document.add(winnerHeader);
-            
-            ResultsController.ResultRow winner = results.get(0);
-            int totalVotes = voteCounts.values().stream().mapToInt(Integer::intValue).sum();
-            double winnerPercent = totalVotes > 0 ? (double) winner.votes / totalVotes * 100 : 0;
-            
-            Paragraph winnerName = new Paragraph(winner.candidateName)
-                    .setFont(headerFont)
-                    .setFontSize(22)
-                    .setFontColor(SUCCESS_COLOR)
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setMarginBottom(5);
-            document.add(winnerName);
-            
-            Paragraph winnerVotes = new Paragraph(winner.votes + " votes (" + percentFormat.format(winnerPercent) + "%)")
-                    .setFont(normalFont)
+            document.add(ReportTemplate.paragraph("🏆 CLASS SPOKESPERSON", ReportTemplate.WINNER_HEADING)
+                    .setMarginTop(10));
+            document.add(ReportTemplate.paragraph(winner.get().getName(), ReportTemplate.WINNER_NAME)
+                    .setMarginBottom(5));
+            document.add(ReportTemplate.paragraph(votesLine(winner.get()), ReportTemplate.CENTERED)
                     .setFontSize(14)
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setMarginBottom(15);
-            document.add(winnerVotes);
+                    .setMarginBottom(15));
             
             // Deputy section
-            if (results.size() > 1) {
-                Paragraph deputyHeader = new Paragraph("🥈 DEPUTY SPOKESPERSON")
-                        .setFont(headerFont)
-                        .setFontSize(16)
-                        .setFontColor(INFO_COLOR)
-                        .setTextAlignment(TextAlignment.CENTER);
-                document.add(deputyHeader);
-                
-                ResultsController.ResultRow deputy = results.get(1);
-                double deputyPercent = totalVotes > 0 ? (double) deputy.votes / totalVotes * 100 : 0;
-                
-                Paragraph deputyName = new Paragraph(deputy.candidateName)
-                        .setFont(headerFont)
-                        .setFontSize(18)
-                        .setFontColor(INFO_COLOR)
-                        .setTextAlignment(TextAlignment.CENTER)
-                        .setMarginBottom(5);
-                document.add(deputyName);
-                
-                Paragraph deputyVotes = new Paragraph(deputy.votes + " votes (" + percentFormat.format(deputyPercent) + "%)")
-                        .setFont(normalFont)
+            Optional<CandidateResult> deputy = results.getDeputy();
+            if (deputy.isPresent()) {
+                document.add(ReportTemplate.paragraph("🥈 DEPUTY SPOKESPERSON", ReportTemplate.DEPUTY_HEADING));
+                document.add(ReportTemplate.paragraph(deputy.get().getName(), ReportTemplate.DEPUTY_NAME)
+                        .setMarginBottom(5));
+                document.add(ReportTemplate.paragraph(votesLine(deputy.get()), ReportTemplate.CENTERED)
                         .setFontSize(12)
-                        .setTextAlignment(TextAlignment.CENTER)
-                        .setMarginBottom(20);
-                document.add(deputyVotes);
+                        .setMarginBottom(20));
             }
         }
     }
     
-    private void addResultsTable(Document document, VotingSession session, PdfFont headerFont, PdfFont normalFont) throws SQLException {
-        if (session.getId() == null) {
+    private String votesLine(CandidateResult result) {
+        return result.getVotes() + " votes (" + ReportTemplate.percent(result.getPercentage()) + ")";
+    }
+    
+    private void addResultsTable(Document document, ResultsSnapshot results) {
+        if (results == null) {
             logger.warn("Session ID is null, skipping results table");
             return;
         }
         
-        Paragraph tableHeader = new Paragraph("Complete Results")
-                .setFont(headerFont)
-                .setFontSize(16)
-                .setFontColor(PRIMARY_COLOR)
+        document.add(ReportTemplate.paragraph("Complete Results", ReportTemplate.SECTION_HEADING)
                 .setMarginTop(10)
-                .setMarginBottom(10);
-        document.add(tableHeader);
-        
-        List<Parent> candidates = parentDAO.getCandidatesBySession(session.getId());
-        Map<Integer, Integer> voteCounts = voteDAO.getVoteCountsBySession(session.getId());
-        int totalVotes = voteCounts.values().stream().mapToInt(Integer::intValue).sum();
+                .setMarginBottom(10));
         
-        Table resultsTable = new Table(UnitValue.createPercentArray(new float[]{3, 1, 2}));
-        resultsTable.setWidth(UnitValue.createPercentValue(100));
-        
-        // Header row
-        resultsTable.addHeaderCell(createHeaderCell("Candidate", headerFont));
-        resultsTable.addHeaderCell(createHeaderCell("Votes", headerFont));
-        resultsTable.addHeaderCell(createHeaderCell("Percentage", headerFont));
+        Table resultsTable = largeTable(document, new float[]{3, 1, 2}, "Candidate", "Votes", "Percentage");
         
         // Data rows
-        List<ResultsController.ResultRow> results = candidates.stream()
-                .map(candidate -> {
-                    int votes = voteCounts.getOrDefault(candidate.getId(), 0);
-                    return new ResultsController.ResultRow(candidate.getName(), votes);
-                })
-                .sorted((a, b) -> Integer.compare(b.votes, a.votes))
-                .collect(Collectors.toList());
-        
-        for (ResultsController.ResultRow result : results) {
-            double percentage = totalVotes > 0 ? (double) result.votes / totalVotes * 100 : 0;
-            
-            resultsTable.addCell(createDataCell(result.candidateName, normalFont));
-            resultsTable.addCell(createDataCell(String.valueOf(result.votes), normalFont).setTextAlignment(TextAlignment.CENTER));
-            resultsTable.addCell(createDataCell(percentFormat.format(percentage) + "%", normalFont).setTextAlignment(TextAlignment.CENTER));
+        int rows = 0;
+        for (CandidateResult result : results.getRanking()) {
+            resultsTable.addCell(ReportTemplate.dataCell(result.getName()));
+            resultsTable.addCell(ReportTemplate.dataCell(String.valueOf(result.getVotes())).setTextAlignment(TextAlignment.CENTER));
+            resultsTable.addCell(ReportTemplate.dataCell(ReportTemplate.percent(result.getPercentage())).setTextAlignment(TextAlignment.CENTER));
+            if (++rows % TABLE_FLUSH_ROWS == 0) {
+                resultsTable.flush();
+            }
         }
         
-        document.add(resultsTable);
+        resultsTable.complete();
     }
     
-    private void addVotingStatistics(Document document, VotingSession session, PdfFont headerFont, PdfFont normalFont) throws SQLException {
+    /**
+     * Lists every parent on a page of its own. Rows come from a database cursor and are
+     * written out every few dozen, so memory stays flat however large the roster is.
+     */
+    private void addParticipationAppendix(Document document, VotingSession session, TaskContext context)
+            throws SQLException {
         if (session.getId() == null) {
-            logger.warn("Session ID is null, skipping voting statistics");
+            logger.warn("Session ID is null, skipping participation appendix");
             return;
         }
         
-        Paragraph statsHeader = new Paragraph("Voting Statistics")
-                .setFont(headerFont)
-                .setFontSize(16)
-                .setFontColor(PRIMARY_COLOR)
-                .setMarginTop(20)
-                .setMarginBottom(10);
-        document.add(statsHeader);
-        
-        int totalParents = parentDAO.getParentCount(session.getId());
-        int totalVotes = voteDAO.getTotalVotes(session.getId());
-        double turnout = totalParents > 0 ? (double) totalVotes / totalParents * 100 : 0;
-        
-        Table statsTable = new Table(UnitValue.createPercentArray(new float[]{1, 1, 1}));
-        statsTable.setWidth(UnitValue.createPercentValue(100));
+        document.add(new AreaBreak());
+        document.add(ReportTemplate.paragraph("Appendix: Voter Participation", ReportTemplate.SECTION_HEADING)
+                .setMarginBottom(10));
         
-        statsTable.addCell(createStatsCell("Total Parents", String.valueOf(totalParents), headerFont, normalFont));
-        statsTable.addCell(createStatsCell("Votes Cast", String.valueOf(totalVotes), headerFont, normalFont));
-        statsTable.addCell(createStatsCell("Turnout", percentFormat.format(turnout) + "%", headerFont, normalFont));
+        Table participationTable = largeTable(document, new float[]{1, 5, 2, 3},
+                "#", "Parent", "Candidate", "Participation");
+        int[] counts = new int[Parent.Participation.values().length];
+        AtomicInteger rows = new AtomicInteger();
+        int parents = parentDAO.streamParticipation(session.getId(), (name, isCandidate, participation) -> {
+            counts[participation.ordinal()]++;
+            int row = rows.incrementAndGet();
+            participationTable.addCell(ReportTemplate.dataCell(String.valueOf(row)).setTextAlignment(TextAlignment.RIGHT));
+            participationTable.addCell(ReportTemplate.dataCell(name));
+            participationTable.addCell(ReportTemplate.dataCell(isCandidate ? "Yes" : ""));
+            participationTable.addCell(ReportTemplate.dataCell(participation.getDisplayName()));
+            if (row % TABLE_FLUSH_ROWS == 0) {
+                participationTable.flush();
+                context.checkCancelled();
+            }
+        });
+        participationTable.complete();
         
-        document.add(statsTable);
+        document.add(ReportTemplate.paragraph(String.format("%d parents: %d voted, %d skipped, %d did not vote",
+                parents,
+                counts[Parent.Participation.VOTED.ordinal()],
+                counts[Parent.Participation.SKIPPED.ordinal()],
+                counts[Parent.Participation.NOT_VOTED.ordinal()]), ReportTemplate.CENTERED)
+                .setMarginTop(10));
     }
     
-    private void addFooter(Document document, PdfFont normalFont) {
-        Paragraph footer = new Paragraph("\nGenerated by School Voting System on " + 
-                                        LocalDateTime.now().format(DateTimeFormatter.ofPattern("MMMM d, yyyy 'at' h:mm a")))
-                .setFont(normalFont)
-                .setFontSize(10)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginTop(30)
-                .setFontColor(ColorConstants.GRAY);
-        document.add(footer);
-    }
-    
-    private Cell createInfoCell(String content, PdfFont font) {
-        return new Cell()
-                .add(new Paragraph(content).setFont(font).setFontSize(12))
-                .setBorder(null)
-                .setPadding(5);
-    }
-    
-    private Cell createHeaderCell(String content, PdfFont font) {
-        return new Cell()
-                .add(new Paragraph(content).setFont(font).setFontSize(12).setFontColor(ColorConstants.WHITE))
-                .setBackgroundColor(PRIMARY_COLOR)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setPadding(8);
-    }
-    
-    private Cell createDataCell(String content, PdfFont font) {
-        return new Cell()
-                .add(new Paragraph(content).setFont(font).setFontSize(11))
-                .setPadding(6)
-                .setBorder(null);
+    // A table that lays out and writes its rows as they are flushed instead of when it is complete
+    private Table largeTable(Document document, float[] columnWidths, String... headers) {
+        Table table = new Table(UnitValue.createPercentArray(columnWidths), true);
+        table.setWidth(UnitValue.createPercentValue(100));
+        for (String header : headers) {
+            table.addHeaderCell(ReportTemplate.headerCell(header));
+        }
+        document.add(table);
+        return table;
     }
     
-    private Cell createStatsCell(String label, String value, PdfFont headerFont, PdfFont normalFont) {
-        Cell cell = new Cell()
-                .setTextAlignment(TextAlignment.CENTER)
-                .setBackgroundColor(LIGHT_GRAY)
-                .setPadding(10);
+    private void addVotingStatistics(Document document, ResultsSnapshot results) {
+        if (results == null) {
+            logger.warn("Session ID is null, skipping voting statistics");
+            return;
+        }
+        
+        document.add(ReportTemplate.paragraph("Voting Statistics", ReportTemplate.SECTION_HEADING)
+                .setMarginTop(20)
+                .setMarginBottom(10));
         
-        cell.add(new Paragraph(label).setFont(headerFont).setFontSize(12).setMarginBottom(5));
-        cell.add(new Paragraph(value).setFont(normalFont).setFontSize(16).setFontColor(PRIMARY_COLOR));
+        Table statsTable = new Table(UnitValue.createPercentArray(new float[]{1, 1, 1}));
+        statsTable.setWidth(UnitValue.createPercentValue(100));
         
-        return cell;
+        statsTable.addCell(ReportTemplate.statsCell("Total Parents", String.valueOf(results.getTotalParents())));
+        statsTable.addCell(ReportTemplate.statsCell("Votes Cast", String.valueOf(results.getTotalVotes())));
+        statsTable.addCell(ReportTemplate.statsCell("Turnout", ReportTemplate.percent(results.getTurnoutPercentage())));
+        
+        document.add(statsTable);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,276 @@
+// ABOUTME: Writes flat records as CSV or JSON Lines through one buffered writer, field by field
+// ABOUTME: Escapes text by hand and builds no per-record objects, so large exports run at disk speed
+
+package com.school.voting.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fields are written in the order of the columns given on creation, then endRecord()
+ * finishes the record. Write failures surface as UncheckedIOException so records can be
+ * written from DAO callbacks. finish() flushes but leaves the stream open for its owner.
+ */
+abstract class RecordWriter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    protected final Writer out;
+    protected final String[] columns;
+    protected int field;
+
+    private RecordWriter(OutputStream stream, String[] columns) {
+        this.out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.columns = columns;
+    }
+
+    static RecordWriter open(ExportFormat format, OutputStream stream, String... columns) {
+        RecordWriter writer = switch (format) {
+            case CSV -> new Csv(stream, columns);
+            case JSON_LINES -> new JsonLines(stream, columns);
+        };
+        writer.begin();
+        return writer;
+    }
+
+    RecordWriter text(String value) {
+        try {
+            startField();
+            if (value == null) {
+                writeNull();
+            } else {
+                writeText(value);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return this;
+    }
+
+    RecordWriter number(long value) {
+        return raw(Long.toString(value));
+    }
+
+    // Rounded to two decimals, which is all a percentage needs
+    RecordWriter decimal(double value) {
+        return raw(Double.toString(Math.round(value * 100) / 100.0));
+    }
+
+    RecordWriter bool(boolean value) {
+        return raw(value ? "true" : "false");
+    }
+
+    // Candidate ids in order, or null
+    RecordWriter ids(int[] values) {
+        try {
+            startField();
+            if (values == null) {
+                writeNull();
+            } else {
+                writeIds(values);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return this;
+    }
+
+    void endRecord() {
+        if (field != columns.length) {
+            throw new IllegalStateException("Record has " + field + " of " + columns.length + " fields");
+        }
+        try {
+            writeRecordEnd();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        field = 0;
+    }
+
+    void finish() throws IOException {
+        out.flush();
+    }
+
+    private RecordWriter raw(String value) {
+        try {
+            startField();
+            out.write(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return this;
+    }
+
+    private void startField() throws IOException {
+        if (field == columns.length) {
+            throw new IllegalStateException("Record already has all " + columns.length + " fields");
+        }
+        writeFieldStart(field++);
+    }
+
+    protected abstract void begin();
+
+    protected abstract void writeFieldStart(int index) throws IOException;
+
+    protected abstract void writeText(String value) throws IOException;
+
+    protected abstract void writeIds(int[] values) throws IOException;
+
+    protected abstract void writeNull() throws IOException;
+
+    protected abstract void writeRecordEnd() throws IOException;
+
+    // RFC 4180: a header row, CRLF line ends, and quotes only around text that needs them
+    private static final class Csv extends RecordWriter {
+
+        private Csv(OutputStream stream, String[] columns) {
+            super(stream, columns);
+        }
+
+        @Override
+        protected void begin() {
+            for (String column : columns) {
+                text(column);
+            }
+            endRecord();
+        }
+
+        @Override
+        protected void writeFieldStart(int index) throws IOException {
+            if (index > 0) {
+                out.write(',');
+            }
+        }
+
+        @Override
+        protected void writeText(String value) throws IOException {
+            if (!needsQuotes(value)) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    out.write('"');
+                }
+                out.write(c);
+            }
+            out.write('"');
+        }
+
+        private static boolean needsQuotes(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Semicolon-separated, so the list stays one field without quoting
+        @Override
+        protected void writeIds(int[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.write(';');
+                }
+                out.write(Integer.toString(values[i]));
+            }
+        }
+
+        @Override
+        protected void writeNull() {
+            // An empty field
+        }
+
+        @Override
+        protected void writeRecordEnd() throws IOException {
+            out.write("\r\n");
+        }
+    }
+
+    // One JSON object per line, keyed by column name
+    private static final class JsonLines extends RecordWriter {
+        private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+        // The opening of each field, key included, escaped once up front
+        private final String[] fieldStarts;
+
+        private JsonLines(OutputStream stream, String[] columns) {
+            super(stream, columns);
+            this.fieldStarts = new String[columns.length];
+        }
+
+        @Override
+        protected void begin() {
+            for (int i = 0; i < columns.length; i++) {
+                StringBuilder start = new StringBuilder(i == 0 ? "{\"" : ",\"");
+                for (char c : columns[i].toCharArray()) {
+                    if (c == '"' || c == '\\' || c < 0x20) {
+                        throw new IllegalArgumentException("Unsupported column name: " + columns[i]);
+                    }
+                    start.append(c);
+                }
+                fieldStarts[i] = start.append("\":").toString();
+            }
+        }
+
+        @Override
+        protected void writeFieldStart(int index) throws IOException {
+            out.write(fieldStarts[index]);
+        }
+
+        @Override
+        protected void writeText(String value) throws IOException {
+            out.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"' -> out.write("\\\"");
+                    case '\\' -> out.write("\\\\");
+                    case '\n' -> out.write("\\n");
+                    case '\r' -> out.write("\\r");
+                    case '\t' -> out.write("\\t");
+                    default -> {
+                        if (c < 0x20) {
+                            out.write("\\u00");
+                            out.write(HEX[c >> 4]);
+                            out.write(HEX[c & 0xF]);
+                        } else {
+                            out.write(c);
+                        }
+                    }
+                }
+            }
+            out.write('"');
+        }
+
+        @Override
+        protected void writeIds(int[] values) throws IOException {
+            out.write('[');
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(Integer.toString(values[i]));
+            }
+            out.write(']');
+        }
+
+        @Override
+        protected void writeNull() throws IOException {
+            out.write("null");
+        }
+
+        @Override
+        protected void writeRecordEnd() throws IOException {
+            out.write(columns.length == 0 ? "{}\n" : "}\n");
+        }
+    }
+}
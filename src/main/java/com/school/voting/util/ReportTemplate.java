@@ -0,0 +1,129 @@
+// ABOUTME: Fixed parts of the PDF report built once per application: font program, colours, text styles and title
+// ABOUTME: Shared by concurrent exports; a document only gets its own font and the session's data
+
+package com.school.voting.util;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.Style;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.properties.TextAlignment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.text.DecimalFormat;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * A PdfFont belongs to one PdfDocument, but the font program behind it does not: it is
+ * parsed once here and every document wraps it in a font of its own. Styles carry no font,
+ * only sizes, colours and spacing; the document's font is inherited by everything in it.
+ * Nothing here is modified after class initialisation, so exports may run in parallel.
+ */
+final class ReportTemplate {
+
+    static final DeviceRgb PRIMARY_COLOR = new DeviceRgb(52, 73, 94); // #34495e
+    static final DeviceRgb SUCCESS_COLOR = new DeviceRgb(39, 174, 96); // #27ae60
+    static final DeviceRgb INFO_COLOR = new DeviceRgb(52, 152, 219); // #3498db
+    static final DeviceRgb LIGHT_GRAY = new DeviceRgb(236, 240, 241); // #ecf0f1
+
+    static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("MMMM d, yyyy 'at' h:mm a");
+
+    private static final FontProgram FONT_PROGRAM = loadFontProgram();
+
+    static final Style TITLE = new Style()
+            .setFontSize(24).setFontColor(PRIMARY_COLOR).setTextAlignment(TextAlignment.CENTER);
+    static final Style SUBTITLE = new Style()
+            .setFontSize(16).setFontColor(PRIMARY_COLOR).setTextAlignment(TextAlignment.CENTER);
+    static final Style SECTION_HEADING = new Style()
+            .setFontSize(16).setFontColor(PRIMARY_COLOR);
+    static final Style WINNER_HEADING = new Style()
+            .setFontSize(18).setFontColor(SUCCESS_COLOR).setTextAlignment(TextAlignment.CENTER);
+    static final Style WINNER_NAME = new Style()
+            .setFontSize(22).setFontColor(SUCCESS_COLOR).setTextAlignment(TextAlignment.CENTER);
+    static final Style DEPUTY_HEADING = new Style()
+            .setFontSize(16).setFontColor(INFO_COLOR).setTextAlignment(TextAlignment.CENTER);
+    static final Style DEPUTY_NAME = new Style()
+            .setFontSize(18).setFontColor(INFO_COLOR).setTextAlignment(TextAlignment.CENTER);
+    static final Style CENTERED = new Style()
+            .setTextAlignment(TextAlignment.CENTER);
+    static final Style FOOTER = new Style()
+            .setFontSize(10).setFontColor(ColorConstants.GRAY).setTextAlignment(TextAlignment.CENTER);
+
+    private static final Style INFO_CELL = new Style().setBorder(null).setPadding(5);
+    private static final Style INFO_TEXT = new Style().setFontSize(12);
+    private static final Style HEADER_CELL = new Style()
+            .setBackgroundColor(PRIMARY_COLOR).setTextAlignment(TextAlignment.CENTER).setPadding(8);
+    private static final Style HEADER_TEXT = new Style().setFontSize(12).setFontColor(ColorConstants.WHITE);
+    private static final Style DATA_CELL = new Style().setPadding(6).setBorder(null);
+    private static final Style DATA_TEXT = new Style().setFontSize(11);
+    private static final Style STATS_CELL = new Style()
+            .setTextAlignment(TextAlignment.CENTER).setBackgroundColor(LIGHT_GRAY).setPadding(10);
+    private static final Style STATS_LABEL = new Style().setFontSize(12);
+    private static final Style STATS_VALUE = new Style().setFontSize(16).setFontColor(PRIMARY_COLOR);
+
+    // DecimalFormat is not thread-safe
+    private static final ThreadLocal<DecimalFormat> PERCENT_FORMAT =
+            ThreadLocal.withInitial(() -> new DecimalFormat("#.#"));
+
+    private ReportTemplate() {
+    }
+
+    private static FontProgram loadFontProgram() {
+        try {
+            return FontProgramFactory.createFont(StandardFonts.HELVETICA);
+        } catch (IOException e) {
+            // Standard fonts ship inside iText, so this means a broken installation
+            throw new UncheckedIOException("Cannot load the report font", e);
+        }
+    }
+
+    // A report on the PDF with its own instance of the shared font, starting with the fixed title block
+    static Document open(PdfDocument pdf, String className) {
+        Document document = new Document(pdf);
+        document.setFont(PdfFontFactory.createFont(FONT_PROGRAM, PdfEncodings.WINANSI));
+        document.add(paragraph("Voting Results Report", TITLE).setMarginBottom(10));
+        document.add(paragraph("Class " + className + " - Spokesperson Election", SUBTITLE).setMarginBottom(20));
+        return document;
+    }
+
+    static void addFooter(Document document, LocalDateTime generatedAt) {
+        document.add(paragraph("\nGenerated by School Voting System on " + generatedAt.format(DATE_TIME_FORMAT),
+                FOOTER).setMarginTop(30));
+    }
+
+    static Paragraph paragraph(String text, Style style) {
+        return new Paragraph(text).addStyle(style);
+    }
+
+    static String percent(double value) {
+        return PERCENT_FORMAT.get().format(value) + "%";
+    }
+
+    static Cell infoCell(String content) {
+        return new Cell().addStyle(INFO_CELL).add(paragraph(content, INFO_TEXT));
+    }
+
+    static Cell headerCell(String content) {
+        return new Cell().addStyle(HEADER_CELL).add(paragraph(content, HEADER_TEXT));
+    }
+
+    static Cell dataCell(String content) {
+        return new Cell().addStyle(DATA_CELL).add(paragraph(content, DATA_TEXT));
+    }
+
+    static Cell statsCell(String label, String value) {
+        return new Cell().addStyle(STATS_CELL)
+                .add(paragraph(label, STATS_LABEL).setMarginBottom(5))
+                .add(paragraph(value, STATS_VALUE));
+    }
+}
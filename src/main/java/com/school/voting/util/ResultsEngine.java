@@ -0,0 +1,105 @@
+// ABOUTME: Computes each session's ResultsSnapshot once and serves it until the session's data changes
+// ABOUTME: Serves completed sessions from their frozen record; live ones are rechecked with a cheap progress query
+
+package com.school.voting.util;
+
+import com.school.voting.dao.ParentDAO;
+import com.school.voting.dao.SessionResultsDAO;
+import com.school.voting.event.CandidateToggled;
+import com.school.voting.event.EventBus;
+import com.school.voting.event.ParentAdded;
+import com.school.voting.event.ParentRemoved;
+import com.school.voting.event.SessionEvent;
+import com.school.voting.event.SessionStatusChanged;
+import com.school.voting.model.ResultsSnapshot;
+import com.school.voting.model.SessionProgress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Completed sessions are served from the record frozen at completion. For open sessions a
+ * snapshot is reused while the session's progress counters (roster size, processed
+ * voters, votes cast) are unchanged and no roster event has been seen for it since it was
+ * built. Votes from other stations change the counters, so they are picked up too.
+ */
+public final class ResultsEngine {
+    private static final Logger logger = LoggerFactory.getLogger(ResultsEngine.class);
+
+    // A snapshot together with the data version it was built from
+    private static final class CachedResults {
+        private final long generation;
+        private final SessionProgress progress;
+        private final ResultsSnapshot snapshot;
+
+        private CachedResults(long generation, SessionProgress progress, ResultsSnapshot snapshot) {
+            this.generation = generation;
+            this.progress = progress;
+            this.snapshot = snapshot;
+        }
+    }
+
+    private final ParentDAO parentDAO;
+    private final SessionResultsDAO resultsDAO;
+    private final Map<Integer, CachedResults> cache = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> generations = new ConcurrentHashMap<>();
+
+    public ResultsEngine(ParentDAO parentDAO, SessionResultsDAO resultsDAO, EventBus eventBus) {
+        this.parentDAO = parentDAO;
+        this.resultsDAO = resultsDAO;
+        // Votes are caught by the progress check; these change the candidates or the roster
+        eventBus.subscribe(CandidateToggled.class, this::invalidate);
+        eventBus.subscribe(ParentAdded.class, this::invalidate);
+        eventBus.subscribe(ParentRemoved.class, this::invalidate);
+        eventBus.subscribe(SessionStatusChanged.class, this::invalidate);
+    }
+
+    public ResultsSnapshot getResults(int sessionId) throws SQLException {
+        CachedResults cached = cache.get(sessionId);
+        if (cached != null && cached.snapshot.isFrozen()) {
+            return cached.snapshot;
+        }
+
+        long generation = generations.getOrDefault(sessionId, 0L);
+        if (cached == null) {
+            // Completed sessions are read from their frozen record, never from the votes table
+            Optional<ResultsSnapshot> frozen = resultsDAO.findResults(sessionId);
+            if (frozen.isPresent()) {
+                cache.put(sessionId, new CachedResults(generation, null, frozen.get()));
+                return frozen.get();
+            }
+        }
+
+        SessionProgress progress = parentDAO.getSessionProgress(sessionId);
+        if (cached != null && cached.generation == generation && cached.progress.equals(progress)) {
+            return cached.snapshot;
+        }
+
+        ResultsSnapshot snapshot = resultsDAO.countResults(sessionId, progress.getTotalParents());
+        // Stored under the generation read before the queries, so a roster change meanwhile forces a rebuild
+        cache.put(sessionId, new CachedResults(generation, progress, snapshot));
+        logger.debug("Computed results for session {}: {}", sessionId, snapshot);
+        return snapshot;
+    }
+
+    // Serves results frozen at completion from now on
+    public void remember(ResultsSnapshot frozen) {
+        if (!frozen.isFrozen()) {
+            throw new IllegalArgumentException("Only frozen results can be remembered");
+        }
+        cache.put(frozen.getSessionId(), new CachedResults(0, null, frozen));
+    }
+
+    public void invalidate(int sessionId) {
+        generations.merge(sessionId, 1L, Long::sum);
+        cache.remove(sessionId);
+    }
+
+    private void invalidate(SessionEvent event) {
+        invalidate(event.getSessionId());
+    }
+}
@@ -0,0 +1,105 @@
+// ABOUTME: Pages through completed sessions newest first and keeps a bounded cache of their result summaries
+// ABOUTME: Uses keyset pagination on (completed_at, id) so opening the history costs the same for any number of sessions
+
+package com.school.voting.util;
+
+import com.school.voting.dao.ParentDAO;
+import com.school.voting.dao.SessionResultsDAO;
+import com.school.voting.dao.VotingSessionDAO;
+import com.school.voting.model.ResultsSnapshot;
+import com.school.voting.model.VotingSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class SessionHistory {
+    private static final Logger logger = LoggerFactory.getLogger(SessionHistory.class);
+
+    private final VotingSessionDAO sessionDAO;
+    private final SessionResultsDAO resultsDAO;
+    private final ParentDAO parentDAO;
+    private final int pageSize;
+    private final Map<Integer, ResultsSnapshot> summaries;
+
+    // Last session fetched; the next page starts after it
+    private VotingSession last;
+    private boolean exhausted;
+
+    public SessionHistory(VotingSessionDAO sessionDAO, SessionResultsDAO resultsDAO, ParentDAO parentDAO,
+                          int pageSize, int summaryCacheSize) {
+        if (pageSize < 1 || summaryCacheSize < 1) {
+            throw new IllegalArgumentException("Page size and cache size must be positive");
+        }
+        this.sessionDAO = sessionDAO;
+        this.resultsDAO = resultsDAO;
+        this.parentDAO = parentDAO;
+        this.pageSize = pageSize;
+        // Access order, so the summaries scrolled past longest ago are dropped first
+        this.summaries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, ResultsSnapshot> eldest) {
+                return size() > summaryCacheSize;
+            }
+        };
+    }
+
+    // Starts again from the most recently completed session
+    public synchronized void reset() {
+        last = null;
+        exhausted = false;
+    }
+
+    public synchronized boolean hasMore() {
+        return !exhausted;
+    }
+
+    // The next page of completed sessions, or an empty list once all have been fetched
+    public synchronized List<VotingSession> nextPage() throws SQLException {
+        if (exhausted) {
+            return List.of();
+        }
+        List<VotingSession> page = sessionDAO.getCompletedSessionsPage(last, pageSize);
+        if (page.size() < pageSize) {
+            exhausted = true;
+        }
+        if (!page.isEmpty()) {
+            last = page.get(page.size() - 1);
+        }
+        logger.debug("Fetched {} completed sessions", page.size());
+        return page;
+    }
+
+    // The cached summary, if any; never queries
+    public synchronized Optional<ResultsSnapshot> getCachedSummary(int sessionId) {
+        return Optional.ofNullable(summaries.get(sessionId));
+    }
+
+    // Loads the summaries not cached yet; completed sessions never change, so they are not rechecked
+    public Map<Integer, ResultsSnapshot> getSummaries(Collection<Integer> sessionIds) throws SQLException {
+        Map<Integer, ResultsSnapshot> result = new LinkedHashMap<>();
+        for (int sessionId : sessionIds) {
+            Optional<ResultsSnapshot> cached = getCachedSummary(sessionId);
+            ResultsSnapshot summary = cached.isPresent() ? cached.get() : loadSummary(sessionId);
+            result.put(sessionId, summary);
+        }
+        return result;
+    }
+
+    private ResultsSnapshot loadSummary(int sessionId) throws SQLException {
+        // Sessions completed before results were frozen are counted from their ballots once
+        ResultsSnapshot summary = resultsDAO.findResults(sessionId).orElse(null);
+        if (summary == null) {
+            summary = resultsDAO.countResults(sessionId, parentDAO.getParentCount(sessionId));
+        }
+        synchronized (this) {
+            summaries.put(sessionId, summary);
+        }
+        return summary;
+    }
+}
@@ -1,241 +1,771 @@
-// ABOUTME: Singleton manager for tracking current voting session state
-// ABOUTME: Provides centralized access to session data and voting progress
+// ABOUTME: Singleton manager for the voting sessions that are open in this application
+// ABOUTME: Keeps per-session state in a concurrent registry so several classes can vote at once
 
 package com.school.voting.util;
 
 import com.school.voting.dao.ParentDAO;
+import com.school.voting.dao.SessionResultsDAO;
 import com.school.voting.dao.VoteDAO;
+import com.school.voting.dao.VoterClaimDAO;
 import com.school.voting.dao.VotingSessionDAO;
+import com.school.voting.event.CandidateToggled;
+import com.school.voting.event.EventBus;
+import com.school.voting.event.ParentAdded;
+import com.school.voting.event.ParentRemoved;
+import com.school.voting.event.SessionStatusChanged;
+import com.school.voting.event.VoteCast;
+import com.school.voting.event.VoterClaimLapsed;
+import com.school.voting.event.VoterSkipped;
 import com.school.voting.model.Parent;
+import com.school.voting.model.ResultsSnapshot;
+import com.school.voting.model.SessionProgress;
 import com.school.voting.model.VotingSession;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.net.InetAddress;
+import java.net.UnknownHostException;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Every open session has its own {@link SessionState} guarded by its own lock, so work on
+ * one class never waits for another. The methods without a session id act on the session
+ * selected in the UI; the overloads taking a session id can be used from any thread.
+ *
+ * <p>Voters are handed out through claims in the shared database rather than a local list,
+ * so several stations can work through one roster. This station renews the claim on its
+ * current voter while they are in the booth and releases it when they are skipped.
+ */
 public class SessionManager {
     private static final Logger logger = LoggerFactory.getLogger(SessionManager.class);
+    private static final String STATION_ID = System.getProperty("voting.station.id", defaultStationId());
+    private static final Duration CLAIM_LEASE = Duration.ofSeconds(Long.getLong("voting.station.leaseSeconds", 60));
+    private static final Duration VOTE_TIMEOUT = Duration.ofSeconds(Long.getLong("voting.vote.timeoutSeconds", 30));
     private static SessionManager instance;
-    
+
     private final VotingSessionDAO sessionDAO;
     private final ParentDAO parentDAO;
     private final VoteDAO voteDAO;
-    
-    private VotingSession currentSession;
-    private List<Parent> currentVoters;
-    private int currentVoterIndex = 0;
-    
+    private final VoterClaimDAO claimDAO;
+    private final EventBus eventBus;
+    private final String stationId;
+    private final Duration claimLease;
+    private final ScheduledExecutorService claimRenewer;
+    private final Executor uiExecutor;
+    private final ResultsEngine resultsEngine;
+
+    private final Map<Integer, SessionState> sessions = new ConcurrentHashMap<>();
+    private volatile Integer selectedSessionId;
+
+    // Mirror the selected session's progress, which is kept current from vote results and skips
+    private final ReadOnlyObjectWrapper<SessionProgress> progress = new ReadOnlyObjectWrapper<>(this, "progress");
+    private final ReadOnlyIntegerWrapper totalParents = new ReadOnlyIntegerWrapper(this, "totalParents");
+    private final ReadOnlyIntegerWrapper votedCount = new ReadOnlyIntegerWrapper(this, "votedCount");
+    private final ReadOnlyIntegerWrapper skippedCount = new ReadOnlyIntegerWrapper(this, "skippedCount");
+    private final ReadOnlyIntegerWrapper remainingCount = new ReadOnlyIntegerWrapper(this, "remainingCount");
+    private final ReadOnlyDoubleWrapper completionRatio = new ReadOnlyDoubleWrapper(this, "completionRatio");
+
     private SessionManager() {
-        this.sessionDAO = new VotingSessionDAO();
-        this.parentDAO = new ParentDAO();
-        this.voteDAO = new VoteDAO();
-        loadCurrentSession();
+        this(new VotingSessionDAO(), new ParentDAO(), new VoteDAO(), new VoterClaimDAO(), new SessionResultsDAO(),
+            new EventBus(), Platform::runLater, STATION_ID, CLAIM_LEASE);
+    }
+
+    SessionManager(VotingSessionDAO sessionDAO, ParentDAO parentDAO, VoteDAO voteDAO, VoterClaimDAO claimDAO,
+                   SessionResultsDAO resultsDAO, EventBus eventBus, Executor uiExecutor, String stationId, Duration claimLease) {
+        this.sessionDAO = sessionDAO;
+        this.parentDAO = parentDAO;
+        this.voteDAO = voteDAO;
+        this.claimDAO = claimDAO;
+        this.eventBus = eventBus;
+        this.uiExecutor = uiExecutor;
+        this.stationId = stationId;
+        this.claimLease = claimLease;
+        this.resultsEngine = new ResultsEngine(parentDAO, resultsDAO, eventBus);
+        loadActiveSessions();
+
+        // Renews well inside the lease so a voter in the booth is never handed out twice
+        long renewMillis = Math.max(1, claimLease.toMillis() / 3);
+        this.claimRenewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "voter-claim-renewer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        claimRenewer.scheduleWithFixedDelay(this::renewClaims, renewMillis, renewMillis, TimeUnit.MILLISECONDS);
+        logger.info("Station {} claims voters with a lease of {}s", stationId, claimLease.toSeconds());
     }
-    
+
     public static synchronized SessionManager getInstance() {
         if (instance == null) {
             instance = new SessionManager();
         }
         return instance;
     }
-    
-    private void loadCurrentSession() {
+
+    private void loadActiveSessions() {
         try {
-            Optional<VotingSession> session = sessionDAO.getCurrentSession();
-            if (session.isPresent()) {
-                this.currentSession = session.get();
-                logger.info("Loaded session: {} with status: {}", 
-                    currentSession.getId(), currentSession.getStatus());
-                
+            List<VotingSession> active = sessionDAO.getActiveSessions();
+            for (VotingSession session : active) {
+                SessionState state = new SessionState(session);
+                sessions.put(session.getId(), state);
+                logger.info("Loaded session: {} with status: {}", session.getId(), session.getStatus());
+
                 // If session is in VOTING status, restore voting state
-                if (currentSession.getStatus() == VotingSession.Status.VOTING) {
-                    loadVoters();
-                    currentVoterIndex = 0;
-                    logger.info("Restored voting state - {} remaining voters", 
-                        currentVoters != null ? currentVoters.size() : 0);
+                if (session.isVoting()) {
+                    state.withLock(this::restoreVotingState);
+                    Parent next = state.getCurrentVoter();
+                    logger.info("Restored voting state for session {} - next voter: {}",
+                        session.getId(), next != null ? next.getName() : "none");
                 }
             }
+
+            // Newest session first, as before
+            if (!active.isEmpty()) {
+                selectSession(active.get(0).getId());
+            }
         } catch (SQLException e) {
-            logger.error("Failed to load current session", e);
+            logger.error("Failed to load active sessions", e);
         }
     }
-    
+
     public VotingSession createNewSession(String className) throws SQLException {
-        if (hasActiveSession()) {
-            throw new IllegalStateException("Cannot create new session while another is active");
+        return createNewSession(className, VotingSession.TallyMethod.PLURALITY);
+    }
+
+    public VotingSession createNewSession(String className, VotingSession.TallyMethod tallyMethod)
+            throws SQLException {
+        boolean duplicate = getActiveSessions().stream()
+                .anyMatch(session -> session.getClassName().equalsIgnoreCase(className));
+        if (duplicate) {
+            throw new IllegalStateException("A session for class " + className + " is already open");
         }
-        
-        VotingSession newSession = VotingSession.builder()
+
+        VotingSession newSession = sessionDAO.createSession(VotingSession.builder()
                 .className(className)
                 .status(VotingSession.Status.SETUP)
-                .build();
-        
-        currentSession = sessionDAO.createSession(newSession);
-        logger.info("Created new voting session for class: {}", className);
-        return currentSession;
+                .tallyMethod(tallyMethod)
+                .build());
+        sessions.put(newSession.getId(), new SessionState(newSession));
+        selectSession(newSession.getId());
+
+        logger.info("Created new voting session for class: {} ({})", className, tallyMethod.getDisplayName());
+        eventBus.publish(new SessionStatusChanged(newSession.getId(), null, newSession.getStatus()));
+        return newSession;
     }
-    
-    public void startVoting() throws SQLException {
-        if (currentSession == null) {
-            throw new IllegalStateException("No active session");
+
+    // Makes the session the one the no-argument methods and the progress properties refer to
+    public void selectSession(int sessionId) {
+        SessionState state = requireState(sessionId);
+        selectedSessionId = sessionId;
+        publishProgress(state);
+    }
+
+    // Open sessions (setup or voting), oldest first
+    public List<VotingSession> getActiveSessions() {
+        return sessions.values().stream()
+                .map(SessionState::getSession)
+                .filter(VotingSession::isActive)
+                .sorted(Comparator.comparing(VotingSession::getId))
+                .toList();
+    }
+
+    public VotingSession getSession(int sessionId) {
+        return requireState(sessionId).getSession();
+    }
+
+    public Parent addParent(String name) throws SQLException {
+        return addParent(requireSelected(), name);
+    }
+
+    public Parent addParent(int sessionId, String name) throws SQLException {
+        return requireState(sessionId).withLock(state -> {
+            requireSetup(state);
+            Parent parent = parentDAO.insertParent(Parent.builder()
+                    .name(name)
+                    .sessionId(sessionId)
+                    .build());
+            eventBus.publish(new ParentAdded(sessionId, parent));
+            return parent;
+        });
+    }
+
+    public void removeParent(int parentId) throws SQLException {
+        removeParent(requireSelected(), parentId);
+    }
+
+    public void removeParent(int sessionId, int parentId) throws SQLException {
+        requireState(sessionId).withLock(state -> {
+            requireSetup(state);
+            parentDAO.deleteParent(parentId);
+            eventBus.publish(new ParentRemoved(sessionId, parentId));
+            return null;
+        });
+    }
+
+    public void setCandidate(int parentId, boolean isCandidate) throws SQLException {
+        setCandidate(requireSelected(), parentId, isCandidate);
+    }
+
+    public void setCandidate(int sessionId, int parentId, boolean isCandidate) throws SQLException {
+        requireState(sessionId).withLock(state -> {
+            requireSetup(state);
+            parentDAO.markAsCandidate(parentId, isCandidate);
+            eventBus.publish(new CandidateToggled(sessionId, parentId, isCandidate));
+            return null;
+        });
+    }
+
+    private void requireSetup(SessionState state) {
+        if (!state.getSession().canStartVoting()) {
+            throw new IllegalStateException("The roster can only be changed while the session is in setup");
         }
-        
-        if (!currentSession.canStartVoting()) {
-            throw new IllegalStateException("Session is not in SETUP status");
-        }
-        
-        // Verify we have at least 2 candidates
-        List<Parent> candidates = parentDAO.getCandidatesBySession(currentSession.getId());
-        if (candidates.size() < 2) {
-            throw new IllegalStateException("At least 2 candidates required to start voting");
-        }
-        
-        sessionDAO.updateSessionStatus(currentSession.getId(), VotingSession.Status.VOTING);
-        currentSession = currentSession.toBuilder()
-                .status(VotingSession.Status.VOTING)
-                .build();
-        
-        // Load voters who haven't voted yet
-        loadVoters();
-        currentVoterIndex = 0;
-        
-        logger.info("Started voting for session: {}", currentSession.getId());
-    }
-    
+    }
+
+    public void startVoting() throws SQLException {
+        startVoting(requireSelected());
+    }
+
+    public void startVoting(int sessionId) throws SQLException {
+        SessionState state = requireState(sessionId);
+        state.withLock(locked -> {
+            if (!locked.getSession().canStartVoting()) {
+                throw new IllegalStateException("Session is not in SETUP status");
+            }
+
+            // Verify we have at least 2 candidates
+            List<Parent> candidates = parentDAO.getCandidatesBySession(sessionId);
+            if (candidates.size() < 2) {
+                throw new IllegalStateException("At least 2 candidates required to start voting");
+            }
+
+            sessionDAO.updateSessionStatus(sessionId, VotingSession.Status.VOTING);
+            locked.setSession(locked.getSession().toBuilder()
+                    .status(VotingSession.Status.VOTING)
+                    .build());
+
+            // Load the first page of voters who haven't voted yet
+            restoreVotingState(locked);
+
+            logger.info("Started voting for session: {}", sessionId);
+            eventBus.publish(new SessionStatusChanged(sessionId,
+                VotingSession.Status.SETUP, VotingSession.Status.VOTING));
+            return null;
+        });
+        publishProgress(state);
+    }
+
     public void completeSession() throws SQLException {
-        if (currentSession == null || !currentSession.isVoting()) {
-            throw new IllegalStateException("No active voting session");
-        }
-        
-        sessionDAO.completeSession(currentSession.getId());
-        currentSession = currentSession.toBuilder()
-                .status(VotingSession.Status.COMPLETED)
-                .completedAt(java.time.LocalDateTime.now())
-                .build();
-        
-        logger.info("Completed voting session: {}", currentSession.getId());
-    }
-    
-    public Parent getCurrentVoter() {
-        if (currentVoters == null || currentVoters.isEmpty()) {
-            logger.debug("No current voters available");
+        completeSession(requireSelected());
+    }
+
+    public void completeSession(int sessionId) throws SQLException {
+        requireState(sessionId).withLock(state -> {
+            if (!state.getSession().isVoting()) {
+                throw new IllegalStateException("No active voting session");
+            }
+
+            ResultsSnapshot results = sessionDAO.completeSession(sessionId);
+            state.setSession(state.getSession().toBuilder()
+                    .status(VotingSession.Status.COMPLETED)
+                    .completedAt(java.time.LocalDateTime.now())
+                    .build());
+            releaseCurrentVoter(state);
+
+            logger.info("Completed voting session: {}", sessionId);
+            eventBus.publish(new SessionStatusChanged(sessionId,
+                VotingSession.Status.VOTING, VotingSession.Status.COMPLETED));
+            resultsEngine.remember(results);
             return null;
-        }
-        
-        if (currentVoterIndex >= currentVoters.size()) {
-            logger.debug("Current voter index {} exceeds voter count {}", currentVoterIndex, currentVoters.size());
+        });
+    }
+
+    public Parent getCurrentVoter() {
+        Integer sessionId = selectedSessionId;
+        return sessionId != null ? getCurrentVoter(sessionId) : null;
+    }
+
+    public Parent getCurrentVoter(int sessionId) {
+        SessionState state = sessions.get(sessionId);
+        if (state == null) {
             return null;
         }
-        
-        Parent currentVoter = currentVoters.get(currentVoterIndex);
-        logger.debug("Current voter: {} (index {}/{})", currentVoter.getName(), currentVoterIndex, currentVoters.size());
-        return currentVoter;
+
+        // Never queries or waits: the claim is taken when voting starts and after every vote
+        // or skip, and the lock may be held while a vote is being written
+        return state.getCurrentVoter();
     }
-    
+
     public Parent getNextVoter() throws SQLException {
-        currentVoterIndex++;
-        
-        // If we've gone through all voters, reload to get remaining unvoted parents
-        if (currentVoterIndex >= currentVoters.size()) {
-            loadVoters();
-            if (currentVoters.isEmpty()) {
-                logger.info("No more voters remaining - voting complete");
-                return null; // No more voters
+        Integer sessionId = selectedSessionId;
+        return sessionId != null ? getNextVoter(sessionId) : null;
+    }
+
+    /**
+     * Returns this station's voter, claiming the next free one if it holds none. Used while
+     * the remaining voters are in other stations' booths, since one may come back on a skip
+     * or an expired lease.
+     */
+    public Parent getNextVoter(int sessionId) throws SQLException {
+        return requireState(sessionId).withLock(state -> {
+            if (state.getCurrentVoter() == null && state.getSession().isVoting()) {
+                claimVoter(state);
             }
-            currentVoterIndex = 0;
+            return state.getCurrentVoter();
+        });
+    }
+
+    // Claims the next voter for this station; the caller holds the session lock
+    private Parent claimVoter(SessionState state) throws SQLException {
+        Parent nextVoter = claimDAO.claimNextVoter(state.getSessionId(), stationId, claimLease).orElse(null);
+        state.setCurrentVoter(nextVoter);
+        if (nextVoter == null) {
+            logger.info("No voters left to claim in session {}", state.getSessionId());
+        }
+        return nextVoter;
+    }
+
+    private void releaseCurrentVoter(SessionState state) throws SQLException {
+        Parent voter = state.getCurrentVoter();
+        if (voter != null) {
+            claimDAO.releaseClaim(voter.getId(), stationId);
+            state.setCurrentVoter(null);
         }
-        
-        return getCurrentVoter();
     }
-    
-    public void skipCurrentVoter() throws SQLException {
-        Parent currentVoter = getCurrentVoter();
-        if (currentVoter != null) {
+
+    // True while voters of the session are in another station's booth
+    public boolean hasVotersAtOtherStations() throws SQLException {
+        Integer sessionId = selectedSessionId;
+        return sessionId != null && claimDAO.countClaimsByOtherStations(sessionId, stationId) > 0;
+    }
+
+    private void renewClaims() {
+        for (SessionState state : sessions.values()) {
+            try {
+                state.withLock(locked -> {
+                    Parent voter = locked.getCurrentVoter();
+                    if (voter != null && !claimDAO.renewClaim(voter.getId(), stationId, claimLease)) {
+                        dropLapsedVoter(locked, voter);
+                    }
+                    return null;
+                });
+            } catch (SQLException | RuntimeException e) {
+                logger.error("Failed to renew voter claim for session {}", state.getSessionId(), e);
+            }
+        }
+    }
+
+    /**
+     * Forgets a voter whose claim ran out; another station may have called them by now. The
+     * next voter is claimed only when the view asks for one, so a ballot confirmed for the
+     * old voter can never be counted for a parent the booth did not show.
+     */
+    private void dropLapsedVoter(SessionState state, Parent voter) {
+        logger.warn("Claim on voter {} in session {} lapsed", voter.getId(), state.getSessionId());
+        state.setCurrentVoter(null);
+        eventBus.publish(new VoterClaimLapsed(state.getSessionId(), voter.getId()));
+    }
+
+    public void skipVoter(int voterId) throws SQLException {
+        Integer sessionId = selectedSessionId;
+        if (sessionId == null) {
+            throw new IllegalStateException("No current voter");
+        }
+        skipVoter(sessionId, voterId);
+    }
+
+    // Like a vote, the skip is refused unless this station still holds the voter it showed
+    public void skipVoter(int sessionId, int voterId) throws SQLException {
+        SessionState state = requireState(sessionId);
+        state.withLock(locked -> {
+            Parent currentVoter = requireCurrentVoter(locked, voterId);
             logger.info("Skipping voter: {} (ID: {})", currentVoter.getName(), currentVoter.getId());
-            
-            // Mark parent as voted (even though skipped, they won't vote again)
-            parentDAO.markAsVoted(currentVoter.getId());
-            
+
+            // Mark parent as voted (even though skipped, they won't vote again), provided the
+            // claim is still ours; otherwise the voter may be in another booth by now
+            if (!claimDAO.renewClaim(currentVoter.getId(), stationId, claimLease)
+                    || !claimDAO.skipClaimedVoter(currentVoter.getId(), stationId)) {
+                dropLapsedVoter(locked, currentVoter);
+                throw new IllegalStateException("The claim on " + currentVoter.getName()
+                    + " lapsed and the voter may have been called to another station");
+            }
+            locked.setCurrentVoter(null);
+            SessionProgress current = locked.getProgress();
+            if (current != null && current.getRemainingCount() > 0) {
+                locked.setProgress(current.withSkip());
+            }
+            eventBus.publish(new VoterSkipped(sessionId, currentVoter.getId(), locked.getProgress()));
+
             // Move to next voter
-            Parent nextVoter = getNextVoter();
-            logger.info("Next voter after skipped {}: {}", currentVoter.getName(), 
+            Parent nextVoter = claimVoter(locked);
+            logger.info("Next voter after skipped {}: {}", currentVoter.getName(),
                        nextVoter != null ? nextVoter.getName() : "None (voting complete)");
+            return null;
+        });
+        publishProgress(state);
+    }
+
+    public SessionProgress recordVote(int voterId, int candidateId) throws SQLException {
+        Integer sessionId = selectedSessionId;
+        if (sessionId == null) {
+            throw new IllegalStateException("No current voter");
         }
+        return recordVote(sessionId, voterId, candidateId);
+    }
+
+    // The voter is the one the booth showed; the vote is refused if this station no longer holds them
+    public SessionProgress recordVote(int sessionId, int voterId, int candidateId) throws SQLException {
+        return recordBallot(sessionId, voterId, candidateId, null);
     }
-    
-    public void recordVote(int candidateId) throws SQLException {
-        Parent currentVoter = getCurrentVoter();
+
+    public SessionProgress recordRankedVote(int voterId, int[] ranking) throws SQLException {
+        Integer sessionId = selectedSessionId;
+        if (sessionId == null) {
+            throw new IllegalStateException("No current voter");
+        }
+        return recordRankedVote(sessionId, voterId, ranking);
+    }
+
+    // Candidate ids in order of preference; the first one is counted in the live standings
+    public SessionProgress recordRankedVote(int sessionId, int voterId, int[] ranking) throws SQLException {
+        if (ranking.length == 0) {
+            throw new IllegalArgumentException("A ranked ballot needs at least one preference");
+        }
+        return recordBallot(sessionId, voterId, ranking[0], ranking);
+    }
+
+    private SessionProgress recordBallot(int sessionId, int voterId, int candidateId, int[] ranking)
+            throws SQLException {
+        SessionState state = requireState(sessionId);
+        SessionProgress voteProgress = state.withLock(locked -> {
+            Parent currentVoter = requireCurrentVoter(locked, voterId);
+
+            // A lapsed claim means the voter may already be in another booth
+            if (!claimDAO.renewClaim(currentVoter.getId(), stationId, claimLease)) {
+                dropLapsedVoter(locked, currentVoter);
+                throw new IllegalStateException("The claim on " + currentVoter.getName()
+                    + " lapsed and the voter may have been called to another station");
+            }
+
+            logger.info("Recording vote for voter: {} (ID: {})", currentVoter.getName(), currentVoter.getId());
+
+            // Store the ballot and mark the parent as voted; the group-commit writer batches
+            // votes from all stations and sessions and completes once the batch is durable
+            SessionProgress committed = awaitVote(ranking == null
+                ? voteDAO.submitVote(sessionId, currentVoter.getId(), candidateId)
+                : voteDAO.submitRankedVote(sessionId, currentVoter.getId(), ranking));
+
+            // The writer computed these counters in the transaction that committed the vote
+            locked.setProgress(committed);
+
+            // Counted only after the commit, so the live standings never run ahead of the database
+            LiveTally tally = locked.getLiveTally();
+            if (tally != null) {
+                tally.record(candidateId);
+            }
+            eventBus.publish(new VoteCast(sessionId, currentVoter.getId(), candidateId, committed));
+
+            // The vote removed the claim; move to next voter
+            locked.setCurrentVoter(null);
+            Parent nextVoter = claimVoter(locked);
+            logger.info("Next voter after {}: {}", currentVoter.getName(),
+                       nextVoter != null ? nextVoter.getName() : "None (voting complete)");
+            return committed;
+        });
+        publishProgress(state);
+        return voteProgress;
+    }
+
+    // The station's voter, provided it is still the one the caller showed; caller holds the lock
+    private static Parent requireCurrentVoter(SessionState state, int voterId) {
+        Parent currentVoter = state.getCurrentVoter();
         if (currentVoter == null) {
             throw new IllegalStateException("No current voter");
         }
-        
-        logger.info("Recording vote for voter: {} (ID: {})", currentVoter.getName(), currentVoter.getId());
-        
-        // Mark parent as voted
-        parentDAO.markAsVoted(currentVoter.getId());
-        
-        // Move to next voter
-        Parent nextVoter = getNextVoter();
-        logger.info("Next voter after {}: {}", currentVoter.getName(), 
-                   nextVoter != null ? nextVoter.getName() : "None (voting complete)");
-    }
-    
-    private void loadVoters() throws SQLException {
-        if (currentSession == null) {
-            throw new IllegalStateException("No active session");
+        if (currentVoter.getId() != voterId) {
+            throw new IllegalStateException("Voter " + voterId + " is no longer at this station; "
+                + currentVoter.getName() + " is next");
         }
-        
-        currentVoters = parentDAO.getVotersBySession(currentSession.getId());
-        logger.info("Loaded {} remaining voters", currentVoters.size());
+        return currentVoter;
+    }
+
+    // Bounded, so a stalled disk or writer surfaces as an error instead of holding the session lock for good
+    private static SessionProgress awaitVote(CompletableFuture<SessionProgress> pendingVote) throws SQLException {
+        try {
+            return pendingVote.get(VOTE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new SQLException("Vote could not be recorded: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new SQLException("Vote was not confirmed within " + VOTE_TIMEOUT.toSeconds()
+                + "s; check the results before calling the voter again", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the vote to be recorded", e);
+        }
+    }
+
+    // Claimed voter, live standings and progress for a session that is voting; caller holds the lock
+    private Void restoreVotingState(SessionState state) throws SQLException {
+        int sessionId = state.getSessionId();
+        // After a restart this returns the voter the station already had in the booth
+        claimVoter(state);
+
+        // Seeds the live standings from vote_tallies, which is one row per candidate
+        List<Integer> candidateIds = parentDAO.getCandidatesBySession(sessionId).stream()
+                .map(Parent::getId)
+                .toList();
+        LiveTally tally = new LiveTally(sessionId, candidateIds);
+        tally.reconcile(voteDAO.getVoteCountsBySession(sessionId));
+        state.setLiveTally(tally);
+
+        state.setProgress(parentDAO.getSessionProgress(sessionId));
+        return null;
+    }
+
+    /**
+     * Current standings as candidate id to votes, served from memory without a query.
+     * Empty when the session has not been voting since startup.
+     */
+    public Map<Integer, Integer> getLiveStandings() {
+        Integer sessionId = selectedSessionId;
+        return sessionId != null ? getLiveStandings(sessionId) : Map.of();
+    }
+
+    public Map<Integer, Integer> getLiveStandings(int sessionId) {
+        SessionState state = sessions.get(sessionId);
+        LiveTally tally = state != null ? state.getLiveTally() : null;
+        return tally != null ? tally.snapshot() : Map.of();
+    }
+
+    /**
+     * Compares the live standings with the stored tallies and adopts the stored values if
+     * they differ. Returns true if nothing had drifted.
+     */
+    public boolean reconcileLiveTally() throws SQLException {
+        Integer sessionId = selectedSessionId;
+        return sessionId == null || reconcileLiveTally(sessionId);
+    }
+
+    public boolean reconcileLiveTally(int sessionId) throws SQLException {
+        // Under the session lock no vote can be between its commit and its tally increment
+        return requireState(sessionId).withLock(state -> {
+            LiveTally tally = state.getLiveTally();
+            if (tally == null) {
+                return true;
+            }
+
+            boolean consistent = tally.reconcile(voteDAO.getVoteCountsBySession(sessionId));
+            if (!consistent) {
+                logger.warn("Live tally for session {} drifted from the database and was reset", sessionId);
+            }
+            return consistent;
+        });
+    }
+
+    /**
+     * Current progress of the selected session, loaded with one query the first time and
+     * kept in memory afterwards. Returns null when no session is selected.
+     */
+    public SessionProgress getProgress() throws SQLException {
+        Integer sessionId = selectedSessionId;
+        return sessionId != null ? getProgress(sessionId) : null;
+    }
+
+    public SessionProgress getProgress(int sessionId) throws SQLException {
+        SessionState state = requireState(sessionId);
+        SessionProgress snapshot = state.getProgress();
+        if (snapshot == null) {
+            snapshot = state.withLock(locked -> {
+                if (locked.getProgress() == null) {
+                    locked.setProgress(parentDAO.getSessionProgress(sessionId));
+                }
+                return locked.getProgress();
+            });
+            publishProgress(state);
+        }
+        return snapshot;
+    }
+
+    // Copies a session's progress into the properties if it is the selected one
+    private void publishProgress(SessionState state) {
+        Integer sessionId = selectedSessionId;
+        if (sessionId == null || sessionId != state.getSessionId()) {
+            return;
+        }
+        setProgressProperties(state.getProgress());
+    }
+
+    // Work runs on data-access threads, but bound properties may only change on the UI thread
+    private void setProgressProperties(SessionProgress snapshot) {
+        uiExecutor.execute(() -> applyProgressProperties(snapshot));
+    }
+
+    private void applyProgressProperties(SessionProgress snapshot) {
+        progress.set(snapshot);
+        totalParents.set(snapshot != null ? snapshot.getTotalParents() : 0);
+        votedCount.set(snapshot != null ? snapshot.getProcessedCount() : 0);
+        skippedCount.set(snapshot != null ? snapshot.getSkippedCount() : 0);
+        remainingCount.set(snapshot != null ? snapshot.getRemainingCount() : 0);
+        completionRatio.set(snapshot != null ? snapshot.getCompletionRatio() : 0);
     }
-    
+
+    public ReadOnlyObjectProperty<SessionProgress> progressProperty() {
+        return progress.getReadOnlyProperty();
+    }
+
+    public ReadOnlyIntegerProperty totalParentsProperty() {
+        return totalParents.getReadOnlyProperty();
+    }
+
+    // Parents who voted or were skipped
+    public ReadOnlyIntegerProperty votedCountProperty() {
+        return votedCount.getReadOnlyProperty();
+    }
+
+    public ReadOnlyIntegerProperty skippedCountProperty() {
+        return skippedCount.getReadOnlyProperty();
+    }
+
+    public ReadOnlyIntegerProperty remainingCountProperty() {
+        return remainingCount.getReadOnlyProperty();
+    }
+
+    public ReadOnlyDoubleProperty completionRatioProperty() {
+        return completionRatio.getReadOnlyProperty();
+    }
+
     public int getTotalParentCount() throws SQLException {
-        if (currentSession == null) return 0;
-        return parentDAO.getParentCount(currentSession.getId());
+        SessionProgress snapshot = getProgress();
+        return snapshot != null ? snapshot.getTotalParents() : 0;
     }
-    
+
     public int getVotedCount() throws SQLException {
-        if (currentSession == null) return 0;
-        return parentDAO.getVotedCount(currentSession.getId());
+        SessionProgress snapshot = getProgress();
+        return snapshot != null ? snapshot.getProcessedCount() : 0;
     }
-    
+
     public int getRemainingVoterCount() throws SQLException {
-        return getTotalParentCount() - getVotedCount();
+        SessionProgress snapshot = getProgress();
+        return snapshot != null ? snapshot.getRemainingCount() : 0;
+    }
+
+    // Session, roster and vote changes made through this manager are published here
+    public EventBus getEventBus() {
+        return eventBus;
+    }
+
+    // Shared by the results view and every exporter, so a session's results are computed once per change
+    public ResultsEngine getResultsEngine() {
+        return resultsEngine;
     }
-    
+
     public VotingSession getCurrentSession() {
-        return currentSession;
+        Integer sessionId = selectedSessionId;
+        SessionState state = sessionId != null ? sessions.get(sessionId) : null;
+        return state != null ? state.getSession() : null;
     }
-    
+
     public boolean hasActiveSession() {
-        return currentSession != null && currentSession.isActive();
+        VotingSession session = getCurrentSession();
+        return session != null && session.isActive();
     }
-    
+
+    // Deselects the session and forgets it if it is finished; other sessions are untouched
     public void clearSession() {
-        currentSession = null;
-        currentVoters = null;
-        currentVoterIndex = 0;
+        Integer sessionId = selectedSessionId;
+        selectedSessionId = null;
+        if (sessionId != null) {
+            sessions.computeIfPresent(sessionId, (id, state) -> state.getSession().isActive() ? state : null);
+        }
+        setProgressProperties(null);
+    }
+
+    // Stops renewing claims and hands this station's voters back to the other stations
+    public void shutdown() {
+        if (claimRenewer.isShutdown()) {
+            return;
+        }
+        claimRenewer.shutdownNow();
+        try {
+            int released = claimDAO.releaseStation(stationId);
+            logger.info("Station {} released {} voter claims", stationId, released);
+        } catch (SQLException e) {
+            logger.error("Failed to release voter claims of station {}", stationId, e);
+        }
     }
-    
+
+    public String getStationId() {
+        return stationId;
+    }
+
     public void resetSession() throws SQLException {
-        if (currentSession != null) {
-            Integer sessionId = currentSession.getId();
-            
-            // Delete all votes for this session
-            voteDAO.deleteVotesBySession(sessionId);
-            
-            // Delete all parents for this session  
-            parentDAO.deleteParentsBySession(sessionId);
-            
-            // Delete the session itself
+        Integer sessionId = selectedSessionId;
+        if (sessionId != null) {
+            resetSession(sessionId);
+        }
+    }
+
+    public void resetSession(int sessionId) throws SQLException {
+        SessionState state = requireState(sessionId);
+        VotingSession resetSession = state.withLock(locked -> {
+            // Deletes the session with its parents and votes, and takes it out of the rollups, in one transaction
             sessionDAO.deleteSession(sessionId);
-            
+
+            sessions.remove(sessionId);
             logger.info("Reset session: {} (deleted all data)", sessionId);
-        }
-        
+            return locked.getSession();
+        });
+
         // Clear in-memory state
-        clearSession();
+        if (Integer.valueOf(sessionId).equals(selectedSessionId)) {
+            clearSession();
+        }
+        eventBus.publish(new SessionStatusChanged(sessionId, resetSession.getStatus(), null));
+    }
+
+    // Stable across restarts, so a restarted station gets back the voter it had in the booth.
+    // Two stations on one machine must each set voting.station.id
+    private static String defaultStationId() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "station";
+        }
+    }
+
+    private int requireSelected() {
+        Integer sessionId = selectedSessionId;
+        if (sessionId == null) {
+            throw new IllegalStateException("No active session");
+        }
+        return sessionId;
+    }
+
+    private SessionState requireState(int sessionId) {
+        SessionState state = sessions.get(sessionId);
+        if (state == null) {
+            throw new IllegalStateException("Session " + sessionId + " is not open");
+        }
+        return state;
     }
-}
\ No newline at end of file
+}
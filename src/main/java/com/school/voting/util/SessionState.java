@@ -0,0 +1,80 @@
+// ABOUTME: In-memory state of one voting session held in SessionManager's registry
+// ABOUTME: Owns the session's claimed voter, live tally and progress behind a per-session lock
+
+package com.school.voting.util;
+
+import com.school.voting.model.Parent;
+import com.school.voting.model.SessionProgress;
+import com.school.voting.model.VotingSession;
+
+import java.sql.SQLException;
+import java.util.concurrent.locks.ReentrantLock;
+
+final class SessionState {
+
+    @FunctionalInterface
+    interface SessionWork<T> {
+        T execute(SessionState state) throws SQLException;
+    }
+
+    private final int sessionId;
+    // Serialises changes to this session only; other sessions never wait on it
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile VotingSession session;
+    private volatile LiveTally liveTally;
+    private volatile SessionProgress progress;
+    // Changed only under the lock, but read without it so the UI never waits on a vote in progress
+    private volatile Parent currentVoter;
+
+    SessionState(VotingSession session) {
+        this.sessionId = session.getId();
+        this.session = session;
+    }
+
+    <T> T withLock(SessionWork<T> work) throws SQLException {
+        lock.lock();
+        try {
+            return work.execute(this);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getSessionId() {
+        return sessionId;
+    }
+
+    VotingSession getSession() {
+        return session;
+    }
+
+    void setSession(VotingSession session) {
+        this.session = session;
+    }
+
+    LiveTally getLiveTally() {
+        return liveTally;
+    }
+
+    void setLiveTally(LiveTally liveTally) {
+        this.liveTally = liveTally;
+    }
+
+    SessionProgress getProgress() {
+        return progress;
+    }
+
+    void setProgress(SessionProgress progress) {
+        this.progress = progress;
+    }
+
+    // The voter this station has claimed in the session
+    Parent getCurrentVoter() {
+        return currentVoter;
+    }
+
+    void setCurrentVoter(Parent currentVoter) {
+        this.currentVoter = currentVoter;
+    }
+}
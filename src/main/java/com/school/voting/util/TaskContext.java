@@ -0,0 +1,38 @@
+// ABOUTME: What a running background task can see of itself: progress, status message and cancellation
+// ABOUTME: Passed to task bodies by TaskRuntime so long jobs can report progress and stop early
+
+package com.school.voting.util;
+
+import java.util.concurrent.CancellationException;
+
+public interface TaskContext {
+
+    // For callers that run a job directly, without a task behind it
+    TaskContext NONE = new TaskContext() {
+        @Override
+        public void updateProgress(long workDone, long totalWork) {
+        }
+
+        @Override
+        public void updateMessage(String message) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    };
+
+    void updateProgress(long workDone, long totalWork);
+
+    void updateMessage(String message);
+
+    boolean isCancelled();
+
+    // Ends the job at a safe point once it has been cancelled
+    default void checkCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException("Task was cancelled");
+        }
+    }
+}
@@ -0,0 +1,29 @@
+// ABOUTME: Kinds of background job run by TaskRuntime, each with its own concurrency limit
+// ABOUTME: Limits default per kind and can be changed with voting.tasks.<kind>.limit system properties
+
+package com.school.voting.util;
+
+public enum TaskKind {
+    EXPORT("Export", 2),
+    IMPORT("Import", 1),
+    BACKUP("Backup", 1),
+    RECOUNT("Recount", 1),
+    AUDIT("Audit", 1);
+
+    private final String displayName;
+    private final int limit;
+
+    TaskKind(String displayName, int defaultLimit) {
+        this.displayName = displayName;
+        this.limit = Math.max(1, Integer.getInteger("voting.tasks." + name().toLowerCase() + ".limit", defaultLimit));
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    // How many tasks of this kind may run at once; further tasks wait for a slot
+    public int getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,110 @@
+// ABOUTME: Runs exports, imports, backups and recounts as named background tasks on virtual threads
+// ABOUTME: Caps how many tasks of each kind run at once and keeps a list of recent tasks for the task monitor
+
+package com.school.voting.util;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Tasks run on virtual threads, so a job blocked on disk or a connection costs no platform
+ * thread. Each {@link TaskKind} has its own fair slot count; tasks beyond it stay scheduled
+ * until a slot frees up. Short UI-driven queries keep using {@link AsyncDataAccess}.
+ */
+public final class TaskRuntime {
+    private static final Logger logger = LoggerFactory.getLogger(TaskRuntime.class);
+    // Finished tasks kept for the monitor before the oldest are dropped
+    private static final int FINISHED_TASKS_KEPT = 20;
+    private static TaskRuntime instance;
+
+    @FunctionalInterface
+    public interface TaskBody<T> {
+        T run(TaskContext context) throws Exception;
+    }
+
+    private final ExecutorService executor;
+    private final Executor uiExecutor;
+    private final Map<TaskKind, Semaphore> slots = new EnumMap<>(TaskKind.class);
+    private final Set<BackgroundTask<?>> active = ConcurrentHashMap.newKeySet();
+    private final ObservableList<BackgroundTask<?>> tasks = FXCollections.observableArrayList();
+
+    TaskRuntime(ExecutorService executor, Executor uiExecutor) {
+        this.executor = executor;
+        this.uiExecutor = uiExecutor;
+        for (TaskKind kind : TaskKind.values()) {
+            slots.put(kind, new Semaphore(kind.getLimit(), true));
+        }
+    }
+
+    public static synchronized TaskRuntime getInstance() {
+        if (instance == null) {
+            instance = new TaskRuntime(Executors.newVirtualThreadPerTaskExecutor(), Platform::runLater);
+        }
+        return instance;
+    }
+
+    public <T> BackgroundTask<T> submit(TaskKind kind, String title, TaskBody<T> body) {
+        BackgroundTask<T> task = new BackgroundTask<>(kind, title, uiExecutor);
+        active.add(task);
+        uiExecutor.execute(() -> {
+            tasks.add(0, task);
+            trimFinished();
+        });
+        task.markScheduled();
+
+        task.completion().whenComplete((result, failure) -> {
+            active.remove(task);
+            if (failure != null && !task.isCancelled()) {
+                logger.error("{} task '{}' failed", kind.getDisplayName(), title, AsyncDataAccess.unwrap(failure));
+            } else {
+                logger.info("{} task '{}' {}", kind.getDisplayName(), title,
+                    task.isCancelled() ? "cancelled" : "finished");
+            }
+        });
+
+        try {
+            executor.execute(() -> task.execute(body, slots.get(kind)));
+        } catch (RejectedExecutionException e) {
+            task.fail(e);
+        }
+        return task;
+    }
+
+    // Newest first; read and change only on the UI thread
+    public ObservableList<BackgroundTask<?>> getTasks() {
+        return tasks;
+    }
+
+    public void clearFinished() {
+        tasks.removeIf(BackgroundTask::isDone);
+    }
+
+    private void trimFinished() {
+        long finished = tasks.stream().filter(BackgroundTask::isDone).count();
+        for (int i = tasks.size() - 1; i >= 0 && finished > FINISHED_TASKS_KEPT; i--) {
+            if (tasks.get(i).isDone()) {
+                tasks.remove(i);
+                finished--;
+            }
+        }
+    }
+
+    public void shutdown() {
+        active.forEach(BackgroundTask::cancel);
+        executor.shutdown();
+        logger.info("Task runtime stopped");
+    }
+}
@@ -4,7 +4,11 @@
 package com.school.voting.view;
 
 import com.school.voting.controller.AdminController;
+import com.school.voting.controller.AnalyticsController;
+import com.school.voting.controller.BaseController;
+import com.school.voting.controller.HistoryController;
 import com.school.voting.controller.ResultsController;
+import com.school.voting.controller.TaskMonitorController;
 import com.school.voting.controller.VotingController;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -20,6 +24,8 @@ public class ViewFactory {
     
     private final Stage primaryStage;
     private Scene currentScene;
+    private BaseController currentController;
+    private Stage taskMonitorStage;
     
     public ViewFactory(Stage primaryStage) {
         this.primaryStage = primaryStage;
@@ -33,7 +39,7 @@ public class ViewFactory {
             AdminController controller = loader.getController();
             controller.setViewFactory(this);
             
-            showScene(root, "School Voting System - Admin");
+            showScene(root, "School Voting System - Admin", controller);
         } catch (IOException e) {
             logger.error("Failed to load admin view", e);
             throw new RuntimeException("Failed to load admin view", e);
@@ -48,7 +54,7 @@ public class ViewFactory {
             VotingController controller = loader.getController();
             controller.setViewFactory(this);
             
-            showScene(root, "School Voting System - Voting");
+            showScene(root, "School Voting System - Voting", controller);
         } catch (IOException e) {
             logger.error("Failed to load voting view", e);
             throw new RuntimeException("Failed to load voting view", e);
@@ -63,14 +69,80 @@ public class ViewFactory {
             ResultsController controller = loader.getController();
             controller.setViewFactory(this);
             
-            showScene(root, "School Voting System - Results");
+            showScene(root, "School Voting System - Results", controller);
         } catch (IOException e) {
             logger.error("Failed to load results view", e);
             throw new RuntimeException("Failed to load results view", e);
         }
     }
     
-    private void showScene(Parent root, String title) {
+    public void showHistoryView() {
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/history.fxml"));
+            Parent root = loader.load();
+            
+            HistoryController controller = loader.getController();
+            controller.setViewFactory(this);
+            
+            showScene(root, "School Voting System - Past Sessions", controller);
+        } catch (IOException e) {
+            logger.error("Failed to load history view", e);
+            throw new RuntimeException("Failed to load history view", e);
+        }
+    }
+    
+    public void showAnalyticsView() {
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/analytics.fxml"));
+            Parent root = loader.load();
+            
+            AnalyticsController controller = loader.getController();
+            controller.setViewFactory(this);
+            
+            showScene(root, "School Voting System - Analytics", controller);
+        } catch (IOException e) {
+            logger.error("Failed to load analytics view", e);
+            throw new RuntimeException("Failed to load analytics view", e);
+        }
+    }
+    
+    // Opens the task monitor in its own window, or brings the open one to the front
+    public void showTaskMonitor() {
+        if (taskMonitorStage != null) {
+            taskMonitorStage.toFront();
+            return;
+        }
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/task-monitor.fxml"));
+            Parent root = loader.load();
+            
+            TaskMonitorController controller = loader.getController();
+            Scene scene = new Scene(root);
+            scene.getStylesheets().add(getClass().getResource("/css/styles.css").toExternalForm());
+            
+            Stage stage = new Stage();
+            stage.initOwner(primaryStage);
+            stage.setTitle("School Voting System - Background Tasks");
+            stage.setScene(scene);
+            stage.setOnHidden(event -> {
+                controller.dispose();
+                taskMonitorStage = null;
+            });
+            taskMonitorStage = stage;
+            stage.show();
+        } catch (IOException e) {
+            logger.error("Failed to load task monitor", e);
+            throw new RuntimeException("Failed to load task monitor", e);
+        }
+    }
+    
+    private void showScene(Parent root, String title, BaseController controller) {
+        // Release the previous view's subscriptions before it is dropped
+        if (currentController != null) {
+            currentController.dispose();
+        }
+        currentController = controller;
+        
         if (currentScene == null) {
             currentScene = new Scene(root);
             currentScene.getStylesheets().add(getClass().getResource("/css/styles.css").toExternalForm());
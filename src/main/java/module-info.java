@@ -3,6 +3,7 @@ module com.school.voting {
     requires javafx.fxml;
     requires java.sql;
     requires org.slf4j;
+    requires io;
     requires kernel;
     requires layout;
     requires java.desktop;
@@ -0,0 +1,7 @@
+-- ABOUTME: Orders the parents index by session and name (schema version 10)
+-- ABOUTME: Lets a roster, such as the report's participation appendix, stream in name order without a sort
+
+CREATE INDEX IF NOT EXISTS idx_parents_session_name ON parents(session_id, name);
+
+-- Every lookup by session alone is served by the new index
+DROP INDEX IF EXISTS idx_parents_session;
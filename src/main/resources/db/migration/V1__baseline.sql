@@ -1,10 +1,5 @@
--- ABOUTME: Database schema for school voting system
--- ABOUTME: Defines tables for parents, votes, and voting sessions
-
--- Drop tables if they exist (for development)
-DROP TABLE IF EXISTS votes;
-DROP TABLE IF EXISTS parents;
-DROP TABLE IF EXISTS voting_sessions;
+-- ABOUTME: Baseline schema for the school voting system (schema version 1)
+-- ABOUTME: Defines tables for parents, votes, and voting sessions as originally shipped
 
 -- Voting sessions table
 CREATE TABLE voting_sessions (
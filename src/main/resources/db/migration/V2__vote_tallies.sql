@@ -0,0 +1,15 @@
+-- ABOUTME: Adds the incrementally maintained vote_tallies table (schema version 2)
+-- ABOUTME: Fills it from any ballots already stored so existing sessions keep their results
+
+-- Running vote count per candidate, maintained in the same transaction as each vote
+CREATE TABLE vote_tallies (
+    session_id INTEGER NOT NULL,
+    candidate_id INTEGER NOT NULL,
+    count INTEGER NOT NULL DEFAULT 0 CHECK(count >= 0),
+    PRIMARY KEY (session_id, candidate_id),
+    FOREIGN KEY (candidate_id) REFERENCES parents(id) ON DELETE CASCADE,
+    FOREIGN KEY (session_id) REFERENCES voting_sessions(id) ON DELETE CASCADE
+) WITHOUT ROWID;
+
+INSERT INTO vote_tallies (session_id, candidate_id, count)
+SELECT session_id, candidate_id, COUNT(*) FROM votes GROUP BY session_id, candidate_id;
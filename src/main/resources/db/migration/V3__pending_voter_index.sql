@@ -0,0 +1,4 @@
+-- ABOUTME: Adds the covering index behind the keyset-paginated pending voter queue (schema version 3)
+-- ABOUTME: Lets each page of unvoted parents be read in (name, id) order without a sort
+
+CREATE INDEX IF NOT EXISTS idx_parents_pending ON parents(session_id, has_voted, name, id);
@@ -0,0 +1,15 @@
+-- ABOUTME: Adds the voter_claims table behind multi-station voting (schema version 4)
+-- ABOUTME: A station leases one pending voter at a time so no two booths are handed the same parent
+
+-- One row per voter currently in a booth; a station holds at most one claim per session
+CREATE TABLE voter_claims (
+    voter_id INTEGER PRIMARY KEY,
+    session_id INTEGER NOT NULL,
+    station_id TEXT NOT NULL,
+    expires_at INTEGER NOT NULL,
+    UNIQUE (session_id, station_id),
+    FOREIGN KEY (voter_id) REFERENCES parents(id) ON DELETE CASCADE,
+    FOREIGN KEY (session_id) REFERENCES voting_sessions(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_voter_claims_expiry ON voter_claims(session_id, expires_at);
@@ -0,0 +1,26 @@
+-- ABOUTME: Adds the frozen results record written when a session is completed (schema version 5)
+-- ABOUTME: Completed sessions read their results from here instead of re-aggregating the votes table
+
+-- One row per completed session; votes_checksum is a SHA-256 over the session's ballots
+CREATE TABLE session_results (
+    session_id INTEGER PRIMARY KEY,
+    total_votes INTEGER NOT NULL,
+    total_parents INTEGER NOT NULL,
+    votes_checksum TEXT NOT NULL,
+    frozen_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (session_id) REFERENCES voting_sessions(id) ON DELETE CASCADE
+);
+
+-- The ranking as shown at completion, one row per candidate in display order
+CREATE TABLE session_result_rows (
+    session_id INTEGER NOT NULL,
+    position INTEGER NOT NULL,
+    candidate_id INTEGER NOT NULL,
+    candidate_name TEXT NOT NULL,
+    votes INTEGER NOT NULL,
+    percentage REAL NOT NULL,
+    rank INTEGER NOT NULL,
+    tied BOOLEAN NOT NULL,
+    PRIMARY KEY (session_id, position),
+    FOREIGN KEY (session_id) REFERENCES session_results(session_id) ON DELETE CASCADE
+);
@@ -0,0 +1,4 @@
+-- ABOUTME: Adds the index behind the keyset-paginated history of completed sessions (schema version 6)
+-- ABOUTME: Lets each page of past sessions be read newest first by (completed_at, id) without a sort
+
+CREATE INDEX IF NOT EXISTS idx_sessions_history ON voting_sessions(status, completed_at, id);
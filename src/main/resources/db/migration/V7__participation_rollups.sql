@@ -0,0 +1,57 @@
+-- ABOUTME: Adds the participation rollups behind the cross-session analytics (schema version 7)
+-- ABOUTME: Completing a session adds its row and folds it into its school year; sessions completed earlier are backfilled here
+
+-- One row per completed session; school years start on 1 August
+CREATE TABLE session_rollups (
+    session_id INTEGER PRIMARY KEY,
+    class_name TEXT NOT NULL,
+    school_year INTEGER NOT NULL,
+    total_parents INTEGER NOT NULL,
+    candidates INTEGER NOT NULL,
+    votes_cast INTEGER NOT NULL,
+    skipped INTEGER NOT NULL,
+    duration_seconds INTEGER NOT NULL,
+    FOREIGN KEY (session_id) REFERENCES voting_sessions(id) ON DELETE CASCADE
+);
+
+-- Running sums per school year and class; trend queries read only this table
+CREATE TABLE year_rollups (
+    school_year INTEGER NOT NULL,
+    class_name TEXT NOT NULL,
+    sessions INTEGER NOT NULL,
+    total_parents INTEGER NOT NULL,
+    candidates INTEGER NOT NULL,
+    votes_cast INTEGER NOT NULL,
+    skipped INTEGER NOT NULL,
+    duration_seconds INTEGER NOT NULL,
+    PRIMARY KEY (school_year, class_name)
+) WITHOUT ROWID;
+
+-- completed_at is written as epoch milliseconds, created_at defaults to UTC text
+INSERT INTO session_rollups (session_id, class_name, school_year, total_parents, candidates, votes_cast,
+                             skipped, duration_seconds)
+SELECT id, class_name,
+       CAST(strftime('%Y', completed_epoch, 'unixepoch', 'localtime') AS INTEGER)
+           - (CAST(strftime('%m', completed_epoch, 'unixepoch', 'localtime') AS INTEGER) < 8),
+       total_parents, candidates, votes_cast, processed - votes_cast,
+       MAX(0, COALESCE(completed_epoch - created_epoch, 0))
+FROM (
+    SELECT s.id, s.class_name,
+           CASE typeof(s.completed_at) WHEN 'integer' THEN s.completed_at / 1000
+               ELSE CAST(strftime('%s', s.completed_at) AS INTEGER) END AS completed_epoch,
+           CASE typeof(s.created_at) WHEN 'integer' THEN s.created_at / 1000
+               ELSE CAST(strftime('%s', s.created_at) AS INTEGER) END AS created_epoch,
+           (SELECT COUNT(*) FROM parents p WHERE p.session_id = s.id) AS total_parents,
+           (SELECT COUNT(*) FROM parents p WHERE p.session_id = s.id AND p.is_candidate = 1) AS candidates,
+           (SELECT COUNT(*) FROM parents p WHERE p.session_id = s.id AND p.has_voted = 1) AS processed,
+           (SELECT COUNT(*) FROM votes v WHERE v.session_id = s.id) AS votes_cast
+    FROM voting_sessions s
+    WHERE s.status = 'COMPLETED' AND s.completed_at IS NOT NULL
+);
+
+INSERT INTO year_rollups (school_year, class_name, sessions, total_parents, candidates, votes_cast, skipped,
+                          duration_seconds)
+SELECT school_year, class_name, COUNT(*), SUM(total_parents), SUM(candidates), SUM(votes_cast), SUM(skipped),
+       SUM(duration_seconds)
+FROM session_rollups
+GROUP BY school_year, class_name;
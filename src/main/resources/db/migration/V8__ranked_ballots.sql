@@ -0,0 +1,9 @@
+-- ABOUTME: Adds ranked ballots and a per-session counting method (schema version 8)
+-- ABOUTME: A ranking is the candidate ids in order of preference, packed as 4-byte big-endian ints
+
+-- PLURALITY counts first choices only; the ranked methods read votes.ranking
+ALTER TABLE voting_sessions ADD COLUMN tally_method TEXT NOT NULL DEFAULT 'PLURALITY'
+    CHECK(tally_method IN ('PLURALITY', 'INSTANT_RUNOFF', 'SINGLE_TRANSFERABLE_VOTE'));
+
+-- NULL for a single-choice ballot; candidate_id always holds the first preference
+ALTER TABLE votes ADD COLUMN ranking BLOB;
@@ -0,0 +1,7 @@
+-- ABOUTME: Orders the votes index by session and voter (schema version 9)
+-- ABOUTME: Lets the vote audit and the ballot checksum walk each session's ballots in voter order without a sort
+
+CREATE INDEX IF NOT EXISTS idx_votes_session_voter ON votes(session_id, voter_id);
+
+-- Every lookup by session alone is served by the new index
+DROP INDEX IF EXISTS idx_votes_session;
@@ -0,0 +1,171 @@
+// ABOUTME: Benchmark comparing trend queries on the rollups with a scan of parents and votes as history grows
+// ABOUTME: Not part of the regular test run; start it with mvn -Pbenchmark test
+
+package com.school.voting.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalyticsBenchmark {
+
+    private static final int[] HISTORY_YEARS = {10, 40, 160};
+    private static final int CLASSES_PER_YEAR = 12;
+    private static final int PARENTS_PER_CLASS = 25;
+    private static final int CANDIDATES_PER_CLASS = 4;
+    private static final int WARMUP_RUNS = 20;
+    private static final int MEASURED_RUNS = 100;
+    private static final int YEARS_SHOWN = 10;
+    private static final int FIRST_SCHOOL_YEAR = 1950;
+
+    // What the dashboard would have to run without rollups
+    private static final String SCAN_YEARLY_TRENDS_SQL =
+            "SELECT strftime('%Y', s.completed_at / 1000, 'unixepoch') AS year, COUNT(p.id), SUM(p.is_candidate), " +
+            "SUM(p.has_voted), SUM(EXISTS (SELECT 1 FROM votes v WHERE v.voter_id = p.id)) " +
+            "FROM voting_sessions s JOIN parents p ON p.session_id = s.id " +
+            "WHERE s.status = 'COMPLETED' GROUP BY year ORDER BY year";
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseManager db;
+    private AnalyticsDAO analyticsDAO;
+
+    @BeforeEach
+    void setUp() {
+        db = new DatabaseManager("jdbc:sqlite:" + tempDir.resolve("benchmark.db"), 2, StorageProfile.KIOSK_SAFE);
+        analyticsDAO = new AnalyticsDAO(db);
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.closeConnection();
+    }
+
+    @Test
+    @DisplayName("Should answer trend queries in flat time as history grows")
+    void shouldStayFlatAsHistoryGrows() throws SQLException {
+        long[] rollupNanos = new long[HISTORY_YEARS.length];
+        long[] scanNanos = new long[HISTORY_YEARS.length];
+        int yearsLoaded = 0;
+
+        System.out.printf("%8s %10s %14s %14s%n", "years", "sessions", "rollups (us)", "scan (us)");
+        for (int i = 0; i < HISTORY_YEARS.length; i++) {
+            addHistory(yearsLoaded, HISTORY_YEARS[i]);
+            yearsLoaded = HISTORY_YEARS[i];
+            analyticsDAO.rebuildRollups();
+
+            // The dashboard asks for the most recent school years
+            int fromSchoolYear = FIRST_SCHOOL_YEAR + yearsLoaded - YEARS_SHOWN;
+            rollupNanos[i] = median(() -> {
+                analyticsDAO.getYearlyTrends(fromSchoolYear);
+                analyticsDAO.getClassTrends(fromSchoolYear);
+            });
+            scanNanos[i] = median(this::scanYearlyTrends);
+            System.out.printf("%8d %10d %14d %14d%n", yearsLoaded, yearsLoaded * CLASSES_PER_YEAR,
+                    rollupNanos[i] / 1000, scanNanos[i] / 1000);
+        }
+
+        // Sixteen times the history: the scan grows with it, the rollup queries read the same ten years
+        int last = HISTORY_YEARS.length - 1;
+        assertTrue(rollupNanos[last] < scanNanos[last] / 4,
+                "Rollups should beat scanning ballots once history has grown");
+        assertTrue(rollupNanos[last] < rollupNanos[0] * 3,
+                "Rollup queries should not slow down as history grows");
+    }
+
+    // Sessions, parents and ballots for school years [fromYear, toYear), written directly for speed
+    private void addHistory(int fromYear, int toYear) throws SQLException {
+        db.inTransaction(conn -> {
+            try (PreparedStatement session = conn.prepareStatement(
+                         "INSERT INTO voting_sessions (class_name, status, completed_at) VALUES (?, 'COMPLETED', ?)",
+                         Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement parent = conn.prepareStatement(
+                         "INSERT INTO parents (name, is_candidate, has_voted, session_id) VALUES (?, ?, ?, ?)",
+                         Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement vote = conn.prepareStatement(
+                         "INSERT INTO votes (voter_id, candidate_id, session_id) VALUES (?, ?, ?)")) {
+                for (int year = fromYear; year < toYear; year++) {
+                    for (int cls = 0; cls < CLASSES_PER_YEAR; cls++) {
+                        session.setString(1, (cls / 3 + 5) + "" + (char) ('a' + cls % 3));
+                        session.setTimestamp(2, Timestamp.valueOf(LocalDateTime.of(FIRST_SCHOOL_YEAR + year, 9, 20, 18, 0)));
+                        session.executeUpdate();
+                        int sessionId = generatedKey(session);
+
+                        int firstCandidate = 0;
+                        for (int p = 0; p < PARENTS_PER_CLASS; p++) {
+                            boolean skipped = p % 10 == 9;
+                            boolean absent = p % 10 == 8;
+                            parent.setString(1, "Parent " + p);
+                            parent.setBoolean(2, p < CANDIDATES_PER_CLASS);
+                            parent.setBoolean(3, !absent);
+                            parent.setInt(4, sessionId);
+                            parent.executeUpdate();
+                            int parentId = generatedKey(parent);
+                            if (p == 0) {
+                                firstCandidate = parentId;
+                            }
+                            if (!absent && !skipped) {
+                                vote.setInt(1, parentId);
+                                vote.setInt(2, firstCandidate + p % CANDIDATES_PER_CLASS);
+                                vote.setInt(3, sessionId);
+                                vote.addBatch();
+                            }
+                        }
+                        vote.executeBatch();
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private static int generatedKey(PreparedStatement stmt) throws SQLException {
+        try (ResultSet keys = stmt.getGeneratedKeys()) {
+            keys.next();
+            return keys.getInt(1);
+        }
+    }
+
+    private void scanYearlyTrends() throws SQLException {
+        try (Connection conn = db.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SCAN_YEARLY_TRENDS_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                rs.getInt(2);
+            }
+        }
+    }
+
+    private interface Query {
+        void run() throws SQLException;
+    }
+
+    private static long median(Query query) throws SQLException {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            query.run();
+        }
+        long[] samples = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            query.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[MEASURED_RUNS / 2];
+    }
+}
@@ -0,0 +1,219 @@
+// ABOUTME: Database tests for AnalyticsDAO against a temporary SQLite file
+// ABOUTME: Tests rollups written at completion, school year boundaries and that incremental rollups match a rebuild
+
+package com.school.voting.dao;
+
+import com.school.voting.model.Parent;
+import com.school.voting.model.ParticipationTrend;
+import com.school.voting.model.VotingSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalyticsDAOTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseManager db;
+    private VotingSessionDAO sessionDAO;
+    private ParentDAO parentDAO;
+    private VoteDAO voteDAO;
+    private AnalyticsDAO analyticsDAO;
+
+    @BeforeEach
+    void setUp() {
+        db = new DatabaseManager("jdbc:sqlite:" + tempDir.resolve("analytics.db"), 2, StorageProfile.KIOSK_SAFE);
+        sessionDAO = new VotingSessionDAO(db);
+        parentDAO = new ParentDAO(db);
+        voteDAO = new VoteDAO(db);
+        analyticsDAO = new AnalyticsDAO(db);
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.closeConnection();
+    }
+
+    // Four parents, two of them candidates: two vote, one is skipped and one never comes up
+    private VotingSession votedSession(String className) throws SQLException {
+        VotingSession session = sessionDAO.createSession(VotingSession.builder()
+                .className(className)
+                .status(VotingSession.Status.VOTING)
+                .build());
+        List<Parent> parents = new ArrayList<>();
+        for (String name : List.of("Anna", "Ben", "Clara", "David")) {
+            parents.add(parentDAO.insertParent(Parent.builder()
+                    .name(name)
+                    .isCandidate(name.equals("Anna") || name.equals("Ben"))
+                    .sessionId(session.getId())
+                    .build()));
+        }
+        voteDAO.castVote(session.getId(), parents.get(0).getId(), parents.get(1).getId());
+        voteDAO.castVote(session.getId(), parents.get(1).getId(), parents.get(1).getId());
+        parentDAO.markAsVoted(parents.get(2).getId());
+        return session;
+    }
+
+    // Completes the session at a fixed time, as if it had been opened the given time before
+    private void completeAt(VotingSession session, LocalDateTime completedAt, Duration open) throws SQLException {
+        try (Connection conn = db.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "UPDATE voting_sessions SET status = 'COMPLETED', created_at = ?, completed_at = ? WHERE id = ?")) {
+            stmt.setTimestamp(1, Timestamp.valueOf(completedAt.minus(open)));
+            stmt.setTimestamp(2, Timestamp.valueOf(completedAt));
+            stmt.setInt(3, session.getId());
+            stmt.executeUpdate();
+        }
+        analyticsDAO.recordCompletedSession(session.getId());
+    }
+
+    @Nested
+    @DisplayName("Recording Completed Sessions")
+    class RecordingCompletedSessions {
+
+        @Test
+        @DisplayName("Should add a session to the rollups when it is completed")
+        void shouldRecordOnCompletion() throws SQLException {
+            // Given
+            VotingSession session = votedSession("6c");
+
+            // When
+            sessionDAO.completeSession(session.getId());
+
+            // Then
+            List<ParticipationTrend> trends = analyticsDAO.getClassTrends(0);
+            assertEquals(1, trends.size());
+            ParticipationTrend trend = trends.get(0);
+            assertEquals("6c", trend.getClassName());
+            assertEquals(1, trend.getSessions());
+            assertEquals(4, trend.getTotalParents());
+            assertEquals(2, trend.getCandidates());
+            assertEquals(2, trend.getVotesCast());
+            assertEquals(1, trend.getSkipped());
+            assertEquals(50.0, trend.getTurnoutPercentage());
+        }
+
+        @Test
+        @DisplayName("Should refuse a session that is not completed")
+        void shouldRefuseOpenSession() throws SQLException {
+            // Given
+            VotingSession session = votedSession("6c");
+
+            // Then
+            assertThrows(SQLException.class, () -> analyticsDAO.recordCompletedSession(session.getId()));
+            assertTrue(analyticsDAO.getClassTrends(0).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should fold sessions into the school year starting in August")
+        void shouldGroupBySchoolYear() throws SQLException {
+            // Given
+            completeAt(votedSession("6c"), LocalDateTime.of(2024, 7, 15, 18, 0), Duration.ofHours(1));
+            completeAt(votedSession("6c"), LocalDateTime.of(2024, 9, 10, 18, 0), Duration.ofHours(2));
+            completeAt(votedSession("7a"), LocalDateTime.of(2025, 3, 1, 18, 0), Duration.ofHours(4));
+
+            // When
+            List<ParticipationTrend> yearly = analyticsDAO.getYearlyTrends(0);
+            List<ParticipationTrend> byClass = analyticsDAO.getClassTrends(0);
+
+            // Then
+            assertEquals(List.of("2023/24", "2024/25"),
+                    yearly.stream().map(ParticipationTrend::getSchoolYearLabel).toList());
+            assertNull(yearly.get(1).getClassName());
+            assertEquals(2, yearly.get(1).getSessions());
+            assertEquals(8, yearly.get(1).getTotalParents());
+            assertEquals(Duration.ofHours(3), yearly.get(1).getAverageDuration());
+            assertEquals(List.of("6c", "7a", "6c"),
+                    byClass.stream().map(ParticipationTrend::getClassName).toList());
+            assertEquals(2024, byClass.get(0).getSchoolYear());
+            assertEquals(List.of("6c", "7a"), analyticsDAO.getClassTrends(2024).stream()
+                    .map(ParticipationTrend::getClassName).toList());
+        }
+    }
+
+    @Nested
+    @DisplayName("Deleting Sessions")
+    class DeletingSessions {
+
+        @Test
+        @DisplayName("Should take a deleted completed session out of its school year")
+        void shouldSubtractDeletedSession() throws SQLException {
+            // Given
+            VotingSession deleted = votedSession("6c");
+            completeAt(deleted, LocalDateTime.of(2024, 10, 1, 18, 0), Duration.ofHours(1));
+            completeAt(votedSession("6c"), LocalDateTime.of(2024, 11, 1, 18, 0), Duration.ofHours(2));
+            completeAt(votedSession("7a"), LocalDateTime.of(2024, 12, 1, 18, 0), Duration.ofHours(3));
+
+            // When
+            sessionDAO.deleteSession(deleted.getId());
+
+            // Then
+            List<ParticipationTrend> byClass = analyticsDAO.getClassTrends(0);
+            assertEquals(List.of("6c", "7a"), byClass.stream().map(ParticipationTrend::getClassName).toList());
+            assertEquals(1, byClass.get(0).getSessions());
+            assertEquals(4, byClass.get(0).getTotalParents());
+            assertEquals(Duration.ofHours(2), byClass.get(0).getAverageDuration());
+            List<ParticipationTrend> incremental = analyticsDAO.getYearlyTrends(0);
+            analyticsDAO.rebuildRollups();
+            assertEquals(incremental, analyticsDAO.getYearlyTrends(0));
+        }
+
+        @Test
+        @DisplayName("Should drop a class from the trends once its last session is deleted")
+        void shouldDropEmptiedClass() throws SQLException {
+            // Given
+            VotingSession deleted = votedSession("6c");
+            completeAt(deleted, LocalDateTime.of(2024, 10, 1, 18, 0), Duration.ofHours(1));
+            VotingSession open = votedSession("7a");
+
+            // When
+            sessionDAO.deleteSession(deleted.getId());
+            sessionDAO.deleteSession(open.getId());
+
+            // Then
+            assertTrue(analyticsDAO.getClassTrends(0).isEmpty());
+            assertTrue(analyticsDAO.getYearlyTrends(0).isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Rebuilding Rollups")
+    class RebuildingRollups {
+
+        @Test
+        @DisplayName("Should match the rollups kept up incrementally")
+        void shouldMatchIncrementalRollups() throws SQLException {
+            // Given
+            completeAt(votedSession("6c"), LocalDateTime.of(2023, 10, 1, 18, 0), Duration.ofMinutes(45));
+            completeAt(votedSession("6c"), LocalDateTime.of(2023, 11, 1, 18, 0), Duration.ofMinutes(30));
+            completeAt(votedSession("8b"), LocalDateTime.of(2024, 10, 1, 18, 0), Duration.ofMinutes(90));
+            votedSession("9a");
+            List<ParticipationTrend> incrementalYearly = analyticsDAO.getYearlyTrends(0);
+            List<ParticipationTrend> incrementalByClass = analyticsDAO.getClassTrends(0);
+
+            // When
+            analyticsDAO.rebuildRollups();
+
+            // Then
+            assertEquals(incrementalYearly, analyticsDAO.getYearlyTrends(0));
+            assertEquals(incrementalByClass, analyticsDAO.getClassTrends(0));
+            assertEquals(2, incrementalYearly.size());
+        }
+    }
+}
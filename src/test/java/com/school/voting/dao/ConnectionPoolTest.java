@@ -0,0 +1,214 @@
+// ABOUTME: Unit tests for the bounded JDBC connection pool
+// ABOUTME: Tests connection reuse, init hooks, bounds, transaction reset, statement caching and metrics
+
+package com.school.voting.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = ConnectionPool.builder("jdbc:sqlite:" + tempDir.resolve("pool.db"))
+                .maxSize(2)
+                .leaseTimeout(Duration.ofMillis(200))
+                .initializer(conn -> {
+                    try (Statement stmt = conn.createStatement()) {
+                        stmt.execute("PRAGMA foreign_keys = ON");
+                    }
+                })
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Nested
+    @DisplayName("Leasing and Returning")
+    class LeasingAndReturning {
+
+        @Test
+        @DisplayName("Should reuse the same physical connection after it is closed")
+        void shouldReuseConnectionAfterClose() throws SQLException {
+            // When
+            try (Connection first = pool.lease()) {
+                assertFalse(first.isClosed());
+            }
+            try (Connection second = pool.lease()) {
+                assertFalse(second.isClosed());
+            }
+
+            // Then
+            PoolMetrics metrics = pool.metrics();
+            assertEquals(1, metrics.getCreatedCount());
+            assertEquals(2, metrics.getLeaseCount());
+            assertEquals(0, metrics.getActive());
+            assertEquals(1, metrics.getIdle());
+        }
+
+        @Test
+        @DisplayName("Should run init hooks on new connections")
+        void shouldRunInitHooks() throws SQLException {
+            try (Connection conn = pool.lease();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("PRAGMA foreign_keys")) {
+                assertTrue(rs.next());
+                assertEquals(1, rs.getInt(1));
+            }
+        }
+
+        @Test
+        @DisplayName("Should reject use of a connection after it was returned")
+        void shouldRejectUseAfterReturn() throws SQLException {
+            // Given
+            Connection conn = pool.lease();
+            conn.close();
+
+            // Then
+            assertTrue(conn.isClosed());
+            assertThrows(SQLException.class, conn::createStatement);
+        }
+
+        @Test
+        @DisplayName("Should roll back an unfinished transaction when a connection is returned")
+        void shouldRollBackUnfinishedTransaction() throws SQLException {
+            // Given
+            try (Connection conn = pool.lease(); Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE items (id INTEGER PRIMARY KEY)");
+            }
+
+            // When
+            try (Connection conn = pool.lease(); Statement stmt = conn.createStatement()) {
+                conn.setAutoCommit(false);
+                stmt.execute("INSERT INTO items (id) VALUES (1)");
+            }
+
+            // Then
+            try (Connection conn = pool.lease();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM items")) {
+                assertTrue(conn.getAutoCommit());
+                assertTrue(rs.next());
+                assertEquals(0, rs.getInt(1));
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Pool Bounds")
+    class PoolBounds {
+
+        @Test
+        @DisplayName("Should time out when every connection is leased")
+        void shouldTimeOutWhenExhausted() throws SQLException {
+            try (Connection first = pool.lease(); Connection second = pool.lease()) {
+                assertEquals(2, pool.metrics().getActive());
+                assertThrows(SQLException.class, pool::lease);
+            }
+            assertEquals(0, pool.metrics().getActive());
+        }
+
+        @Test
+        @DisplayName("Should refuse leases after the pool is closed")
+        void shouldRefuseLeasesAfterClose() {
+            pool.close();
+            assertThrows(SQLException.class, pool::lease);
+        }
+    }
+
+    @Nested
+    @DisplayName("Statement Cache")
+    class StatementCacheBehaviour {
+
+        @Test
+        @DisplayName("Should reuse a prepared statement for the same SQL")
+        void shouldReusePreparedStatement() throws SQLException {
+            // When
+            for (int i = 0; i < 3; i++) {
+                try (Connection conn = pool.lease();
+                     PreparedStatement stmt = conn.prepareStatement("SELECT ?")) {
+                    stmt.setInt(1, i);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        assertTrue(rs.next());
+                        assertEquals(i, rs.getInt(1));
+                    }
+                }
+            }
+
+            // Then
+            PoolMetrics metrics = pool.metrics();
+            assertEquals(1, metrics.getStatementCacheMisses());
+            assertEquals(2, metrics.getStatementCacheHits());
+        }
+
+        @Test
+        @DisplayName("Should hand out a separate statement while the cached one is borrowed")
+        void shouldPrepareSeparateStatementWhenBorrowed() throws SQLException {
+            try (Connection conn = pool.lease();
+                 PreparedStatement outer = conn.prepareStatement("SELECT ?");
+                 PreparedStatement inner = conn.prepareStatement("SELECT ?")) {
+                assertNotSame(outer, inner);
+                outer.setInt(1, 1);
+                inner.setInt(1, 2);
+                try (ResultSet outerRs = outer.executeQuery(); ResultSet innerRs = inner.executeQuery()) {
+                    assertTrue(outerRs.next());
+                    assertTrue(innerRs.next());
+                    assertEquals(1, outerRs.getInt(1));
+                    assertEquals(2, innerRs.getInt(1));
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Should evict least recently used statements beyond the bound")
+        void shouldEvictLeastRecentlyUsed() throws SQLException {
+            try (ConnectionPool small = ConnectionPool.builder("jdbc:sqlite:" + tempDir.resolve("small.db"))
+                    .maxSize(1)
+                    .statementCacheSize(2)
+                    .build()) {
+                for (String sql : new String[]{"SELECT 1", "SELECT 2", "SELECT 3", "SELECT 1"}) {
+                    try (Connection conn = small.lease(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        stmt.executeQuery().close();
+                    }
+                }
+
+                PoolMetrics metrics = small.metrics();
+                assertEquals(2, metrics.getStatementCacheEvictions());
+                assertEquals(4, metrics.getStatementCacheMisses());
+            }
+        }
+
+        @Test
+        @DisplayName("Should reject use of a statement after it was returned")
+        void shouldRejectUseAfterReturn() throws SQLException {
+            try (Connection conn = pool.lease()) {
+                PreparedStatement stmt = conn.prepareStatement("SELECT 1");
+                stmt.close();
+                assertTrue(stmt.isClosed());
+                assertThrows(SQLException.class, stmt::executeQuery);
+            }
+        }
+    }
+}
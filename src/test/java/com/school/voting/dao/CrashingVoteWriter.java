@@ -0,0 +1,61 @@
+// ABOUTME: Child-process vote writer used by the storage profile crash-injection tests
+// ABOUTME: Casts votes in a loop and acknowledges each commit on stdout until it is killed
+
+package com.school.voting.dao;
+
+import com.school.voting.model.Parent;
+import com.school.voting.model.VotingSession;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Usage: CrashingVoteWriter &lt;jdbc-url&gt; &lt;storage-profile&gt; &lt;roster-size&gt;
+ *
+ * Prints READY once the roster is stored, then "COMMITTED &lt;voterId&gt;" after each vote
+ * transaction has committed. The parent test kills this process with SIGKILL at an
+ * arbitrary point and checks what the database kept.
+ */
+public class CrashingVoteWriter {
+
+    public static void main(String[] args) throws Exception {
+        String url = args[0];
+        StorageProfile profile = StorageProfile.fromName(args[1]);
+        int rosterSize = Integer.parseInt(args[2]);
+
+        DatabaseManager db = new DatabaseManager(url, 2, profile);
+        VotingSessionDAO sessionDAO = new VotingSessionDAO(db);
+        ParentDAO parentDAO = new ParentDAO(db);
+        VoteDAO voteDAO = new VoteDAO(db);
+
+        VotingSession session = sessionDAO.createSession(VotingSession.builder()
+                .className("crash-" + profile.getProfileName())
+                .status(VotingSession.Status.VOTING)
+                .build());
+
+        List<Parent> roster = db.inTransaction(conn -> {
+            List<Parent> inserted = new ArrayList<>();
+            for (int i = 0; i < rosterSize; i++) {
+                inserted.add(parentDAO.insertParent(Parent.builder()
+                        .name(String.format("Parent %05d", i))
+                        .isCandidate(i < 3)
+                        .sessionId(session.getId())
+                        .build()));
+            }
+            return inserted;
+        });
+        System.out.println("READY");
+        System.out.flush();
+
+        for (int i = 0; i < roster.size(); i++) {
+            Parent voter = roster.get(i);
+            Parent candidate = roster.get(i % 3);
+            voteDAO.castVote(session.getId(), voter.getId(), candidate.getId());
+            System.out.println("COMMITTED " + voter.getId());
+            System.out.flush();
+        }
+
+        // Roster exhausted before the parent killed us; just wait to be killed
+        Thread.sleep(Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,122 @@
+// ABOUTME: Database tests for ParentDAO against a temporary SQLite file
+// ABOUTME: Tests roster import and streaming the participation list
+
+package com.school.voting.dao;
+
+import com.school.voting.model.Parent;
+import com.school.voting.model.VotingSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParentDAOTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseManager db;
+    private ParentDAO parentDAO;
+    private VotingSession session;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        db = new DatabaseManager("jdbc:sqlite:" + tempDir.resolve("parents.db"), 2, StorageProfile.KIOSK_SAFE);
+        parentDAO = new ParentDAO(db);
+        session = new VotingSessionDAO(db).createSession(VotingSession.builder()
+                .className("6c")
+                .status(VotingSession.Status.VOTING)
+                .build());
+
+        // Two parents share a name so the id must break the tie
+        for (String name : List.of("Emil", "Anna", "Clara", "Ben", "Anna", "David", "Frida")) {
+            parentDAO.insertParent(Parent.builder()
+                    .name(name)
+                    .sessionId(session.getId())
+                    .build());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.closeConnection();
+    }
+
+    private List<String> names(List<Parent> parents) {
+        return parents.stream().map(Parent::getName).toList();
+    }
+
+    @Nested
+    @DisplayName("Roster Import")
+    class RosterImport {
+
+        @Test
+        @DisplayName("Should insert a whole roster and hand back the assigned ids")
+        void shouldInsertRoster() throws SQLException {
+            // Given
+            List<Parent> roster = List.of(
+                Parent.builder().name("Greta").sessionId(session.getId()).isCandidate(true).build(),
+                Parent.builder().name("Hugo").sessionId(session.getId()).build());
+
+            // When
+            List<Parent> inserted = parentDAO.insertParents(roster);
+
+            // Then
+            assertEquals(List.of("Greta", "Hugo"), names(inserted));
+            assertTrue(inserted.stream().allMatch(parent -> parent.getId() != null));
+            assertEquals(9, parentDAO.getParentCount(session.getId()));
+            assertTrue(parentDAO.getParentById(inserted.get(0).getId()).orElseThrow().isCandidate());
+        }
+
+        @Test
+        @DisplayName("Should insert nothing when one parent in the roster is rejected")
+        void shouldRollBackRoster() throws SQLException {
+            // Given the second parent points at a session that does not exist
+            List<Parent> roster = List.of(
+                Parent.builder().name("Greta").sessionId(session.getId()).build(),
+                Parent.builder().name("Hugo").sessionId(9999).build());
+
+            // When / Then
+            assertThrows(SQLException.class, () -> parentDAO.insertParents(roster));
+            assertEquals(7, parentDAO.getParentCount(session.getId()));
+        }
+    }
+
+    @Nested
+    @DisplayName("Streaming Participation")
+    class StreamingParticipation {
+
+        @Test
+        @DisplayName("Should pass every parent in name order with how they took part")
+        void shouldStreamRosterInNameOrder() throws SQLException {
+            // Given
+            List<Parent> roster = parentDAO.getParentsBySession(session.getId());
+            Parent anna = roster.stream().filter(parent -> parent.getName().equals("Anna"))
+                    .min(Comparator.comparing(Parent::getId)).orElseThrow();
+            Parent ben = roster.stream().filter(parent -> parent.getName().equals("Ben")).findFirst().orElseThrow();
+            parentDAO.markAsCandidate(anna.getId(), true);
+            new VoteDAO(db).castVote(session.getId(), ben.getId(), anna.getId());
+            parentDAO.markAsVoted(anna.getId());
+            List<String> streamed = new ArrayList<>();
+
+            // When
+            int parents = parentDAO.streamParticipation(session.getId(), (name, isCandidate, participation) ->
+                    streamed.add(name + (isCandidate ? "*" : "") + " " + participation));
+
+            // Then
+            assertEquals(7, parents);
+            assertEquals(List.of("Anna* SKIPPED", "Anna NOT_VOTED", "Ben VOTED", "Clara NOT_VOTED",
+                    "David NOT_VOTED", "Emil NOT_VOTED", "Frida NOT_VOTED"), streamed);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+// ABOUTME: Tests for the versioned schema migrator against temporary SQLite files
+// ABOUTME: Tests fresh installs, repeat startups, adoption of unversioned databases and script parsing
+
+package com.school.voting.dao;
+
+import com.school.voting.model.VotingSession;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaMigratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Connection open(String name) throws SQLException {
+        return DriverManager.getConnection("jdbc:sqlite:" + tempDir.resolve(name));
+    }
+
+    @Nested
+    @DisplayName("Applying Migrations")
+    class ApplyingMigrations {
+
+        @Test
+        @DisplayName("Should build an empty database up to the latest version")
+        void shouldMigrateFreshDatabase() throws SQLException {
+            try (Connection conn = open("fresh.db")) {
+                // When
+                int applied = SchemaMigrator.migrate(conn);
+
+                // Then
+                assertEquals(SchemaMigrator.MIGRATIONS.size(), applied);
+                assertEquals(SchemaMigrator.latestVersion(), SchemaMigrator.readVersion(conn));
+                assertTrue(conn.getAutoCommit());
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM vote_tallies")) {
+                    assertTrue(rs.next());
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Should apply nothing when the schema is already current")
+        void shouldSkipCurrentDatabase() throws SQLException {
+            try (Connection conn = open("current.db")) {
+                SchemaMigrator.migrate(conn);
+
+                assertEquals(0, SchemaMigrator.migrate(conn));
+            }
+        }
+
+        @Test
+        @DisplayName("Should refuse a database written by a newer version")
+        void shouldRefuseNewerDatabase() throws SQLException {
+            try (Connection conn = open("newer.db"); Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA user_version = " + (SchemaMigrator.latestVersion() + 1));
+
+                assertThrows(SQLException.class, () -> SchemaMigrator.migrate(conn));
+            }
+        }
+
+        @Test
+        @DisplayName("Should adopt an unversioned database and fill tallies from its votes")
+        void shouldAdoptLegacyDatabase() throws SQLException {
+            try (Connection conn = open("legacy.db"); Statement stmt = conn.createStatement()) {
+                // Given - a database created by the original schema.sql, before versioning
+                stmt.execute("CREATE TABLE voting_sessions (id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                        "class_name TEXT NOT NULL, status TEXT NOT NULL DEFAULT 'SETUP', " +
+                        "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, completed_at TIMESTAMP)");
+                stmt.execute("CREATE TABLE parents (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT NOT NULL, " +
+                        "is_candidate BOOLEAN NOT NULL DEFAULT 0, has_voted BOOLEAN NOT NULL DEFAULT 0, " +
+                        "session_id INTEGER NOT NULL, created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+                stmt.execute("CREATE TABLE votes (id INTEGER PRIMARY KEY AUTOINCREMENT, voter_id INTEGER NOT NULL, " +
+                        "candidate_id INTEGER NOT NULL, session_id INTEGER NOT NULL, " +
+                        "voted_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, UNIQUE(voter_id, session_id))");
+                stmt.execute("INSERT INTO voting_sessions (class_name) VALUES ('6c')");
+                stmt.execute("INSERT INTO parents (name, is_candidate, session_id) VALUES ('Anna', 1, 1), ('Ben', 0, 1)");
+                stmt.execute("INSERT INTO votes (voter_id, candidate_id, session_id) VALUES (1, 1, 1), (2, 1, 1)");
+
+                // When
+                int applied = SchemaMigrator.migrate(conn);
+
+                // Then
+                assertEquals(SchemaMigrator.MIGRATIONS.size() - 1, applied);
+                assertEquals(SchemaMigrator.latestVersion(), SchemaMigrator.readVersion(conn));
+                try (ResultSet rs = stmt.executeQuery("SELECT count FROM vote_tallies WHERE candidate_id = 1")) {
+                    assertTrue(rs.next());
+                    assertEquals(2, rs.getInt(1));
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Should keep data when a database manager is reopened")
+        void shouldKeepDataAcrossRestarts() throws SQLException {
+            // Given
+            String url = "jdbc:sqlite:" + tempDir.resolve("restart.db");
+            DatabaseManager first = new DatabaseManager(url, 1, StorageProfile.KIOSK_SAFE);
+            new VotingSessionDAO(first).createSession(VotingSession.builder()
+                    .className("6c")
+                    .build());
+            first.closeConnection();
+
+            // When
+            DatabaseManager second = new DatabaseManager(url, 1, StorageProfile.KIOSK_SAFE);
+            try {
+                // Then
+                assertEquals(1, new VotingSessionDAO(second).getAllSessions().size());
+            } finally {
+                second.closeConnection();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Script Parsing")
+    class ScriptParsing {
+
+        @Test
+        @DisplayName("Should ignore semicolons inside comments and string literals")
+        void shouldIgnoreQuotedSemicolons() {
+            String script = """
+                    -- header; with a semicolon
+                    CREATE TABLE a (x TEXT DEFAULT 'b;c'); -- trailing; comment
+                    INSERT INTO a (x) VALUES ('it''s;fine');
+                    """;
+
+            List<String> statements = SchemaMigrator.splitStatements(script);
+
+            assertEquals(List.of(
+                    "CREATE TABLE a (x TEXT DEFAULT 'b;c')",
+                    "INSERT INTO a (x) VALUES ('it''s;fine')"), statements);
+        }
+    }
+}
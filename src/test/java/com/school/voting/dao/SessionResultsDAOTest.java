@@ -0,0 +1,216 @@
+// ABOUTME: Database tests for SessionResultsDAO against a temporary SQLite file
+// ABOUTME: Tests freezing results at completion, ranked counts, reading them back and detecting later ballot edits
+
+package com.school.voting.dao;
+
+import com.school.voting.model.CandidateResult;
+import com.school.voting.model.Parent;
+import com.school.voting.model.ResultsSnapshot;
+import com.school.voting.model.VotingSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionResultsDAOTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseManager db;
+    private VotingSessionDAO sessionDAO;
+    private VoteDAO voteDAO;
+    private SessionResultsDAO resultsDAO;
+    private VotingSession session;
+    private List<Parent> parents;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        db = new DatabaseManager("jdbc:sqlite:" + tempDir.resolve("results.db"), 2, StorageProfile.KIOSK_SAFE);
+        ParentDAO parentDAO = new ParentDAO(db);
+        sessionDAO = new VotingSessionDAO(db);
+        voteDAO = new VoteDAO(db);
+        resultsDAO = new SessionResultsDAO(db);
+
+        session = sessionDAO.createSession(VotingSession.builder()
+                .className("7a")
+                .status(VotingSession.Status.VOTING)
+                .build());
+
+        parents = new ArrayList<>();
+        for (String name : List.of("Anna", "Ben", "Clara", "David")) {
+            parents.add(parentDAO.insertParent(Parent.builder()
+                    .name(name)
+                    .isCandidate(!name.equals("David"))
+                    .sessionId(session.getId())
+                    .build()));
+        }
+        voteDAO.castVote(session.getId(), parents.get(0).getId(), parents.get(1).getId());
+        voteDAO.castVote(session.getId(), parents.get(2).getId(), parents.get(1).getId());
+        voteDAO.castVote(session.getId(), parents.get(3).getId(), parents.get(0).getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.closeConnection();
+    }
+
+    @Nested
+    @DisplayName("Freezing Results")
+    class FreezingResults {
+
+        @Test
+        @DisplayName("Should read back exactly the results frozen at completion")
+        void shouldReadBackFrozenResults() throws SQLException {
+            // When
+            ResultsSnapshot frozen = sessionDAO.completeSession(session.getId());
+            ResultsSnapshot stored = resultsDAO.findResults(session.getId()).orElseThrow();
+
+            // Then
+            assertTrue(frozen.isFrozen());
+            assertEquals(frozen.getRanking(), stored.getRanking());
+            assertEquals(frozen.getVotesChecksum(), stored.getVotesChecksum());
+            assertEquals(3, stored.getTotalVotes());
+            assertEquals(4, stored.getTotalParents());
+            assertEquals("Ben", stored.getWinner().orElseThrow().getName());
+            assertEquals(VotingSession.Status.COMPLETED,
+                    sessionDAO.getSessionById(session.getId()).orElseThrow().getStatus());
+        }
+
+        @Test
+        @DisplayName("Should have no record for a session that is still open")
+        void shouldHaveNoRecordForOpenSession() throws SQLException {
+            // Then
+            assertTrue(resultsDAO.findResults(session.getId()).isEmpty());
+            assertTrue(resultsDAO.verifyResults(session.getId()));
+        }
+
+        @Test
+        @DisplayName("Should leave the session open when its results cannot be frozen")
+        void shouldRollBackCompletionWhenFreezeFails() throws SQLException {
+            // Given
+            resultsDAO.freezeResults(session.getId());
+
+            // When
+            assertThrows(SQLException.class, () -> sessionDAO.completeSession(session.getId()));
+
+            // Then
+            assertEquals(VotingSession.Status.VOTING,
+                    sessionDAO.getSessionById(session.getId()).orElseThrow().getStatus());
+        }
+    }
+
+    @Nested
+    @DisplayName("Verifying Results")
+    class VerifyingResults {
+
+        @Test
+        @DisplayName("Should match the ballots they were frozen from")
+        void shouldMatchUnchangedBallots() throws SQLException {
+            // Given
+            sessionDAO.completeSession(session.getId());
+
+            // Then
+            assertTrue(resultsDAO.verifyResults(session.getId()));
+        }
+
+        @Test
+        @DisplayName("Should detect ballots edited after completion while keeping the frozen ranking")
+        void shouldDetectEditedBallots() throws SQLException {
+            // Given
+            ResultsSnapshot frozen = sessionDAO.completeSession(session.getId());
+
+            // When
+            try (Connection conn = db.getConnection(); Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("UPDATE votes SET candidate_id = " + parents.get(2).getId());
+            }
+
+            // Then
+            assertFalse(resultsDAO.verifyResults(session.getId()));
+            assertEquals(frozen.getRanking(), resultsDAO.findResults(session.getId()).orElseThrow().getRanking());
+        }
+    }
+
+    @Nested
+    @DisplayName("Ranked Sessions")
+    class RankedSessions {
+
+        @Test
+        @DisplayName("Should freeze results counted by the session's tally method")
+        void shouldFreezeRankedCount() throws SQLException {
+            // Given - Ben leads on first choices; Clara's transfers elect Anna
+            VotingSession ranked = rankedSession(VotingSession.TallyMethod.INSTANT_RUNOFF);
+            List<Parent> voters = rankedParents(ranked);
+            int anna = voters.get(0).getId();
+            int ben = voters.get(1).getId();
+            int clara = voters.get(2).getId();
+            int[][] ballots = {{ben}, {ben}, {ben}, {anna}, {anna}, {clara, anna}, {clara, anna}};
+            for (int i = 0; i < ballots.length; i++) {
+                voteDAO.castRankedVote(ranked.getId(), voters.get(i).getId(), ballots[i]);
+            }
+
+            // When
+            ResultsSnapshot frozen = sessionDAO.completeSession(ranked.getId());
+
+            // Then
+            assertEquals(List.of("Anna", "Ben", "Clara"),
+                    frozen.getRanking().stream().map(CandidateResult::getName).toList());
+            assertEquals(7, frozen.getTotalVotes());
+            assertEquals(3, frozen.getRanking().get(1).getVotes());
+            assertEquals(frozen.getRanking(), resultsDAO.findResults(ranked.getId()).orElseThrow().getRanking());
+        }
+
+        @Test
+        @DisplayName("Should detect a ranking edited after completion")
+        void shouldDetectEditedRanking() throws SQLException {
+            // Given
+            VotingSession ranked = rankedSession(VotingSession.TallyMethod.SINGLE_TRANSFERABLE_VOTE);
+            List<Parent> voters = rankedParents(ranked);
+            int anna = voters.get(0).getId();
+            int ben = voters.get(1).getId();
+            voteDAO.castRankedVote(ranked.getId(), voters.get(3).getId(), new int[]{anna, ben});
+            sessionDAO.completeSession(ranked.getId());
+
+            // When - the first choice stays, only the lower preferences change
+            try (Connection conn = db.getConnection(); Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("UPDATE votes SET ranking = NULL WHERE session_id = " + ranked.getId());
+            }
+
+            // Then
+            assertFalse(resultsDAO.verifyResults(ranked.getId()));
+        }
+
+        private VotingSession rankedSession(VotingSession.TallyMethod method) throws SQLException {
+            return sessionDAO.createSession(VotingSession.builder()
+                    .className("8b")
+                    .status(VotingSession.Status.VOTING)
+                    .tallyMethod(method)
+                    .build());
+        }
+
+        // Anna, Ben and Clara stand; the others only vote
+        private List<Parent> rankedParents(VotingSession ranked) throws SQLException {
+            ParentDAO parentDAO = new ParentDAO(db);
+            List<Parent> voters = new ArrayList<>();
+            for (String name : List.of("Anna", "Ben", "Clara", "Dora", "Emil", "Frank", "Greta")) {
+                voters.add(parentDAO.insertParent(Parent.builder()
+                        .name(name)
+                        .isCandidate(voters.size() < 3)
+                        .sessionId(ranked.getId())
+                        .build()));
+            }
+            return voters;
+        }
+    }
+}
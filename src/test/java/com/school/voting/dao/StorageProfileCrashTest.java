@@ -0,0 +1,181 @@
+// ABOUTME: Crash-injection tests for the SQLite storage profiles
+// ABOUTME: Kills a vote-writing child JVM mid-vote and verifies what each profile kept on disk
+
+package com.school.voting.dao;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SIGKILL leaves the operating system running, so these tests cover application crashes
+ * (power stays on). Every profile must keep every acknowledged vote in that case and never
+ * keep half of a vote transaction. Losing the last commits on power loss is the documented
+ * trade-off of the "balanced" and "bulk-import" profiles and cannot be simulated here.
+ */
+class StorageProfileCrashTest {
+
+    private static final int ROSTER_SIZE = 400;
+
+    @TempDir
+    Path tempDir;
+
+    static Stream<Arguments> crashPoints() {
+        return Stream.of(StorageProfile.values())
+                .flatMap(profile -> Stream.of(
+                        Arguments.of(profile, 0),
+                        Arguments.of(profile, 17),
+                        Arguments.of(profile, 120)));
+    }
+
+    @Nested
+    @DisplayName("Writer Killed Mid-Vote")
+    class WriterKilledMidVote {
+
+        @ParameterizedTest(name = "{0} killed after {1} acknowledged votes")
+        @MethodSource("com.school.voting.dao.StorageProfileCrashTest#crashPoints")
+        @DisplayName("Should keep every acknowledged vote and no partial vote")
+        void shouldKeepAcknowledgedVotesAndNoPartialVote(StorageProfile profile, int killAfter) throws Exception {
+            // Given
+            Path dbFile = tempDir.resolve(profile.getProfileName() + "-" + killAfter + ".db");
+            String url = "jdbc:sqlite:" + dbFile;
+
+            // When
+            Set<Integer> acknowledged = runWriterAndKill(url, profile, killAfter);
+
+            // Then
+            try (Connection conn = DriverManager.getConnection(url)) {
+                assertEquals("ok", querySingleString(conn, "PRAGMA integrity_check"));
+                assertEquals(profile.getJournalMode().toLowerCase(), querySingleString(conn, "PRAGMA journal_mode"));
+
+                Set<Integer> votedIds = queryIds(conn, "SELECT voter_id FROM votes");
+                assertTrue(votedIds.containsAll(acknowledged),
+                        "Acknowledged votes were lost under profile " + profile);
+
+                // Votes committed after the last line we read may survive too, but only as a
+                // gap-free continuation of the voting order
+                int votes = votedIds.size();
+                if (votes > 0) {
+                    int first = votedIds.stream().min(Integer::compare).orElseThrow();
+                    int last = votedIds.stream().max(Integer::compare).orElseThrow();
+                    assertEquals(votes, last - first + 1, "Surviving votes must not have gaps");
+                }
+
+                int markedVoted = querySingleInt(conn, "SELECT COUNT(*) FROM parents WHERE has_voted = 1");
+                assertEquals(votes, markedVoted, "Vote and has_voted flag must commit together");
+
+                // The writer was killed only once it had acknowledged the requested votes
+                assertTrue(acknowledged.size() >= killAfter,
+                        "Writer died after " + acknowledged.size() + " of " + killAfter + " votes");
+                assertTrue(votes >= acknowledged.size() && votes <= ROSTER_SIZE,
+                        "Kept " + votes + " votes after " + acknowledged.size() + " acknowledgements");
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Profile Selection")
+    class ProfileSelection {
+
+        @Test
+        @DisplayName("Should resolve profiles by their startup names")
+        void shouldResolveProfilesByName() {
+            assertEquals(StorageProfile.KIOSK_SAFE, StorageProfile.fromName("kiosk-safe"));
+            assertEquals(StorageProfile.BALANCED, StorageProfile.fromName("BALANCED"));
+            assertEquals(StorageProfile.BULK_IMPORT, StorageProfile.fromName("bulk_import"));
+            assertThrows(IllegalArgumentException.class, () -> StorageProfile.fromName("turbo"));
+        }
+
+        @Test
+        @DisplayName("Should apply connection settings of the chosen profile")
+        void shouldApplyConnectionSettings() throws SQLException {
+            DatabaseManager db = new DatabaseManager("jdbc:sqlite:" + tempDir.resolve("settings.db"),
+                    1, StorageProfile.BALANCED);
+            try (Connection conn = db.getConnection()) {
+                assertEquals(1, querySingleInt(conn, "PRAGMA synchronous"));
+                assertEquals(-16_000, querySingleInt(conn, "PRAGMA cache_size"));
+                assertEquals(1, querySingleInt(conn, "PRAGMA foreign_keys"));
+            } finally {
+                db.closeConnection();
+            }
+        }
+    }
+
+    private Set<Integer> runWriterAndKill(String url, StorageProfile profile, int killAfter) throws Exception {
+        String javaBin = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String classPath = System.getProperty("java.class.path")
+                + File.pathSeparator + System.getProperty("jdk.module.path", "");
+
+        Process process = new ProcessBuilder(javaBin, "-cp", classPath,
+                CrashingVoteWriter.class.getName(), url, profile.getProfileName(), String.valueOf(ROSTER_SIZE))
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+
+        Set<Integer> acknowledged = new HashSet<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            boolean ready = false;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.equals("READY")) {
+                    ready = true;
+                } else if (line.startsWith("COMMITTED ")) {
+                    acknowledged.add(Integer.parseInt(line.substring("COMMITTED ".length())));
+                }
+                if (ready && acknowledged.size() >= killAfter) {
+                    break;
+                }
+            }
+            assertTrue(ready, "Writer process exited before it was ready");
+        } finally {
+            process.destroyForcibly();
+            assertTrue(process.waitFor(30, TimeUnit.SECONDS), "Writer process did not terminate");
+        }
+        return acknowledged;
+    }
+
+    private static String querySingleString(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            assertTrue(rs.next());
+            return rs.getString(1);
+        }
+    }
+
+    private static int querySingleInt(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            assertTrue(rs.next());
+            return rs.getInt(1);
+        }
+    }
+
+    private static Set<Integer> queryIds(Connection conn, String sql) throws SQLException {
+        Set<Integer> ids = new HashSet<>();
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+}
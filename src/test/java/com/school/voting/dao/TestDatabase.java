@@ -0,0 +1,16 @@
+// ABOUTME: Opens DatabaseManager instances on temporary files for tests outside the dao package
+// ABOUTME: Uses the kiosk storage profile and a small pool like the DAO tests
+
+package com.school.voting.dao;
+
+import java.nio.file.Path;
+
+public final class TestDatabase {
+
+    private TestDatabase() {
+    }
+
+    public static DatabaseManager open(Path file) {
+        return new DatabaseManager("jdbc:sqlite:" + file, 4, StorageProfile.KIOSK_SAFE);
+    }
+}
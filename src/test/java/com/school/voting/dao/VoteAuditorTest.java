@@ -0,0 +1,222 @@
+// ABOUTME: Database tests for VoteAuditor against a temporary SQLite file
+// ABOUTME: Tests a clean audit, each kind of disagreement it reports, progress reporting and stopping early
+
+package com.school.voting.dao;
+
+import com.school.voting.model.AuditReport;
+import com.school.voting.model.Parent;
+import com.school.voting.model.VotingSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VoteAuditorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseManager db;
+    private VotingSessionDAO sessionDAO;
+    private ParentDAO parentDAO;
+    private VoteDAO voteDAO;
+    private VoteAuditor auditor;
+
+    @BeforeEach
+    void setUp() {
+        db = new DatabaseManager("jdbc:sqlite:" + tempDir.resolve("audit.db"), 2, StorageProfile.KIOSK_SAFE);
+        sessionDAO = new VotingSessionDAO(db);
+        parentDAO = new ParentDAO(db);
+        voteDAO = new VoteDAO(db);
+        auditor = new VoteAuditor(db);
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.closeConnection();
+    }
+
+    // The given number of parents, the first two of them candidates, each voting for the first
+    private List<Parent> votedSession(int parents) throws SQLException {
+        return db.inTransaction(conn -> createVotedSession(parents));
+    }
+
+    private List<Parent> createVotedSession(int parents) throws SQLException {
+        VotingSession session = sessionDAO.createSession(VotingSession.builder()
+                .className("6c")
+                .status(VotingSession.Status.VOTING)
+                .build());
+        List<Parent> roster = new ArrayList<>();
+        for (int i = 0; i < parents; i++) {
+            roster.add(parentDAO.insertParent(Parent.builder()
+                    .name("Parent " + i)
+                    .isCandidate(i < 2)
+                    .sessionId(session.getId())
+                    .build()));
+        }
+        for (Parent voter : roster) {
+            voteDAO.castVote(session.getId(), voter.getId(), roster.get(0).getId());
+        }
+        return roster;
+    }
+
+    private void execute(String sql, int id) throws SQLException {
+        try (Connection conn = db.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, id);
+            stmt.executeUpdate();
+        }
+    }
+
+    private List<AuditReport.Kind> kinds(AuditReport report) {
+        return report.getFindings().stream().map(AuditReport.Finding::getKind).toList();
+    }
+
+    @Nested
+    @DisplayName("Consistent Data")
+    class ConsistentData {
+
+        @Test
+        @DisplayName("Should find nothing when tallies, results and voted flags agree")
+        void shouldReportClean() throws SQLException {
+            // Given
+            votedSession(4);
+            List<Parent> completed = votedSession(3);
+            sessionDAO.completeSession(completed.get(0).getSessionId());
+
+            // When
+            AuditReport report = auditor.audit((scanned, total) -> { });
+
+            // Then
+            assertTrue(report.isClean(), () -> report.getFindings().toString());
+            assertEquals(2, report.getSessions());
+            assertEquals(7, report.getVotesScanned());
+            assertEquals(7, report.getParentsScanned());
+        }
+
+        @Test
+        @DisplayName("Should audit an empty database")
+        void shouldAuditEmptyDatabase() throws SQLException {
+            // When
+            AuditReport report = auditor.audit((scanned, total) -> { });
+
+            // Then
+            assertTrue(report.isClean());
+            assertEquals(0, report.getSessions());
+            assertEquals(0, report.getVotesScanned());
+        }
+    }
+
+    @Nested
+    @DisplayName("Disagreements")
+    class Disagreements {
+
+        @Test
+        @DisplayName("Should report a voter whose ballot is stored but who is not marked as voted")
+        void shouldReportUnflaggedVoter() throws SQLException {
+            // Given
+            List<Parent> roster = votedSession(3);
+            execute("UPDATE parents SET has_voted = 0 WHERE id = ?", roster.get(2).getId());
+
+            // When
+            AuditReport report = auditor.audit((scanned, total) -> { });
+
+            // Then
+            assertEquals(List.of(AuditReport.Kind.UNFLAGGED_VOTER), kinds(report));
+            assertEquals(roster.get(2).getId(), report.getFindings().get(0).getSubjectId());
+        }
+
+        @Test
+        @DisplayName("Should report a stored tally that differs from the ballots")
+        void shouldReportTallyDrift() throws SQLException {
+            // Given
+            List<Parent> roster = votedSession(3);
+            execute("UPDATE vote_tallies SET count = count + 1 WHERE candidate_id = ?", roster.get(0).getId());
+
+            // When
+            AuditReport report = auditor.audit((scanned, total) -> { });
+
+            // Then
+            assertTrue(kinds(report).contains(AuditReport.Kind.TALLY_DRIFT));
+            assertEquals(roster.get(0).getId(), report.getFindings().get(0).getSubjectId());
+            assertEquals("stored 4, recounted 3", report.getFindings().get(0).getDetail());
+        }
+
+        @Test
+        @DisplayName("Should report ballots changed after the results were frozen")
+        void shouldReportChangedFrozenBallots() throws SQLException {
+            // Given
+            List<Parent> roster = votedSession(3);
+            sessionDAO.completeSession(roster.get(0).getSessionId());
+            execute("DELETE FROM votes WHERE voter_id = ?", roster.get(2).getId());
+
+            // When
+            AuditReport report = auditor.audit((scanned, total) -> { });
+
+            // Then
+            assertTrue(kinds(report).contains(AuditReport.Kind.RESULTS_MISMATCH));
+            assertTrue(kinds(report).contains(AuditReport.Kind.CHECKSUM_MISMATCH));
+            assertEquals(2, report.getVotesScanned());
+        }
+
+        @Test
+        @DisplayName("Should report a ballot for a parent who is no longer a candidate")
+        void shouldReportBallotForNonCandidate() throws SQLException {
+            // Given
+            List<Parent> roster = votedSession(3);
+            execute("UPDATE parents SET is_candidate = 0 WHERE id = ?", roster.get(0).getId());
+
+            // When
+            AuditReport report = auditor.audit((scanned, total) -> { });
+
+            // Then
+            assertTrue(kinds(report).contains(AuditReport.Kind.NOT_A_CANDIDATE));
+        }
+    }
+
+    @Nested
+    @DisplayName("Progress")
+    class Progress {
+
+        @Test
+        @DisplayName("Should report progress through the ballots and the rate they were read at")
+        void shouldReportProgress() throws SQLException {
+            // Given
+            votedSession(1_500);
+            List<long[]> updates = new ArrayList<>();
+
+            // When
+            AuditReport report = auditor.audit((scanned, total) -> updates.add(new long[]{scanned, total}));
+
+            // Then
+            assertEquals(2, updates.size());
+            assertArrayEquals(new long[]{1_000, 1_500}, updates.get(0));
+            assertArrayEquals(new long[]{1_500, 1_500}, updates.get(1));
+            assertTrue(report.getVotesPerSecond() > 0);
+        }
+
+        @Test
+        @DisplayName("Should stop when the progress callback throws")
+        void shouldStopWhenCancelled() throws SQLException {
+            // Given
+            votedSession(1_200);
+
+            // Then
+            assertThrows(CancellationException.class, () -> auditor.audit((scanned, total) -> {
+                throw new CancellationException("Cancelled");
+            }));
+        }
+    }
+}
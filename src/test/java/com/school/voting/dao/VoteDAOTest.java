@@ -0,0 +1,287 @@
+// ABOUTME: Database tests for VoteDAO against a temporary SQLite file
+// ABOUTME: Tests atomic vote casting, progress counters, tallies, ranked ballots and streaming anonymous ballots
+
+package com.school.voting.dao;
+
+import com.school.voting.model.Parent;
+import com.school.voting.model.SessionProgress;
+import com.school.voting.model.VotingSession;
+import com.school.voting.tally.BallotBox;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VoteDAOTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseManager db;
+    private ParentDAO parentDAO;
+    private VoteDAO voteDAO;
+    private VotingSession session;
+    private List<Parent> parents;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        db = new DatabaseManager("jdbc:sqlite:" + tempDir.resolve("votes.db"), 2, StorageProfile.KIOSK_SAFE);
+        parentDAO = new ParentDAO(db);
+        voteDAO = new VoteDAO(db);
+
+        session = new VotingSessionDAO(db).createSession(VotingSession.builder()
+                .className("6c")
+                .status(VotingSession.Status.VOTING)
+                .build());
+
+        parents = new ArrayList<>();
+        for (String name : List.of("Anna", "Ben", "Clara", "David")) {
+            parents.add(parentDAO.insertParent(Parent.builder()
+                    .name(name)
+                    .isCandidate(name.equals("Anna") || name.equals("Ben"))
+                    .sessionId(session.getId())
+                    .build()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.closeConnection();
+    }
+
+    @Nested
+    @DisplayName("Casting Votes")
+    class CastingVotes {
+
+        @Test
+        @DisplayName("Should store the vote and mark the voter in one step")
+        void shouldStoreVoteAndMarkVoter() throws SQLException {
+            // When
+            SessionProgress progress = voteDAO.castVote(session.getId(), parents.get(2).getId(), parents.get(0).getId());
+
+            // Then
+            assertTrue(voteDAO.hasVoted(parents.get(2).getId(), session.getId()));
+            assertTrue(parentDAO.getParentById(parents.get(2).getId()).orElseThrow().hasVoted());
+            assertEquals(new SessionProgress(session.getId(), 4, 1, 1), progress);
+        }
+
+        @Test
+        @DisplayName("Should count skipped voters separately from votes cast")
+        void shouldCountSkippedVoters() throws SQLException {
+            // Given
+            parentDAO.markAsVoted(parents.get(3).getId());
+
+            // When
+            SessionProgress progress = voteDAO.castVote(session.getId(), parents.get(2).getId(), parents.get(1).getId());
+
+            // Then
+            assertEquals(2, progress.getProcessedCount());
+            assertEquals(1, progress.getVotesCast());
+            assertEquals(1, progress.getSkippedCount());
+            assertEquals(2, progress.getRemainingCount());
+        }
+
+        @Test
+        @DisplayName("Should reject a second vote and leave no partial changes")
+        void shouldRejectSecondVote() throws SQLException {
+            // Given
+            int voterId = parents.get(2).getId();
+            voteDAO.castVote(session.getId(), voterId, parents.get(0).getId());
+
+            // When / Then
+            assertThrows(SQLException.class,
+                    () -> voteDAO.castVote(session.getId(), voterId, parents.get(1).getId()));
+            assertEquals(1, voteDAO.getTotalVotes(session.getId()));
+            assertEquals(0, voteDAO.getVoteCount(parents.get(1).getId(), session.getId()));
+            assertFalse(db.isInTransaction());
+        }
+
+        @Test
+        @DisplayName("Should roll back the voter flag when the vote insert fails")
+        void shouldRollBackVoterFlagWhenInsertFails() {
+            // Given - candidate does not exist, so the foreign key rejects the insert
+            int voterId = parents.get(3).getId();
+
+            // When / Then
+            assertThrows(SQLException.class, () -> voteDAO.castVote(session.getId(), voterId, 9999));
+            assertDoesNotThrow(() ->
+                    assertFalse(parentDAO.getParentById(voterId).orElseThrow().hasVoted()));
+        }
+
+        @Test
+        @DisplayName("Should reject a vote once the session is completed and keep its frozen results valid")
+        void shouldRejectVoteAfterCompletion() throws SQLException {
+            // Given
+            voteDAO.castVote(session.getId(), parents.get(2).getId(), parents.get(0).getId());
+            new VotingSessionDAO(db).completeSession(session.getId());
+
+            // When / Then
+            int voterId = parents.get(3).getId();
+            assertThrows(SQLException.class, () -> voteDAO.castVote(session.getId(), voterId, parents.get(1).getId()));
+            assertFalse(parentDAO.getParentById(voterId).orElseThrow().hasVoted());
+            assertEquals(1, voteDAO.getTotalVotes(session.getId()));
+            assertTrue(new SessionResultsDAO(db).verifyResults(session.getId()));
+        }
+    }
+
+    @Nested
+    @DisplayName("Vote Tallies")
+    class VoteTallies {
+
+        @Test
+        @DisplayName("Should keep tallies in step with every vote")
+        void shouldKeepTalliesInStep() throws SQLException {
+            // When
+            voteDAO.castVote(session.getId(), parents.get(0).getId(), parents.get(1).getId());
+            voteDAO.castVote(session.getId(), parents.get(2).getId(), parents.get(1).getId());
+            voteDAO.castVote(session.getId(), parents.get(3).getId(), parents.get(0).getId());
+
+            // Then
+            assertEquals(Map.of(parents.get(1).getId(), 2, parents.get(0).getId(), 1),
+                    voteDAO.getVoteCountsBySession(session.getId()));
+            assertTrue(voteDAO.verifyTallies(session.getId()).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should leave tallies untouched when a vote is rejected")
+        void shouldLeaveTalliesWhenVoteRejected() throws SQLException {
+            // Given
+            int voterId = parents.get(2).getId();
+            voteDAO.castVote(session.getId(), voterId, parents.get(0).getId());
+
+            // When
+            assertThrows(SQLException.class,
+                    () -> voteDAO.castVote(session.getId(), voterId, parents.get(0).getId()));
+
+            // Then
+            assertEquals(Map.of(parents.get(0).getId(), 1), voteDAO.getVoteCountsBySession(session.getId()));
+        }
+
+        @Test
+        @DisplayName("Should detect and repair drift between tallies and ballots")
+        void shouldDetectAndRepairDrift() throws SQLException {
+            // Given
+            int candidateId = parents.get(0).getId();
+            voteDAO.castVote(session.getId(), parents.get(2).getId(), candidateId);
+            voteDAO.castVote(session.getId(), parents.get(3).getId(), candidateId);
+            try (Connection conn = db.getConnection(); Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("UPDATE vote_tallies SET count = 5");
+            }
+
+            // When
+            Map<Integer, int[]> drift = voteDAO.verifyTallies(session.getId());
+            voteDAO.rebuildTallies(session.getId());
+
+            // Then
+            assertArrayEquals(new int[]{5, 2}, drift.get(candidateId));
+            assertTrue(voteDAO.verifyTallies(session.getId()).isEmpty());
+            assertEquals(Map.of(candidateId, 2), voteDAO.getVoteCountsBySession(session.getId()));
+        }
+
+        @Test
+        @DisplayName("Should clear tallies together with the session's votes")
+        void shouldClearTalliesWithVotes() throws SQLException {
+            voteDAO.castVote(session.getId(), parents.get(2).getId(), parents.get(0).getId());
+
+            voteDAO.deleteVotesBySession(session.getId());
+
+            assertTrue(voteDAO.getVoteCountsBySession(session.getId()).isEmpty());
+            assertTrue(voteDAO.verifyTallies(session.getId()).isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Ranked Ballots")
+    class RankedBallots {
+
+        @Test
+        @DisplayName("Should store the ranking and count the first preference in the tallies")
+        void shouldStoreRanking() throws SQLException {
+            // Given
+            int anna = parents.get(0).getId();
+            int ben = parents.get(1).getId();
+
+            // When
+            voteDAO.castRankedVote(session.getId(), parents.get(2).getId(), new int[]{ben, anna});
+
+            // Then
+            assertEquals(Map.of(ben, 1), voteDAO.getVoteCountsBySession(session.getId()));
+            BallotBox box = voteDAO.getBallots(session.getId(), parentDAO.getCandidatesBySession(session.getId()));
+            assertEquals(1, box.getTotalBallots());
+            assertEquals(box.numberOf(ben), box.getPreference(box.getStart(0)));
+            assertEquals(box.numberOf(anna), box.getPreference(box.getStart(0) + 1));
+        }
+
+        @Test
+        @DisplayName("Should read identical ballots once with their count")
+        void shouldCompressIdenticalBallots() throws SQLException {
+            // Given
+            int anna = parents.get(0).getId();
+            int ben = parents.get(1).getId();
+            voteDAO.castRankedVote(session.getId(), parents.get(0).getId(), new int[]{anna, ben});
+            voteDAO.castRankedVote(session.getId(), parents.get(1).getId(), new int[]{anna, ben});
+            voteDAO.castRankedVote(session.getId(), parents.get(2).getId(), new int[]{ben, anna});
+            voteDAO.castVote(session.getId(), parents.get(3).getId(), anna);
+
+            // When
+            BallotBox box = voteDAO.getBallots(session.getId(), parentDAO.getCandidatesBySession(session.getId()));
+
+            // Then
+            assertEquals(3, box.getBallotCount());
+            assertEquals(4, box.getTotalBallots());
+            assertArrayEquals(new int[]{3, 1}, box.countFirstPreferences());
+        }
+
+        @Test
+        @DisplayName("Should reject a ranking that is empty or names a candidate twice")
+        void shouldRejectInvalidRanking() {
+            // Given
+            int voterId = parents.get(2).getId();
+            int anna = parents.get(0).getId();
+
+            // When / Then
+            assertThrows(IllegalArgumentException.class,
+                    () -> voteDAO.castRankedVote(session.getId(), voterId, new int[0]));
+            assertThrows(IllegalArgumentException.class,
+                    () -> voteDAO.castRankedVote(session.getId(), voterId, new int[]{anna, anna}));
+            assertDoesNotThrow(() -> assertFalse(voteDAO.hasVoted(voterId, session.getId())));
+        }
+    }
+
+    @Nested
+    @DisplayName("Anonymous Ballots")
+    class AnonymousBallots {
+
+        @Test
+        @DisplayName("Should stream ballots ordered by choice rather than by when they were cast")
+        void shouldStreamBallotsByChoice() throws SQLException {
+            // Given
+            int anna = parents.get(0).getId();
+            int ben = parents.get(1).getId();
+            voteDAO.castVote(session.getId(), parents.get(0).getId(), ben);
+            voteDAO.castRankedVote(session.getId(), parents.get(1).getId(), new int[]{anna, ben});
+            voteDAO.castVote(session.getId(), parents.get(2).getId(), anna);
+            List<String> streamed = new ArrayList<>();
+
+            // When
+            int ballots = voteDAO.streamAnonymousBallots(session.getId(), (candidateId, candidateName, ranking) ->
+                    streamed.add(candidateName + " " + (ranking == null ? "-" : ranking.length + " ranked")));
+
+            // Then
+            assertEquals(3, ballots);
+            assertEquals(List.of("Anna -", "Anna 2 ranked", "Ben -"), streamed);
+        }
+    }
+}
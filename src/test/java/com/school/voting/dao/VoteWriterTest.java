@@ -0,0 +1,172 @@
+// ABOUTME: Tests for the group-commit vote writer against a temporary SQLite file
+// ABOUTME: Tests batching of concurrent votes, per-vote failure isolation and shutdown behaviour
+
+package com.school.voting.dao;
+
+import com.school.voting.model.Parent;
+import com.school.voting.model.SessionProgress;
+import com.school.voting.model.VotingSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VoteWriterTest {
+
+    private static final int ROSTER_SIZE = 200;
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseManager db;
+    private VoteWriter writer;
+    private VotingSession session;
+    private List<Parent> roster;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        db = new DatabaseManager("jdbc:sqlite:" + tempDir.resolve("writer.db"), 4, StorageProfile.KIOSK_SAFE);
+        writer = new VoteWriter(db, 32, Duration.ofMillis(20), 512, Duration.ofSeconds(1));
+
+        session = new VotingSessionDAO(db).createSession(VotingSession.builder()
+                .className("6c")
+                .status(VotingSession.Status.VOTING)
+                .build());
+
+        ParentDAO parentDAO = new ParentDAO(db);
+        roster = db.inTransaction(conn -> {
+            List<Parent> inserted = new ArrayList<>();
+            for (int i = 0; i < ROSTER_SIZE; i++) {
+                inserted.add(parentDAO.insertParent(Parent.builder()
+                        .name(String.format("Parent %03d", i))
+                        .isCandidate(i < 2)
+                        .sessionId(session.getId())
+                        .build()));
+            }
+            return inserted;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.close();
+        db.closeConnection();
+    }
+
+    @Nested
+    @DisplayName("Group Commit")
+    class GroupCommit {
+
+        @Test
+        @DisplayName("Should commit concurrent votes from several stations in shared batches")
+        void shouldCommitConcurrentVotesInBatches() throws Exception {
+            // Given
+            ExecutorService stations = Executors.newFixedThreadPool(4);
+            List<CompletableFuture<SessionProgress>> results = new ArrayList<>();
+
+            // When
+            for (Parent voter : roster) {
+                int candidateId = roster.get(voter.getId() % 2).getId();
+                results.add(CompletableFuture
+                        .supplyAsync(() -> writer.submit(session.getId(), voter.getId(), candidateId), stations)
+                        .thenCompose(future -> future));
+            }
+            CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+            stations.shutdown();
+
+            // Then
+            assertEquals(ROSTER_SIZE, new VoteDAO(db).getTotalVotes(session.getId()));
+            VoteWriterMetrics metrics = writer.metrics();
+            assertEquals(ROSTER_SIZE, metrics.getCommittedVotes());
+            assertTrue(metrics.getBatchCount() < ROSTER_SIZE, "Votes should share commits: " + metrics);
+            assertTrue(metrics.getLargestBatch() <= 32);
+        }
+
+        @Test
+        @DisplayName("Should complete with progress counters that include the vote")
+        void shouldCompleteWithProgress() {
+            SessionProgress progress = writer.submit(session.getId(), roster.get(5).getId(), roster.get(0).getId()).join();
+
+            assertEquals(ROSTER_SIZE, progress.getTotalParents());
+            assertEquals(1, progress.getVotesCast());
+        }
+    }
+
+    @Nested
+    @DisplayName("Failure Isolation")
+    class FailureIsolation {
+
+        @Test
+        @DisplayName("Should fail only the invalid vote in a batch")
+        void shouldFailOnlyInvalidVote() {
+            // Given
+            int voterId = roster.get(10).getId();
+            int candidateId = roster.get(0).getId();
+
+            // When
+            CompletableFuture<SessionProgress> first = writer.submit(session.getId(), voterId, candidateId);
+            CompletableFuture<SessionProgress> duplicate = writer.submit(session.getId(), voterId, candidateId);
+            CompletableFuture<SessionProgress> other = writer.submit(session.getId(), roster.get(11).getId(), candidateId);
+
+            // Then
+            assertDoesNotThrow(first::join);
+            assertDoesNotThrow(other::join);
+            CompletionException failure = assertThrows(CompletionException.class, duplicate::join);
+            assertInstanceOf(SQLException.class, failure.getCause());
+            assertEquals(1, writer.metrics().getFailedVotes());
+        }
+
+        @Test
+        @DisplayName("Should reject votes after shutdown")
+        void shouldRejectVotesAfterShutdown() {
+            writer.close();
+
+            CompletableFuture<SessionProgress> result = writer.submit(session.getId(), roster.get(3).getId(), roster.get(0).getId());
+
+            CompletionException failure = assertThrows(CompletionException.class, result::join);
+            assertInstanceOf(RejectedExecutionException.class, failure.getCause());
+        }
+
+        @Test
+        @DisplayName("Should complete every vote submitted while shutting down")
+        void shouldCompleteVotesSubmittedDuringShutdown() throws Exception {
+            // Given
+            ExecutorService stations = Executors.newFixedThreadPool(4);
+            List<CompletableFuture<SessionProgress>> results = new ArrayList<>();
+            for (Parent voter : roster) {
+                int candidateId = roster.get(0).getId();
+                results.add(CompletableFuture
+                        .supplyAsync(() -> writer.submit(session.getId(), voter.getId(), candidateId), stations)
+                        .thenCompose(future -> future));
+            }
+
+            // When
+            writer.close();
+            stations.shutdown();
+
+            // Then each vote was either committed or rejected, none is left pending
+            CompletableFuture.allOf(results.stream()
+                    .map(result -> result.handle((progress, failure) -> null))
+                    .toArray(CompletableFuture[]::new))
+                    .get(30, TimeUnit.SECONDS);
+            long committed = results.stream().filter(result -> !result.isCompletedExceptionally()).count();
+            assertEquals(committed, new VoteDAO(db).getTotalVotes(session.getId()));
+        }
+    }
+}
@@ -0,0 +1,206 @@
+// ABOUTME: Database tests for VoterClaimDAO against a temporary SQLite file
+// ABOUTME: Tests claiming in roster order through its index, lease renewal and expiry, release and claims removed by votes
+
+package com.school.voting.dao;
+
+import com.school.voting.model.Parent;
+import com.school.voting.model.VotingSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VoterClaimDAOTest {
+
+    private static final Duration LEASE = Duration.ofSeconds(30);
+
+    @TempDir
+    Path tempDir;
+
+    private final MutableClock clock = new MutableClock();
+    private DatabaseManager db;
+    private VoterClaimDAO claimDAO;
+    private VotingSession session;
+    private List<Parent> parents;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        db = new DatabaseManager("jdbc:sqlite:" + tempDir.resolve("claims.db"), 2, StorageProfile.KIOSK_SAFE);
+        claimDAO = new VoterClaimDAO(db, clock);
+        ParentDAO parentDAO = new ParentDAO(db);
+
+        session = new VotingSessionDAO(db).createSession(VotingSession.builder()
+                .className("4a")
+                .status(VotingSession.Status.VOTING)
+                .build());
+
+        parents = new ArrayList<>();
+        for (String name : List.of("Anna", "Ben", "Clara")) {
+            parents.add(parentDAO.insertParent(Parent.builder()
+                    .name(name)
+                    .isCandidate(!name.equals("Clara"))
+                    .sessionId(session.getId())
+                    .build()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.closeConnection();
+    }
+
+    private Optional<Parent> claim(String stationId) throws SQLException {
+        return claimDAO.claimNextVoter(session.getId(), stationId, LEASE);
+    }
+
+    @Nested
+    @DisplayName("Claiming Voters")
+    class ClaimingVoters {
+
+        @Test
+        @DisplayName("Should find the next free voter through the pending voter index")
+        void shouldUsePendingVoterIndex() throws SQLException {
+            try (Connection conn = db.getConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("EXPLAIN QUERY PLAN SELECT p.id FROM parents p " +
+                         "WHERE p.session_id = 1 AND p.has_voted = 0 " +
+                         "AND NOT EXISTS (SELECT 1 FROM voter_claims c WHERE c.voter_id = p.id) " +
+                         "ORDER BY p.name, p.id LIMIT 1")) {
+                StringBuilder plan = new StringBuilder();
+                while (rs.next()) {
+                    plan.append(rs.getString("detail")).append('\n');
+                }
+                assertTrue(plan.toString().contains("idx_parents_pending"), plan.toString());
+                assertFalse(plan.toString().contains("TEMP B-TREE"), plan.toString());
+            }
+        }
+
+        @Test
+        @DisplayName("Should hand each station a different voter in roster order")
+        void shouldClaimDistinctVoters() throws SQLException {
+            assertEquals(parents.get(0), claim("a").orElseThrow());
+            assertEquals(parents.get(1), claim("b").orElseThrow());
+            assertEquals(parents.get(2), claim("c").orElseThrow());
+            assertTrue(claim("d").isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should return the voter a station already holds")
+        void shouldReturnHeldVoter() throws SQLException {
+            Parent first = claim("a").orElseThrow();
+
+            assertEquals(first, claim("a").orElseThrow());
+            assertEquals(0, claimDAO.countClaimsByOtherStations(session.getId(), "a"));
+            assertEquals(1, claimDAO.countClaimsByOtherStations(session.getId(), "b"));
+        }
+
+        @Test
+        @DisplayName("Should free the claim when the voter's ballot is cast")
+        void shouldFreeClaimOnVote() throws SQLException {
+            // Given
+            Parent voter = claim("a").orElseThrow();
+
+            // When
+            new VoteDAO(db).castVote(session.getId(), voter.getId(), parents.get(1).getId());
+
+            // Then
+            assertFalse(claimDAO.renewClaim(voter.getId(), "a", LEASE));
+            assertEquals(parents.get(1), claim("a").orElseThrow());
+        }
+    }
+
+    @Nested
+    @DisplayName("Leases")
+    class Leases {
+
+        @Test
+        @DisplayName("Should keep a renewed claim past its original expiry")
+        void shouldKeepRenewedClaim() throws SQLException {
+            // Given
+            Parent voter = claim("a").orElseThrow();
+
+            // When
+            clock.advance(Duration.ofSeconds(20));
+            assertTrue(claimDAO.renewClaim(voter.getId(), "a", LEASE));
+            clock.advance(Duration.ofSeconds(20));
+
+            // Then
+            assertEquals(parents.get(1), claim("b").orElseThrow());
+        }
+
+        @Test
+        @DisplayName("Should give an expired claim to the next station")
+        void shouldReclaimExpiredClaim() throws SQLException {
+            // Given
+            Parent voter = claim("a").orElseThrow();
+
+            // When
+            clock.advance(LEASE);
+
+            // Then
+            assertEquals(voter, claim("b").orElseThrow());
+            assertFalse(claimDAO.renewClaim(voter.getId(), "a", LEASE));
+        }
+
+        @Test
+        @DisplayName("Should put a released voter back at the front of the roster")
+        void shouldReleaseClaim() throws SQLException {
+            Parent voter = claim("a").orElseThrow();
+
+            assertTrue(claimDAO.releaseClaim(voter.getId(), "a"));
+            assertFalse(claimDAO.releaseClaim(voter.getId(), "a"));
+            assertEquals(voter, claim("b").orElseThrow());
+        }
+
+        @Test
+        @DisplayName("Should release every claim of a station that shuts down")
+        void shouldReleaseStation() throws SQLException {
+            claim("a");
+            claimDAO.claimNextVoter(session.getId(), "b", LEASE);
+
+            assertEquals(1, claimDAO.releaseStation("a"));
+            assertEquals(parents.get(0), claim("c").orElseThrow());
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-09-02T08:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+// ABOUTME: Unit tests for the in-process session event bus
+// ABOUTME: Tests typed synchronous delivery, coalesced UI batches and unsubscribing
+
+package com.school.voting.event;
+
+import com.school.voting.model.VotingSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventBusTest {
+
+    // Stands in for the JavaFX thread: queued tasks run when the test pulses it
+    private final Queue<Runnable> uiTasks = new ArrayDeque<>();
+    private EventBus bus;
+
+    @BeforeEach
+    void setUp() {
+        bus = new EventBus(uiTasks::add);
+    }
+
+    private void pulse() {
+        for (Runnable task; (task = uiTasks.poll()) != null; ) {
+            task.run();
+        }
+    }
+
+    @Nested
+    @DisplayName("Synchronous Subscribers")
+    class SynchronousSubscribers {
+
+        @Test
+        @DisplayName("Should deliver only events of the subscribed type")
+        void shouldDeliverSubscribedType() {
+            // Given
+            List<VoteCast> received = new ArrayList<>();
+            bus.subscribe(VoteCast.class, received::add);
+
+            // When
+            bus.publish(new VoteCast(1, 10, 20, null));
+            bus.publish(new VoterSkipped(1, 11, null));
+
+            // Then
+            assertEquals(1, received.size());
+            assertEquals(10, received.get(0).getVoterId());
+        }
+
+        @Test
+        @DisplayName("Should keep delivering when one subscriber fails")
+        void shouldIsolateFailingSubscriber() {
+            // Given
+            List<SessionEvent> received = new ArrayList<>();
+            bus.subscribe(SessionEvent.class, event -> {
+                throw new IllegalStateException("boom");
+            });
+            bus.subscribe(SessionEvent.class, received::add);
+
+            // When
+            assertDoesNotThrow(() -> bus.publish(new ParentRemoved(1, 5)));
+
+            // Then
+            assertEquals(1, received.size());
+        }
+
+        @Test
+        @DisplayName("Should stop delivering after the subscription is closed")
+        void shouldStopAfterClose() {
+            List<SessionEvent> received = new ArrayList<>();
+            Subscription subscription = bus.subscribe(SessionEvent.class, received::add);
+
+            subscription.close();
+            subscription.close();
+            bus.publish(new ParentRemoved(1, 5));
+
+            assertTrue(received.isEmpty());
+            assertEquals(0, bus.getSubscriberCount());
+        }
+    }
+
+    @Nested
+    @DisplayName("UI Subscribers")
+    class UiSubscribers {
+
+        @Test
+        @DisplayName("Should coalesce a burst of events into one ordered batch")
+        void shouldCoalesceBurst() {
+            // Given
+            List<List<CandidateToggled>> batches = new ArrayList<>();
+            bus.subscribeOnFx(CandidateToggled.class, batches::add);
+
+            // When
+            bus.publish(new CandidateToggled(1, 10, true));
+            bus.publish(new SessionStatusChanged(1, VotingSession.Status.SETUP, VotingSession.Status.VOTING));
+            bus.publish(new CandidateToggled(1, 11, true));
+            bus.publish(new CandidateToggled(1, 10, false));
+            pulse();
+
+            // Then
+            assertEquals(1, batches.size());
+            assertEquals(List.of(10, 11, 10), batches.get(0).stream().map(CandidateToggled::getParentId).toList());
+            assertFalse(batches.get(0).get(2).isCandidate());
+        }
+
+        @Test
+        @DisplayName("Should start a new batch for events after a pulse")
+        void shouldStartNewBatchAfterPulse() {
+            List<List<ParentRemoved>> batches = new ArrayList<>();
+            bus.subscribeOnFx(ParentRemoved.class, batches::add);
+
+            bus.publish(new ParentRemoved(1, 1));
+            pulse();
+            bus.publish(new ParentRemoved(1, 2));
+            pulse();
+
+            assertEquals(2, batches.size());
+        }
+
+        @Test
+        @DisplayName("Should drop batches still pending when the subscription is closed")
+        void shouldDropPendingBatchOnClose() {
+            // Given
+            List<List<ParentRemoved>> batches = new ArrayList<>();
+            Subscription subscription = bus.subscribeOnFx(ParentRemoved.class, batches::add);
+            bus.publish(new ParentRemoved(1, 1));
+
+            // When
+            subscription.close();
+            pulse();
+
+            // Then
+            assertTrue(batches.isEmpty());
+        }
+    }
+}
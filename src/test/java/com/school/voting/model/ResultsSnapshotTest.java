@@ -0,0 +1,101 @@
+// ABOUTME: Unit tests for ResultsSnapshot model class
+// ABOUTME: Tests ranking order, shared ranks for ties, winner and deputy ties, percentages and turnout
+
+package com.school.voting.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultsSnapshotTest {
+
+    private static Parent candidate(int id, String name) {
+        return Parent.builder().id(id).name(name).sessionId(1).isCandidate(true).build();
+    }
+
+    private final List<Parent> candidates = List.of(
+        candidate(1, "Anna"), candidate(2, "Ben"), candidate(3, "Clara"), candidate(4, "David"));
+
+    @Nested
+    @DisplayName("Ranking")
+    class Ranking {
+
+        @Test
+        @DisplayName("Should rank by votes and break equal counts by name")
+        void shouldRankByVotesThenName() {
+            // When
+            ResultsSnapshot results = ResultsSnapshot.of(1, candidates, Map.of(1, 2, 2, 5, 3, 2), 12);
+
+            // Then
+            assertEquals(List.of("Ben", "Anna", "Clara", "David"),
+                results.getRanking().stream().map(CandidateResult::getName).toList());
+            assertEquals(List.of(1, 2, 2, 4),
+                results.getRanking().stream().map(CandidateResult::getRank).toList());
+            assertEquals(List.of(false, true, true, false),
+                results.getRanking().stream().map(CandidateResult::isTied).toList());
+        }
+
+        @Test
+        @DisplayName("Should compute vote shares and turnout")
+        void shouldComputePercentages() {
+            // When
+            ResultsSnapshot results = ResultsSnapshot.of(1, candidates, Map.of(1, 3, 2, 1), 8);
+
+            // Then
+            assertEquals(4, results.getTotalVotes());
+            assertEquals(75.0, results.getRanking().get(0).getPercentage(), 1e-9);
+            assertEquals(0.0, results.getRanking().get(3).getPercentage(), 1e-9);
+            assertEquals(50.0, results.getTurnoutPercentage(), 1e-9);
+        }
+
+        @Test
+        @DisplayName("Should report zero shares and turnout when nobody voted")
+        void shouldHandleNoVotes() {
+            ResultsSnapshot results = ResultsSnapshot.of(1, candidates, Map.of(), 0);
+
+            assertEquals(0.0, results.getRanking().get(0).getPercentage());
+            assertEquals(0.0, results.getTurnoutPercentage());
+            assertTrue(results.isWinnerTied());
+        }
+    }
+
+    @Nested
+    @DisplayName("Winner And Deputy")
+    class WinnerAndDeputy {
+
+        @Test
+        @DisplayName("Should flag a tie for first place")
+        void shouldFlagWinnerTie() {
+            ResultsSnapshot results = ResultsSnapshot.of(1, candidates, Map.of(1, 4, 2, 4, 3, 1), 10);
+
+            assertTrue(results.isWinnerTied());
+            assertFalse(results.isDeputyTied());
+            assertEquals("Anna", results.getWinner().orElseThrow().getName());
+            assertEquals("Ben", results.getDeputy().orElseThrow().getName());
+        }
+
+        @Test
+        @DisplayName("Should flag a tie for second place")
+        void shouldFlagDeputyTie() {
+            ResultsSnapshot results = ResultsSnapshot.of(1, candidates, Map.of(1, 6, 2, 2, 3, 2), 10);
+
+            assertFalse(results.isWinnerTied());
+            assertTrue(results.isDeputyTied());
+        }
+
+        @Test
+        @DisplayName("Should have no winner or deputy without candidates")
+        void shouldHandleNoCandidates() {
+            ResultsSnapshot results = ResultsSnapshot.of(1, List.of(), Map.of(), 5);
+
+            assertTrue(results.getWinner().isEmpty());
+            assertTrue(results.getDeputy().isEmpty());
+            assertFalse(results.isWinnerTied());
+        }
+    }
+}
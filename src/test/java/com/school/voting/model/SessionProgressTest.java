@@ -0,0 +1,79 @@
+// ABOUTME: Unit tests for SessionProgress model class
+// ABOUTME: Tests derived counters, validation and in-memory vote and skip transitions
+
+package com.school.voting.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionProgressTest {
+
+    @Nested
+    @DisplayName("Derived Counters")
+    class DerivedCounters {
+
+        @Test
+        @DisplayName("Should derive skipped and remaining voters")
+        void shouldDeriveSkippedAndRemaining() {
+            // When
+            SessionProgress progress = new SessionProgress(1, 20, 8, 6);
+
+            // Then
+            assertEquals(2, progress.getSkippedCount());
+            assertEquals(12, progress.getRemainingCount());
+            assertEquals(0.4, progress.getCompletionRatio(), 1e-9);
+        }
+
+        @Test
+        @DisplayName("Should report no completion for an empty roster")
+        void shouldHandleEmptyRoster() {
+            assertEquals(0.0, new SessionProgress(1, 0, 0, 0).getCompletionRatio());
+        }
+
+        @Test
+        @DisplayName("Should reject inconsistent counters")
+        void shouldRejectInconsistentCounters() {
+            assertThrows(IllegalArgumentException.class, () -> new SessionProgress(1, 5, 6, 0));
+            assertThrows(IllegalArgumentException.class, () -> new SessionProgress(1, 5, 2, 3));
+            assertThrows(IllegalArgumentException.class, () -> new SessionProgress(1, -1, 0, 0));
+        }
+    }
+
+    @Nested
+    @DisplayName("Transitions")
+    class Transitions {
+
+        @Test
+        @DisplayName("Should count a vote as processed and cast")
+        void shouldApplyVote() {
+            // Given
+            SessionProgress progress = new SessionProgress(1, 3, 1, 1);
+
+            // When
+            SessionProgress next = progress.withVote();
+
+            // Then
+            assertEquals(new SessionProgress(1, 3, 2, 2), next);
+            assertEquals(new SessionProgress(1, 3, 1, 1), progress);
+        }
+
+        @Test
+        @DisplayName("Should count a skip as processed but not cast")
+        void shouldApplySkip() {
+            SessionProgress next = new SessionProgress(1, 3, 1, 1).withSkip();
+
+            assertEquals(1, next.getSkippedCount());
+            assertEquals(1, next.getRemainingCount());
+        }
+
+        @Test
+        @DisplayName("Should refuse to process more parents than the roster holds")
+        void shouldRefuseOverflow() {
+            SessionProgress done = new SessionProgress(1, 2, 2, 1);
+
+            assertThrows(IllegalArgumentException.class, done::withVote);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+// ABOUTME: Unit tests for the packed BallotBox store used by the tally strategies
+// ABOUTME: Tests ranking encoding, candidate numbering, dropped preferences and first-preference counts
+
+package com.school.voting.tally;
+
+import com.school.voting.model.Parent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BallotBoxTest {
+
+    private static Parent candidate(int id, String name) {
+        return Parent.builder().id(id).name(name).sessionId(1).isCandidate(true).build();
+    }
+
+    private final List<Parent> candidates = List.of(candidate(7, "Clara"), candidate(3, "Anna"), candidate(5, "Ben"));
+
+    private static int[] preferencesOf(BallotBox box, int ballot) {
+        int[] preferences = new int[box.getEnd(ballot) - box.getStart(ballot)];
+        for (int i = 0; i < preferences.length; i++) {
+            preferences[i] = box.getPreference(box.getStart(ballot) + i);
+        }
+        return preferences;
+    }
+
+    @Nested
+    @DisplayName("Encoding")
+    class Encoding {
+
+        @Test
+        @DisplayName("Should pack a ranking into four bytes per candidate and read it back")
+        void shouldRoundTripRanking() {
+            // When
+            byte[] packed = BallotBox.encodeRanking(new int[]{7, 3, 260});
+
+            // Then
+            assertEquals(12, packed.length);
+            assertArrayEquals(new byte[]{0, 0, 0, 7}, Arrays.copyOf(packed, 4));
+            assertArrayEquals(new int[]{7, 3, 260}, BallotBox.decodeRanking(packed));
+        }
+
+        @Test
+        @DisplayName("Should reject a packed ranking of the wrong length")
+        void shouldRejectTruncatedRanking() {
+            assertThrows(IllegalArgumentException.class, () -> BallotBox.decodeRanking(new byte[]{0, 0, 7}));
+        }
+    }
+
+    @Nested
+    @DisplayName("Building")
+    class Building {
+
+        @Test
+        @DisplayName("Should number candidates in name order")
+        void shouldNumberByName() {
+            // When
+            BallotBox box = BallotBox.builder(candidates).build();
+
+            // Then
+            assertEquals(List.of("Anna", "Ben", "Clara"), box.getCandidates().stream().map(Parent::getName).toList());
+            assertEquals(0, box.numberOf(3));
+            assertEquals(2, box.numberOf(7));
+            assertEquals(-1, box.numberOf(99));
+        }
+
+        @Test
+        @DisplayName("Should drop unknown and repeated candidates but still count the ballot")
+        void shouldDropInvalidPreferences() {
+            // When
+            BallotBox box = BallotBox.builder(candidates)
+                    .add(new int[]{5, 99, 5, 7}, 2)
+                    .add(new int[]{99}, 1)
+                    .build();
+
+            // Then
+            assertEquals(2, box.getBallotCount());
+            assertEquals(3, box.getTotalBallots());
+            assertArrayEquals(new int[]{1, 2}, preferencesOf(box, 0));
+            assertArrayEquals(new int[0], preferencesOf(box, 1));
+            assertEquals(2, box.getWeight(0));
+        }
+
+        @Test
+        @DisplayName("Should grow past its initial capacity")
+        void shouldGrow() {
+            // Given
+            BallotBox.Builder builder = BallotBox.builder(candidates);
+
+            // When
+            for (int i = 0; i < 1000; i++) {
+                builder.add(new int[]{3, 5, 7}, 1);
+            }
+            BallotBox box = builder.build();
+
+            // Then
+            assertEquals(1000, box.getBallotCount());
+            assertArrayEquals(new int[]{0, 1, 2}, preferencesOf(box, 999));
+        }
+
+        @Test
+        @DisplayName("Should count weighted first preferences from stored tallies")
+        void shouldCountFirstPreferences() {
+            // When
+            BallotBox box = BallotBox.ofFirstChoices(candidates, Map.of(3, 4, 7, 2, 99, 1));
+
+            // Then
+            assertArrayEquals(new int[]{4, 0, 2}, box.countFirstPreferences());
+            assertEquals(7, box.getTotalBallots());
+        }
+    }
+}
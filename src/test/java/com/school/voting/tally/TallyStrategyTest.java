@@ -0,0 +1,190 @@
+// ABOUTME: Unit tests for the plurality, instant-runoff and single transferable vote strategies
+// ABOUTME: Tests winners and orderings on small elections where the counting rules disagree
+
+package com.school.voting.tally;
+
+import com.school.voting.model.CandidateResult;
+import com.school.voting.model.Parent;
+import com.school.voting.model.ResultsSnapshot;
+import com.school.voting.model.VotingSession;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TallyStrategyTest {
+
+    private static final int ANNA = 1;
+    private static final int BEN = 2;
+    private static final int CLARA = 3;
+    private static final int DAVID = 4;
+
+    private static Parent candidate(int id, String name) {
+        return Parent.builder().id(id).name(name).sessionId(1).isCandidate(true).build();
+    }
+
+    private final List<Parent> candidates = List.of(
+        candidate(ANNA, "Anna"), candidate(BEN, "Ben"), candidate(CLARA, "Clara"), candidate(DAVID, "David"));
+
+    private static List<String> names(List<CandidateResult> ranking) {
+        return ranking.stream().map(CandidateResult::getName).toList();
+    }
+
+    @Nested
+    @DisplayName("Plurality")
+    class PluralityCount {
+
+        @Test
+        @DisplayName("Should rank exactly like the first-choice results")
+        void shouldMatchFirstChoiceResults() {
+            // Given
+            Map<Integer, Integer> counts = Map.of(ANNA, 2, BEN, 5, CLARA, 2);
+
+            // When
+            List<CandidateResult> ranking = new Plurality().count(BallotBox.ofFirstChoices(candidates, counts));
+
+            // Then
+            assertEquals(ResultsSnapshot.of(1, candidates, counts, 12).getRanking(), ranking);
+        }
+    }
+
+    @Nested
+    @DisplayName("Instant Runoff")
+    class InstantRunoffCount {
+
+        @Test
+        @DisplayName("Should elect the majority choice once the weakest candidate is excluded")
+        void shouldTransferExcludedBallots() {
+            // Given - Anna leads on first choices, but Clara's voters prefer Ben
+            BallotBox box = BallotBox.builder(candidates)
+                    .add(new int[]{ANNA}, 4)
+                    .add(new int[]{BEN, CLARA}, 3)
+                    .add(new int[]{CLARA, BEN}, 2)
+                    .build();
+
+            // When
+            List<CandidateResult> ranking = new InstantRunoff().count(box);
+
+            // Then
+            assertEquals(List.of("Ben", "Anna", "Clara", "David"), names(ranking));
+            assertEquals(List.of(1, 2, 3, 4), ranking.stream().map(CandidateResult::getRank).toList());
+            assertEquals(3, ranking.get(0).getVotes());
+            assertFalse(ranking.get(0).isTied());
+        }
+
+        @Test
+        @DisplayName("Should stop as soon as a candidate holds a majority")
+        void shouldStopAtMajority() {
+            // Given
+            BallotBox box = BallotBox.builder(candidates)
+                    .add(new int[]{CLARA, ANNA}, 5)
+                    .add(new int[]{BEN, ANNA}, 3)
+                    .add(new int[]{ANNA, BEN}, 1)
+                    .build();
+
+            // When
+            List<CandidateResult> ranking = new InstantRunoff().count(box);
+
+            // Then
+            assertEquals(List.of("Clara", "Ben", "Anna", "David"), names(ranking));
+        }
+
+        @Test
+        @DisplayName("Should break exclusion ties by first choices, then by name")
+        void shouldBreakTiesReproducibly() {
+            // Given - Clara and David tie, then Anna and Ben tie on transfers and first choices
+            BallotBox box = BallotBox.builder(candidates)
+                    .add(new int[]{ANNA}, 2)
+                    .add(new int[]{BEN}, 2)
+                    .add(new int[]{CLARA, BEN}, 1)
+                    .add(new int[]{DAVID, ANNA}, 1)
+                    .build();
+
+            // When
+            List<CandidateResult> ranking = new InstantRunoff().count(box);
+
+            // Then
+            assertEquals(List.of("Anna", "Ben", "Clara", "David"), names(ranking));
+        }
+    }
+
+    @Nested
+    @DisplayName("Single Transferable Vote")
+    class SingleTransferableVoteCount {
+
+        @Test
+        @DisplayName("Should pass the winner's surplus on and elect the deputy from it")
+        void shouldTransferSurplus() {
+            // Given - quota is 5 of 13; Anna's surplus of 4 goes to Ben at 4/9 per ballot
+            BallotBox box = BallotBox.builder(candidates)
+                    .add(new int[]{ANNA, BEN}, 9)
+                    .add(new int[]{DAVID}, 3)
+                    .add(new int[]{CLARA}, 1)
+                    .build();
+
+            // When
+            List<CandidateResult> ranking = new SingleTransferableVote().count(box);
+            ResultsSnapshot results = new ResultsSnapshot(1, ranking, box.getTotalBallots(), 13);
+
+            // Then
+            assertEquals(List.of("Anna", "Ben", "David", "Clara"), names(ranking));
+            assertEquals("Ben", results.getDeputy().orElseThrow().getName());
+            assertEquals(0, results.getDeputy().orElseThrow().getVotes());
+            assertFalse(results.isWinnerTied());
+            assertFalse(results.isDeputyTied());
+        }
+
+        @Test
+        @DisplayName("Should elect the remaining candidates when no more can reach the quota")
+        void shouldFillSeatsWithoutQuota() {
+            // Given
+            BallotBox box = BallotBox.builder(candidates)
+                    .add(new int[]{ANNA}, 2)
+                    .add(new int[]{BEN}, 2)
+                    .add(new int[]{CLARA}, 1)
+                    .add(new int[]{DAVID, CLARA}, 1)
+                    .build();
+
+            // When
+            List<CandidateResult> ranking = new SingleTransferableVote(3).count(box);
+
+            // Then
+            assertEquals(List.of("Anna", "Ben", "Clara", "David"), names(ranking));
+        }
+
+        @Test
+        @DisplayName("Should elect one candidate with one seat like instant runoff")
+        void shouldMatchInstantRunoffForOneSeat() {
+            // Given
+            BallotBox box = BallotBox.builder(candidates)
+                    .add(new int[]{ANNA}, 4)
+                    .add(new int[]{BEN, CLARA}, 3)
+                    .add(new int[]{CLARA, BEN}, 2)
+                    .build();
+
+            // Then
+            assertEquals("Ben", new SingleTransferableVote(1).count(box).get(0).getName());
+            assertThrows(IllegalArgumentException.class, () -> new SingleTransferableVote(0));
+        }
+    }
+
+    @Nested
+    @DisplayName("Registry")
+    class Registry {
+
+        @Test
+        @DisplayName("Should provide a strategy for every tally method")
+        void shouldCoverEveryMethod() {
+            for (VotingSession.TallyMethod method : VotingSession.TallyMethod.values()) {
+                TallyStrategy strategy = TallyStrategies.forMethod(method);
+
+                assertEquals(method, strategy.getMethod());
+                assertEquals(method.isRanked(), strategy.usesRankings());
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+// ABOUTME: Tests for the bulk archive export against a temporary database
+// ABOUTME: Tests one report per completed session in history order, progress, and removing the archive when cancelled
+
+package com.school.voting.util;
+
+import com.school.voting.dao.DatabaseManager;
+import com.school.voting.dao.ParentDAO;
+import com.school.voting.dao.SessionResultsDAO;
+import com.school.voting.dao.TestDatabase;
+import com.school.voting.dao.VoteDAO;
+import com.school.voting.dao.VotingSessionDAO;
+import com.school.voting.event.EventBus;
+import com.school.voting.model.Parent;
+import com.school.voting.model.VotingSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchiveExportServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseManager db;
+    private VotingSessionDAO sessionDAO;
+    private ParentDAO parentDAO;
+    private VoteDAO voteDAO;
+    private ArchiveExportService service;
+
+    @BeforeEach
+    void setUp() {
+        db = TestDatabase.open(tempDir.resolve("archive.db"));
+        sessionDAO = new VotingSessionDAO(db);
+        parentDAO = new ParentDAO(db);
+        voteDAO = new VoteDAO(db);
+        SessionResultsDAO resultsDAO = new SessionResultsDAO(db);
+        PdfExportService pdfExportService = new PdfExportService(
+                new ResultsEngine(parentDAO, resultsDAO, new EventBus(Runnable::run)), parentDAO);
+        service = new ArchiveExportService(pdfExportService, sessionDAO, resultsDAO, parentDAO, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.closeConnection();
+    }
+
+    private VotingSession votedSession(String className) throws SQLException {
+        VotingSession session = sessionDAO.createSession(VotingSession.builder()
+                .className(className)
+                .status(VotingSession.Status.VOTING)
+                .build());
+        List<Parent> parents = parentDAO.insertParents(List.of(
+                Parent.builder().name("Anna").sessionId(session.getId()).isCandidate(true).build(),
+                Parent.builder().name("Ben").sessionId(session.getId()).isCandidate(true).build()));
+        voteDAO.castVote(session.getId(), parents.get(0).getId(), parents.get(1).getId());
+        return session;
+    }
+
+    // Entry names and whether each entry holds a PDF, in archive order
+    private List<String> readEntries(Path archive) throws IOException {
+        List<String> entries = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                byte[] header = zip.readNBytes(5);
+                assertEquals("%PDF-", new String(header, StandardCharsets.US_ASCII), entry.getName());
+                entries.add(entry.getName());
+            }
+        }
+        return entries;
+    }
+
+    @Nested
+    @DisplayName("Exporting")
+    class Exporting {
+
+        @Test
+        @DisplayName("Should write one report per completed session, most recently completed first")
+        void shouldWriteEveryCompletedSession() throws Exception {
+            // Given: more sessions than the two workers keep in flight
+            List<String> expected = new ArrayList<>();
+            for (int i = 1; i <= 7; i++) {
+                VotingSession session = votedSession("Class " + i);
+                sessionDAO.completeSession(session.getId());
+                expected.add(0, "VotingResults_Class" + i + "_" + session.getId() + ".pdf");
+            }
+            votedSession("Still open");
+
+            // When
+            Path archive = service.exportCompletedSessions(tempDir.resolve("exports"), TaskContext.NONE);
+
+            // Then
+            assertEquals(expected, readEntries(archive));
+        }
+
+        @Test
+        @DisplayName("Should write an empty archive when no session is completed")
+        void shouldWriteEmptyArchive() throws Exception {
+            // Given
+            votedSession("6c");
+
+            // When
+            Path archive = service.exportCompletedSessions(tempDir, TaskContext.NONE);
+
+            // Then
+            assertTrue(readEntries(archive).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should report progress up to the number of sessions")
+        void shouldReportProgress() throws Exception {
+            // Given
+            for (int i = 0; i < 3; i++) {
+                sessionDAO.completeSession(votedSession("6c").getId());
+            }
+            List<Long> done = new ArrayList<>();
+            TaskContext context = new TaskContext() {
+                @Override
+                public void updateProgress(long workDone, long totalWork) {
+                    assertEquals(3, totalWork);
+                    done.add(workDone);
+                }
+
+                @Override
+                public void updateMessage(String message) {
+                }
+
+                @Override
+                public boolean isCancelled() {
+                    return false;
+                }
+            };
+
+            // When
+            service.exportCompletedSessions(tempDir, context);
+
+            // Then
+            assertEquals(List.of(0L, 1L, 2L, 3L), done);
+        }
+    }
+
+    @Nested
+    @DisplayName("Worker Count")
+    class WorkerCount {
+
+        @Test
+        @DisplayName("Should leave pooled connections free for voting")
+        void shouldStayBelowPoolSize() {
+            assertTrue(ArchiveExportService.defaultWorkers(4) <= 2);
+            assertTrue(ArchiveExportService.defaultWorkers(10) <= 8);
+            assertEquals(1, ArchiveExportService.defaultWorkers(2));
+            assertEquals(1, ArchiveExportService.defaultWorkers(1));
+        }
+    }
+
+    @Nested
+    @DisplayName("Cancelling")
+    class Cancelling {
+
+        @Test
+        @DisplayName("Should leave no partial archive behind")
+        void shouldRemoveArchiveWhenCancelled() throws Exception {
+            // Given
+            sessionDAO.completeSession(votedSession("6c").getId());
+            TaskContext cancelled = new TaskContext() {
+                @Override
+                public void updateProgress(long workDone, long totalWork) {
+                }
+
+                @Override
+                public void updateMessage(String message) {
+                }
+
+                @Override
+                public boolean isCancelled() {
+                    return true;
+                }
+            };
+            Path exports = tempDir.resolve("exports");
+
+            // When / Then
+            assertThrows(CancellationException.class, () -> service.exportCompletedSessions(exports, cancelled));
+            try (Stream<Path> files = Files.list(exports)) {
+                assertEquals(0, files.count());
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+// ABOUTME: Unit tests for the executor that runs data access off the JavaFX thread
+// ABOUTME: Tests result and failure delivery, skipping cancelled work and behaviour after shutdown
+
+package com.school.voting.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncDataAccessTest {
+
+    private final AsyncDataAccess dataAccess = new AsyncDataAccess(Executors.newSingleThreadExecutor());
+
+    @AfterEach
+    void tearDown() {
+        dataAccess.shutdown();
+    }
+
+    @Nested
+    @DisplayName("Completing Work")
+    class CompletingWork {
+
+        @Test
+        @DisplayName("Should run the work on another thread and complete with its result")
+        void shouldCompleteWithResult() throws Exception {
+            // Given
+            Thread caller = Thread.currentThread();
+
+            // When
+            CompletableFuture<Thread> future = dataAccess.supply(Thread::currentThread);
+
+            // Then
+            assertNotSame(caller, future.get(5, TimeUnit.SECONDS));
+        }
+
+        @Test
+        @DisplayName("Should hand back the exception the work threw")
+        void shouldCompleteWithFailure() {
+            // When
+            CompletableFuture<Void> future = dataAccess.run(() -> {
+                throw new SQLException("disk I/O error");
+            });
+
+            // Then
+            CompletionException failure = assertThrows(CompletionException.class, future::join);
+            Throwable cause = AsyncDataAccess.unwrap(failure);
+            assertInstanceOf(SQLException.class, cause);
+            assertEquals("disk I/O error", cause.getMessage());
+        }
+
+        @Test
+        @DisplayName("Should unwrap nested completion and execution exceptions")
+        void shouldUnwrapWrappers() {
+            SQLException root = new SQLException("locked");
+
+            assertSame(root, AsyncDataAccess.unwrap(new CompletionException(new ExecutionException(root))));
+            assertSame(root, AsyncDataAccess.unwrap(root));
+        }
+    }
+
+    @Nested
+    @DisplayName("Cancellation")
+    class Cancellation {
+
+        @Test
+        @DisplayName("Should skip work cancelled before it started")
+        void shouldSkipCancelledWork() throws Exception {
+            // Given the only worker is busy
+            CountDownLatch release = new CountDownLatch(1);
+            CompletableFuture<Void> blocker = dataAccess.run(release::await);
+            AtomicBoolean ran = new AtomicBoolean();
+            CompletableFuture<Void> queued = dataAccess.run(() -> ran.set(true));
+
+            // When
+            queued.cancel(false);
+            release.countDown();
+            blocker.get(5, TimeUnit.SECONDS);
+            dataAccess.supply(() -> null).get(5, TimeUnit.SECONDS);
+
+            // Then
+            assertTrue(queued.isCancelled());
+            assertFalse(ran.get());
+        }
+
+        @Test
+        @DisplayName("Should fail new work once shut down")
+        void shouldRejectAfterShutdown() {
+            dataAccess.shutdown();
+
+            CompletableFuture<Integer> future = dataAccess.supply(() -> 1);
+
+            assertInstanceOf(RejectedExecutionException.class,
+                AsyncDataAccess.unwrap(assertThrows(CompletionException.class, future::join)));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+// ABOUTME: Benchmark for the streaming CSV and JSON Lines exports on a school-wide session
+// ABOUTME: Not part of the regular test run; start it with mvn -Pbenchmark test
+
+package com.school.voting.util;
+
+import com.school.voting.dao.DatabaseManager;
+import com.school.voting.dao.ParentDAO;
+import com.school.voting.dao.SessionResultsDAO;
+import com.school.voting.dao.TestDatabase;
+import com.school.voting.dao.VoteDAO;
+import com.school.voting.event.EventBus;
+import com.school.voting.tally.BallotBox;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataExportBenchmark {
+
+    private static final int PARENTS = 200_000;
+    private static final int CANDIDATES = 12;
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 5;
+    private static final double REQUIRED_ROWS_PER_SECOND = 100_000;
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseManager db;
+    private DataExportService service;
+    private int sessionId;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        db = TestDatabase.open(tempDir.resolve("benchmark.db"));
+        ParentDAO parentDAO = new ParentDAO(db);
+        service = new DataExportService(
+                new ResultsEngine(parentDAO, new SessionResultsDAO(db), new EventBus(Runnable::run)),
+                parentDAO, new VoteDAO(db));
+        sessionId = addSchoolWideSession();
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.closeConnection();
+    }
+
+    @Test
+    @DisplayName("Should export hundreds of thousands of rows per second")
+    void shouldStreamRowsQuickly() throws Exception {
+        System.out.printf("%-14s %-11s %10s %14s%n", "export", "format", "rows", "rows/s");
+        for (ExportFormat format : ExportFormat.values()) {
+            double ballots = rowsPerSecond(() -> service.writeBallots(sessionId, format, OutputStream.nullOutputStream()));
+            double parents = rowsPerSecond(() -> service.writeParticipation(sessionId, format, OutputStream.nullOutputStream()));
+            System.out.printf("%-14s %-11s %10d %14.0f%n", "ballots", format, PARENTS * 9 / 10, ballots);
+            System.out.printf("%-14s %-11s %10d %14.0f%n", "participation", format, PARENTS, parents);
+
+            assertTrue(ballots > REQUIRED_ROWS_PER_SECOND, "Ballot export too slow in " + format);
+            assertTrue(parents > REQUIRED_ROWS_PER_SECOND, "Participation export too slow in " + format);
+        }
+    }
+
+    // Nine in ten parents vote, every third of them a ranked ballot; the rest are skipped
+    private int addSchoolWideSession() throws SQLException {
+        return db.inTransaction(conn -> {
+            int session;
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("INSERT INTO voting_sessions (class_name, status) VALUES ('School', 'VOTING')");
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    keys.next();
+                    session = keys.getInt(1);
+                }
+            }
+            try (PreparedStatement parent = conn.prepareStatement(
+                         "INSERT INTO parents (id, name, is_candidate, has_voted, session_id) VALUES (?, ?, ?, 1, ?)");
+                 PreparedStatement vote = conn.prepareStatement(
+                         "INSERT INTO votes (voter_id, candidate_id, session_id, ranking) VALUES (?, ?, ?, ?)")) {
+                for (int p = 1; p <= PARENTS; p++) {
+                    parent.setInt(1, p);
+                    parent.setString(2, "Parent " + p);
+                    parent.setBoolean(3, p <= CANDIDATES);
+                    parent.setInt(4, session);
+                    parent.addBatch();
+                }
+                parent.executeBatch();
+                for (int p = 1; p <= PARENTS; p++) {
+                    if (p % 10 == 0) {
+                        continue;
+                    }
+                    int first = 1 + p % CANDIDATES;
+                    vote.setInt(1, p);
+                    vote.setInt(2, first);
+                    vote.setInt(3, session);
+                    vote.setBytes(4, p % 3 == 0
+                            ? BallotBox.encodeRanking(new int[]{first, 1 + (p + 1) % CANDIDATES})
+                            : null);
+                    vote.addBatch();
+                }
+                vote.executeBatch();
+            }
+            return session;
+        });
+    }
+
+    private interface Export {
+        int run() throws Exception;
+    }
+
+    // Best of the measured runs, after warming up
+    private static double rowsPerSecond(Export export) throws Exception {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            export.run();
+        }
+        double best = 0;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            int rows = export.run();
+            best = Math.max(best, rows / ((System.nanoTime() - start) / 1e9));
+        }
+        return best;
+    }
+}
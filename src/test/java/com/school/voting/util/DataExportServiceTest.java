@@ -0,0 +1,248 @@
+// ABOUTME: Tests for the CSV and JSON Lines data exports against a temporary database
+// ABOUTME: Tests record layout, escaping, anonymous ballot order, leaving the stream open and the ZIP bundle
+// ABOUTME: Tests that a bundle failing partway through leaves no ZIP behind
+
+package com.school.voting.util;
+
+import com.school.voting.dao.DatabaseManager;
+import com.school.voting.dao.ParentDAO;
+import com.school.voting.dao.SessionResultsDAO;
+import com.school.voting.dao.TestDatabase;
+import com.school.voting.dao.VoteDAO;
+import com.school.voting.dao.VotingSessionDAO;
+import com.school.voting.event.EventBus;
+import com.school.voting.model.Parent;
+import com.school.voting.model.VotingSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataExportServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseManager db;
+    private VoteDAO voteDAO;
+    private DataExportService service;
+    private VotingSession session;
+    private List<Parent> parents;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        db = TestDatabase.open(tempDir.resolve("data.db"));
+        ParentDAO parentDAO = new ParentDAO(db);
+        voteDAO = new VoteDAO(db);
+        service = new DataExportService(
+                new ResultsEngine(parentDAO, new SessionResultsDAO(db), new EventBus(Runnable::run)),
+                parentDAO, voteDAO);
+        session = new VotingSessionDAO(db).createSession(VotingSession.builder()
+                .className("6c")
+                .status(VotingSession.Status.VOTING)
+                .build());
+        parents = parentDAO.insertParents(List.of(
+                Parent.builder().name("Anna \"Annie\" Berg").sessionId(session.getId()).isCandidate(true).build(),
+                Parent.builder().name("Ben, Jr.").sessionId(session.getId()).isCandidate(true).build(),
+                Parent.builder().name("Clara").sessionId(session.getId()).build(),
+                Parent.builder().name("David").sessionId(session.getId()).build()));
+        // Clara votes before Anna, but the export must not show that
+        voteDAO.castVote(session.getId(), parents.get(2).getId(), parents.get(1).getId());
+        voteDAO.castVote(session.getId(), parents.get(0).getId(), parents.get(0).getId());
+        parentDAO.markAsVoted(parents.get(3).getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.closeConnection();
+    }
+
+    private String text(ByteArrayOutputStream out) {
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Nested
+    @DisplayName("CSV")
+    class Csv {
+
+        @Test
+        @DisplayName("Should write results with a header row and quote names that need it")
+        void shouldWriteResults() throws Exception {
+            // Given
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            // When
+            int rows = service.writeResults(session.getId(), ExportFormat.CSV, out);
+
+            // Then
+            assertEquals(2, rows);
+            assertEquals("rank,candidate_id,candidate,votes,percentage,tied\r\n"
+                    + "1," + parents.get(0).getId() + ",\"Anna \"\"Annie\"\" Berg\",1,50.0,true\r\n"
+                    + "1," + parents.get(1).getId() + ",\"Ben, Jr.\",1,50.0,true\r\n", text(out));
+        }
+
+        @Test
+        @DisplayName("Should write ballots by candidate with no trace of the voter")
+        void shouldWriteAnonymousBallots() throws Exception {
+            // Given
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            // When
+            int rows = service.writeBallots(session.getId(), ExportFormat.CSV, out);
+
+            // Then
+            assertEquals(2, rows);
+            assertEquals("ballot,candidate_id,candidate,ranking\r\n"
+                    + "1," + parents.get(0).getId() + ",\"Anna \"\"Annie\"\" Berg\",\r\n"
+                    + "2," + parents.get(1).getId() + ",\"Ben, Jr.\",\r\n", text(out));
+            assertFalse(text(out).contains("Clara"));
+        }
+
+        @Test
+        @DisplayName("Should write a ranking as candidate ids in order of preference")
+        void shouldWriteRanking() throws Exception {
+            // Given
+            int anna = parents.get(0).getId();
+            int ben = parents.get(1).getId();
+            voteDAO.castRankedVote(session.getId(), parents.get(1).getId(), new int[]{ben, anna});
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            // When
+            service.writeBallots(session.getId(), ExportFormat.CSV, out);
+
+            // Then
+            assertTrue(text(out).endsWith(",\"Ben, Jr.\"," + ben + ";" + anna + "\r\n"));
+        }
+
+        @Test
+        @DisplayName("Should flush the records but leave the stream open for the caller")
+        void shouldLeaveStreamOpen() throws Exception {
+            // Given
+            List<String> calls = new ArrayList<>();
+            FilterOutputStream out = new FilterOutputStream(new ByteArrayOutputStream()) {
+                @Override
+                public void flush() throws IOException {
+                    calls.add("flush");
+                    super.flush();
+                }
+
+                @Override
+                public void close() {
+                    calls.add("close");
+                }
+            };
+
+            // When
+            service.writeParticipation(session.getId(), ExportFormat.CSV, out);
+
+            // Then
+            assertTrue(calls.contains("flush"));
+            assertFalse(calls.contains("close"));
+        }
+    }
+
+    @Nested
+    @DisplayName("JSON Lines")
+    class JsonLines {
+
+        @Test
+        @DisplayName("Should write one escaped object per parent in name order")
+        void shouldWriteParticipation() throws Exception {
+            // Given
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            // When
+            int rows = service.writeParticipation(session.getId(), ExportFormat.JSON_LINES, out);
+
+            // Then
+            assertEquals(4, rows);
+            assertEquals("""
+                    {"parent":"Anna \\"Annie\\" Berg","candidate":true,"participation":"VOTED"}
+                    {"parent":"Ben, Jr.","candidate":true,"participation":"NOT_VOTED"}
+                    {"parent":"Clara","candidate":false,"participation":"VOTED"}
+                    {"parent":"David","candidate":false,"participation":"SKIPPED"}
+                    """, text(out));
+        }
+
+        @Test
+        @DisplayName("Should write a missing ranking as null")
+        void shouldWriteNullRanking() throws Exception {
+            // Given
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            // When
+            service.writeBallots(session.getId(), ExportFormat.JSON_LINES, out);
+
+            // Then
+            assertTrue(text(out).startsWith("{\"ballot\":1,\"candidate_id\":" + parents.get(0).getId()
+                    + ",\"candidate\":\"Anna \\\"Annie\\\" Berg\",\"ranking\":null}\n"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Bundle")
+    class Bundle {
+
+        @Test
+        @DisplayName("Should put results, ballots and participation into one ZIP")
+        void shouldBundleAllThree() throws Exception {
+            // When
+            Path archive = service.exportSessionData(session, ExportFormat.JSON_LINES, tempDir, TaskContext.NONE);
+
+            // Then
+            List<String> entries = new ArrayList<>();
+            try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(archive))) {
+                ZipEntry entry;
+                while ((entry = zip.getNextEntry()) != null) {
+                    entries.add(entry.getName() + ":" + new String(zip.readAllBytes(), StandardCharsets.UTF_8)
+                            .lines().count());
+                }
+            }
+            assertEquals(List.of("results.jsonl:2", "ballots.jsonl:2", "participation.jsonl:4"), entries);
+        }
+
+        @Test
+        @DisplayName("Should remove the ZIP when writing fails partway through")
+        void shouldRemoveZipWhenWritingFails() throws Exception {
+            // Given a ballot stream that breaks after its first ballot
+            VoteDAO failingVotes = new VoteDAO(db) {
+                @Override
+                public int streamAnonymousBallots(int sessionId, BallotConsumer consumer) {
+                    consumer.accept(parents.get(0).getId(), parents.get(0).getName(), null);
+                    throw new IllegalStateException("Cursor closed");
+                }
+            };
+            ParentDAO parentDAO = new ParentDAO(db);
+            DataExportService failing = new DataExportService(
+                    new ResultsEngine(parentDAO, new SessionResultsDAO(db), new EventBus(Runnable::run)),
+                    parentDAO, failingVotes);
+            Path exports = Files.createDirectories(tempDir.resolve("exports"));
+
+            // When
+            assertThrows(IllegalStateException.class,
+                    () -> failing.exportSessionData(session, ExportFormat.CSV, exports, TaskContext.NONE));
+
+            // Then
+            try (Stream<Path> files = Files.list(exports)) {
+                assertEquals(0, files.count());
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+// ABOUTME: Unit tests for the in-memory live vote tally
+// ABOUTME: Tests slot lookup, concurrent counting and reconciliation against stored counts
+
+package com.school.voting.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiveTallyTest {
+
+    @Nested
+    @DisplayName("Counting")
+    class Counting {
+
+        @Test
+        @DisplayName("Should count votes per candidate in candidate order")
+        void shouldCountVotesPerCandidate() {
+            // Given
+            LiveTally tally = new LiveTally(1, List.of(30, 10, 20));
+
+            // When
+            tally.record(10);
+            tally.record(20);
+            tally.record(10);
+
+            // Then
+            assertEquals(2, tally.getCount(10));
+            assertEquals(0, tally.getCount(30));
+            assertEquals(3, tally.getTotal());
+            assertEquals(List.of(30, 10, 20), List.copyOf(tally.snapshot().keySet()));
+        }
+
+        @Test
+        @DisplayName("Should reject votes for parents who are not candidates")
+        void shouldRejectUnknownCandidate() {
+            LiveTally tally = new LiveTally(1, List.of(10, 20));
+
+            assertThrows(IllegalArgumentException.class, () -> tally.record(99));
+        }
+
+        @Test
+        @DisplayName("Should not lose votes recorded from many threads")
+        void shouldNotLoseConcurrentVotes() throws InterruptedException {
+            // Given
+            LiveTally tally = new LiveTally(1, List.of(10, 20));
+            ExecutorService stations = Executors.newFixedThreadPool(8);
+
+            // When
+            for (int i = 0; i < 10_000; i++) {
+                int candidateId = i % 2 == 0 ? 10 : 20;
+                stations.execute(() -> tally.record(candidateId));
+            }
+            stations.shutdown();
+            assertTrue(stations.awaitTermination(10, TimeUnit.SECONDS));
+
+            // Then
+            assertEquals(Map.of(10, 5_000, 20, 5_000), tally.snapshot());
+        }
+    }
+
+    @Nested
+    @DisplayName("Reconciliation")
+    class Reconciliation {
+
+        @Test
+        @DisplayName("Should report agreement when counts match the database")
+        void shouldReportAgreement() {
+            LiveTally tally = new LiveTally(1, List.of(10, 20));
+            tally.record(10);
+
+            assertTrue(tally.reconcile(Map.of(10, 1)));
+            assertEquals(1, tally.getCount(10));
+        }
+
+        @Test
+        @DisplayName("Should adopt stored counts when they differ")
+        void shouldAdoptStoredCounts() {
+            // Given
+            LiveTally tally = new LiveTally(1, List.of(10, 20));
+            tally.record(10);
+            tally.record(10);
+
+            // When
+            boolean consistent = tally.reconcile(Map.of(10, 1, 20, 4));
+
+            // Then
+            assertFalse(consistent);
+            assertEquals(Map.of(10, 1, 20, 4), tally.snapshot());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+// ABOUTME: Tests for the recount and backup jobs against a temporary database
+// ABOUTME: Tests rebuilding drifted tallies, auditing votes, stopping when cancelled and restoring from a backup file
+
+package com.school.voting.util;
+
+import com.school.voting.dao.DatabaseManager;
+import com.school.voting.dao.ParentDAO;
+import com.school.voting.dao.TestDatabase;
+import com.school.voting.dao.VoteDAO;
+import com.school.voting.dao.VotingSessionDAO;
+import com.school.voting.model.AuditReport;
+import com.school.voting.model.Parent;
+import com.school.voting.model.VotingSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MaintenanceJobsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseManager db;
+    private MaintenanceJobs jobs;
+    private VotingSession session;
+    private List<Parent> parents;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        db = TestDatabase.open(tempDir.resolve("live.db"));
+        jobs = new MaintenanceJobs(db);
+        session = new VotingSessionDAO(db).createSession(VotingSession.builder()
+                .className("6c")
+                .status(VotingSession.Status.VOTING)
+                .build());
+        parents = new ParentDAO(db).insertParents(List.of(
+                Parent.builder().name("Anna").sessionId(session.getId()).isCandidate(true).build(),
+                Parent.builder().name("Ben").sessionId(session.getId()).build()));
+        VoteDAO voteDAO = new VoteDAO(db);
+        voteDAO.castVote(session.getId(), parents.get(0).getId(), parents.get(0).getId());
+        voteDAO.castVote(session.getId(), parents.get(1).getId(), parents.get(0).getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.closeConnection();
+    }
+
+    @Nested
+    @DisplayName("Recounting Tallies")
+    class RecountingTallies {
+
+        @Test
+        @DisplayName("Should leave matching tallies alone")
+        void shouldFindNothingToRebuild() throws SQLException {
+            assertEquals(0, jobs.recountTallies(TaskContext.NONE));
+        }
+
+        @Test
+        @DisplayName("Should rebuild tallies that no longer match the ballots")
+        void shouldRebuildDriftedTallies() throws SQLException {
+            // Given
+            try (Connection conn = db.getConnection(); Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("UPDATE vote_tallies SET count = 7");
+            }
+
+            // When
+            int rebuilt = jobs.recountTallies(TaskContext.NONE);
+
+            // Then
+            assertEquals(1, rebuilt);
+            assertTrue(new VoteDAO(db).verifyTallies(session.getId()).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should stop before the first session once cancelled")
+        void shouldStopWhenCancelled() {
+            // Given
+            TaskContext cancelled = new TaskContext() {
+                @Override
+                public void updateProgress(long workDone, long totalWork) {
+                }
+
+                @Override
+                public void updateMessage(String message) {
+                }
+
+                @Override
+                public boolean isCancelled() {
+                    return true;
+                }
+            };
+
+            // When / Then
+            assertThrows(CancellationException.class, () -> jobs.recountTallies(cancelled));
+        }
+    }
+
+    @Nested
+    @DisplayName("Auditing Votes")
+    class AuditingVotes {
+
+        @Test
+        @DisplayName("Should report drifted tallies without changing them")
+        void shouldReportWithoutRepairing() throws SQLException {
+            // Given
+            try (Connection conn = db.getConnection(); Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("UPDATE vote_tallies SET count = 7");
+            }
+
+            // When
+            AuditReport report = jobs.auditVotes(TaskContext.NONE);
+
+            // Then
+            assertEquals(2, report.getVotesScanned());
+            assertEquals(AuditReport.Kind.TALLY_DRIFT, report.getFindings().get(0).getKind());
+            assertFalse(new VoteDAO(db).verifyTallies(session.getId()).isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Backups")
+    class Backups {
+
+        @Test
+        @DisplayName("Should write a copy that opens with every session and vote")
+        void shouldWriteUsableBackup() throws Exception {
+            // When
+            Path backup = jobs.backup(tempDir.resolve("backups"), TaskContext.NONE);
+
+            // Then
+            assertTrue(Files.size(backup) > 0);
+            DatabaseManager restored = TestDatabase.open(backup);
+            try {
+                assertEquals(1, new VotingSessionDAO(restored).getAllSessions().size());
+                assertEquals(2, new VoteDAO(restored).getTotalVotes(session.getId()));
+            } finally {
+                restored.closeConnection();
+            }
+        }
+    }
+}
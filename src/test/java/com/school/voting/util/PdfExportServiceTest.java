@@ -0,0 +1,176 @@
+// ABOUTME: Tests for the PDF report against a temporary database, reading the written report back
+// ABOUTME: Tests the participation appendix across pages and that a failed export leaves no file behind
+
+package com.school.voting.util;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import com.school.voting.dao.DatabaseManager;
+import com.school.voting.dao.ParentDAO;
+import com.school.voting.dao.SessionResultsDAO;
+import com.school.voting.dao.TestDatabase;
+import com.school.voting.dao.VoteDAO;
+import com.school.voting.dao.VotingSessionDAO;
+import com.school.voting.event.EventBus;
+import com.school.voting.model.Parent;
+import com.school.voting.model.VotingSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PdfExportServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseManager db;
+    private ParentDAO parentDAO;
+    private SessionResultsDAO resultsDAO;
+    private PdfExportService service;
+
+    @BeforeEach
+    void setUp() {
+        db = TestDatabase.open(tempDir.resolve("report.db"));
+        parentDAO = new ParentDAO(db);
+        resultsDAO = new SessionResultsDAO(db);
+        service = new PdfExportService(new ResultsEngine(parentDAO, resultsDAO, new EventBus(Runnable::run)), parentDAO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.closeConnection();
+    }
+
+    private VotingSession sessionWithCandidates(String className) throws SQLException {
+        VotingSession session = new VotingSessionDAO(db).createSession(VotingSession.builder()
+                .className(className)
+                .status(VotingSession.Status.VOTING)
+                .build());
+        for (String name : List.of("Anna", "Ben", "Clara")) {
+            parentDAO.insertParent(Parent.builder()
+                    .name(name)
+                    .isCandidate(!name.equals("Clara"))
+                    .sessionId(session.getId())
+                    .build());
+        }
+        return session;
+    }
+
+    private long filesIn(Path directory) throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    @Nested
+    @DisplayName("Failed Exports")
+    class FailedExports {
+
+        @Test
+        @DisplayName("Should leave no partial report behind when cancelled")
+        void shouldRemoveReportWhenCancelled() throws Exception {
+            // Given
+            VotingSession session = sessionWithCandidates("5a");
+            TaskContext cancelled = new TaskContext() {
+                @Override
+                public void updateProgress(long workDone, long totalWork) {
+                }
+
+                @Override
+                public void updateMessage(String message) {
+                }
+
+                @Override
+                public boolean isCancelled() {
+                    return true;
+                }
+            };
+
+            // When / Then
+            Path exports = Files.createDirectories(tempDir.resolve("exports"));
+            assertThrows(CancellationException.class, () -> service.exportResults(session, exports, cancelled));
+            assertEquals(0, filesIn(exports));
+        }
+
+        @Test
+        @DisplayName("Should leave no partial report behind when the appendix cannot be read")
+        void shouldRemoveReportWhenAppendixFails() throws Exception {
+            // Given
+            VotingSession session = sessionWithCandidates("5b");
+            ParentDAO failingParents = new ParentDAO(db) {
+                @Override
+                public int streamParticipation(int sessionId, ParticipationConsumer consumer) throws SQLException {
+                    throw new SQLException("disk I/O error");
+                }
+            };
+            PdfExportService failing = new PdfExportService(
+                    new ResultsEngine(parentDAO, resultsDAO, new EventBus(Runnable::run)), failingParents);
+
+            // When / Then
+            Path exports = Files.createDirectories(tempDir.resolve("exports"));
+            assertThrows(SQLException.class, () -> failing.exportResults(session, exports, TaskContext.NONE));
+            assertEquals(0, filesIn(exports));
+        }
+    }
+
+    @Nested
+    @DisplayName("Participation Appendix")
+    class ParticipationAppendix {
+
+        @Test
+        @DisplayName("Should list every parent of a large roster across several pages")
+        void shouldListLargeRoster() throws Exception {
+            // Given: 300 parents, the first two candidates; parent 0 votes, parent 1 is skipped
+            VotingSession session = new VotingSessionDAO(db).createSession(VotingSession.builder()
+                    .className("School")
+                    .status(VotingSession.Status.VOTING)
+                    .build());
+            List<Parent> roster = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                roster.add(Parent.builder()
+                        .name(String.format("Parent %03d", i))
+                        .isCandidate(i < 2)
+                        .sessionId(session.getId())
+                        .build());
+            }
+            roster = parentDAO.insertParents(roster);
+            new VoteDAO(db).castVote(session.getId(), roster.get(0).getId(), roster.get(1).getId());
+            parentDAO.markAsVoted(roster.get(1).getId());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            // When
+            service.writeReport(session, resultsDAO.countResults(session.getId(), 300), out, TaskContext.NONE);
+
+            // Then
+            try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(out.toByteArray())))) {
+                assertTrue(pdf.getNumberOfPages() > 3);
+                String appendixStart = PdfTextExtractor.getTextFromPage(pdf.getPage(2));
+                String appendixEnd = PdfTextExtractor.getTextFromPage(pdf.getLastPage());
+                assertTrue(appendixStart.contains("Appendix: Voter Participation"));
+                assertTrue(appendixStart.contains("Parent 000"));
+                assertTrue(appendixEnd.contains("Parent 299"));
+                assertTrue(appendixEnd.contains("Participation"), "header repeats on every page");
+                assertTrue(appendixEnd.contains("300 parents: 1 voted, 1 skipped, 298 did not vote"));
+                assertFalse(appendixStart.contains("Generated by School Voting System"));
+                assertTrue(appendixEnd.indexOf("Generated by School Voting System") > appendixEnd.indexOf("Parent 299"),
+                        "footer closes the document");
+            }
+        }
+    }
+}
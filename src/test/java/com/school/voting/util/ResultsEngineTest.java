@@ -0,0 +1,153 @@
+// ABOUTME: Tests for ResultsEngine caching session results against a temporary database
+// ABOUTME: Tests reuse, rebuilding after votes or roster events, and serving completed sessions from frozen records
+
+package com.school.voting.util;
+
+import com.school.voting.dao.DatabaseManager;
+import com.school.voting.dao.ParentDAO;
+import com.school.voting.dao.SessionResultsDAO;
+import com.school.voting.dao.TestDatabase;
+import com.school.voting.dao.VoteDAO;
+import com.school.voting.dao.VotingSessionDAO;
+import com.school.voting.event.CandidateToggled;
+import com.school.voting.event.EventBus;
+import com.school.voting.model.Parent;
+import com.school.voting.model.ResultsSnapshot;
+import com.school.voting.model.Vote;
+import com.school.voting.model.VotingSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultsEngineTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseManager db;
+    private ParentDAO parentDAO;
+    private VoteDAO voteDAO;
+    private EventBus eventBus;
+    private ResultsEngine engine;
+    private VotingSession session;
+    private List<Parent> parents;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        db = TestDatabase.open(tempDir.resolve("results.db"));
+        parentDAO = new ParentDAO(db);
+        voteDAO = new VoteDAO(db);
+        eventBus = new EventBus(Runnable::run);
+        engine = new ResultsEngine(parentDAO, new SessionResultsDAO(db), eventBus);
+        session = new VotingSessionDAO(db).createSession(VotingSession.builder()
+                .className("6c")
+                .status(VotingSession.Status.VOTING)
+                .build());
+        parents = parentDAO.insertParents(List.of(
+                Parent.builder().name("Anna").sessionId(session.getId()).isCandidate(true).build(),
+                Parent.builder().name("Ben").sessionId(session.getId()).isCandidate(true).build(),
+                Parent.builder().name("Clara").sessionId(session.getId()).build()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.closeConnection();
+    }
+
+    @Nested
+    @DisplayName("Caching")
+    class Caching {
+
+        @Test
+        @DisplayName("Should hand out the same snapshot while nothing changes")
+        void shouldReuseSnapshot() throws SQLException {
+            // Given
+            voteDAO.castVote(session.getId(), parents.get(2).getId(), parents.get(1).getId());
+
+            // When
+            ResultsSnapshot first = engine.getResults(session.getId());
+            ResultsSnapshot second = engine.getResults(session.getId());
+
+            // Then
+            assertSame(first, second);
+            assertEquals("Ben", first.getWinner().orElseThrow().getName());
+            assertEquals(3, first.getTotalParents());
+        }
+
+        @Test
+        @DisplayName("Should rebuild after a vote cast outside this engine")
+        void shouldRebuildAfterVote() throws SQLException {
+            // Given
+            ResultsSnapshot before = engine.getResults(session.getId());
+
+            // When another station records a ballot
+            voteDAO.castVote(session.getId(), parents.get(0).getId(), parents.get(0).getId());
+            ResultsSnapshot after = engine.getResults(session.getId());
+
+            // Then
+            assertNotSame(before, after);
+            assertEquals(0, before.getTotalVotes());
+            assertEquals(1, after.getTotalVotes());
+            assertEquals("Anna", after.getWinner().orElseThrow().getName());
+        }
+
+        @Test
+        @DisplayName("Should rebuild after a candidate is toggled")
+        void shouldRebuildAfterRosterEvent() throws SQLException {
+            // Given
+            ResultsSnapshot before = engine.getResults(session.getId());
+
+            // When
+            parentDAO.markAsCandidate(parents.get(2).getId(), true);
+            eventBus.publish(new CandidateToggled(session.getId(), parents.get(2).getId(), true));
+            ResultsSnapshot after = engine.getResults(session.getId());
+
+            // Then
+            assertEquals(2, before.getRanking().size());
+            assertEquals(3, after.getRanking().size());
+        }
+    }
+
+    @Nested
+    @DisplayName("Completed Sessions")
+    class CompletedSessions {
+
+        @Test
+        @DisplayName("Should serve the frozen record even when ballots change afterwards")
+        void shouldServeFrozenRecord() throws SQLException {
+            // Given
+            voteDAO.castVote(session.getId(), parents.get(2).getId(), parents.get(1).getId());
+            new VotingSessionDAO(db).completeSession(session.getId());
+
+            // When ballots are written straight into the table, since casting is refused after completion
+            voteDAO.recordVote(new Vote(parents.get(0).getId(), parents.get(0).getId(), session.getId()));
+            voteDAO.recordVote(new Vote(parents.get(1).getId(), parents.get(0).getId(), session.getId()));
+            ResultsSnapshot results = engine.getResults(session.getId());
+
+            // Then
+            assertTrue(results.isFrozen());
+            assertEquals(1, results.getTotalVotes());
+            assertEquals("Ben", results.getWinner().orElseThrow().getName());
+            assertSame(results, engine.getResults(session.getId()));
+        }
+
+        @Test
+        @DisplayName("Should refuse to remember live results")
+        void shouldRefuseLiveResults() throws SQLException {
+            // Given
+            ResultsSnapshot live = engine.getResults(session.getId());
+
+            // Then
+            assertThrows(IllegalArgumentException.class, () -> engine.remember(live));
+        }
+    }
+}
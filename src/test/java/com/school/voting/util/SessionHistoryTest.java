@@ -0,0 +1,199 @@
+// ABOUTME: Tests for SessionHistory paging through completed sessions against a temporary database
+// ABOUTME: Tests newest-first keyset pages, tie-breaking on id and the bounded summary cache
+
+package com.school.voting.util;
+
+import com.school.voting.dao.DatabaseManager;
+import com.school.voting.dao.ParentDAO;
+import com.school.voting.dao.SessionResultsDAO;
+import com.school.voting.dao.TestDatabase;
+import com.school.voting.dao.VoteDAO;
+import com.school.voting.dao.VotingSessionDAO;
+import com.school.voting.model.Parent;
+import com.school.voting.model.ResultsSnapshot;
+import com.school.voting.model.VotingSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionHistoryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 9, 1, 18, 0);
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseManager db;
+    private VotingSessionDAO sessionDAO;
+    private ParentDAO parentDAO;
+    private VoteDAO voteDAO;
+
+    @BeforeEach
+    void setUp() {
+        db = TestDatabase.open(tempDir.resolve("history.db"));
+        sessionDAO = new VotingSessionDAO(db);
+        parentDAO = new ParentDAO(db);
+        voteDAO = new VoteDAO(db);
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.closeConnection();
+    }
+
+    private SessionHistory newHistory(int pageSize, int cacheSize) {
+        return new SessionHistory(sessionDAO, new SessionResultsDAO(db), parentDAO, pageSize, cacheSize);
+    }
+
+    private VotingSession completedSession(String className, LocalDateTime completedAt) throws SQLException {
+        VotingSession session = sessionDAO.createSession(VotingSession.builder()
+                .className(className)
+                .status(VotingSession.Status.VOTING)
+                .build());
+        sessionDAO.completeSession(session.getId());
+        try (Connection conn = db.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "UPDATE voting_sessions SET completed_at = ? WHERE id = ?")) {
+            stmt.setTimestamp(1, Timestamp.valueOf(completedAt));
+            stmt.setInt(2, session.getId());
+            stmt.executeUpdate();
+        }
+        return session;
+    }
+
+    private List<String> classNames(List<VotingSession> sessions) {
+        return sessions.stream().map(VotingSession::getClassName).toList();
+    }
+
+    @Nested
+    @DisplayName("Paging")
+    class Paging {
+
+        @Test
+        @DisplayName("Should page through completed sessions newest first without gaps or repeats")
+        void shouldPageNewestFirst() throws SQLException {
+            // Given
+            for (int i = 0; i < 5; i++) {
+                completedSession("class-" + i, START.plusDays(i));
+            }
+            sessionDAO.createSession(VotingSession.builder().className("open").build());
+            SessionHistory history = newHistory(2, 10);
+
+            // When
+            List<VotingSession> first = history.nextPage();
+            List<VotingSession> second = history.nextPage();
+            List<VotingSession> third = history.nextPage();
+
+            // Then
+            assertEquals(List.of("class-4", "class-3"), classNames(first));
+            assertEquals(List.of("class-2", "class-1"), classNames(second));
+            assertEquals(List.of("class-0"), classNames(third));
+            assertFalse(history.hasMore());
+            assertTrue(history.nextPage().isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should order sessions completed at the same moment by id")
+        void shouldBreakTiesById() throws SQLException {
+            // Given
+            VotingSession older = completedSession("7a", START);
+            VotingSession newer = completedSession("7b", START);
+            completedSession("7c", START.minusDays(1));
+            SessionHistory history = newHistory(1, 10);
+
+            // When
+            List<VotingSession> sessions = new ArrayList<>();
+            while (history.hasMore()) {
+                sessions.addAll(history.nextPage());
+            }
+
+            // Then
+            assertEquals(List.of(newer.getId(), older.getId()),
+                    sessions.subList(0, 2).stream().map(VotingSession::getId).toList());
+            assertEquals("7c", sessions.get(2).getClassName());
+        }
+
+        @Test
+        @DisplayName("Should start again from the newest session after a reset")
+        void shouldRestartAfterReset() throws SQLException {
+            // Given
+            completedSession("8a", START);
+            completedSession("8b", START.plusDays(1));
+            SessionHistory history = newHistory(1, 10);
+            history.nextPage();
+
+            // When
+            history.reset();
+
+            // Then
+            assertEquals(List.of("8b"), classNames(history.nextPage()));
+        }
+    }
+
+    @Nested
+    @DisplayName("Summaries")
+    class Summaries {
+
+        @Test
+        @DisplayName("Should summarise sessions from their frozen results and from ballots for older sessions")
+        void shouldLoadSummaries() throws SQLException {
+            // Given
+            VotingSession frozen = completedSession("9a", START);
+            VotingSession legacy = sessionDAO.createSession(VotingSession.builder()
+                    .className("9b")
+                    .status(VotingSession.Status.VOTING)
+                    .build());
+            List<Parent> parents = parentDAO.insertParents(List.of(
+                    Parent.builder().name("Anna").sessionId(legacy.getId()).isCandidate(true).build(),
+                    Parent.builder().name("Ben").sessionId(legacy.getId()).build()));
+            voteDAO.castVote(legacy.getId(), parents.get(1).getId(), parents.get(0).getId());
+            sessionDAO.updateSessionStatus(legacy.getId(), VotingSession.Status.COMPLETED);
+            SessionHistory history = newHistory(10, 10);
+
+            // When
+            Map<Integer, ResultsSnapshot> summaries = history.getSummaries(List.of(frozen.getId(), legacy.getId()));
+
+            // Then
+            assertTrue(summaries.get(frozen.getId()).isFrozen());
+            assertEquals(0, summaries.get(frozen.getId()).getTotalVotes());
+            assertFalse(summaries.get(legacy.getId()).isFrozen());
+            assertEquals("Anna", summaries.get(legacy.getId()).getWinner().orElseThrow().getName());
+            assertEquals(50.0, summaries.get(legacy.getId()).getTurnoutPercentage());
+        }
+
+        @Test
+        @DisplayName("Should keep only the most recently used summaries")
+        void shouldBoundSummaryCache() throws SQLException {
+            // Given
+            VotingSession first = completedSession("10a", START);
+            VotingSession second = completedSession("10b", START.plusDays(1));
+            VotingSession third = completedSession("10c", START.plusDays(2));
+            SessionHistory history = newHistory(10, 2);
+            history.getSummaries(List.of(first.getId(), second.getId()));
+
+            // When
+            history.getCachedSummary(first.getId());
+            history.getSummaries(List.of(third.getId()));
+
+            // Then
+            assertTrue(history.getCachedSummary(first.getId()).isPresent());
+            assertTrue(history.getCachedSummary(second.getId()).isEmpty());
+            assertTrue(history.getCachedSummary(third.getId()).isPresent());
+        }
+    }
+}
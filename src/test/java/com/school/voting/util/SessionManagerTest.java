@@ -0,0 +1,446 @@
+// ABOUTME: Tests for SessionManager running several voting sessions against a temporary database
+// ABOUTME: Tests per-session isolation, concurrent voting, voter claims across stations and restoring state
+
+package com.school.voting.util;
+
+import com.school.voting.dao.DatabaseManager;
+import com.school.voting.dao.ParentDAO;
+import com.school.voting.dao.SessionResultsDAO;
+import com.school.voting.dao.TestDatabase;
+import com.school.voting.dao.VoteDAO;
+import com.school.voting.dao.VoterClaimDAO;
+import com.school.voting.dao.VotingSessionDAO;
+import com.school.voting.event.EventBus;
+import com.school.voting.event.VoteCast;
+import com.school.voting.event.VoterClaimLapsed;
+import com.school.voting.model.Parent;
+import com.school.voting.model.SessionProgress;
+import com.school.voting.model.VotingSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionManagerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseManager db;
+    private SessionManager manager;
+    private final List<SessionManager> managers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        db = TestDatabase.open(tempDir.resolve("sessions.db"));
+        manager = newManager();
+    }
+
+    @AfterEach
+    void tearDown() {
+        managers.forEach(SessionManager::shutdown);
+        db.closeConnection();
+    }
+
+    private SessionManager newManager() {
+        return newStation(db, "station-1");
+    }
+
+    private SessionManager newStation(DatabaseManager database, String stationId) {
+        return newStation(database, stationId, Duration.ofMinutes(1));
+    }
+
+    private SessionManager newStation(DatabaseManager database, String stationId, Duration claimLease) {
+        SessionManager station = new SessionManager(new VotingSessionDAO(database), new ParentDAO(database),
+            new VoteDAO(database), new VoterClaimDAO(database), new SessionResultsDAO(database),
+            new EventBus(Runnable::run), Runnable::run, stationId, claimLease);
+        managers.add(station);
+        return station;
+    }
+
+    // Creates a session with the given roster and marks the first two parents as candidates
+    private VotingSession openClass(String className, int rosterSize) throws SQLException {
+        VotingSession session = manager.createNewSession(className);
+        List<Parent> parents = new ArrayList<>();
+        for (int i = 0; i < rosterSize; i++) {
+            parents.add(manager.addParent(session.getId(), className + " parent " + i));
+        }
+        manager.setCandidate(session.getId(), parents.get(0).getId(), true);
+        manager.setCandidate(session.getId(), parents.get(1).getId(), true);
+        return manager.getSession(session.getId());
+    }
+
+    private List<Integer> candidateIds(int sessionId) throws SQLException {
+        return new ParentDAO(db).getCandidatesBySession(sessionId).stream().map(Parent::getId).toList();
+    }
+
+    @Nested
+    @DisplayName("Several Open Sessions")
+    class SeveralOpenSessions {
+
+        @Test
+        @DisplayName("Should open sessions for different classes side by side")
+        void shouldOpenSessionsSideBySide() throws SQLException {
+            // When
+            VotingSession first = openClass("5a", 3);
+            VotingSession second = openClass("5b", 4);
+
+            // Then
+            assertEquals(List.of(first.getId(), second.getId()),
+                manager.getActiveSessions().stream().map(VotingSession::getId).toList());
+            assertEquals(second.getId(), manager.getCurrentSession().getId());
+            assertEquals(3, manager.getProgress(first.getId()).getTotalParents());
+            assertEquals(4, manager.getProgress(second.getId()).getTotalParents());
+        }
+
+        @Test
+        @DisplayName("Should reject a second open session for the same class")
+        void shouldRejectDuplicateClass() throws SQLException {
+            manager.createNewSession("5a");
+
+            assertThrows(IllegalStateException.class, () -> manager.createNewSession("5A"));
+        }
+
+        @Test
+        @DisplayName("Should mirror only the selected session in the progress properties")
+        void shouldMirrorSelectedSession() throws SQLException {
+            // Given
+            VotingSession first = openClass("5a", 3);
+            VotingSession second = openClass("5b", 4);
+            manager.startVoting(first.getId());
+            manager.startVoting(second.getId());
+
+            // When
+            manager.selectSession(first.getId());
+            manager.recordVote(second.getId(), manager.getCurrentVoter(second.getId()).getId(),
+                candidateIds(second.getId()).get(0));
+
+            // Then
+            assertEquals(3, manager.totalParentsProperty().get());
+            assertEquals(0, manager.votedCountProperty().get());
+
+            manager.selectSession(second.getId());
+            assertEquals(4, manager.totalParentsProperty().get());
+            assertEquals(1, manager.votedCountProperty().get());
+        }
+
+        @Test
+        @DisplayName("Should record a ranked ballot through the group-commit writer")
+        void shouldRecordRankedBallot() throws SQLException {
+            // Given
+            VotingSession session = manager.createNewSession("5c", VotingSession.TallyMethod.INSTANT_RUNOFF);
+            List<Parent> parents = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                parents.add(manager.addParent(session.getId(), "5c parent " + i));
+            }
+            manager.setCandidate(session.getId(), parents.get(0).getId(), true);
+            manager.setCandidate(session.getId(), parents.get(1).getId(), true);
+            manager.startVoting(session.getId());
+            int first = parents.get(0).getId();
+            int second = parents.get(1).getId();
+
+            // When
+            SessionProgress progress = manager.recordRankedVote(session.getId(),
+                manager.getCurrentVoter(session.getId()).getId(), new int[]{second, first});
+
+            // Then
+            assertEquals(1, progress.getVotesCast());
+            assertEquals(VotingSession.TallyMethod.INSTANT_RUNOFF,
+                manager.getSession(session.getId()).getTallyMethod());
+            assertEquals(second, manager.getResultsEngine().getResults(session.getId())
+                .getWinner().orElseThrow().getCandidateId());
+        }
+
+        @Test
+        @DisplayName("Should refuse a ballot naming a non-candidate and keep the voter in the booth")
+        void shouldRefuseNonCandidateBallot() throws SQLException {
+            // Given
+            VotingSession session = openClass("5d", 4);
+            manager.startVoting(session.getId());
+            Parent voter = manager.getCurrentVoter(session.getId());
+            int candidateId = candidateIds(session.getId()).get(0);
+            int nonCandidateId = new ParentDAO(db).getParentsBySession(session.getId()).stream()
+                .filter(parent -> !parent.isCandidate())
+                .findFirst().orElseThrow().getId();
+
+            // When
+            assertThrows(SQLException.class,
+                () -> manager.recordVote(session.getId(), voter.getId(), nonCandidateId));
+            assertThrows(SQLException.class,
+                () -> manager.recordRankedVote(session.getId(), voter.getId(),
+                    new int[]{candidateId, nonCandidateId}));
+
+            // Then nothing was stored and the same voter can still cast a valid ballot
+            assertEquals(0, new VoteDAO(db).getTotalVotes(session.getId()));
+            assertEquals(voter, manager.getCurrentVoter(session.getId()));
+            assertEquals(1, manager.recordVote(session.getId(), voter.getId(), candidateId).getVotesCast());
+            assertEquals(1, manager.getLiveStandings(session.getId()).get(candidateId));
+            Parent next = manager.getCurrentVoter(session.getId());
+            assertNotNull(next);
+            assertNotEquals(voter, next);
+        }
+
+        @Test
+        @DisplayName("Should reset one session without touching the others")
+        void shouldResetOneSession() throws SQLException {
+            // Given
+            VotingSession first = openClass("5a", 3);
+            VotingSession second = openClass("5b", 3);
+
+            // When
+            manager.resetSession(first.getId());
+
+            // Then
+            assertEquals(List.of(second.getId()),
+                manager.getActiveSessions().stream().map(VotingSession::getId).toList());
+            assertThrows(IllegalStateException.class, () -> manager.getSession(first.getId()));
+            assertEquals(3, manager.getProgress(second.getId()).getTotalParents());
+        }
+    }
+
+    @Nested
+    @DisplayName("Concurrent Voting")
+    class ConcurrentVoting {
+
+        @Test
+        @DisplayName("Should vote in several sessions at once with independent results")
+        void shouldVoteConcurrently() throws Exception {
+            // Given
+            int sessionCount = 4;
+            int rosterSize = 12;
+            List<VotingSession> opened = new ArrayList<>();
+            for (int i = 0; i < sessionCount; i++) {
+                VotingSession session = openClass("6" + (char) ('a' + i), rosterSize);
+                manager.startVoting(session.getId());
+                opened.add(session);
+            }
+            List<VoteCast> events = new CopyOnWriteArrayList<>();
+            manager.getEventBus().subscribe(VoteCast.class, events::add);
+
+            // When every session votes its whole roster from its own thread
+            ExecutorService stations = Executors.newFixedThreadPool(sessionCount);
+            try {
+                List<Future<?>> results = new ArrayList<>();
+                for (VotingSession session : opened) {
+                    int sessionId = session.getId();
+                    List<Integer> candidates = candidateIds(sessionId);
+                    results.add(stations.submit(() -> {
+                        Parent voter = manager.getCurrentVoter(sessionId);
+                        for (int vote = 0; voter != null; vote++, voter = manager.getCurrentVoter(sessionId)) {
+                            manager.recordVote(sessionId, voter.getId(), candidates.get(vote % 2));
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> result : results) {
+                    result.get();
+                }
+            } finally {
+                stations.shutdown();
+            }
+
+            // Then
+            assertEquals(sessionCount * rosterSize, events.size());
+            for (VotingSession session : opened) {
+                int sessionId = session.getId();
+                List<Integer> candidates = candidateIds(sessionId);
+                assertEquals(new SessionProgress(sessionId, rosterSize, rosterSize, rosterSize),
+                    manager.getProgress(sessionId));
+                assertEquals(Map.of(candidates.get(0), rosterSize / 2, candidates.get(1), rosterSize / 2),
+                    manager.getLiveStandings(sessionId));
+                assertTrue(manager.reconcileLiveTally(sessionId));
+                assertEquals(rosterSize, events.stream().filter(e -> e.getSessionId() == sessionId).count());
+            }
+        }
+
+        @Test
+        @DisplayName("Should restore every voting session when the application restarts")
+        void shouldRestoreVotingSessions() throws SQLException {
+            // Given
+            VotingSession first = openClass("7a", 3);
+            VotingSession second = openClass("7b", 3);
+            manager.startVoting(first.getId());
+            manager.startVoting(second.getId());
+            manager.recordVote(first.getId(), manager.getCurrentVoter(first.getId()).getId(),
+                candidateIds(first.getId()).get(1));
+
+            // When
+            SessionManager restarted = newManager();
+
+            // Then
+            assertEquals(2, restarted.getActiveSessions().size());
+            assertEquals(second.getId(), restarted.getCurrentSession().getId());
+            assertEquals(1, restarted.getProgress(first.getId()).getVotesCast());
+            assertEquals(1, restarted.getLiveStandings(first.getId()).get(candidateIds(first.getId()).get(1)));
+            assertEquals(manager.getCurrentVoter(second.getId()), restarted.getCurrentVoter(second.getId()));
+        }
+    }
+
+    @Nested
+    @DisplayName("Several Stations")
+    class SeveralStations {
+
+        @Test
+        @DisplayName("Should never hand the same parent to two stations")
+        void shouldHandOutDistinctVoters() throws Exception {
+            // Given a roster shared by three stations, each with its own connection pool
+            int rosterSize = 15;
+            VotingSession session = openClass("8a", rosterSize);
+            manager.startVoting(session.getId());
+            List<Integer> candidates = candidateIds(session.getId());
+
+            List<SessionManager> stations = new ArrayList<>(List.of(manager));
+            List<DatabaseManager> databases = new ArrayList<>();
+            for (int i = 2; i <= 3; i++) {
+                DatabaseManager database = TestDatabase.open(tempDir.resolve("sessions.db"));
+                databases.add(database);
+                stations.add(newStation(database, "station-" + i));
+            }
+
+            // When every station votes until nobody is left to claim
+            List<Integer> votedIds = new CopyOnWriteArrayList<>();
+            ExecutorService booths = Executors.newFixedThreadPool(stations.size());
+            try {
+                List<Future<?>> results = new ArrayList<>();
+                for (SessionManager station : stations) {
+                    results.add(booths.submit(() -> {
+                        for (Parent voter = station.getNextVoter(session.getId()); voter != null;
+                             voter = station.getCurrentVoter(session.getId())) {
+                            station.recordVote(session.getId(), voter.getId(), candidates.get(0));
+                            votedIds.add(voter.getId());
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> result : results) {
+                    result.get();
+                }
+            } finally {
+                booths.shutdown();
+                stations.forEach(SessionManager::shutdown);
+                databases.forEach(DatabaseManager::closeConnection);
+            }
+
+            // Then
+            Set<Integer> distinct = new HashSet<>(votedIds);
+            assertEquals(rosterSize, votedIds.size());
+            assertEquals(rosterSize, distinct.size());
+            assertEquals(rosterSize, new VoteDAO(db).getTotalVotes(session.getId()));
+        }
+
+        @Test
+        @DisplayName("Should give a skipped station's voter back only after release")
+        void shouldReleaseOnSkip() throws SQLException {
+            // Given
+            VotingSession session = openClass("8b", 3);
+            manager.startVoting(session.getId());
+            SessionManager other = newStation(db, "station-2");
+            Parent first = manager.getCurrentVoter(session.getId());
+
+            // When
+            Parent secondStationVoter = other.getNextVoter(session.getId());
+            manager.skipVoter(session.getId(), first.getId());
+
+            // Then
+            assertNotEquals(first, secondStationVoter);
+            assertNotEquals(first, manager.getCurrentVoter(session.getId()));
+            assertNotEquals(secondStationVoter, manager.getCurrentVoter(session.getId()));
+            assertTrue(manager.getSession(session.getId()).isVoting());
+        }
+
+        @Test
+        @DisplayName("Should refuse a ballot confirmed for a voter whose claim lapsed meanwhile")
+        void shouldRefuseBallotAfterLapsedClaim() throws Exception {
+            // Given a booth showing its voter while the confirm dialog is open
+            VotingSession session = openClass("8c", 4);
+            manager.startVoting(session.getId());
+            SessionManager booth = newStation(db, "station-2", Duration.ofMillis(300));
+            Parent shown = booth.getCurrentVoter(session.getId());
+            CountDownLatch lapsed = new CountDownLatch(1);
+            booth.getEventBus().subscribe(VoterClaimLapsed.class, event -> lapsed.countDown());
+
+            // When the claim lapses and another station calls the same parent
+            VoterClaimDAO claimDAO = new VoterClaimDAO(db);
+            claimDAO.releaseClaim(shown.getId(), "station-2");
+            assertEquals(shown, claimDAO.claimNextVoter(session.getId(), "station-3", Duration.ofMinutes(1))
+                .orElseThrow());
+            assertTrue(lapsed.await(5, TimeUnit.SECONDS), "Booth did not notice the lapsed claim");
+
+            // Then the booth neither records the ballot nor calls a voter on its own
+            assertNull(booth.getCurrentVoter(session.getId()));
+            int candidateId = candidateIds(session.getId()).get(0);
+            assertThrows(IllegalStateException.class,
+                () -> booth.recordVote(session.getId(), shown.getId(), candidateId));
+            assertEquals(0, new VoteDAO(db).getTotalVotes(session.getId()));
+
+            Parent next = booth.getNextVoter(session.getId());
+            assertNotEquals(shown, next);
+            assertThrows(IllegalStateException.class,
+                () -> booth.recordVote(session.getId(), shown.getId(), candidateId));
+            assertEquals(1, booth.recordVote(session.getId(), next.getId(), candidateId).getVotesCast());
+        }
+
+        @Test
+        @DisplayName("Should refuse another station's ballot once the session is completed")
+        void shouldRefuseBallotAfterCompletion() throws SQLException {
+            // Given another station with a voter in its booth
+            VotingSession session = openClass("8e", 4);
+            manager.startVoting(session.getId());
+            SessionManager other = newStation(db, "station-2");
+            Parent waiting = other.getCurrentVoter(session.getId());
+
+            // When
+            manager.completeSession(session.getId());
+
+            // Then
+            int candidateId = candidateIds(session.getId()).get(0);
+            assertThrows(IllegalStateException.class,
+                () -> other.recordVote(session.getId(), waiting.getId(), candidateId));
+            assertThrows(SQLException.class,
+                () -> new VoteDAO(db).castVote(session.getId(), waiting.getId(), candidateId));
+            assertEquals(0, new VoteDAO(db).getTotalVotes(session.getId()));
+            assertTrue(new SessionResultsDAO(db).verifyResults(session.getId()));
+        }
+
+        @Test
+        @DisplayName("Should not skip a voter whose claim lapsed and who was called elsewhere")
+        void shouldNotSkipAfterLapsedClaim() throws Exception {
+            // Given
+            VotingSession session = openClass("8d", 4);
+            manager.startVoting(session.getId());
+            Parent shown = manager.getCurrentVoter(session.getId());
+
+            // When the claim lapses and another station calls the same parent
+            VoterClaimDAO claimDAO = new VoterClaimDAO(db);
+            claimDAO.releaseClaim(shown.getId(), "station-1");
+            SessionManager other = newStation(db, "station-2");
+
+            // Then the skip is refused and the other station can still take the vote
+            assertEquals(shown, other.getCurrentVoter(session.getId()));
+            assertThrows(IllegalStateException.class, () -> manager.skipVoter(session.getId(), shown.getId()));
+            assertNull(manager.getCurrentVoter(session.getId()));
+            assertFalse(new ParentDAO(db).getParentById(shown.getId()).orElseThrow().hasVoted());
+            int candidateId = candidateIds(session.getId()).get(0);
+            assertEquals(1, other.recordVote(session.getId(), shown.getId(), candidateId).getVotesCast());
+        }
+    }
+}
@@ -0,0 +1,291 @@
+// ABOUTME: Unit tests for the background task runtime and the Worker state of its tasks
+// ABOUTME: Tests progress reporting, per-kind limits, cancellation and failures without a JavaFX toolkit
+
+package com.school.voting.util;
+
+import javafx.concurrent.Worker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskRuntimeTest {
+
+    // Stands in for the JavaFX thread: updates queue up until the test applies them
+    private static final class UiQueue implements Executor {
+        private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public void execute(Runnable update) {
+            pending.add(update);
+        }
+
+        void drain() {
+            for (Runnable update = pending.poll(); update != null; update = pending.poll()) {
+                update.run();
+            }
+        }
+    }
+
+    private final UiQueue ui = new UiQueue();
+    private final TaskRuntime runtime = new TaskRuntime(Executors.newVirtualThreadPerTaskExecutor(), ui);
+
+    @AfterEach
+    void tearDown() {
+        runtime.shutdown();
+    }
+
+    private static void await(CountDownLatch latch) throws InterruptedException {
+        assertTrue(latch.await(5, TimeUnit.SECONDS), "Timed out waiting for the task");
+    }
+
+    @Nested
+    @DisplayName("Running Tasks")
+    class RunningTasks {
+
+        @Test
+        @DisplayName("Should run on a virtual thread and report its value, progress and message")
+        void shouldCompleteWithValue() {
+            // When
+            BackgroundTask<Boolean> task = runtime.submit(TaskKind.EXPORT, "Export 6c", context -> {
+                context.updateProgress(3, 4);
+                context.updateMessage("Writing results table");
+                return Thread.currentThread().isVirtual();
+            });
+
+            // Then
+            assertTrue(task.completion().join());
+            ui.drain();
+            assertEquals(Worker.State.SUCCEEDED, task.getState());
+            assertTrue(task.getValue());
+            assertEquals(1.0, task.getProgress());
+            assertEquals(4.0, task.getWorkDone());
+            assertEquals("Writing results table", task.getMessage());
+            assertFalse(task.isRunning());
+            assertEquals(1, runtime.getTasks().size());
+        }
+
+        @Test
+        @DisplayName("Should show a running task's latest progress")
+        void shouldBridgeProgress() throws Exception {
+            // Given
+            CountDownLatch reported = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            BackgroundTask<Void> task = runtime.submit(TaskKind.IMPORT, "Import roster", context -> {
+                for (int row = 1; row <= 50; row++) {
+                    context.updateProgress(row, 200);
+                }
+                reported.countDown();
+                release.await();
+                return null;
+            });
+
+            // When
+            await(reported);
+            ui.drain();
+
+            // Then
+            assertEquals(Worker.State.RUNNING, task.getState());
+            assertTrue(task.isRunning());
+            assertEquals(0.25, task.getProgress());
+            release.countDown();
+            task.completion().join();
+        }
+
+        @Test
+        @DisplayName("Should fail with the exception the job threw")
+        void shouldReportFailure() {
+            // When
+            BackgroundTask<Void> task = runtime.submit(TaskKind.BACKUP, "Back up database", context -> {
+                throw new IOException("disk full");
+            });
+
+            // Then
+            CompletionException failure = assertThrows(CompletionException.class, () -> task.completion().join());
+            assertInstanceOf(IOException.class, failure.getCause());
+            ui.drain();
+            assertEquals(Worker.State.FAILED, task.getState());
+            assertEquals("disk full", task.getException().getMessage());
+        }
+    }
+
+    @Nested
+    @DisplayName("Concurrency Limits")
+    class ConcurrencyLimits {
+
+        @Test
+        @DisplayName("Should never run more tasks of a kind than its limit")
+        void shouldEnforceLimitPerKind() throws Exception {
+            // Given
+            int limit = TaskKind.EXPORT.getLimit();
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger peak = new AtomicInteger();
+            CountDownLatch release = new CountDownLatch(1);
+            TaskRuntime.TaskBody<Void> export = context -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    release.await();
+                } finally {
+                    running.decrementAndGet();
+                }
+                return null;
+            };
+
+            // When
+            BackgroundTask<?>[] tasks = new BackgroundTask<?>[limit + 3];
+            for (int i = 0; i < tasks.length; i++) {
+                tasks[i] = runtime.submit(TaskKind.EXPORT, "Export " + i, export);
+            }
+            Thread.sleep(200);
+            int runningBeforeRelease = running.get();
+            release.countDown();
+            for (BackgroundTask<?> task : tasks) {
+                task.completion().join();
+            }
+
+            // Then
+            assertEquals(limit, runningBeforeRelease);
+            assertEquals(limit, peak.get());
+        }
+
+        @Test
+        @DisplayName("Should run a different kind while one kind is at its limit")
+        void shouldRunOtherKindsAlongside() throws Exception {
+            // Given every import slot is taken
+            CountDownLatch release = new CountDownLatch(1);
+            for (int i = 0; i < TaskKind.IMPORT.getLimit(); i++) {
+                runtime.submit(TaskKind.IMPORT, "Import " + i, context -> release.await(5, TimeUnit.SECONDS));
+            }
+
+            // When
+            BackgroundTask<String> recount = runtime.submit(TaskKind.RECOUNT, "Recount", context -> "done");
+
+            // Then
+            assertEquals("done", recount.completion().get(5, TimeUnit.SECONDS));
+            release.countDown();
+        }
+    }
+
+    @Nested
+    @DisplayName("Cancellation")
+    class Cancellation {
+
+        @Test
+        @DisplayName("Should interrupt a running task and mark it cancelled")
+        void shouldCancelRunningTask() throws Exception {
+            // Given
+            CountDownLatch started = new CountDownLatch(1);
+            BackgroundTask<Void> task = runtime.submit(TaskKind.RECOUNT, "Recount", context -> {
+                started.countDown();
+                new CountDownLatch(1).await();
+                return null;
+            });
+            await(started);
+
+            // When
+            assertTrue(task.cancel());
+
+            // Then
+            assertInstanceOf(CancellationException.class,
+                assertThrows(CompletionException.class, () -> task.completion().join()).getCause());
+            ui.drain();
+            assertEquals(Worker.State.CANCELLED, task.getState());
+            assertFalse(task.cancel());
+        }
+
+        @Test
+        @DisplayName("Should cancel a task still waiting for a slot without running it")
+        void shouldCancelQueuedTask() throws Exception {
+            // Given the only backup slot is taken
+            CountDownLatch release = new CountDownLatch(1);
+            BackgroundTask<Void> first = runtime.submit(TaskKind.BACKUP, "Backup 1", context -> {
+                release.await();
+                return null;
+            });
+            AtomicInteger runs = new AtomicInteger();
+            BackgroundTask<Void> queued = runtime.submit(TaskKind.BACKUP, "Backup 2", context -> {
+                runs.incrementAndGet();
+                return null;
+            });
+
+            // When
+            queued.cancel();
+            release.countDown();
+            first.completion().join();
+
+            // Then
+            assertInstanceOf(CancellationException.class,
+                assertThrows(CompletionException.class, () -> queued.completion().join()).getCause());
+            assertEquals(0, runs.get());
+            BackgroundTask<String> next = runtime.submit(TaskKind.BACKUP, "Backup 3", context -> "ran");
+            assertEquals("ran", next.completion().get(5, TimeUnit.SECONDS));
+        }
+
+        @Test
+        @DisplayName("Should stop a job that checks for cancellation between steps")
+        void shouldStopCooperativeJob() throws Exception {
+            // Given
+            CountDownLatch started = new CountDownLatch(1);
+            AtomicInteger steps = new AtomicInteger();
+            BackgroundTask<Void> task = runtime.submit(TaskKind.EXPORT, "Export", context -> {
+                started.countDown();
+                while (true) {
+                    context.checkCancelled();
+                    steps.incrementAndGet();
+                    Thread.onSpinWait();
+                }
+            });
+            await(started);
+
+            // When
+            task.cancel();
+
+            // Then
+            assertInstanceOf(CancellationException.class,
+                assertThrows(CompletionException.class, () -> task.completion().join()).getCause());
+            int stepsAfterCancel = steps.get();
+            Thread.sleep(50);
+            assertEquals(stepsAfterCancel, steps.get());
+        }
+    }
+
+    @Nested
+    @DisplayName("Task List")
+    class TaskList {
+
+        @Test
+        @DisplayName("Should list tasks newest first and clear only finished ones")
+        void shouldClearFinished() throws Exception {
+            // Given
+            CountDownLatch release = new CountDownLatch(1);
+            BackgroundTask<String> done = runtime.submit(TaskKind.RECOUNT, "Recount", context -> "ok");
+            BackgroundTask<Void> running = runtime.submit(TaskKind.IMPORT, "Import", context -> {
+                release.await();
+                return null;
+            });
+            done.completion().join();
+            ui.drain();
+
+            // When
+            runtime.clearFinished();
+
+            // Then
+            assertEquals(1, runtime.getTasks().size());
+            assertSame(running, runtime.getTasks().get(0));
+            release.countDown();
+        }
+    }
+}